@@ -5,6 +5,7 @@ plugins {
     id("org.beryx.runtime") version "1.12.7"
     kotlin("jvm") version "1.6.0"
     kotlin("plugin.serialization") version "1.6.0"
+    id("me.champeau.jmh") version "0.6.6"
     application
 }
 
@@ -57,6 +58,27 @@ sourceSets {
     }
 }
 
+jmh {
+    jmhVersion.set("1.35")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
+
+/**
+ * Replaces the synthetic corpus of models used by the benchmarks (see ModelCorpus)
+ * by models exported from the local OSRS cache (see ModelCorpusExporter).
+ * Cache models are not redistributed, so the exported fixtures should not be committed.
+ */
+tasks.register<JavaExec>("exportBenchmarkCorpus") {
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("stan.qodat.benchmark.ModelCorpusExporter")
+    args(file("src/jmh/resources/stan/qodat/benchmark/models").absolutePath)
+}
+
 application {
     mainClass.set("stan.qodat.Launcher")
     applicationName = "Qodat"
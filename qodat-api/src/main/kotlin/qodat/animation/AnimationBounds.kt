@@ -0,0 +1,52 @@
+package qodat.animation
+
+import qodat.cache.definition.ModelDefinition
+
+/**
+ * The [bounds][PoseBounds] of every frame of an [AnimationSequence] applied to one or more models.
+ *
+ * @param frameBounds   for each frame, the bounds of all models in the pose of that frame.
+ * @param union         the bounds enclosing every frame.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationBounds(
+    private val frameBounds: Array<PoseBounds>,
+    val union: PoseBounds
+) {
+
+    val frameCount: Int
+        get() = frameBounds.size
+
+    fun getFrameBounds(frameIndex: Int) = frameBounds[frameIndex]
+
+    companion object {
+
+        /**
+         * Evaluates every frame of the [sequence] for each of the [definitions]
+         * and computes the bounds per frame and their union.
+         *
+         * This creates its own [AnimationEvaluator]s, so it is safe to call from multiple threads
+         * as long as the [definitions] are not modified.
+         */
+        fun compute(definitions: List<ModelDefinition>, sequence: AnimationSequence) : AnimationBounds {
+            val evaluators = definitions.map { AnimationEvaluator(it) }
+            var union = PoseBounds.EMPTY
+            val frameBounds = Array(sequence.frameCount) { frameIndex ->
+                var bounds = PoseBounds.EMPTY
+                for (evaluator in evaluators) {
+                    val deformer = evaluator.evaluateFrame(sequence, frameIndex)
+                    bounds = bounds.union(PoseBounds.of(
+                        deformer.positionsX,
+                        deformer.positionsY,
+                        deformer.positionsZ
+                    ))
+                }
+                union = union.union(bounds)
+                bounds
+            }
+            return AnimationBounds(frameBounds, union)
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package qodat.animation
+
+/**
+ * Provides the time used to determine which frame of an animation is shown.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+interface AnimationClock {
+
+    /**
+     * @return the elapsed time in milliseconds, only differences between calls are meaningful.
+     */
+    fun currentTimeMillis() : Long
+}
+
+/**
+ * An [AnimationClock] following the system's monotonic clock.
+ */
+class SystemAnimationClock : AnimationClock {
+
+    private val startNanos = System.nanoTime()
+
+    override fun currentTimeMillis() = (System.nanoTime() - startNanos) / 1_000_000L
+}
+
+/**
+ * An [AnimationClock] that only moves when told to,
+ * used to step through animations deterministically (e.g. when exporting).
+ */
+class ManualAnimationClock(private var timeMillis: Long = 0L) : AnimationClock {
+
+    override fun currentTimeMillis() = timeMillis
+
+    fun set(timeMillis: Long) {
+        this.timeMillis = timeMillis
+    }
+
+    fun advance(deltaMillis: Long) {
+        timeMillis += deltaMillis
+    }
+}
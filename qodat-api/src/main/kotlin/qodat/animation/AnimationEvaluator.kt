@@ -0,0 +1,69 @@
+package qodat.animation
+
+import qodat.cache.definition.ModelDefinition
+
+/**
+ * Evaluates the pose of a model at a point in time of an [AnimationSequence].
+ *
+ * This has no dependency on JavaFX, so it can be used to compute poses on a machine without a display.
+ * The returned [positions][VertexDeformer.positionsX] are owned by this evaluator and
+ * are overwritten by the next evaluation, so copy them if they have to outlive it.
+ *
+ * Instances are not thread-safe, use one evaluator per thread.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationEvaluator(definition: ModelDefinition) {
+
+    val deformer = VertexDeformer(definition)
+
+    /**
+     * Deforms the model into the pose of the frame shown at [timeMillis] in the [sequence].
+     */
+    fun evaluate(sequence: AnimationSequence, timeMillis: Long) : VertexDeformer {
+        val frameIndex = sequence.getFrameIndex(timeMillis)
+        if (frameIndex == -1)
+            deformer.reset()
+        else
+            deformer.apply(sequence.getFrame(frameIndex))
+        return deformer
+    }
+
+    /**
+     * Deforms the model into the pose of the frame at [frameIndex] in the [sequence].
+     */
+    fun evaluateFrame(sequence: AnimationSequence, frameIndex: Int) : VertexDeformer {
+        deformer.apply(sequence.getFrame(frameIndex))
+        return deformer
+    }
+}
+
+/**
+ * Plays an [AnimationSequence] on an [AnimationEvaluator] following an [AnimationClock].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationPlayback(
+    private val evaluator: AnimationEvaluator,
+    private val clock: AnimationClock,
+    private val sequence: AnimationSequence
+) {
+
+    private var startTimeMillis = clock.currentTimeMillis()
+
+    fun restart() {
+        startTimeMillis = clock.currentTimeMillis()
+    }
+
+    /**
+     * @return the index of the frame that should be shown at the current time of the [clock].
+     */
+    fun getFrameIndex() = sequence.getFrameIndex(clock.currentTimeMillis() - startTimeMillis)
+
+    /**
+     * Deforms the model into the pose for the current time of the [clock].
+     */
+    fun update() = evaluator.evaluate(sequence, clock.currentTimeMillis() - startTimeMillis)
+}
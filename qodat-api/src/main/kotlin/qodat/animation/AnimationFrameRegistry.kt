@@ -0,0 +1,120 @@
+package qodat.animation
+
+import qodat.cache.Cache
+import qodat.cache.definition.AnimationDefinition
+import qodat.cache.definition.AnimationFrameDefinition
+import qodat.cache.definition.AnimationTransformationGroup
+import java.lang.ref.WeakReference
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Interns the skeletons (frame maps) and immutable frame data loaded from a [cache],
+ * such that every animation (and every copy of it) referencing a frame hash shares the same instances.
+ *
+ * Frames are stored without a duration (which is specified per animation),
+ * see [getKeyFrame] to obtain a frame with a duration.
+ *
+ * Registries are only weakly bound to their cache, so the registry of a cache that is no longer used
+ * (e.g. after switching caches) is garbage collected along with the cache.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationFrameRegistry private constructor(cache: Cache) {
+
+    private val cacheReference = WeakReference(cache)
+    private val cache: Cache
+        get() = checkNotNull(cacheReference.get()) { "The cache of this registry was garbage collected" }
+
+    private val frameDefinitions = ConcurrentHashMap<Int, AnimationFrameDefinition>()
+    private val skeletons = ConcurrentHashMap<Int, AnimationTransformationGroup>()
+    private val keyFrames = ConcurrentHashMap<Int, AnimationKeyFrame>()
+    private val skeletonViews = ConcurrentHashMap<Class<*>, ConcurrentHashMap<Int, Any>>()
+
+    /**
+     * Get the frame definition of the [frameHash],
+     * its [transformation group][AnimationFrameDefinition.transformationGroup] is the interned skeleton.
+     *
+     * @throws IllegalStateException if the frame could not be found in the [cache].
+     */
+    fun getFrameDefinition(frameHash: Int) : AnimationFrameDefinition =
+        frameDefinitions.computeIfAbsent(frameHash) {
+            val cache = cache
+            // cache implementations are not required to be thread-safe
+            val definition = checkNotNull(synchronized(cache) { cache.getFrameDefinition(frameHash) }) {
+                "Could not find frame $frameHash in cache ${cache.name}"
+            }
+            val skeleton = internSkeleton(definition.transformationGroup)
+            if (skeleton === definition.transformationGroup)
+                definition
+            else
+                InternedFrameDefinition(definition, skeleton)
+        }
+
+    /**
+     * Get the skeleton (frame map) targeted by the frame with the specified [frameHash].
+     */
+    fun getSkeleton(frameHash: Int) : AnimationTransformationGroup =
+        getFrameDefinition(frameHash).transformationGroup
+
+    /**
+     * Get all distinct skeletons targeted by the frames of the [definition].
+     */
+    fun getSkeletons(definition: AnimationDefinition) : List<AnimationTransformationGroup> =
+        definition.frameHashes.map(::getSkeleton).distinct()
+
+    /**
+     * Get the view of the [skeleton] of the specified [type] (e.g. a UI node of the skeleton),
+     * creating it with [create] the first time, so that all animations of this registry's cache share it.
+     * The views are released along with this registry.
+     */
+    fun <T : Any> getSkeletonView(type: Class<T>, skeleton: AnimationTransformationGroup, create: (AnimationTransformationGroup) -> T) : T =
+        type.cast(skeletonViews
+            .computeIfAbsent(type) { ConcurrentHashMap() }
+            .computeIfAbsent(skeleton.id) { create(internSkeleton(skeleton)) })
+
+    /**
+     * Get the view of the [skeleton] of type [T], see [getSkeletonView].
+     */
+    inline fun <reified T : Any> getSkeletonView(skeleton: AnimationTransformationGroup, noinline create: (AnimationTransformationGroup) -> T) : T =
+        getSkeletonView(T::class.java, skeleton, create)
+
+    /**
+     * Get the frame data of the [frameHash] with the specified [duration] (in client ticks),
+     * the arrays of the returned frame are shared by all frames with the same hash.
+     */
+    fun getKeyFrame(frameHash: Int, duration: Int) : AnimationKeyFrame =
+        keyFrames.computeIfAbsent(frameHash) {
+            AnimationKeyFrame.create(getFrameDefinition(frameHash), 0)
+        }.withDuration(duration)
+
+    /**
+     * Creates an [AnimationSequence] of the frames in the [definition], backed by the interned frame data.
+     */
+    fun getSequence(definition: AnimationDefinition) = AnimationSequence(
+        frames = definition.frameHashes.mapIndexed { index, frameHash ->
+            getKeyFrame(frameHash, definition.frameLengths[index])
+        },
+        loopOffset = definition.loopOffset
+    )
+
+    private fun internSkeleton(skeleton: AnimationTransformationGroup) =
+        skeletons.putIfAbsent(skeleton.id, skeleton) ?: skeleton
+
+    private class InternedFrameDefinition(
+        definition: AnimationFrameDefinition,
+        override val transformationGroup: AnimationTransformationGroup
+    ) : AnimationFrameDefinition by definition
+
+    companion object {
+
+        private val registries = WeakHashMap<Cache, AnimationFrameRegistry>()
+
+        /**
+         * Get the registry of the specified [cache].
+         */
+        fun of(cache: Cache) : AnimationFrameRegistry =
+            synchronized(registries) { registries.getOrPut(cache) { AnimationFrameRegistry(cache) } }
+    }
+}
@@ -0,0 +1,76 @@
+package qodat.animation
+
+import qodat.cache.definition.AnimationFrameDefinition
+
+/**
+ * An immutable frame of an animation, holding everything needed to deform a model
+ * without going through any observable (JavaFX) state.
+ *
+ * The arrays may be shared with the definition this frame was created from,
+ * and must therefore never be modified.
+ *
+ * @param duration              the length of this frame in client ticks (see [AnimationSequence.TICK_MILLIS]).
+ * @param skeletonId            the id of the skeleton (frame map) the transformations target.
+ * @param transformGroupIndices for each transformation, the index of the transformation group in the skeleton.
+ * @param transformTypes        for each transformation, the type (see [SET_OFFSET], [TRANSLATE], [ROTATE], [SCALE]).
+ * @param targetVertexGroups    for each transformation, the vertex groups it is applied to.
+ * @param deltaX                for each transformation, the x component.
+ * @param deltaY                for each transformation, the y component.
+ * @param deltaZ                for each transformation, the z component.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationKeyFrame(
+    val duration: Int,
+    val skeletonId: Int,
+    val transformGroupIndices: IntArray,
+    val transformTypes: IntArray,
+    val targetVertexGroups: Array<IntArray>,
+    val deltaX: IntArray,
+    val deltaY: IntArray,
+    val deltaZ: IntArray
+) {
+
+    val transformationCount: Int
+        get() = transformTypes.size
+
+    /**
+     * @return a frame sharing the transformations of this frame with the specified [duration].
+     */
+    fun withDuration(duration: Int) =
+        if (duration == this.duration)
+            this
+        else
+            AnimationKeyFrame(duration, skeletonId, transformGroupIndices, transformTypes, targetVertexGroups, deltaX, deltaY, deltaZ)
+
+    companion object {
+
+        const val SET_OFFSET = 0
+        const val TRANSLATE = 1
+        const val ROTATE = 2
+        const val SCALE = 3
+        const val TRANSPARENCY = 4
+
+        /**
+         * Create a new [AnimationKeyFrame] from the specified [definition].
+         *
+         * @param duration the length of the frame in client ticks.
+         */
+        fun create(definition: AnimationFrameDefinition, duration: Int) : AnimationKeyFrame {
+            val skeleton = definition.transformationGroup
+            val count = definition.transformationCount
+            val groupIndices = definition.transformationGroupAccessIndices.copyOf(count)
+            return AnimationKeyFrame(
+                duration = duration,
+                skeletonId = skeleton.id,
+                transformGroupIndices = groupIndices,
+                transformTypes = IntArray(count) { skeleton.transformationTypes[groupIndices[it]] },
+                targetVertexGroups = Array(count) { skeleton.targetVertexGroupsIndices[groupIndices[it]] },
+                deltaX = definition.transformationDeltaX,
+                deltaY = definition.transformationDeltaY,
+                deltaZ = definition.transformationDeltaZ
+            )
+        }
+    }
+}
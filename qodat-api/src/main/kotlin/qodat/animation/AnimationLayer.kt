@@ -0,0 +1,34 @@
+package qodat.animation
+
+/**
+ * An [AnimationSequence] played as a layer by a [LayeredAnimationEvaluator].
+ *
+ * @param sequence          the frames of this layer, must target the same skeleton as the other layers.
+ * @param mask              the transformation groups this layer controls, or `null` for all groups.
+ *                          The mask of the first (base) layer is ignored, it controls every group not controlled by a later layer.
+ * @param weight            how much this layer moves the pose away from the layers below it, in `0.0..1.0`.
+ * @param startTimeMillis   the time at which playback of this layer starts, before that the layer is not applied.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationLayer(
+    val sequence: AnimationSequence,
+    val mask: AnimationMask? = null,
+    val weight: Float = 1f,
+    val startTimeMillis: Long = 0L
+) {
+
+    init {
+        require(weight in 0f..1f) { "Weight must be in range 0..1 but was $weight" }
+    }
+
+    fun controls(transformGroupIndex: Int) = mask == null || transformGroupIndex in mask
+
+    /**
+     * Get the index of the frame of this layer that is shown at [timeMillis],
+     * or -1 if playback of this layer has not started yet (or the [sequence] has no frames).
+     */
+    fun getFrameIndex(timeMillis: Long) =
+        if (timeMillis < startTimeMillis) -1 else sequence.getFrameIndex(timeMillis - startTimeMillis)
+}
@@ -0,0 +1,73 @@
+package qodat.animation
+
+import qodat.cache.definition.AnimationTransformationGroup
+
+/**
+ * Selects the transformation groups (indices into the frame map of a skeleton)
+ * that an [AnimationLayer] controls.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationMask(private val transformGroups: BooleanArray) {
+
+    operator fun contains(transformGroupIndex: Int) =
+        transformGroupIndex < transformGroups.size && transformGroups[transformGroupIndex]
+
+    companion object {
+
+        /**
+         * Create a mask containing the transformation groups at the specified [transformGroupIndices].
+         */
+        fun ofTransformGroups(vararg transformGroupIndices: Int) : AnimationMask {
+            val groups = BooleanArray((transformGroupIndices.maxOrNull() ?: -1) + 1)
+            for (index in transformGroupIndices)
+                groups[index] = true
+            return AnimationMask(groups)
+        }
+
+        /**
+         * Create a mask containing every transformation group of the [skeleton]
+         * that only targets vertex groups in [vertexGroups],
+         * e.g. pass the vertex groups of the arms and torso for an upper-body mask.
+         */
+        fun ofVertexGroups(skeleton: AnimationTransformationGroup, vertexGroups: IntArray) : AnimationMask {
+            val targets = skeleton.targetVertexGroupsIndices
+            return AnimationMask(BooleanArray(targets.size) { group ->
+                targets[group].isNotEmpty() && targets[group].all { it in vertexGroups }
+            })
+        }
+
+        /**
+         * Create a mask containing every transformation group that is moved by a frame of the [sequence],
+         * i.e. translated or rotated by a non-zero delta, or scaled by a non-identity factor.
+         *
+         * This is a reasonable default for a layer that only animates part of the skeleton,
+         * such as an attack animation that mostly moves the arms.
+         */
+        fun ofAnimatedGroups(sequence: AnimationSequence) : AnimationMask {
+            var groupCount = 0
+            for (frame in sequence.frames) {
+                for (groupIndex in frame.transformGroupIndices)
+                    groupCount = maxOf(groupCount, groupIndex + 1)
+            }
+            val groups = BooleanArray(groupCount)
+            for (frame in sequence.frames) {
+                for (transformation in 0 until frame.transformationCount) {
+                    val dx = frame.deltaX[transformation]
+                    val dy = frame.deltaY[transformation]
+                    val dz = frame.deltaZ[transformation]
+                    val moves = when (frame.transformTypes[transformation]) {
+                        AnimationKeyFrame.TRANSLATE,
+                        AnimationKeyFrame.ROTATE -> dx != 0 || dy != 0 || dz != 0
+                        AnimationKeyFrame.SCALE -> dx != 128 || dy != 128 || dz != 128
+                        else -> false
+                    }
+                    if (moves)
+                        groups[frame.transformGroupIndices[transformation]] = true
+                }
+            }
+            return AnimationMask(groups)
+        }
+    }
+}
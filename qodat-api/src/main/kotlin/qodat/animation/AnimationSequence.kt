@@ -0,0 +1,94 @@
+package qodat.animation
+
+import qodat.cache.Cache
+import qodat.cache.definition.AnimationDefinition
+
+/**
+ * An immutable sequence of [frames][AnimationKeyFrame].
+ *
+ * @param frames        the frames in order of playback.
+ * @param loopOffset    the index of the frame to restart from after the last frame, or -1 to restart from the first.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class AnimationSequence(
+    val frames: List<AnimationKeyFrame>,
+    val loopOffset: Int = -1
+) {
+
+    /**
+     * The time in milliseconds at which each frame starts, the last entry is the total duration.
+     */
+    private val frameStartTimes = LongArray(frames.size + 1)
+
+    init {
+        for ((index, frame) in frames.withIndex())
+            frameStartTimes[index + 1] = frameStartTimes[index] + frame.duration * TICK_MILLIS
+    }
+
+    val frameCount: Int
+        get() = frames.size
+
+    /**
+     * The duration of a single playback of this sequence in milliseconds.
+     */
+    val durationMillis: Long
+        get() = frameStartTimes[frames.size]
+
+    fun getFrame(frameIndex: Int) = frames[frameIndex]
+
+    fun getFrameStartMillis(frameIndex: Int) = frameStartTimes[frameIndex]
+
+    /**
+     * Get the index of the frame that is shown [timeMillis] after the start of playback.
+     *
+     * When the time exceeds the [durationMillis], playback restarts from the [loopOffset].
+     *
+     * @return the frame index, or -1 if this sequence has no frames.
+     */
+    fun getFrameIndex(timeMillis: Long) : Int {
+        if (frames.isEmpty())
+            return -1
+        val duration = durationMillis
+        if (duration <= 0L)
+            return 0
+        var time = timeMillis.coerceAtLeast(0L)
+        if (time >= duration) {
+            val loopStart = if (loopOffset in frames.indices) frameStartTimes[loopOffset] else 0L
+            val loopDuration = duration - loopStart
+            time = if (loopDuration > 0L)
+                loopStart + (time - duration) % loopDuration
+            else
+                duration - 1
+        }
+        // binary search for the last frame starting at or before time
+        var low = 0
+        var high = frames.size - 1
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (frameStartTimes[mid] <= time)
+                low = mid
+            else
+                high = mid - 1
+        }
+        return low
+    }
+
+    companion object {
+
+        /**
+         * The length of a client tick in milliseconds, frame durations are expressed in ticks.
+         */
+        const val TICK_MILLIS = 20L
+
+        /**
+         * Loads the frames of the specified [definition] from the [cache],
+         * the frame data is shared through the [AnimationFrameRegistry] of the [cache].
+         *
+         * @throws IllegalStateException if a frame could not be found in the cache.
+         */
+        fun load(definition: AnimationDefinition, cache: Cache) =
+            AnimationFrameRegistry.of(cache).getSequence(definition)
+    }
+}
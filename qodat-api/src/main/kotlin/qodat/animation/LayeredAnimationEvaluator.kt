@@ -0,0 +1,127 @@
+package qodat.animation
+
+import qodat.cache.definition.ModelDefinition
+import kotlin.math.roundToInt
+
+/**
+ * Evaluates multiple [layers][AnimationLayer] of animations on the same model simultaneously,
+ * for example a walk animation with an upper-body attack animation on top of it.
+ *
+ * Every transformation group of the skeleton is controlled by the last layer whose mask contains it,
+ * the first layer controls every group not controlled by a later layer. Offset transformations
+ * are always applied, because the rotations and scaling of the other transformations depend on them.
+ *
+ * The layers are blended by [weight][AnimationLayer.weight], let `pose(k)` be the pose of layers `0..k`,
+ * then the resulting pose is `pose(0) + sum(weight(k) * (pose(k) - pose(k - 1)))`,
+ * so with all weights at `1.0` the result is the pose of all layers.
+ *
+ * Evaluating does not allocate (besides growing the internal buffers the first time more layers are used),
+ * the result is stored in [positionsX], [positionsY] and [positionsZ].
+ *
+ * Instances are not thread-safe, use one evaluator per thread.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class LayeredAnimationEvaluator(definition: ModelDefinition) {
+
+    private var previous = VertexDeformer(definition)
+    private var current = VertexDeformer(definition)
+
+    val positionsX = IntArray(previous.vertexCount)
+    val positionsY = IntArray(previous.vertexCount)
+    val positionsZ = IntArray(previous.vertexCount)
+
+    /**
+     * For each layer, the index of the frame to show, or -1 if the layer has not started or has no frames.
+     */
+    private var frameIndices = IntArray(4)
+
+    /**
+     * Deforms the model into the pose of the [layers] at [timeMillis].
+     */
+    fun evaluate(layers: List<AnimationLayer>, timeMillis: Long) {
+        val layerCount = layers.size
+        if (layerCount == 0) {
+            previous.reset()
+            copy(previous)
+            return
+        }
+        if (frameIndices.size < layerCount)
+            frameIndices = IntArray(layerCount)
+        for (layerIndex in 0 until layerCount)
+            frameIndices[layerIndex] = layers[layerIndex].getFrameIndex(timeMillis)
+
+        applyStage(previous, layers, 0)
+        copy(previous)
+
+        for (stage in 1 until layerCount) {
+            applyStage(current, layers, stage)
+            blend(previous, current, layers[stage].weight)
+            val swap = previous
+            previous = current
+            current = swap
+        }
+    }
+
+    /**
+     * Applies the frames of the layers `0..stage` to the [deformer],
+     * where each transformation group is only transformed by the layer controlling it.
+     */
+    private fun applyStage(deformer: VertexDeformer, layers: List<AnimationLayer>, stage: Int) {
+        deformer.reset()
+        for (layerIndex in 0..stage) {
+            val frameIndex = frameIndices[layerIndex]
+            if (frameIndex == -1)
+                continue
+            val frame = layers[layerIndex].sequence.getFrame(frameIndex)
+            deformer.resetOffset()
+            for (transformation in 0 until frame.transformationCount) {
+                val type = frame.transformTypes[transformation]
+                if (type == AnimationKeyFrame.SET_OFFSET
+                    || getControllingLayer(layers, stage, frame.transformGroupIndices[transformation]) == layerIndex) {
+                    deformer.transform(
+                        type,
+                        frame.targetVertexGroups[transformation],
+                        frame.deltaX[transformation],
+                        frame.deltaY[transformation],
+                        frame.deltaZ[transformation]
+                    )
+                }
+            }
+        }
+    }
+
+    private fun getControllingLayer(layers: List<AnimationLayer>, stage: Int, transformGroupIndex: Int) : Int {
+        for (layerIndex in stage downTo 1) {
+            if (layers[layerIndex].controls(transformGroupIndex))
+                return layerIndex
+        }
+        return 0
+    }
+
+    private fun copy(deformer: VertexDeformer) {
+        System.arraycopy(deformer.positionsX, 0, positionsX, 0, positionsX.size)
+        System.arraycopy(deformer.positionsY, 0, positionsY, 0, positionsY.size)
+        System.arraycopy(deformer.positionsZ, 0, positionsZ, 0, positionsZ.size)
+    }
+
+    /**
+     * Adds the difference between the [below] and [above] poses, scaled by [weight], to the result.
+     */
+    private fun blend(below: VertexDeformer, above: VertexDeformer, weight: Float) {
+        if (weight <= 0f)
+            return
+        for (vertex in positionsX.indices) {
+            if (weight >= 1f) {
+                positionsX[vertex] += above.positionsX[vertex] - below.positionsX[vertex]
+                positionsY[vertex] += above.positionsY[vertex] - below.positionsY[vertex]
+                positionsZ[vertex] += above.positionsZ[vertex] - below.positionsZ[vertex]
+            } else {
+                positionsX[vertex] += ((above.positionsX[vertex] - below.positionsX[vertex]) * weight).roundToInt()
+                positionsY[vertex] += ((above.positionsY[vertex] - below.positionsY[vertex]) * weight).roundToInt()
+                positionsZ[vertex] += ((above.positionsZ[vertex] - below.positionsZ[vertex]) * weight).roundToInt()
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package qodat.animation
+
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sqrt
+
+/**
+ * An immutable axis-aligned bounding box and bounding sphere of a (deformed) set of vertices.
+ *
+ * The sphere is centered on the box, so it is not the minimal enclosing sphere,
+ * but it is cheap to compute and stable between frames (which is what camera framing wants).
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class PoseBounds(
+    val minX: Int,
+    val minY: Int,
+    val minZ: Int,
+    val maxX: Int,
+    val maxY: Int,
+    val maxZ: Int,
+    val radius: Double
+) {
+
+    val centerX: Double
+        get() = (minX + maxX) / 2.0
+    val centerY: Double
+        get() = (minY + maxY) / 2.0
+    val centerZ: Double
+        get() = (minZ + maxZ) / 2.0
+
+    val width: Int
+        get() = maxX - minX
+    val height: Int
+        get() = maxY - minY
+    val depth: Int
+        get() = maxZ - minZ
+
+    fun isEmpty() = minX > maxX
+
+    /**
+     * @return bounds enclosing both these bounds and the [other] bounds.
+     */
+    fun union(other: PoseBounds) : PoseBounds {
+        if (other.isEmpty())
+            return this
+        if (isEmpty())
+            return other
+        val minX = min(minX, other.minX)
+        val minY = min(minY, other.minY)
+        val minZ = min(minZ, other.minZ)
+        val maxX = max(maxX, other.maxX)
+        val maxY = max(maxY, other.maxY)
+        val maxZ = max(maxZ, other.maxZ)
+        // the new center is the center of the new box, grow the radius so both spheres fit
+        val centerX = (minX + maxX) / 2.0
+        val centerY = (minY + maxY) / 2.0
+        val centerZ = (minZ + maxZ) / 2.0
+        return PoseBounds(
+            minX, minY, minZ, maxX, maxY, maxZ,
+            radius = max(
+                distance(centerX, centerY, centerZ, this.centerX, this.centerY, this.centerZ) + radius,
+                distance(centerX, centerY, centerZ, other.centerX, other.centerY, other.centerZ) + other.radius
+            )
+        )
+    }
+
+    override fun toString() =
+        "PoseBounds(min=($minX, $minY, $minZ), max=($maxX, $maxY, $maxZ), radius=$radius)"
+
+    companion object {
+
+        val EMPTY = PoseBounds(
+            Int.MAX_VALUE, Int.MAX_VALUE, Int.MAX_VALUE,
+            Int.MIN_VALUE, Int.MIN_VALUE, Int.MIN_VALUE,
+            radius = 0.0
+        )
+
+        /**
+         * Computes the bounds of the first [count] vertices in the specified position arrays.
+         */
+        fun of(positionsX: IntArray, positionsY: IntArray, positionsZ: IntArray, count: Int = positionsX.size) : PoseBounds {
+            if (count == 0)
+                return EMPTY
+            var minX = Int.MAX_VALUE
+            var minY = Int.MAX_VALUE
+            var minZ = Int.MAX_VALUE
+            var maxX = Int.MIN_VALUE
+            var maxY = Int.MIN_VALUE
+            var maxZ = Int.MIN_VALUE
+            for (vertex in 0 until count) {
+                val x = positionsX[vertex]
+                val y = positionsY[vertex]
+                val z = positionsZ[vertex]
+                if (x < minX) minX = x
+                if (y < minY) minY = y
+                if (z < minZ) minZ = z
+                if (x > maxX) maxX = x
+                if (y > maxY) maxY = y
+                if (z > maxZ) maxZ = z
+            }
+            val centerX = (minX + maxX) / 2.0
+            val centerY = (minY + maxY) / 2.0
+            val centerZ = (minZ + maxZ) / 2.0
+            var radiusSquared = 0.0
+            for (vertex in 0 until count) {
+                val dx = positionsX[vertex] - centerX
+                val dy = positionsY[vertex] - centerY
+                val dz = positionsZ[vertex] - centerZ
+                val distanceSquared = dx * dx + dy * dy + dz * dz
+                if (distanceSquared > radiusSquared)
+                    radiusSquared = distanceSquared
+            }
+            return PoseBounds(minX, minY, minZ, maxX, maxY, maxZ, sqrt(radiusSquared))
+        }
+
+        private fun distance(x1: Double, y1: Double, z1: Double, x2: Double, y2: Double, z2: Double) : Double {
+            val dx = x1 - x2
+            val dy = y1 - y2
+            val dz = z1 - z2
+            return sqrt(dx * dx + dy * dy + dz * dz)
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package stan.qodat.util
+package qodat.animation
 
 import kotlin.math.cos
 import kotlin.math.sin
@@ -6,4 +6,4 @@ import kotlin.math.sin
 private const val UNIT = Math.PI.div(1024.0)
 
 val SINE = IntArray(2048) { (65536.0 * sin(UNIT.times(it))).toInt() }
-val COSINE = IntArray(2048) { (65536.0 * cos(UNIT.times(it))).toInt() }
\ No newline at end of file
+val COSINE = IntArray(2048) { (65536.0 * cos(UNIT.times(it))).toInt() }
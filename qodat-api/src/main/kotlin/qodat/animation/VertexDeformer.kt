@@ -0,0 +1,205 @@
+package qodat.animation
+
+import qodat.cache.definition.ModelDefinition
+import qodat.cache.models.SkinOrderedModelDefinition
+
+/**
+ * Deforms the vertices of a [ModelDefinition] by applying [frames][AnimationKeyFrame] to them.
+ *
+ * The deformed positions are stored in [positionsX], [positionsY] and [positionsZ],
+ * the vertex positions of the [definition] are used as the base pose and are never modified.
+ *
+ * Instances are not thread-safe, use one deformer per thread.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class VertexDeformer(val definition: ModelDefinition) {
+
+    private val baseX = definition.getVertexPositionsX()
+    private val baseY = definition.getVertexPositionsY()
+    private val baseZ = definition.getVertexPositionsZ()
+
+    val positionsX = baseX.copyOf()
+    val positionsY = baseY.copyOf()
+    val positionsZ = baseZ.copyOf()
+
+    /**
+     * Set if the [definition] stores every vertex group as a contiguous range of vertices,
+     * in which case the transformations iterate over ranges instead of [vertexGroups].
+     */
+    private val skinOrderedDefinition = definition as? SkinOrderedModelDefinition
+
+    val vertexGroups: Array<IntArray> = definition.let {
+        it.computeAnimationTables()
+        it.getVertexGroups() ?: emptyArray()
+    }
+
+    private var pointXOffset = 0
+    private var pointYOffset = 0
+    private var pointZOffset = 0
+
+    val vertexCount: Int
+        get() = positionsX.size
+
+    /**
+     * Restores the deformed positions to the base pose.
+     */
+    fun reset() {
+        System.arraycopy(baseX, 0, positionsX, 0, baseX.size)
+        System.arraycopy(baseY, 0, positionsY, 0, baseY.size)
+        System.arraycopy(baseZ, 0, positionsZ, 0, baseZ.size)
+        resetOffset()
+    }
+
+    /**
+     * Overwrites the deformed positions with the specified positions.
+     */
+    fun setPositions(positionsX: IntArray, positionsY: IntArray, positionsZ: IntArray) {
+        System.arraycopy(positionsX, 0, this.positionsX, 0, vertexCount)
+        System.arraycopy(positionsY, 0, this.positionsY, 0, vertexCount)
+        System.arraycopy(positionsZ, 0, this.positionsZ, 0, vertexCount)
+    }
+
+    /**
+     * Restores the base pose and then applies every transformation of the [frame].
+     */
+    fun apply(frame: AnimationKeyFrame) {
+        reset()
+        for (transformation in 0 until frame.transformationCount) {
+            transform(
+                frame.transformTypes[transformation],
+                frame.targetVertexGroups[transformation],
+                frame.deltaX[transformation],
+                frame.deltaY[transformation],
+                frame.deltaZ[transformation]
+            )
+        }
+    }
+
+    /**
+     * Applies a single transformation on top of the current positions.
+     */
+    fun transform(type: Int, targetVertexGroupIndices: IntArray, deltaX: Int, deltaY: Int, deltaZ: Int) {
+        when (type) {
+            AnimationKeyFrame.SET_OFFSET -> offset(targetVertexGroupIndices, deltaX, deltaY, deltaZ)
+            AnimationKeyFrame.TRANSLATE -> translate(targetVertexGroupIndices, deltaX, deltaY, deltaZ)
+            AnimationKeyFrame.ROTATE -> rotate(targetVertexGroupIndices, deltaX, deltaY, deltaZ)
+            AnimationKeyFrame.SCALE -> scale(targetVertexGroupIndices, deltaX, deltaY, deltaZ)
+            // TODO: implement transparency
+        }
+    }
+
+    private fun scale(targetVertexGroupIndices: IntArray, deltaX: Int, deltaY: Int, deltaZ: Int) {
+        for (vertexGroupIndex in targetVertexGroupIndices) {
+            if (vertexGroupIndex < vertexGroups.size) {
+                forEachVertex(vertexGroupIndex) { vertex ->
+                    positionsX[vertex] = (positionsX[vertex] - pointXOffset) * deltaX / 128 + pointXOffset
+                    positionsY[vertex] = (positionsY[vertex] - pointYOffset) * deltaY / 128 + pointYOffset
+                    positionsZ[vertex] = (positionsZ[vertex] - pointZOffset) * deltaZ / 128 + pointZOffset
+                }
+            }
+        }
+    }
+
+    private fun rotate(targetVertexGroupIndices: IntArray, deltaX: Int, deltaY: Int, deltaZ: Int) {
+        val rotationX = convertRotationValue(deltaX)
+        val rotationY = convertRotationValue(deltaY)
+        val rotationZ = convertRotationValue(deltaZ)
+        for (vertexGroupIndex in targetVertexGroupIndices) {
+            if (vertexGroupIndex < vertexGroups.size) {
+                forEachVertex(vertexGroupIndex) { vertex ->
+                    var x = positionsX[vertex] - pointXOffset
+                    var y = positionsY[vertex] - pointYOffset
+                    var z = positionsZ[vertex] - pointZOffset
+                    if (rotationZ != 0) {
+                        val sin = SINE[rotationZ]
+                        val cos = COSINE[rotationZ]
+                        val newX = (sin * y + cos * x) shr 16
+                        y = (cos * y - sin * x) shr 16
+                        x = newX
+                    }
+                    if (rotationX != 0) {
+                        val sin = SINE[rotationX]
+                        val cos = COSINE[rotationX]
+                        val newZ = (sin * y + cos * z) shr 16
+                        y = (cos * y - sin * z) shr 16
+                        z = newZ
+                    }
+                    if (rotationY != 0) {
+                        val sin = SINE[rotationY]
+                        val cos = COSINE[rotationY]
+                        val newX = (sin * z + cos * x) shr 16
+                        z = (cos * z - sin * x) shr 16
+                        x = newX
+                    }
+                    positionsX[vertex] = x + pointXOffset
+                    positionsY[vertex] = y + pointYOffset
+                    positionsZ[vertex] = z + pointZOffset
+                }
+            }
+        }
+    }
+
+    private fun convertRotationValue(value: Int) = (value and 255).times(8)
+
+    private fun translate(targetVertexGroupIndices: IntArray, deltaX: Int, deltaY: Int, deltaZ: Int) {
+        for (vertexGroupIndex in targetVertexGroupIndices) {
+            if (vertexGroupIndex < vertexGroups.size) {
+                forEachVertex(vertexGroupIndex) { vertex ->
+                    positionsX[vertex] += deltaX
+                    positionsY[vertex] += deltaY
+                    positionsZ[vertex] += deltaZ
+                }
+            }
+        }
+    }
+
+    private fun offset(targetVertexGroupIndices: IntArray, deltaX: Int, deltaY: Int, deltaZ: Int) {
+        resetOffset()
+        var iteratedVertexCount = 0
+        for (vertexGroupIndex in targetVertexGroupIndices) {
+            if (vertexGroupIndex < vertexGroups.size) {
+                forEachVertex(vertexGroupIndex) { vertex ->
+                    pointXOffset += positionsX[vertex]
+                    pointYOffset += positionsY[vertex]
+                    pointZOffset += positionsZ[vertex]
+                    iteratedVertexCount++
+                }
+            }
+        }
+        if (iteratedVertexCount > 0) {
+            pointXOffset = deltaX + pointXOffset.div(iteratedVertexCount)
+            pointYOffset = deltaY + pointYOffset.div(iteratedVertexCount)
+            pointZOffset = deltaZ + pointZOffset.div(iteratedVertexCount)
+        } else {
+            pointXOffset = deltaX
+            pointYOffset = deltaY
+            pointZOffset = deltaZ
+        }
+    }
+
+    /**
+     * Invokes the [action] for each vertex in the vertex group at [vertexGroupIndex].
+     */
+    private inline fun forEachVertex(vertexGroupIndex: Int, action: (Int) -> Unit) {
+        val ordered = skinOrderedDefinition
+        if (ordered != null) {
+            val end = ordered.getVertexGroupEnd(vertexGroupIndex)
+            for (vertex in ordered.getVertexGroupStart(vertexGroupIndex) until end)
+                action(vertex)
+        } else {
+            for (vertex in vertexGroups[vertexGroupIndex])
+                action(vertex)
+        }
+    }
+
+    /**
+     * Resets the origin used by rotations and scaling, which is set by [AnimationKeyFrame.SET_OFFSET] transformations.
+     */
+    fun resetOffset() {
+        pointXOffset = 0
+        pointYOffset = 0
+        pointZOffset = 0
+    }
+}
@@ -61,6 +61,13 @@ abstract class Cache(val name: String) {
 
     abstract fun getTexture(id: Int): TextureDefinition
 
+    /**
+     * Identifies the contents of this cache, it must change whenever the models or definitions in it change.
+     *
+     * @return `null` if this cache can not tell (the default), then nothing derived from it should be stored on disk.
+     */
+    open fun getRevision(): String? = null
+
     open fun add(any: Any) {
         TODO("not implemented")
     }
@@ -8,4 +8,41 @@ import qodat.cache.definition.EntityDefinition
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   28/01/2021
  */
-interface ItemDefinition : EntityDefinition
\ No newline at end of file
+interface ItemDefinition : EntityDefinition {
+
+    /**
+     * The rotation around the x-axis of the model of this item in the inventory (`xan2d` in the client).
+     */
+    val inventoryPitch: Int
+        get() = 0
+
+    /**
+     * The rotation around the y-axis of the model of this item in the inventory (`yan2d` in the client).
+     */
+    val inventoryYaw: Int
+        get() = 0
+
+    /**
+     * The rotation around the z-axis of the model of this item in the inventory (`zan2d` in the client).
+     */
+    val inventoryRoll: Int
+        get() = 0
+
+    /**
+     * The distance of the camera to the model of this item in the inventory (`zoom2d` in the client).
+     */
+    val inventoryZoom: Int
+        get() = 2000
+
+    /**
+     * The horizontal offset of the model of this item in the inventory (`offsetX2d` in the client).
+     */
+    val inventoryOffsetX: Int
+        get() = 0
+
+    /**
+     * The vertical offset of the model of this item in the inventory (`offsetY2d` in the client).
+     */
+    val inventoryOffsetY: Int
+        get() = 0
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package qodat.cache.models
+
+import qodat.cache.definition.ModelDefinition
+
+/**
+ * A [ModelDefinition] view of the [source] definition where the vertices are permuted
+ * such that every vertex group (see [ModelDefinition.getVertexSkins]) occupies a contiguous range.
+ *
+ * The face vertex indices (and texture triangle vertex indices) are remapped accordingly,
+ * the face order is left untouched. This allows deformations to iterate over a group with
+ * a range loop (see [getVertexGroupStart] and [getVertexGroupEnd]) instead of scattered lookups.
+ *
+ * The permutation is kept so that exports and picking can translate vertices back to their
+ * index in the [source] definition, see [getOriginalVertex] and [getReorderedVertex].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class SkinOrderedModelDefinition(val source: ModelDefinition) : ModelDefinition by source {
+
+    /**
+     * Maps a reordered vertex index to the vertex index in the [source] definition.
+     */
+    private val permutation: IntArray
+
+    /**
+     * Maps a vertex index in the [source] definition to the reordered vertex index.
+     */
+    private val inversePermutation: IntArray
+
+    /**
+     * Vertex group `g` occupies the reordered vertices `groupOffsets[g] until groupOffsets[g + 1]`.
+     */
+    private val groupOffsets: IntArray
+
+    private val vertexPositionsX: IntArray
+    private val vertexPositionsY: IntArray
+    private val vertexPositionsZ: IntArray
+    private val vertexSkins: IntArray?
+
+    private val faceVertexIndices1: IntArray
+    private val faceVertexIndices2: IntArray
+    private val faceVertexIndices3: IntArray
+
+    private val textureTriangleVertexIndices1: ShortArray?
+    private val textureTriangleVertexIndices2: ShortArray?
+    private val textureTriangleVertexIndices3: ShortArray?
+
+    private var vertexGroups: Array<IntArray>? = null
+    private var vertexNormals: Array<VertexNormal>? = null
+
+    init {
+        val vertexCount = source.getVertexCount()
+        val skins = source.getVertexSkins()
+
+        permutation = IntArray(vertexCount)
+        inversePermutation = IntArray(vertexCount)
+
+        if (skins != null) {
+            var numGroups = 0
+            for (vertex in 0 until vertexCount) {
+                if (skins[vertex] + 1 > numGroups)
+                    numGroups = skins[vertex] + 1
+            }
+            // counting sort, stable so vertices keep their relative order within a group
+            groupOffsets = IntArray(numGroups + 1)
+            for (vertex in 0 until vertexCount)
+                groupOffsets[skins[vertex] + 1]++
+            for (group in 0 until numGroups)
+                groupOffsets[group + 1] += groupOffsets[group]
+            val cursors = groupOffsets.copyOf(numGroups)
+            for (vertex in 0 until vertexCount) {
+                val reordered = cursors[skins[vertex]]++
+                permutation[reordered] = vertex
+                inversePermutation[vertex] = reordered
+            }
+        } else {
+            groupOffsets = intArrayOf(0, vertexCount)
+            for (vertex in 0 until vertexCount) {
+                permutation[vertex] = vertex
+                inversePermutation[vertex] = vertex
+            }
+        }
+
+        vertexPositionsX = permute(source.getVertexPositionsX())
+        vertexPositionsY = permute(source.getVertexPositionsY())
+        vertexPositionsZ = permute(source.getVertexPositionsZ())
+        vertexSkins = skins?.let(::permute)
+
+        faceVertexIndices1 = remap(source.getFaceVertexIndices1())
+        faceVertexIndices2 = remap(source.getFaceVertexIndices2())
+        faceVertexIndices3 = remap(source.getFaceVertexIndices3())
+
+        textureTriangleVertexIndices1 = source.getTextureTriangleVertexIndices1()?.let(::remap)
+        textureTriangleVertexIndices2 = source.getTextureTriangleVertexIndices2()?.let(::remap)
+        textureTriangleVertexIndices3 = source.getTextureTriangleVertexIndices3()?.let(::remap)
+    }
+
+    private fun permute(values: IntArray) = IntArray(values.size) { values[permutation[it]] }
+
+    private fun remap(vertices: IntArray) = IntArray(vertices.size) { inversePermutation[vertices[it]] }
+
+    private fun remap(vertices: ShortArray) = ShortArray(vertices.size) {
+        val vertex = vertices[it].toInt() and 0xFFFF
+        if (vertex < inversePermutation.size)
+            inversePermutation[vertex].toShort()
+        else
+            vertices[it]
+    }
+
+    /**
+     * @return the index in the [source] definition of the reordered [vertex].
+     */
+    fun getOriginalVertex(vertex: Int) = permutation[vertex]
+
+    /**
+     * @return the reordered index of the [originalVertex] in the [source] definition.
+     */
+    fun getReorderedVertex(originalVertex: Int) = inversePermutation[originalVertex]
+
+    /**
+     * @return the number of contiguous vertex groups.
+     */
+    fun getVertexGroupCount() = groupOffsets.size - 1
+
+    /**
+     * @return the first (inclusive) reordered vertex of the vertex group at [groupIndex].
+     */
+    fun getVertexGroupStart(groupIndex: Int) = groupOffsets[groupIndex]
+
+    /**
+     * @return the last (exclusive) reordered vertex of the vertex group at [groupIndex].
+     */
+    fun getVertexGroupEnd(groupIndex: Int) = groupOffsets[groupIndex + 1]
+
+    override fun getName() = source.getName()
+    override fun getVertexPositionsX() = vertexPositionsX
+    override fun getVertexPositionsY() = vertexPositionsY
+    override fun getVertexPositionsZ() = vertexPositionsZ
+    override fun getVertexSkins() = vertexSkins
+    override fun getVertexGroups() = vertexGroups
+    override fun getVertexNormals() = vertexNormals
+    override fun getFaceVertexIndices1() = faceVertexIndices1
+    override fun getFaceVertexIndices2() = faceVertexIndices2
+    override fun getFaceVertexIndices3() = faceVertexIndices3
+    override fun getTextureTriangleVertexIndices1() = textureTriangleVertexIndices1
+    override fun getTextureTriangleVertexIndices2() = textureTriangleVertexIndices2
+    override fun getTextureTriangleVertexIndices3() = textureTriangleVertexIndices3
+
+    override fun computeAnimationTables() {
+        source.computeAnimationTables()
+        if (vertexSkins != null && vertexGroups == null) {
+            vertexGroups = Array(getVertexGroupCount()) { group ->
+                val start = groupOffsets[group]
+                IntArray(groupOffsets[group + 1] - start) { start + it }
+            }
+        }
+    }
+
+    override fun computeNormals() {
+        source.computeNormals()
+        val sourceNormals = source.getVertexNormals()
+        if (sourceNormals != null && vertexNormals == null)
+            vertexNormals = Array(sourceNormals.size) { sourceNormals[permutation[it]] }
+    }
+}
+
+/**
+ * @return a [SkinOrderedModelDefinition] of this definition,
+ *         or this definition if it already is one.
+ */
+fun ModelDefinition.orderedBySkinGroup() : SkinOrderedModelDefinition =
+    this as? SkinOrderedModelDefinition ?: SkinOrderedModelDefinition(this)
+
+/**
+ * @return the definition this definition was derived from through [orderedBySkinGroup],
+ *         or this definition if it was not reordered.
+ */
+fun ModelDefinition.unordered() : ModelDefinition =
+    (this as? SkinOrderedModelDefinition)?.source ?: this
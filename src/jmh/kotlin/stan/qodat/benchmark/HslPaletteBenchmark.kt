@@ -0,0 +1,84 @@
+package stan.qodat.benchmark
+
+import javafx.scene.paint.Color
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import stan.qodat.scene.paint.HslPalette
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Compares converting the face colors of a model through [HslPalette]
+ * with converting them through AWT per face, the way colors were converted before.
+ *
+ * Every invocation converts [FACE_COUNT] colors, drawn from [DISTINCT_COLORS] distinct HSL colors
+ * like the faces of a typical model.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class HslPaletteBenchmark {
+
+    private lateinit var colors: IntArray
+
+    @Setup(Level.Trial)
+    fun createColors() {
+        val random = Random(FACE_COUNT)
+        val distinct = IntArray(DISTINCT_COLORS) { random.nextInt(0x10000) }
+        colors = IntArray(FACE_COUNT) { distinct[random.nextInt(DISTINCT_COLORS)] }
+    }
+
+    @Benchmark
+    fun awtColor(blackhole: Blackhole) {
+        for (hsl in colors)
+            blackhole.consume(awtHsbToColor(hsl))
+    }
+
+    @Benchmark
+    fun paletteColor(blackhole: Blackhole) {
+        for (hsl in colors)
+            blackhole.consume(HslPalette.color(hsl, null))
+    }
+
+    @Benchmark
+    fun awtRgb(blackhole: Blackhole) {
+        for (hsl in colors)
+            blackhole.consume(awtHsbToRgb(hsl))
+    }
+
+    @Benchmark
+    fun paletteRgb(blackhole: Blackhole) {
+        for (hsl in colors)
+            blackhole.consume(HslPalette.rgb(hsl))
+    }
+
+    private fun awtHsbToColor(hsl: Int) : Color {
+        val awtColor = java.awt.Color.getHSBColor(
+            (hsl shr 10 and 0x3f).toFloat() / 63,
+            (hsl shr 7 and 0x07).toFloat() / 7,
+            (hsl and 0x7f).toFloat() / 127
+        )
+        return Color.color(awtColor.red / 255.0, awtColor.green / 255.0, awtColor.blue / 255.0, 1.0)
+    }
+
+    private fun awtHsbToRgb(hsl: Int) = java.awt.Color.HSBtoRGB(
+        (hsl shr 10 and 0x3f).toFloat() / 63,
+        (hsl shr 7 and 0x07).toFloat() / 7,
+        (hsl and 0x7f).toFloat() / 127
+    )
+
+    private companion object {
+        const val FACE_COUNT = 2500
+        const val DISTINCT_COLORS = 64
+    }
+}
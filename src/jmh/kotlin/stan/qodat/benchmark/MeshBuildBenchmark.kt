@@ -0,0 +1,86 @@
+package stan.qodat.benchmark
+
+import javafx.application.Platform
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.runescape.model.Model
+import stan.qodat.scene.runescape.model.ModelAtlasMesh
+import stan.qodat.scene.runescape.model.ModelFaceMeshGroup
+import stan.qodat.scene.runescape.model.ModelMaterialMeshGroup
+import stan.qodat.scene.runescape.model.ModelMeshBuildType
+import stan.qodat.scene.runescape.model.ModelSkeletonMesh
+import stan.qodat.scene.runescape.model.ModelSkin
+import stan.qodat.scene.runescape.model.ModelTexturedMesh
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures building the [ModelSkin] of each [ModelMeshBuildType] for each model in the [ModelCorpus],
+ * run with `./gradlew jmh`, which also reports the allocation rate (`-prof gc`).
+ *
+ * A new [Model] is created before every invocation, so no lazily computed state is shared between builds.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class MeshBuildBenchmark {
+
+    @Param("tiny", "small", "medium", "large", "huge")
+    lateinit var sizeClass: String
+
+    @Param("ATLAS", "TEXTURED_ATLAS", "SKELETON_ATLAS", "MESH_PER_MATERIAL", "MESH_PER_FACE")
+    lateinit var buildType: ModelMeshBuildType
+
+    private lateinit var definition: ModelDefinition
+    private lateinit var model: Model
+
+    @Setup(Level.Trial)
+    fun loadModel() {
+        startToolkit()
+        definition = ModelCorpus.load(sizeClass)
+    }
+
+    @Setup(Level.Invocation)
+    fun createModel() {
+        model = Model(sizeClass, definition)
+    }
+
+    @Benchmark
+    fun build() : ModelSkin =
+        createSkin(model, buildType).also { it.getSceneNode() }
+
+    companion object {
+
+        /**
+         * Creates a [ModelSkin] of the [buildType] the same way [Model] does.
+         */
+        fun createSkin(model: Model, buildType: ModelMeshBuildType) : ModelSkin = when (buildType) {
+            ModelMeshBuildType.ATLAS -> ModelAtlasMesh(model)
+            ModelMeshBuildType.TEXTURED_ATLAS -> ModelTexturedMesh(model)
+            ModelMeshBuildType.SKELETON_ATLAS -> ModelSkeletonMesh(model)
+            ModelMeshBuildType.MESH_PER_MATERIAL -> ModelMaterialMeshGroup(model)
+            ModelMeshBuildType.MESH_PER_FACE -> ModelFaceMeshGroup(model)
+        }
+
+        /**
+         * Starts the JavaFX toolkit, which is required to create the images of the materials.
+         */
+        fun startToolkit() {
+            try {
+                Platform.startup { }
+            } catch (e: IllegalStateException) {
+                // already started
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package stan.qodat.benchmark
+
+import qodat.cache.definition.ModelDefinition
+import qodat.cache.models.RSModelLoader
+
+/**
+ * The fixed corpus of (untextured) models the benchmarks run on,
+ * stored as the raw model data in `stan/qodat/benchmark/models` so that no cache is needed.
+ *
+ * Each line of the `corpus.txt` manifest holds the size class, the model id and the face count of a model,
+ * the data of a model is stored in `<model id>.dat`.
+ *
+ * The committed corpus is synthetic, subdivided icospheres and a height field with their vertices and faces
+ * grouped by region (so that the skeleton mesh has groups to split), as the cache models cannot be redistributed.
+ * It can be replaced by models of a local cache with the `exportBenchmarkCorpus` task.
+ *
+ * @see ModelCorpusExporter
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object ModelCorpus {
+
+    private const val RESOURCE_PATH = "/stan/qodat/benchmark/models"
+
+    /**
+     * The size classes of the corpus with the minimum face count of a model in that class.
+     */
+    val SIZE_CLASSES = linkedMapOf(
+        "tiny" to 64,
+        "small" to 250,
+        "medium" to 1000,
+        "large" to 2500,
+        "huge" to 5000
+    )
+
+    /**
+     * Loads the model of the [sizeClass] from the fixtures.
+     *
+     * @throws IllegalStateException if the corpus has no model of the [sizeClass].
+     */
+    fun load(sizeClass: String) : ModelDefinition {
+        val entry = readManifest().find { it.sizeClass == sizeClass }
+            ?: throw IllegalStateException("No model of size class $sizeClass in the corpus")
+        val data = ModelCorpus::class.java.getResourceAsStream("$RESOURCE_PATH/${entry.modelId}.dat")
+            ?.use { it.readBytes() }
+            ?: throw IllegalStateException("Missing fixture ${entry.modelId}.dat for size class $sizeClass")
+        return RSModelLoader().load(entry.modelId, data)
+    }
+
+    private fun readManifest() : List<Entry> {
+        val manifest = ModelCorpus::class.java.getResourceAsStream("$RESOURCE_PATH/corpus.txt")
+            ?: return emptyList()
+        return manifest.bufferedReader().useLines { lines ->
+            lines.filter { it.isNotBlank() && !it.startsWith("#") }
+                .map { it.trim().split(Regex("\\s+")) }
+                .map { (sizeClass, modelId, faceCount) -> Entry(sizeClass, modelId, faceCount.toInt()) }
+                .toList()
+        }
+    }
+
+    data class Entry(val sizeClass: String, val modelId: String, val faceCount: Int)
+}
@@ -0,0 +1,64 @@
+package stan.qodat.benchmark
+
+import qodat.cache.models.RSModelLoader
+import stan.qodat.Properties
+import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
+import java.io.File
+import java.nio.file.Paths
+
+/**
+ * Exports the [ModelCorpus] from the OSRS cache at [Properties.osrsCachePath] (or the path passed as second argument).
+ *
+ * For each size class the first untextured model (in order of model id) with at least the minimum face count
+ * of that class, and at most 25% more, is selected, so that the corpus is reproducible from the same cache.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object ModelCorpusExporter {
+
+    private const val MAX_MODEL_ID = 65536
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        val outputDir = File(args.getOrNull(0) ?: "src/jmh/resources/stan/qodat/benchmark/models")
+        args.getOrNull(1)?.let { Properties.osrsCachePath.set(Paths.get(it)) }
+        outputDir.mkdirs()
+
+        val remaining = LinkedHashMap(ModelCorpus.SIZE_CLASSES)
+        val entries = ArrayList<ModelCorpus.Entry>()
+        for (modelId in 0 until MAX_MODEL_ID) {
+            if (remaining.isEmpty())
+                break
+            val data = try {
+                OldschoolCacheRuneLite.getModelData(modelId.toString())
+            } catch (e: Exception) {
+                continue
+            }
+            val definition = try {
+                RSModelLoader().load(modelId.toString(), data)
+            } catch (e: Exception) {
+                continue
+            }
+            if (definition.getFaceTextures() != null)
+                continue
+            val faceCount = definition.getFaceCount()
+            val sizeClass = remaining.entries
+                .find { (_, minFaceCount) -> faceCount >= minFaceCount && faceCount <= minFaceCount * 5 / 4 }
+                ?.key
+                ?: continue
+            remaining.remove(sizeClass)
+            File(outputDir, "$modelId.dat").writeBytes(data)
+            entries += ModelCorpus.Entry(sizeClass, modelId.toString(), faceCount)
+            println("Exported model $modelId ($faceCount faces) as $sizeClass")
+        }
+        if (remaining.isNotEmpty())
+            println("Could not find models for size classes ${remaining.keys}")
+
+        File(outputDir, "corpus.txt").writeText(buildString {
+            appendLine("# size class, model id, face count")
+            for (entry in entries.sortedBy { it.faceCount })
+                appendLine("${entry.sizeClass} ${entry.modelId} ${entry.faceCount}")
+        })
+    }
+}
@@ -0,0 +1,65 @@
+package stan.qodat.benchmark
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import stan.qodat.scene.runescape.model.Model
+import stan.qodat.scene.runescape.model.ModelMeshBuildType
+import stan.qodat.scene.runescape.model.ModelSkeleton
+import stan.qodat.scene.runescape.model.ModelSkin
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures [ModelSkin.updatePoints] of each [ModelMeshBuildType] for each model in the [ModelCorpus].
+ *
+ * Every invocation alternates between two poses that differ in every vertex,
+ * so each call has to upload all points, which is the worst case of an animation frame.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class UpdatePointsBenchmark {
+
+    @Param("tiny", "small", "medium", "large", "huge")
+    lateinit var sizeClass: String
+
+    @Param("ATLAS", "TEXTURED_ATLAS", "SKELETON_ATLAS", "MESH_PER_MATERIAL", "MESH_PER_FACE")
+    lateinit var buildType: ModelMeshBuildType
+
+    private lateinit var skin: ModelSkin
+    private lateinit var poses: Array<ModelSkeleton>
+    private var poseIndex = 0
+
+    @Setup(Level.Trial)
+    fun buildSkin() {
+        MeshBuildBenchmark.startToolkit()
+        val definition = ModelCorpus.load(sizeClass)
+        val model = Model(sizeClass, definition)
+        skin = MeshBuildBenchmark.createSkin(model, buildType)
+        skin.getSceneNode()
+        poses = Array(2) { offset ->
+            ModelSkeleton(definition).apply {
+                setPose(
+                    IntArray(definition.getVertexCount()) { definition.getVertexPositionsX()[it] + offset },
+                    IntArray(definition.getVertexCount()) { definition.getVertexPositionsY()[it] - offset },
+                    IntArray(definition.getVertexCount()) { definition.getVertexPositionsZ()[it] + offset }
+                )
+            }
+        }
+    }
+
+    @Benchmark
+    fun updatePoints() {
+        poseIndex = poseIndex xor 1
+        skin.updatePoints(poses[poseIndex])
+    }
+}
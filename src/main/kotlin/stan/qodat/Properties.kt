@@ -79,6 +79,48 @@ object Properties {
 
     val alwaysRenderUsingAtlas = SimpleBooleanProperty(false)
 
+    /**
+     * Should model vertices be reordered such that every vertex group is contiguous in memory?
+     */
+    val reorderVerticesBySkinGroup = SimpleBooleanProperty(false)
+
+    /**
+     * Should the camera be framed around the bounds of all frames before exporting an animation?
+     */
+    val frameCameraOnExport = SimpleBooleanProperty(true)
+
+    /**
+     * Should models that appear small on screen be rendered with a simplified mesh (see [stan.qodat.scene.runescape.model.ModelSimplifier])?
+     *
+     * This is off by default, it is meant for scenes with many models far away from the camera,
+     * and it never applies to models that are edited, shaded or rendered with textures.
+     */
+    val levelOfDetail = SimpleBooleanProperty(false)
+
+    /**
+     * Should transparent faces be drawn in a separate mesh sorted by priority and depth
+     * (see [stan.qodat.scene.runescape.model.ModelTransparencySkin])?
+     */
+    val sortTransparentFaces = SimpleBooleanProperty(false)
+
+    /**
+     * Should rows of entity lists show a rendered thumbnail of the entity
+     * (see [stan.qodat.scene.control.ThumbnailService])?
+     */
+    val showThumbnails = SimpleBooleanProperty(true)
+
+    /**
+     * Should models be lit again in the pose of every animation frame
+     * (see [stan.qodat.scene.runescape.ModelLighting]), rather than only in their original pose like the client?
+     */
+    val relightFrames = SimpleBooleanProperty(false)
+
+    /**
+     * Should the scene be shown the way the client draws it, without a depth buffer
+     * (see [stan.qodat.scene.control.PainterPreview])?
+     */
+    val painterPreview = SimpleBooleanProperty(false)
+
     val cameraInvert = SimpleBooleanProperty(true)
     val cameraSpeed = SimpleDoubleProperty(0.3)
     val cameraNearClip = SimpleDoubleProperty(1.0)
@@ -167,6 +209,13 @@ object Properties {
         sessionManager.bindColor("background-color", subSceneBackgroundColor)
 
         sessionManager.bindBoolean("always-render-using-atlas", alwaysRenderUsingAtlas)
+        sessionManager.bindBoolean("reorder-vertices-by-skin-group", reorderVerticesBySkinGroup)
+        sessionManager.bindBoolean("frame-camera-on-export", frameCameraOnExport)
+        sessionManager.bindBoolean("level-of-detail", levelOfDetail)
+        sessionManager.bindBoolean("sort-transparent-faces", sortTransparentFaces)
+        sessionManager.bindBoolean("show-thumbnails", showThumbnails)
+        sessionManager.bindBoolean("relight-frames", relightFrames)
+        sessionManager.bindBoolean("painter-preview", painterPreview)
 
         sessionManager.bindBoolean("depth-buffer", depthBuffer)
         sessionManager.bindBoolean("show-axis", showAxis)
@@ -23,7 +23,10 @@ import java.util.*
 import java.util.concurrent.ConcurrentHashMap
 
 /**
- * TODO: add documentation
+ * The cache of the live game, read through the RuneLite cache library.
+ *
+ * The underlying store is not thread-safe, so every getter holds the lock of this cache,
+ * which is also the lock callers take around a series of reads (e.g. `synchronized(cache) { ... }`).
  *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   29/01/2021
@@ -59,6 +62,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         }
     }
 
+    @Synchronized
     private fun load() {
         store.load()
         frameIndex = store.getIndex(IndexType.FRAMES)
@@ -80,6 +84,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         textureManager.load()
     }
 
+    @Synchronized
     override fun getTexture(id: Int): TextureDefinition {
         val def = textureManager.findTexture(id)
         def.method2680(1.0, 128) { spriteId, frameId ->
@@ -91,6 +96,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
             override var pixels: IntArray = def.getPixels()
         }
     }
+    @Synchronized
     fun getModelData(id: String) : ByteArray {
         val modelId = id.toIntOrNull()?:throw IllegalArgumentException("Model id must be int-convertable $id")
         val modelIndex = store.getIndex(IndexType.MODELS)
@@ -98,6 +104,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         return archive.decompress(store.storage.loadArchive(archive))
     }
 
+    @Synchronized
     override fun getModelDefinition(id: String): ModelDefinition {
         val modelId = id.toIntOrNull()?:throw IllegalArgumentException("Model id must be int-convertable $id")
         val modelIndex = store.getIndex(IndexType.MODELS)
@@ -105,12 +112,19 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         return RSModelLoader().load(id, archive.decompress(store.storage.loadArchive(archive)))
     }
 
+    @Synchronized
+    override fun getRevision(): String =
+        "$name-" + arrayOf(IndexType.MODELS, IndexType.CONFIGS, IndexType.TEXTURES)
+            .joinToString("-") { Integer.toHexString(store.getIndex(it).crc) }
+
+    @Synchronized
     override fun getAnimation(id: String): AnimationDefinition {
         return getAnimationDefinitions().find { it.id == id }!!
     }
 
     val animIdsCache = ConcurrentHashMap<Int, Array<String>>()
 
+    @Synchronized
     override fun getNPCs(): Array<NPCDefinition> {
         val npcAnimsDir = Properties.osrsCachePath.get().resolve("npc_anims").toFile()
         if (!npcAnimsDir.exists()){
@@ -149,6 +163,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         return animatedNpcs.toTypedArray()
     }
 
+    @Synchronized
     override fun getObjects(): Array<ObjectDefinition> {
         return objectManager.objects.map {
             object : ObjectDefinition {
@@ -165,6 +180,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         }.toTypedArray()
     }
 
+    @Synchronized
     override fun getItems(): Array<ItemDefinition> {
         return itemManager.items.map {
             object : ItemDefinition {
@@ -173,10 +189,17 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
                 override val modelIds = arrayOf(it.inventoryModel.toString())
                 override val findColor = it.colorFind
                 override val replaceColor = it.colorReplace
+                override val inventoryPitch = it.xan2d
+                override val inventoryYaw = it.yan2d
+                override val inventoryRoll = it.zan2d
+                override val inventoryZoom = it.zoom2d
+                override val inventoryOffsetX = it.xOffset2d
+                override val inventoryOffsetY = it.yOffset2d
             }
         }.toTypedArray()
     }
 
+    @Synchronized
     override fun getSpotAnimations(): Array<SpotAnimationDefinition> {
         if (!this::spotAnimations.isInitialized) {
             val storage = store.storage
@@ -199,6 +222,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         return spotAnimations
     }
 
+    @Synchronized
     override fun getAnimationDefinitions(): Array<AnimationDefinition> {
         if (!this::animations.isInitialized) {
             val storage = store.storage
@@ -223,6 +247,7 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         return animations
     }
 
+    @Synchronized
     override fun getFrameDefinition(frameHash: Int): AnimationFrameDefinition? {
 
         val storage = store.storage
@@ -263,24 +288,29 @@ object OldschoolCacheRuneLite : Cache("LIVE") {
         }[frameArchiveFileId]
     }
 
+    @Synchronized
     override fun getInterface(groupId: Int): Array<InterfaceDefinition> =
         interfaceManager
             .getIntefaceGroup(groupId)
             .map { RuneliteIntefaceDefinition(it) }
             .toTypedArray()
 
+    @Synchronized
     override fun getRootInterfaces(): Map<Int, List<InterfaceDefinition>> =
         interfaceManager.interfaces
             .flatten()
             .map { RuneliteIntefaceDefinition(it) }
             .groupBy { it.id.shr(16) }
 
+    @Synchronized
     override fun getSprites(): Array<SpriteDefinition> =
         spriteManager.sprites.map { RuneliteSpriteDefinition(it) }.toTypedArray()
 
+    @Synchronized
     override fun getSprite(groupId: Int, frameId: Int): SpriteDefinition =
         RuneliteSpriteDefinition(spriteManager.findSprite(groupId, frameId))
 
+    @Synchronized
     override fun getAnimationSkeletonDefinition(frameHash: Int): AnimationTransformationGroup=
         getFrameDefinition(frameHash)!!.transformationGroup
 
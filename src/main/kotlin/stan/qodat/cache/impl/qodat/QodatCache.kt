@@ -9,6 +9,7 @@ import qodat.cache.Cache
 import qodat.cache.EncodeResult
 import qodat.cache.definition.*
 import qodat.cache.models.RSModelLoader
+import qodat.cache.models.unordered
 import stan.qodat.Properties
 import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
 import stan.qodat.scene.runescape.animation.Animation
@@ -189,11 +190,11 @@ object QodatCache : Cache("qodat") {
     }
 
     private fun getQodatModelDefinition(any: Model) : QodatModelDefinition {
-        return any.modelDefinition.let {
+        return any.modelDefinition.unordered().let {
             if (it is QodatModelDefinition)
                 it
             else
-                QodatModelDefinition.create(any.modelDefinition)
+                QodatModelDefinition.create(it)
         }
     }
 
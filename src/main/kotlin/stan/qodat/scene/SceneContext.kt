@@ -1,21 +1,30 @@
 package stan.qodat.scene
 
+import javafx.animation.Animation.Status
+import javafx.animation.AnimationTimer
 import javafx.beans.property.SimpleBooleanProperty
 import javafx.collections.ListChangeListener
+import javafx.geometry.Point3D
 import javafx.scene.Group
 import javafx.scene.Node
 import javafx.scene.transform.Translate
+import stan.qodat.Properties
 import stan.qodat.Qodat
 import stan.qodat.scene.controller.SceneController
 import stan.qodat.scene.provider.SceneNodeProvider
 import stan.qodat.scene.provider.TreeItemProvider
+import stan.qodat.scene.runescape.animation.Animation
 import stan.qodat.scene.runescape.animation.AnimationPlayer
+import stan.qodat.scene.runescape.animation.LayeredAnimationPlayer
 import stan.qodat.scene.runescape.entity.Entity
 import stan.qodat.scene.runescape.model.Model
+import stan.qodat.scene.runescape.model.ModelInstance
+import stan.qodat.scene.runescape.model.ModelInstancer
 import stan.qodat.util.addSceneTreeItem
 import stan.qodat.util.filterAndMap
 import stan.qodat.util.onInvalidation
 import stan.qodat.util.removeSceneTreeItem
+import kotlin.math.tan
 
 /**
  * TODO: add documentation
@@ -39,6 +48,23 @@ abstract class SceneContext(val name: String) : SceneNodeProvider {
 
     internal val animationPlayer = AnimationPlayer()
 
+    internal val layeredAnimationPlayer = LayeredAnimationPlayer()
+
+    internal val modelInstancer = ModelInstancer()
+
+    /**
+     * Periodically picks the [level of detail][Model.lodLevelProperty] of each model in this context.
+     */
+    private val levelOfDetailTimer = object : AnimationTimer() {
+        private var lastUpdate = 0L
+        override fun handle(now: Long) {
+            if (now - lastUpdate >= LOD_UPDATE_INTERVAL_NANOS) {
+                lastUpdate = now
+                updateLevelsOfDetail()
+            }
+        }
+    }
+
     init {
         group.id = name
         val t = Translate(0.0, 0.0, 0.0)
@@ -72,6 +98,49 @@ abstract class SceneContext(val name: String) : SceneNodeProvider {
                 }
             }
         }
+        activeContext.onInvalidation { startOrStopLevelOfDetail() }
+        Properties.levelOfDetail.onInvalidation { startOrStopLevelOfDetail() }
+        // both players pose the same models, so layered playback ends once regular playback resumes
+        animationPlayer.statusProperty.addListener { _, _, status ->
+            if (status == Status.RUNNING)
+                layeredAnimationPlayer.stop()
+        }
+    }
+
+    private fun startOrStopLevelOfDetail() {
+        if (activeContext.get() && Properties.levelOfDetail.get())
+            levelOfDetailTimer.start()
+        else {
+            levelOfDetailTimer.stop()
+            if (!Properties.levelOfDetail.get()) {
+                for (model in getModels())
+                    model.lodLevelProperty.set(0)
+            }
+        }
+    }
+
+    /**
+     * Sets the level of detail of each model based on the radius of the model projected on the screen.
+     */
+    private fun updateLevelsOfDetail() {
+        val subScene = SubScene3D.subSceneProperty.get() ?: return
+        val camera = SubScene3D.cameraHandler.camera
+        val cameraPosition = camera.localToScene(Point3D.ZERO)
+        val focalLength = subScene.height / 2.0 / tan(Math.toRadians(camera.fieldOfView / 2.0))
+        for (model in getModels()) {
+            val node = model.getSceneNode()
+            val bounds = model.bounds
+            if (node.scene == null || bounds.isEmpty())
+                continue
+            val center = node.localToScene(bounds.centerX, bounds.centerY, bounds.centerZ)
+            val edge = node.localToScene(bounds.centerX + bounds.radius, bounds.centerY, bounds.centerZ)
+            val radius = center.distance(edge)
+            val distance = center.distance(cameraPosition)
+            val projectedRadius = if (distance <= radius) Double.MAX_VALUE else radius / distance * focalLength
+            val level = selectLodLevel(projectedRadius, model.lodLevelProperty.get())
+            if (level != model.lodLevelProperty.get())
+                model.lodLevelProperty.set(level)
+        }
     }
 
     fun addNode(nodeProvider: SceneNodeProvider) {
@@ -84,12 +153,43 @@ abstract class SceneContext(val name: String) : SceneNodeProvider {
         }
     }
 
+    /**
+     * Adds an instance of the [model] that shares its meshes with all other instances of the same model,
+     * playing the [animation] if specified.
+     */
+    fun addInstance(model: Model, animation: Animation? = null) : ModelInstance =
+        modelInstancer.createInstance(model).also { addInstance(it, animation) }
+
+    /**
+     * Adds an instance of the [entity] that shares its meshes with all other instances of an entity with the same models,
+     * playing the [animation] if specified.
+     */
+    fun addInstance(entity: Entity<*>, animation: Animation? = null) : ModelInstance =
+        modelInstancer.createInstance(entity).also { addInstance(it, animation) }
+
+    private fun addInstance(instance: ModelInstance, animation: Animation?) {
+        addNode(instance)
+        if (animation != null)
+            modelInstancer.play(instance, animation)
+    }
+
+    fun getInstances() : List<ModelInstance> = nodeProviderMap.values.filterAndMap()
+
+    fun removeInstances() {
+        for (instance in getInstances())
+            removeNode(instance)
+    }
+
     fun removeNode(nodeProvider: SceneNodeProvider) {
         try {
+            if (nodeProvider is ModelInstance)
+                modelInstancer.stop(nodeProvider)
             val sceneNode = nodeProvider.getSceneNode()
             group.children.remove(sceneNode)
             nodeProviderMap.remove(sceneNode)
             nodeProvider.removeSceneNodeReference()
+            if (nodeProvider is ModelInstance)
+                modelInstancer.trim(getInstances())
         } catch (e: Exception) {
             Qodat.logException("Failed to remove node {$nodeProvider} from scene $name", e)
         }
@@ -98,6 +198,7 @@ abstract class SceneContext(val name: String) : SceneNodeProvider {
     fun clear() {
         group.children.clear()
         nodeProviderMap.clear()
+        modelInstancer.trim(emptyList())
     }
 
     fun getModels(): List<Model> {
@@ -115,4 +216,33 @@ abstract class SceneContext(val name: String) : SceneNodeProvider {
     override fun getSceneNode(): Group = group
 
     override fun toString(): String = group.id
+
+    companion object {
+
+        private const val LOD_UPDATE_INTERVAL_NANOS = 250_000_000L
+
+        /**
+         * For each level of detail above 0, the projected radius (in pixels) below which it is used.
+         */
+        private val LOD_THRESHOLDS = doubleArrayOf(120.0, 50.0, 20.0)
+
+        /**
+         * Switching to a less detailed level requires the projected radius to drop this much further below
+         * the threshold, so that models do not flip between levels when the camera barely moves.
+         */
+        private const val LOD_HYSTERESIS = 0.85
+
+        fun selectLodLevel(projectedRadius: Double, currentLevel: Int) : Int {
+            var level = 0
+            while (level < LOD_THRESHOLDS.size) {
+                var threshold = LOD_THRESHOLDS[level]
+                if (level >= currentLevel)
+                    threshold *= LOD_HYSTERESIS
+                if (projectedRadius >= threshold)
+                    break
+                level++
+            }
+            return level
+        }
+    }
 }
@@ -11,6 +11,7 @@ import javafx.scene.input.MouseEvent
 import stan.qodat.Properties
 import stan.qodat.scene.control.CameraHandler
 import stan.qodat.scene.runescape.animation.AnimationPlayer
+import stan.qodat.scene.runescape.model.Model
 import stan.qodat.scene.shape.AxisView
 import stan.qodat.util.onInvalidation
 import stan.qodat.util.setAndBind
@@ -45,6 +46,12 @@ object SubScene3D : AbstractSubScene() {
 
     val mouseListener = SimpleObjectProperty<EventHandler<MouseEvent>>()
 
+    /**
+     * The selected or edited models of which the face under the mouse is picked when the mouse moves or clicks,
+     * see [Model.handleFacePick].
+     */
+    val pickableModels = LinkedHashSet<Model>()
+
     fun init() {
         ambientLight.colorProperty().setAndBind(Properties.ambientLightColor)
 
@@ -76,6 +83,13 @@ object SubScene3D : AbstractSubScene() {
     }
 
     override val mouseEventHandler = EventHandler<MouseEvent> {
+        if (it.eventType == MouseEvent.MOUSE_MOVED || it.eventType == MouseEvent.MOUSE_CLICKED) {
+            val subScene = it.source as? SubScene
+            if (subScene != null) {
+                for (model in pickableModels)
+                    model.handleFacePick(subScene, it)
+            }
+        }
         if (mouseListener.get() != null){
             mouseListener.get().handle(it)
             if (it.isConsumed)
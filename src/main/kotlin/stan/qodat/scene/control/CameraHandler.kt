@@ -9,10 +9,12 @@ import javafx.scene.input.ScrollEvent
 import javafx.scene.input.ZoomEvent
 import javafx.scene.transform.Rotate
 import javafx.scene.transform.Translate
+import qodat.animation.PoseBounds
 import stan.qodat.Properties
 import stan.qodat.util.onInvalidation
 import kotlin.math.max
 import kotlin.math.min
+import kotlin.math.sin
 
 /**
  * Handles mouse, scroll, zoom, and key events which may transform the position and/or rotation of the [camera].
@@ -128,6 +130,41 @@ class CameraHandler(
         }
     }
 
+    /**
+     * Orbits the camera around the center of the [bounds] and zooms out
+     * so that the bounding sphere fits the vertical field of view.
+     */
+    fun frame(bounds: PoseBounds) {
+        if (bounds.isEmpty())
+            return
+        cameraTransformGroup.translate.x = bounds.centerX
+        cameraTransformGroup.translate.y = bounds.centerY
+        cameraTransformGroup.translate.z = bounds.centerZ
+        val halfFieldOfView = Math.toRadians(camera.fieldOfView / 2.0)
+        updateZValue(-bounds.radius / sin(halfFieldOfView))
+    }
+
+    /**
+     * Captures the current view of the camera, which can be put back with [restore].
+     */
+    fun saveView() = View(
+        cameraTransformGroup.translate.x,
+        cameraTransformGroup.translate.y,
+        cameraTransformGroup.translate.z,
+        cameraTransformGroup.xRotate.angle,
+        cameraTransformGroup.yRotate.angle,
+        position.z
+    )
+
+    fun restore(view: View) {
+        cameraTransformGroup.translate.x = view.x
+        cameraTransformGroup.translate.y = view.y
+        cameraTransformGroup.translate.z = view.z
+        cameraTransformGroup.xRotate.angle = view.xAngle
+        cameraTransformGroup.yRotate.angle = view.yAngle
+        position.z = view.distance
+    }
+
     private fun updateZValue(newZ: Double) {
         var newZ1 = newZ
         newZ1 = max(newZ1, Properties.cameraMaxZoom.get())
@@ -135,6 +172,15 @@ class CameraHandler(
         position.z = newZ1
     }
 
+    data class View(
+        val x: Double,
+        val y: Double,
+        val z: Double,
+        val xAngle: Double,
+        val yAngle: Double,
+        val distance: Double
+    )
+
     class TransformGroup : Group() {
 
         val translate = Translate()
@@ -0,0 +1,245 @@
+package stan.qodat.scene.control
+
+import javafx.animation.AnimationTimer
+import javafx.scene.image.ImageView
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
+import javafx.scene.shape.CullFace
+import javafx.scene.transform.NonInvertibleTransformException
+import javafx.scene.transform.Transform
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.Properties
+import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
+import stan.qodat.scene.SubScene3D
+import stan.qodat.scene.runescape.Rasterizer3D
+import stan.qodat.scene.runescape.drawTriangle
+import stan.qodat.scene.runescape.model.Model
+import stan.qodat.scene.runescape.render.LitModel
+import stan.qodat.scene.runescape.render.OffscreenRenderer
+import stan.qodat.scene.runescape.render.PainterSort
+import stan.qodat.util.onInvalidation
+import java.util.*
+import kotlin.math.sqrt
+import kotlin.math.tan
+
+/**
+ * Shows the models of the current scene the way the client draws them, on top of the sub scene,
+ * while [Properties.painterPreview] is enabled.
+ *
+ * The models are drawn with the software [Rasterizer3D] from the point of view of the scene camera,
+ * without a depth buffer, in the order of the client's painter's algorithm (see [PainterSort]),
+ * so faces that rely on their priority to be visible show up as they do in-game.
+ * Like in the client, each model is drawn over the models drawn before it.
+ *
+ * The [imageView] is redrawn at most [FRAMES_PER_SECOND] times per second,
+ * mouse events pass through it to the sub scene.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class PainterPreview {
+
+    val imageView = ImageView().apply {
+        isMouseTransparent = true
+        isVisible = false
+    }
+
+    private var rasterizer: Rasterizer3D? = null
+    private var image: WritableImage? = null
+    private var argb = IntArray(0)
+
+    /**
+     * The lit models by definition and recolor, as models of different entities may share a definition.
+     */
+    private val litModels = WeakHashMap<ModelDefinition, HashMap<Recolor, LitModel>>()
+    private val textureColors by lazy { LitModel.textureColorsOf(OldschoolCacheRuneLite) }
+    private val painterSort = PainterSort()
+
+    private var screenX = IntArray(0)
+    private var screenY = IntArray(0)
+    private var viewZ = FloatArray(0)
+    private var vertexDepths = IntArray(0)
+    private var visibleFaces = IntArray(0)
+    private var faceDepths = IntArray(0)
+
+    private val timer = object : AnimationTimer() {
+        private var lastFrame = 0L
+        override fun handle(now: Long) {
+            if (now - lastFrame >= FRAME_INTERVAL_NANOS) {
+                lastFrame = now
+                render()
+            }
+        }
+    }
+
+    init {
+        Properties.painterPreview.onInvalidation { startOrStop() }
+        startOrStop()
+    }
+
+    private fun startOrStop() {
+        if (Properties.painterPreview.get()) {
+            imageView.isVisible = true
+            timer.start()
+        } else {
+            timer.stop()
+            imageView.isVisible = false
+            imageView.image = null
+            image = null
+            rasterizer = null
+        }
+    }
+
+    private fun render() {
+        val subScene = SubScene3D.subSceneProperty.get() ?: return
+        val width = subScene.width.toInt()
+        val height = subScene.height.toInt()
+        if (width <= 0 || height <= 0)
+            return
+        var rasterizer = rasterizer
+        var image = image
+        if (rasterizer == null || image == null || rasterizer.Rasterizer2D_width != width || rasterizer.Rasterizer2D_height != height) {
+            rasterizer = Rasterizer3D(width, height).apply { changeBrightness(OffscreenRenderer.BRIGHTNESS) }
+            image = WritableImage(width, height)
+            argb = IntArray(width * height)
+            this.rasterizer = rasterizer
+            this.image = image
+            imageView.image = image
+        }
+        rasterizer.clear()
+        val camera = SubScene3D.cameraHandler.camera
+        val focalLength = height / 2.0 / tan(Math.toRadians(camera.fieldOfView / 2.0))
+        val toCamera = try {
+            camera.localToSceneTransform.createInverse()
+        } catch (e: NonInvertibleTransformException) {
+            return
+        }
+        val models = SubScene3D.contextProperty.get()?.getModels() ?: emptyList()
+        for (model in models) {
+            val node = model.getSceneNode()
+            if (node.scene == null || !model.visibleProperty.get())
+                continue
+            val modelToCamera = toCamera.createConcatenation(node.localToSceneTransform)
+            drawModel(rasterizer, model, modelToCamera, focalLength, camera.nearClip)
+        }
+        val background = Properties.subSceneBackgroundColor.get().let {
+            ((it.red * 255).toInt() shl 16) or ((it.green * 255).toInt() shl 8) or (it.blue * 255).toInt()
+        }
+        val pixels = rasterizer.Rasterizer2D_pixels
+        for (index in argb.indices) {
+            val rgb = pixels[index]
+            argb[index] = OPAQUE or (if (rgb == 0) background else rgb)
+        }
+        image.pixelWriter.setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), argb, 0, width)
+    }
+
+    private fun drawModel(rasterizer: Rasterizer3D, model: Model, toCamera: Transform, focalLength: Double, nearClip: Double) {
+        val definition = model.modelDefinition
+        val litModel = litModels
+            .getOrPut(definition) { HashMap() }
+            .getOrPut(Recolor(model.findColor?.toList(), model.replaceColor?.toList())) {
+                LitModel(LitModel.recolor(definition, model.findColor, model.replaceColor), textureColors)
+            }
+        val vertexCount = definition.getVertexCount()
+        if (screenX.size < vertexCount) {
+            screenX = IntArray(vertexCount)
+            screenY = IntArray(vertexCount)
+            viewZ = FloatArray(vertexCount)
+            vertexDepths = IntArray(vertexCount)
+        }
+        // depths are bucketed in model units like in the client, regardless of the scale of the scene
+        val depthScale = sqrt(toCamera.mzx * toCamera.mzx + toCamera.mzy * toCamera.mzy + toCamera.mzz * toCamera.mzz)
+        val centerX = rasterizer.Rasterizer2D_width / 2.0
+        val centerY = rasterizer.Rasterizer2D_height / 2.0
+        val xs = model.getPointXValues()
+        val ys = model.getPointYValues()
+        val zs = model.getPointZValues()
+        for (vertex in 0 until vertexCount) {
+            val x = xs[vertex].toDouble()
+            val y = ys[vertex].toDouble()
+            val z = zs[vertex].toDouble()
+            val cameraZ = toCamera.mzx * x + toCamera.mzy * y + toCamera.mzz * z + toCamera.tz
+            viewZ[vertex] = cameraZ.toFloat()
+            vertexDepths[vertex] = (cameraZ / depthScale).toInt()
+            if (cameraZ >= nearClip) {
+                val cameraX = toCamera.mxx * x + toCamera.mxy * y + toCamera.mxz * z + toCamera.tx
+                val cameraY = toCamera.myx * x + toCamera.myy * y + toCamera.myz * z + toCamera.ty
+                screenX[vertex] = (centerX + cameraX * focalLength / cameraZ).toInt()
+                screenY[vertex] = (centerY + cameraY * focalLength / cameraZ).toInt()
+            }
+        }
+        val faceCount = sortFaces(litModel, model.cullFaceProperty.get(), nearClip.toFloat())
+        val vertices1 = definition.getFaceVertexIndices1()
+        val vertices2 = definition.getFaceVertexIndices2()
+        val vertices3 = definition.getFaceVertexIndices3()
+        val order = painterSort.order
+        val lastX = rasterizer.lastX
+        for (index in 0 until faceCount) {
+            val face = order[index]
+            val v1 = vertices1[face]
+            val v2 = vertices2[face]
+            val v3 = vertices3[face]
+            val x1 = screenX[v1]
+            val x2 = screenX[v2]
+            val x3 = screenX[v3]
+            rasterizer.triangleIsOutOfBounds = x1 < 0 || x2 < 0 || x3 < 0 || x1 > lastX || x2 > lastX || x3 > lastX
+            rasterizer.alpha = litModel.alphas[face]
+            rasterizer.drawTriangle(
+                litModel.renderTypes[face].toInt(),
+                x1, x2, x3,
+                screenY[v1], screenY[v2], screenY[v3],
+                viewZ[v1], viewZ[v2], viewZ[v3],
+                litModel.colors1[face], litModel.colors2[face], litModel.colors3[face]
+            )
+        }
+        rasterizer.alpha = 0
+    }
+
+    /**
+     * Collects the faces of the [model] in front of the near clip plane, and not culled by the [cullFace],
+     * in the [order][PainterSort.order] they should be drawn in.
+     *
+     * @return the number of collected faces.
+     */
+    private fun sortFaces(model: LitModel, cullFace: CullFace?, nearClip: Float) : Int {
+        val definition = model.definition
+        val vertices1 = definition.getFaceVertexIndices1()
+        val vertices2 = definition.getFaceVertexIndices2()
+        val vertices3 = definition.getFaceVertexIndices3()
+        if (visibleFaces.size < model.faceCount) {
+            visibleFaces = IntArray(model.faceCount)
+            faceDepths = IntArray(model.faceCount)
+        }
+        var count = 0
+        for (face in 0 until model.faceCount) {
+            if (model.alphas[face] == INVISIBLE_ALPHA)
+                continue
+            val v1 = vertices1[face]
+            val v2 = vertices2[face]
+            val v3 = vertices3[face]
+            if (viewZ[v1] < nearClip || viewZ[v2] < nearClip || viewZ[v3] < nearClip)
+                continue
+            if (cullFace != null && cullFace != CullFace.NONE) {
+                val frontFacing = (screenX[v1] - screenX[v2]) * (screenY[v3] - screenY[v2]) -
+                        (screenY[v1] - screenY[v2]) * (screenX[v3] - screenX[v2]) > 0
+                if (frontFacing == (cullFace == CullFace.FRONT))
+                    continue
+            }
+            faceDepths[face] = (vertexDepths[v1] + vertexDepths[v2] + vertexDepths[v3]) / 3
+            visibleFaces[count++] = face
+        }
+        return painterSort.sort(visibleFaces, count, faceDepths, model.priorities)
+    }
+
+    /**
+     * The colors a [Model] replaces in its definition, as lists so that equal recolors are equal keys.
+     */
+    private data class Recolor(val findColor: List<Short>?, val replaceColor: List<Short>?)
+
+    private companion object {
+        const val FRAMES_PER_SECOND = 50
+        const val FRAME_INTERVAL_NANOS = 1_000_000_000L / FRAMES_PER_SECOND
+        const val INVISIBLE_ALPHA = 255
+        const val OPAQUE = 0xFF shl 24
+    }
+}
@@ -0,0 +1,190 @@
+package stan.qodat.scene.control
+
+import javafx.application.Platform
+import javafx.scene.image.Image
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
+import qodat.animation.PoseBounds
+import qodat.cache.Cache
+import qodat.cache.definition.EntityDefinition
+import qodat.cache.definition.ItemDefinition
+import qodat.cache.models.RS2ModelBuilder
+import stan.qodat.Properties
+import stan.qodat.Qodat
+import stan.qodat.scene.runescape.render.LitModel
+import stan.qodat.scene.runescape.render.OffscreenCamera
+import stan.qodat.scene.runescape.render.OffscreenImage
+import stan.qodat.scene.runescape.render.OffscreenRenderer
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import javax.imageio.ImageIO
+
+/**
+ * Renders thumbnails of entities with the [OffscreenRenderer], items are shown in their inventory pose.
+ *
+ * Thumbnails are rendered on a pool of background threads and stored in a content-addressed disk cache,
+ * the name of each file is the hash of the revision of the cache, the model ids and the recolors of the entity.
+ * Entities of caches without a [revision][Cache.getRevision] are only cached in memory.
+ *
+ * The most recently used images are kept in memory, up to [MAX_CACHED_IMAGES] of them.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object ThumbnailService {
+
+    const val SIZE = 32
+
+    private const val MAX_CACHED_IMAGES = 512
+
+    /**
+     * Part of every key, must be incremented whenever the way thumbnails are rendered changes.
+     */
+    private const val VERSION = 3
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(
+        maxOf(1, Runtime.getRuntime().availableProcessors() / 2)
+    ) { runnable ->
+        Thread(runnable, "thumbnail-renderer").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+        }
+    }
+
+    private val renderers = ThreadLocal.withInitial { OffscreenRenderer(SIZE, SIZE) }
+    private val textureColors = ConcurrentHashMap<Cache, (Int) -> Int?>()
+
+    /**
+     * The most recently used images by key, only accessed on the JavaFX application thread.
+     */
+    private val images = object : LinkedHashMap<String, Image>(64, 0.75F, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Image>?) =
+            size > MAX_CACHED_IMAGES
+    }
+
+    /**
+     * Requests the thumbnail of the entity with the [definition] from the [cache],
+     * must be called on the JavaFX application thread.
+     *
+     * @see stan.qodat.scene.provider.ThumbnailProvider.requestThumbnail
+     */
+    fun request(cache: Cache, definition: EntityDefinition, onLoaded: (Image) -> Unit) : Future<*>? {
+        if (definition.modelIds.isEmpty())
+            return null
+        val revision = cache.getRevision()
+        val key = keyOf(revision ?: "${cache.name}@${System.identityHashCode(cache)}", definition)
+        val cached = images[key]
+        if (cached != null) {
+            onLoaded(cached)
+            return null
+        }
+        return executor.submit {
+            val image = try {
+                load(key, revision != null, cache, definition)
+            } catch (e: Exception) {
+                Qodat.logException("Could not create thumbnail of {${definition.name}}", e)
+                return@submit
+            }
+            Platform.runLater {
+                images[key] = image
+                onLoaded(image)
+            }
+        }
+    }
+
+    private fun keyOf(revision: String, definition: EntityDefinition) : String {
+        val pose = definition as? ItemDefinition
+        val text = listOf(
+            VERSION,
+            SIZE,
+            revision,
+            definition.modelIds.joinToString(","),
+            definition.findColor?.joinToString(","),
+            definition.replaceColor?.joinToString(","),
+            pose?.inventoryPitch,
+            pose?.inventoryYaw,
+            pose?.inventoryRoll,
+            pose?.inventoryZoom,
+            pose?.inventoryOffsetX,
+            pose?.inventoryOffsetY
+        ).joinToString("|")
+        return MessageDigest.getInstance("SHA-256")
+            .digest(text.toByteArray())
+            .joinToString("") { "%02x".format(it) }
+    }
+
+    private fun load(key: String, storeOnDisk: Boolean, cache: Cache, definition: EntityDefinition) : Image {
+        val file = if (storeOnDisk)
+            Properties.rootPath.get().resolve("thumbnails").resolve(key.substring(0, 2)).resolve("$key.png")
+        else
+            null
+        if (file != null && Files.exists(file)) {
+            val image = Files.newInputStream(file).use { Image(it) }
+            if (!image.isError)
+                return image
+        }
+        val rendered = render(cache, definition)
+        if (file != null)
+            write(file, rendered)
+        return WritableImage(SIZE, SIZE).apply {
+            pixelWriter.setPixels(0, 0, SIZE, SIZE, PixelFormat.getIntArgbInstance(), rendered.toArgb(), 0, SIZE)
+        }
+    }
+
+    private fun render(cache: Cache, definition: EntityDefinition) : OffscreenImage {
+        // the cache is not thread-safe and thumbnails are rendered on several threads
+        val definitions = synchronized(cache) {
+            definition.modelIds.map { cache.getModelDefinition(it) }
+        }
+        val merged = if (definitions.size == 1)
+            definitions.first()
+        else
+            RS2ModelBuilder(*definitions.toTypedArray()).build()
+        val model = LitModel(
+            LitModel.recolor(merged, definition.findColor, definition.replaceColor),
+            textureColors.getOrPut(cache) { LitModel.textureColorsOf(cache) }
+        )
+        val bounds = PoseBounds.of(
+            merged.getVertexPositionsX(),
+            merged.getVertexPositionsY(),
+            merged.getVertexPositionsZ(),
+            merged.getVertexCount()
+        )
+        val camera = if (definition is ItemDefinition)
+            OffscreenCamera.inventory(
+                modelHeight = maxOf(0, -bounds.minY),
+                width = SIZE,
+                height = SIZE,
+                yaw = definition.inventoryYaw,
+                pitch = definition.inventoryPitch,
+                roll = definition.inventoryRoll,
+                zoom2d = definition.inventoryZoom,
+                offsetX2d = definition.inventoryOffsetX,
+                offsetY2d = definition.inventoryOffsetY
+            )
+        else
+            OffscreenCamera.framing(bounds, SIZE, SIZE)
+        return renderers.get().render(model, camera)
+    }
+
+    /**
+     * Writes the [image] to a temporary file first, so that the [file] is never read while it is incomplete.
+     */
+    private fun write(file: Path, image: OffscreenImage) {
+        try {
+            Files.createDirectories(file.parent)
+            val temporary = Files.createTempFile(file.parent, file.fileName.toString(), ".tmp")
+            ImageIO.write(image.toBufferedImage(), "png", temporary.toFile())
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+        } catch (e: IOException) {
+            Qodat.logException("Could not store thumbnail {$file}", e)
+        }
+    }
+}
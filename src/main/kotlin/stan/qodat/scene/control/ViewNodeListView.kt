@@ -1,18 +1,26 @@
 package stan.qodat.scene.control
 
+import javafx.beans.InvalidationListener
+import javafx.beans.WeakInvalidationListener
 import javafx.event.Event
 import javafx.event.EventType
+import javafx.geometry.Pos
 import javafx.scene.control.ContextMenu
 import javafx.scene.control.ListCell
 import javafx.scene.control.ListView
 import javafx.scene.image.Image
+import javafx.scene.image.ImageView
 import javafx.scene.input.ClipboardContent
 import javafx.scene.input.MouseEvent
 import javafx.scene.input.TransferMode
+import javafx.scene.layout.HBox
 import javafx.util.Callback
+import stan.qodat.Properties
+import stan.qodat.scene.provider.ThumbnailProvider
 import stan.qodat.scene.provider.ViewNodeProvider
 import stan.qodat.scene.runescape.entity.Entity
 import java.io.File
+import java.util.concurrent.Future
 
 
 /**
@@ -25,14 +33,38 @@ open class ViewNodeListView<N : ViewNodeProvider> : ListView<N>() {
 
     lateinit var contextMenuBuilder: (N) -> ContextMenu
 
+    private val thumbnailsListener = InvalidationListener { refresh() }
+
     init {
+        Properties.showThumbnails.addListener(WeakInvalidationListener(thumbnailsListener))
         cellFactory = Callback {
             val listCell = object : ListCell<N>() {
+
+                private val thumbnailView = ImageView().apply {
+                    fitWidth = ThumbnailService.SIZE.toDouble()
+                    fitHeight = ThumbnailService.SIZE.toDouble()
+                }
+                private val thumbnailBox = HBox(5.0).apply { alignment = Pos.CENTER_LEFT }
+                private var thumbnailRequest: Future<*>? = null
+
                 override fun updateItem(item: N?, empty: Boolean) {
                     super.updateItem(item, empty)
+                    /*
+                     * Cells only exist for visible rows, so thumbnails of rows scrolled out of view are cancelled.
+                     */
+                    thumbnailRequest?.cancel(false)
+                    thumbnailRequest = null
+                    thumbnailView.image = null
                     graphic = if (empty || item == null)
                         null
-                    else
+                    else if (item is ThumbnailProvider && Properties.showThumbnails.get()) {
+                        thumbnailRequest = item.requestThumbnail { image ->
+                            if (this.item === item)
+                                thumbnailView.image = image
+                        }
+                        thumbnailBox.children.setAll(thumbnailView, item.getViewNode())
+                        thumbnailBox
+                    } else
                         item.getViewNode()
                 }
             }
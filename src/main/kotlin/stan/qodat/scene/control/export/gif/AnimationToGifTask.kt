@@ -1,5 +1,6 @@
 package stan.qodat.scene.control.export.gif
 
+import javafx.application.Platform
 import javafx.concurrent.Task
 import javafx.scene.SnapshotParameters
 import javafx.scene.SubScene
@@ -7,12 +8,17 @@ import javafx.scene.image.WritableImage
 import javafx.util.Duration
 import kotlinx.coroutines.*
 import kotlinx.coroutines.javafx.JavaFx
+import stan.qodat.Properties
 import stan.qodat.javafx.JavaFXExecutor
+import stan.qodat.scene.SubScene3D
+import stan.qodat.scene.control.CameraHandler
 import stan.qodat.scene.control.export.gif.encoder.*
 import stan.qodat.scene.runescape.animation.Animation
+import stan.qodat.scene.runescape.animation.AnimationBoundsCache
 import stan.qodat.scene.runescape.animation.AnimationPlayer
 import java.io.FileOutputStream
 import java.nio.file.Path
+import java.util.concurrent.Semaphore
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 
@@ -32,18 +38,25 @@ class AnimationToGifTask(
             updateMessage("Generating GIF for Animation $animationName")
         }
 
+        val savedView = if (Properties.frameCameraOnExport.get()) frameCamera() else null
+
         val snapshots = mutableListOf<Pair<Duration, WritableImage>>()
-        runBlocking {
-            snapshots.addAll(aniamtionFrames.mapIndexed { index, frame ->
-                GlobalScope.async(Dispatchers.JavaFx) {
-                    animationPlayer.jumpToFrame(index)
-                    val snapshotParameters = SnapshotParameters().apply { fill = javafx.scene.paint.Color.BLACK }
-                    val image = scene.snapshot(snapshotParameters, null)!!
-                    val duration = frame.getDuration()
+        try {
+            runBlocking {
+                snapshots.addAll(aniamtionFrames.mapIndexed { index, frame ->
+                    GlobalScope.async(Dispatchers.JavaFx) {
+                        animationPlayer.jumpToFrame(index)
+                        val snapshotParameters = SnapshotParameters().apply { fill = javafx.scene.paint.Color.BLACK }
+                        val image = scene.snapshot(snapshotParameters, null)!!
+                        val duration = frame.getDuration()
 
-                    duration to image
-                }
-            }.awaitAll())
+                        duration to image
+                    }
+                }.awaitAll())
+            }
+        } finally {
+            if (savedView != null)
+                Platform.runLater { SubScene3D.cameraHandler.restore(savedView) }
         }
 
         val path = exportPath.resolve("gifs/$animationName.gif").toFile().apply {
@@ -96,4 +109,26 @@ class AnimationToGifTask(
         out.close()
         return path.toPath()
     }
-}
\ No newline at end of file
+
+    /**
+     * Frames the camera around the union of all frame bounds, so the entire animation stays in view
+     * and every frame is captured with the same camera.
+     *
+     * @return the view of the camera before it was framed, or `null` if the camera was not moved.
+     */
+    private fun frameCamera() : CameraHandler.View? {
+        val bounds = AnimationBoundsCache.get(animationPlayer.transformableList.toList(), animation) ?: return null
+        var view: CameraHandler.View? = null
+        val semaphore = Semaphore(0)
+        Platform.runLater {
+            try {
+                view = SubScene3D.cameraHandler.saveView()
+                SubScene3D.cameraHandler.frame(bounds.union)
+            } finally {
+                semaphore.release()
+            }
+        }
+        semaphore.acquire()
+        return view
+    }
+}
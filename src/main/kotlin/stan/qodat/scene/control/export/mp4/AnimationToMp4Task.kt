@@ -13,8 +13,12 @@ import org.jcodec.common.io.NIOUtils
 import org.jcodec.common.io.SeekableByteChannel
 import org.jcodec.common.model.Rational
 import org.jcodec.scale.AWTUtil
+import stan.qodat.Properties
 import stan.qodat.javafx.JavaFXExecutor
+import stan.qodat.scene.SubScene3D
+import stan.qodat.scene.control.CameraHandler
 import stan.qodat.scene.runescape.animation.Animation
+import stan.qodat.scene.runescape.animation.AnimationBoundsCache
 import stan.qodat.scene.runescape.animation.AnimationPlayer
 import java.nio.file.Path
 import java.util.concurrent.Semaphore
@@ -37,6 +41,8 @@ class AnimationToMp4Task(
 
         updateMessage("Generating MP4 for Animation $animationName")
 
+        val savedView = if (Properties.frameCameraOnExport.get()) frameCamera() else null
+
         val totalFrames = aniamtionFrames.size
         val semaphore = Semaphore(0)
         val snapshots = AtomicReferenceArray<Pair<Duration, WritableImage>>(totalFrames)
@@ -68,7 +74,12 @@ class AnimationToMp4Task(
             }
         }
 
-        semaphore.acquire(totalFrames)
+        try {
+            semaphore.acquire(totalFrames)
+        } finally {
+            if (savedView != null)
+                Platform.runLater { SubScene3D.cameraHandler.restore(savedView) }
+        }
 
 
         val file = exportPath.resolve("mp4/$animationName.mp4").toFile().apply {
@@ -112,4 +123,25 @@ class AnimationToMp4Task(
             updateMessage("Generated MP4 at $file")
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Moves the camera such that the bounds of every frame fit in the video.
+     *
+     * @return the view of the camera before it was moved, or `null` if the camera was not moved.
+     */
+    private fun frameCamera() : CameraHandler.View? {
+        val bounds = AnimationBoundsCache.get(animationPlayer.transformableList.toList(), animation) ?: return null
+        var view: CameraHandler.View? = null
+        val semaphore = Semaphore(0)
+        Platform.runLater {
+            try {
+                view = SubScene3D.cameraHandler.saveView()
+                SubScene3D.cameraHandler.frame(bounds.union)
+            } finally {
+                semaphore.release()
+            }
+        }
+        semaphore.acquire()
+        return view
+    }
+}
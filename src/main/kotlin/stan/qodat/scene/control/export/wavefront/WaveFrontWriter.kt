@@ -38,8 +38,9 @@ class WaveFrontWriter(private val saveDir: Path) {
             objFileWriter.println("mtllib $mtlFileName.mtl")
             objFileWriter.println("o $objFormattedName")
 
+            // vertices are written in the order of the original definition (see ModelSkeleton.getOriginalVertex)
             for (i in 0 until model.getVertexCount()) {
-                val (x, y, z) = model.getXYZ(i)
+                val (x, y, z) = model.getXYZ(model.getSkeletonVertex(i))
                 objFileWriter.println("v $x ${(y * -1)} ${(z * -1)}")
             }
 
@@ -53,12 +54,16 @@ class WaveFrontWriter(private val saveDir: Path) {
                 }
             }
 
-            for (normal in  model.calculateVertexNormals()) {
+            val normals = model.calculateVertexNormals()
+            for (i in normals.indices) {
+                val normal = normals[model.getSkeletonVertex(i)]
                 objFileWriter.println("vn " + normal.x + " " + normal.y + " " + normal.z)
             }
 
             for (face in 0 until model.getFaceCount()) {
-                val (v1, v2, v3) = model.getVertices(face)
+                val (v1, v2, v3) = model.getVertices(face).let { (v1, v2, v3) ->
+                    Triple(model.getOriginalVertex(v1), model.getOriginalVertex(v2), model.getOriginalVertex(v3))
+                }
                 val material = modelDefinition.getFaceMaterial(face)
                 val materialIndex = materials.indexOf(material)
                 objFileWriter.println("usemtl m$materialIndex")
@@ -2,6 +2,7 @@ package stan.qodat.scene.control.tree
 
 import javafx.scene.Node
 import javafx.scene.control.ContextMenu
+import javafx.scene.control.Menu
 import javafx.scene.control.MenuItem
 import javafx.scene.control.TreeItem
 import javafx.scene.control.TreeView
@@ -9,6 +10,7 @@ import javafx.scene.paint.Color
 import javafx.scene.text.Text
 import stan.qodat.Properties
 import stan.qodat.javafx.*
+import stan.qodat.scene.SubScene3D
 import stan.qodat.scene.control.LockButton
 import stan.qodat.scene.control.export.ExportMenu
 import stan.qodat.scene.runescape.animation.Animation
@@ -35,6 +37,10 @@ class EntityTreeItem(
                     setExportable(entity)
                     if (entity is AnimatedEntity)
                         bindAnimation(entity.selectedAnimation)
+                },
+                Menu("instances").apply {
+                    menuItem("spawn copy") { spawnInstance() }
+                    menuItem("remove copies") { SubScene3D.contextProperty.get()?.removeInstances() }
                 }
             )
         }
@@ -127,4 +133,16 @@ class EntityTreeItem(
         }
         return treeItemPlaceHolder
     }
+
+    /**
+     * Adds a copy of the [entity] next to the existing copies, playing the selected animation of the [entity],
+     * all copies share their meshes (see [stan.qodat.scene.runescape.model.ModelInstancer]).
+     */
+    private fun spawnInstance() {
+        val context = SubScene3D.contextProperty.get() ?: return
+        val animation = (entity as? AnimatedEntity<*>)?.selectedAnimation?.get()
+        val instance = context.addInstance(entity, animation)
+        val spacing = instance.instancedModel.model.bounds.radius * 2.0
+        instance.translate.x = spacing * context.getInstances().size
+    }
 }
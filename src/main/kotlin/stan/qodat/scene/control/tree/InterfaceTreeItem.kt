@@ -18,8 +18,8 @@ import javafx.util.Duration
 import stan.qodat.javafx.label
 import stan.qodat.javafx.text
 import stan.qodat.javafx.treeItem
+import stan.qodat.scene.paint.HslPalette
 import stan.qodat.scene.runescape.ui.InterfaceGroup
-import stan.qodat.util.ModelUtil
 import stan.qodat.util.onInvalidation
 
 class InterfaceTreeItem(val group: InterfaceGroup, val selectionModel: MultipleSelectionModel<TreeItem<Node>>) : TreeItem<Node>() {
@@ -111,7 +111,7 @@ class InterfaceTreeItem(val group: InterfaceGroup, val selectionModel: MultipleS
                     }
                     4 -> Text().apply {
                         text = def.text
-                        fill = ModelUtil.hsbToColor(def.textColor, def.opacity.toByte())
+                        fill = HslPalette.color(def.textColor, def.opacity.toByte())
                     }
                     5 -> {
                         val view = ImageView((child.children.find { it.graphic is ImageView }?.graphic as ImageView).image)
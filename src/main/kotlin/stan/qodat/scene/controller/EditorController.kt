@@ -304,8 +304,8 @@ class EditorController : EntityViewController("editor-scene") {
 //        colorsList.items.clear()
 //        it.definition.findColor?.run {
 //            for (i in indices) {
-//                val find = ColorPicker(ModelUtil.hsbToColor(it.definition.findColor!![i], null))
-//                val replace = ColorPicker(ModelUtil.hsbToColor(it.definition.replaceColor!![i], null))
+//                val find = ColorPicker(HslPalette.color(it.definition.findColor!![i], null))
+//                val replace = ColorPicker(HslPalette.color(it.definition.replaceColor!![i], null))
 //                replace.valueProperty().addListener { _, oldColor, newColor ->
 //                    if (oldColor != newColor) {
 //                        val coloro = newColor.encode()
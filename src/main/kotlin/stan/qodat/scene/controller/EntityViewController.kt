@@ -40,6 +40,7 @@ import stan.qodat.scene.control.SplitSceneDividerDragRegion.RelativeBounds
 import stan.qodat.scene.control.ViewNodeListView
 import stan.qodat.scene.provider.SceneNodeProvider
 import stan.qodat.scene.provider.ViewNodeProvider
+import stan.qodat.scene.runescape.animation.AnimationBoundsCache
 import stan.qodat.scene.runescape.entity.*
 import stan.qodat.scene.runescape.model.Model
 import stan.qodat.scene.runescape.ui.InterfaceGroup
@@ -441,8 +442,10 @@ abstract class EntityViewController(name: String) : SceneController(name) {
         }
         Properties.selectedEntity.addListener { _, oldEntity, newEntity ->
             if (newEntity is AnimatedEntity) {
-                animationController.animations.setAll(*newEntity.getAnimations())
+                val animations = newEntity.getAnimations()
+                animationController.animations.setAll(*animations)
                 animationController.animationsListView.refresh()
+                AnimationBoundsCache.precompute(newEntity, animations)
             }
         }
         return animationView
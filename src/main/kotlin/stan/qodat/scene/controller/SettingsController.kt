@@ -26,6 +26,11 @@ class SettingsController : Initializable {
     @FXML lateinit var showNullNamesCheckBox: CheckBox
     @FXML lateinit var invertCameraCheckBox: CheckBox
     @FXML lateinit var renderTexturesCheckBox: CheckBox
+    @FXML lateinit var levelOfDetailCheckBox: CheckBox
+    @FXML lateinit var sortTransparentFacesCheckBox: CheckBox
+    @FXML lateinit var showThumbnailsCheckBox: CheckBox
+    @FXML lateinit var relightFramesCheckBox: CheckBox
+    @FXML lateinit var painterPreviewCheckBox: CheckBox
     @FXML lateinit var backgroundColorPicker: ColorPicker
     @FXML lateinit var ambientLightColorPicker: ColorPicker
 
@@ -42,6 +47,11 @@ class SettingsController : Initializable {
         showNullNamesCheckBox.selectedProperty().setAndBind(Properties.showNullNamedEntities, true)
         invertCameraCheckBox.selectedProperty().setAndBind(Properties.cameraInvert, true)
         renderTexturesCheckBox.selectedProperty().setAndBind(Properties.alwaysRenderUsingAtlas, true)
+        levelOfDetailCheckBox.selectedProperty().setAndBind(Properties.levelOfDetail, true)
+        sortTransparentFacesCheckBox.selectedProperty().setAndBind(Properties.sortTransparentFaces, true)
+        showThumbnailsCheckBox.selectedProperty().setAndBind(Properties.showThumbnails, true)
+        relightFramesCheckBox.selectedProperty().setAndBind(Properties.relightFrames, true)
+        painterPreviewCheckBox.selectedProperty().setAndBind(Properties.painterPreview, true)
         backgroundColorPicker.valueProperty().setAndBind(Properties.subSceneBackgroundColor, true)
         ambientLightColorPicker.valueProperty().setAndBind(Properties.ambientLightColor, true)
     }
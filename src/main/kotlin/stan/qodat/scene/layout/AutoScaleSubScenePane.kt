@@ -9,12 +9,14 @@ import javafx.scene.layout.Pane
 import javafx.scene.paint.Color
 import javafx.scene.shape.Rectangle
 import stan.qodat.Qodat
+import stan.qodat.scene.control.PainterPreview
 import stan.qodat.scene.control.SelectionHandler
 import stan.qodat.scene.SubScene3D
 import stan.qodat.util.onInvalidation
 
 /**
- * Represents a [Pane] that auto-resizes a [SubScene] and [overlayRectangleGroup].
+ * Represents a [Pane] that auto-resizes a [SubScene] and [overlayRectangleGroup],
+ * the [painterPreview] is shown over the [SubScene] when enabled.
  *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   22/01/2021
@@ -31,6 +33,7 @@ class AutoScaleSubScenePane(
     val leftOverlayGroup = Group()
     val subSceneProperty = SimpleObjectProperty<SubScene>()
     val selectionHandler = SelectionHandler()
+    val painterPreview = PainterPreview()
 
     init {
         setMinSize(minWidth, minHeight)
@@ -91,7 +94,7 @@ class AutoScaleSubScenePane(
     private fun onSubSceneChanged(){
         val subScene = subSceneProperty.get()?:return
         setPrefSize(subScene.width, subScene.height)
-        children.setAll(subScene, rightOverlayGroup, leftOverlayGroup)
+        children.setAll(subScene, painterPreview.imageView, rightOverlayGroup, leftOverlayGroup)
     }
 
     override fun layoutChildren() {
@@ -100,6 +103,7 @@ class AutoScaleSubScenePane(
             subScene.width = width
             subScene.height = height
         }
+        painterPreview.imageView.relocate(0.0, 0.0)
         val rightNodeWidth = snapSize(rightOverlayGroup.prefWidth(-1.0))
         val rightNodeHeight = snapSize(rightOverlayGroup.prefHeight(-1.0))
         rightOverlayGroup.resizeRelocate(width - rightNodeWidth, 0.0, rightNodeWidth, rightNodeHeight)
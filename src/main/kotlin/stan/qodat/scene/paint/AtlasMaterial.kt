@@ -2,23 +2,41 @@ package stan.qodat.scene.paint
 
 import javafx.beans.property.SimpleObjectProperty
 import javafx.scene.control.ColorPicker
+import javafx.scene.image.PixelFormat
 import javafx.scene.image.WritableImage
 import javafx.scene.paint.Color
 import javafx.scene.paint.PhongMaterial
+import stan.qodat.util.IntIntHashMap
+import java.nio.IntBuffer
 
 /**
  * This class represents a [PhongMaterial] with its
  * [PhongMaterial.diffuseMapProperty] bound to [imageProperty].
  *
+ * The image is a single row of pixels, one per unique face color (see [setColors]).
+ *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   28/09/2019
  * @version 1.0
  */
 class AtlasMaterial : PhongMaterial() {
 
-    private lateinit var colors : Array<Color>
-    private lateinit var uniqueColors : Set<Color>
-    private val replacementColorMap = HashMap<Color, Color>()
+    /**
+     * For each face, the index of its color in the atlas.
+     */
+    private var faceSlots = IntArray(0)
+
+    /**
+     * For each slot in the atlas, the packed HSL+alpha key (see [pack]).
+     */
+    private var slotKeys = IntArray(0)
+
+    /**
+     * For each slot in the atlas, the U coordinate of the centre of its pixel.
+     */
+    private var slotU = FloatArray(0)
+
+    private val replacementColorMap = HashMap<Int, Color>()
 
     val imageProperty = SimpleObjectProperty<WritableImage>()
 
@@ -26,54 +44,99 @@ class AtlasMaterial : PhongMaterial() {
         diffuseMapProperty().bind(imageProperty)
     }
 
+    val slotCount: Int
+        get() = slotKeys.size
+
     private fun createImage(){
-        val image = WritableImage(uniqueColors.size, 1)
-        uniqueColors.forEachIndexed { index, color ->
-            image.pixelWriter.setColor(index, 0, replacementColorMap[color]?:color)
+        val width = slotCount
+        val pixels = IntArray(width) { slot ->
+            replacementColorMap[slot]?.let(::toArgb) ?: HslPalette.argb(slotKeys[slot])
         }
+        val image = WritableImage(width, 1)
+        image.pixelWriter.setPixels(0, 0, width, 1, PixelFormat.getIntArgbInstance(), IntBuffer.wrap(pixels), width)
         imageProperty.set(image)
     }
 
     /**
-     * Creates a new image of the unique colors of the specified array,
-     * and sets this image in the [imageProperty].
+     * Assigns a slot in the atlas to each unique combination of color and alpha,
+     * creates a new image of these colors and sets this image in the [imageProperty].
      *
-     * @param colors the colors array to use.
+     * @param colors the HSL color of each face.
+     * @param alphas the alpha of each face, or `null` if all faces are opaque.
      */
-    fun setColors(colors: Array<Color>){
-        this.colors = colors
-        uniqueColors = colors.toSet()
+    fun setColors(colors: ShortArray, alphas: ByteArray?){
+        val faceCount = colors.size
+        val slotMap = IntIntHashMap(64)
+        var keys = IntArray(64)
+        faceSlots = IntArray(faceCount) { face ->
+            val key = pack(colors[face], alphas?.get(face) ?: 0)
+            val slot = slotMap.getOrPutIndex(key)
+            if (slot == keys.size)
+                keys = keys.copyOf(keys.size * 2)
+            keys[slot] = key
+            slot
+        }
+        slotKeys = keys.copyOf(slotMap.size)
+        val width = slotKeys.size
+        slotU = FloatArray(width) { slot -> ((slot + 0.5) / width).toFloat() }
+        replacementColorMap.clear()
         createImage()
     }
 
+    /**
+     * Gets the index of the color of the [face] in the atlas.
+     */
+    fun getSlot(face: Int) = faceSlots[face]
+
     /**
      * Gets the U (x) coordinate of the color from a [WritableImage] in the [imageProperty].
      *
-     * @param index the index corresponding to a color in [colors]
+     * @param index the index of a face passed to [setColors].
      *
-     * @return the U coordinate of the color at the specified [index].
+     * @return the U coordinate of the color of the face at the specified [index].
      */
     fun getU(index: Int) : Float {
-        if (!this::uniqueColors.isInitialized)
+        if (index >= faceSlots.size)
             return 0F
-        val colorIndex = uniqueColors.indexOf(colors[index])
-        val onsetX = colorIndex.toDouble().div(uniqueColors.size)
-        val offsetX = (1.0 / uniqueColors.size).div(2)
-        return  (onsetX + offsetX).toFloat()
+        return slotU[faceSlots[index]]
+    }
+
+    /**
+     * Creates the tex coords (u, v pairs) of every slot in the atlas, in order of slot index.
+     *
+     * The V coordinate is always the centre of the single row of pixels.
+     */
+    fun createTexCoords() = FloatArray(slotCount * 2) {
+        if (it % 2 == 0) slotU[it / 2] else 0.5F
     }
 
     fun createPickers() : Set<ColorPicker> {
         replacementColorMap.clear()
-        return uniqueColors.mapIndexed { index, color ->
+        val uniqueColors = slotKeys.map(HslPalette::color)
+        return uniqueColors.mapIndexed { slot, color ->
             val picker = ColorPicker(color)
             picker.customColors.setAll(uniqueColors)
             picker.valueProperty().addListener { _, oldValue, newValue ->
                 if(oldValue != newValue){
-                    replacementColorMap[color] = newValue
+                    replacementColorMap[slot] = newValue
                     createImage()
                 }
             }
             picker
         }.toSet()
     }
-}
\ No newline at end of file
+
+    companion object {
+
+        /**
+         * Packs the 16-bit [hsl] color and 8-bit [alpha] into a single non-negative int.
+         */
+        fun pack(hsl: Short, alpha: Byte) = (hsl.toInt() and 0xFFFF) or ((alpha.toInt() and 0xFF) shl 16)
+
+        private fun toArgb(color: Color) =
+            ((color.opacity * 255).toInt() shl 24) or
+                    ((color.red * 255).toInt() shl 16) or
+                    ((color.green * 255).toInt() shl 8) or
+                    (color.blue * 255).toInt()
+    }
+}
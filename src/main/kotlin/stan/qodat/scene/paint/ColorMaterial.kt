@@ -12,13 +12,12 @@ import javafx.scene.paint.PhongMaterial
 import javafx.scene.shape.Rectangle
 import javafx.scene.text.Text
 import stan.qodat.util.DEFAULT
-import stan.qodat.util.ModelUtil
 
 data class ColorMaterial(private val encodedColor: Short, private val alpha: Byte?) :
     Material {
 
     private val color by lazy {
-        ModelUtil.hsbToColor(encodedColor, alpha)
+        HslPalette.color(encodedColor, alpha)
     }
 
     override val fxMaterial by lazy {
@@ -0,0 +1,131 @@
+package stan.qodat.scene.paint
+
+import javafx.scene.paint.Color
+import kotlin.math.pow
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Converts the 16-bit HSL colors of models (6 bits hue, 3 bits saturation, 7 bits lightness) to RGB colors,
+ * every color conversion should go through this object.
+ *
+ * The JavaFX scene and the exporters read the components as HSB values,
+ * which are converted once for all 65536 colors into an immutable table.
+ * The software rasterizer uses the palettes of the client instead, one per brightness (see [clientPalette]).
+ *
+ * [Color] objects are interned per packed HSL and alpha (see [AtlasMaterial.pack]),
+ * so the same color is only ever created once.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object HslPalette {
+
+    private val rgbs = IntArray(0x10000) { hsl ->
+        val hue = hsl shr 10 and 0x3f
+        val saturation = hsl shr 7 and 0x07
+        val brightness = hsl and 0x7f
+        java.awt.Color.HSBtoRGB(hue.toFloat() / 63, saturation.toFloat() / 7, brightness.toFloat() / 127) and 0xFFFFFF
+    }
+
+    private val colors = ConcurrentHashMap<Int, Color>()
+
+    /**
+     * The palettes created by [clientPalette], by brightness.
+     */
+    private val clientPalettes = ConcurrentHashMap<Double, IntArray>()
+
+    /**
+     * Gets the RGB color of the [hsl] color, only the lowest 16 bits of [hsl] are used.
+     */
+    @JvmStatic
+    fun rgb(hsl: Int) = rgbs[hsl and 0xFFFF]
+
+    /**
+     * Gets the ARGB color of the [key] holding the HSL color and alpha (see [AtlasMaterial.pack]),
+     * an alpha of 0 is treated as opaque.
+     */
+    @JvmStatic
+    fun argb(key: Int) : Int {
+        var alpha = key ushr 16 and 0xFF
+        if (alpha == 0)
+            alpha = 255
+        return (alpha shl 24) or rgbs[key and 0xFFFF]
+    }
+
+    /**
+     * Gets the interned [Color] of the [key] holding the HSL color and alpha (see [AtlasMaterial.pack]),
+     * an alpha of 0 is treated as opaque.
+     */
+    @JvmStatic
+    fun color(key: Int) : Color = colors.computeIfAbsent(key and 0xFFFFFF) {
+        val argb = argb(it)
+        Color.rgb(argb shr 16 and 0xFF, argb shr 8 and 0xFF, argb and 0xFF, (argb ushr 24) / 255.0)
+    }
+
+    /**
+     * Gets the interned [Color] of the [hsl] color with the [alpha], a `null` or 0 alpha is treated as opaque.
+     */
+    @JvmStatic
+    fun color(hsl: Int, alpha: Byte?) : Color =
+        color((hsl and 0xFFFF) or ((alpha?.toInt() ?: 0) and 0xFF shl 16))
+
+    @JvmStatic
+    fun color(hsl: Short, alpha: Byte?) = color(hsl.toInt(), alpha)
+
+    /**
+     * Gets the palette the client draws HSL colors with at the [brightness] (ranging from 0.0 to 1.0),
+     * palettes are created once per brightness, and must not be modified.
+     *
+     * No color of the palette is pure black, so 0 can mark pixels that were not drawn to.
+     */
+    @JvmStatic
+    fun clientPalette(brightness: Double) : IntArray = clientPalettes.computeIfAbsent(brightness, ::createClientPalette)
+
+    private fun createClientPalette(brightness: Double) : IntArray {
+        val palette = IntArray(0x10000)
+        var index = 0
+        for (hueSaturation in 0 until 512) {
+            val hue = (hueSaturation / 8) / 64.0 + 0.0078125
+            val saturation = (hueSaturation and 7) / 8.0 + 0.0625
+            for (lightness in 0 until 128) {
+                val l = lightness / 128.0
+                var r = l
+                var g = l
+                var b = l
+                if (saturation != 0.0) {
+                    val q = if (l < 0.5) l * (1.0 + saturation) else l + saturation - l * saturation
+                    val p = 2.0 * l - q
+                    var hueR = hue + 1.0 / 3.0
+                    if (hueR > 1.0)
+                        hueR--
+                    var hueB = hue - 1.0 / 3.0
+                    if (hueB < 0.0)
+                        hueB++
+                    r = hueToChannel(p, q, hueR)
+                    g = hueToChannel(p, q, hue)
+                    b = hueToChannel(p, q, hueB)
+                }
+                var rgb = ((r * 256.0).toInt() shl 16) + ((g * 256.0).toInt() shl 8) + (b * 256.0).toInt()
+                rgb = brighten(rgb, brightness)
+                if (rgb == 0)
+                    rgb = 1
+                palette[index++] = rgb
+            }
+        }
+        return palette
+    }
+
+    private fun hueToChannel(p: Double, q: Double, hue: Double) = when {
+        6.0 * hue < 1.0 -> p + (q - p) * 6.0 * hue
+        2.0 * hue < 1.0 -> q
+        3.0 * hue < 2.0 -> p + (q - p) * (2.0 / 3.0 - hue) * 6.0
+        else -> p
+    }
+
+    private fun brighten(rgb: Int, brightness: Double) : Int {
+        val red = ((rgb shr 16) / 256.0).pow(brightness)
+        val green = ((rgb shr 8 and 0xFF) / 256.0).pow(brightness)
+        val blue = ((rgb and 0xFF) / 256.0).pow(brightness)
+        return (blue * 256.0).toInt() + ((green * 256.0).toInt() shl 8) + ((red * 256.0).toInt() shl 16)
+    }
+}
@@ -0,0 +1,130 @@
+package stan.qodat.scene.paint
+
+import javafx.application.Platform
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.PhongMaterial
+import java.nio.IntBuffer
+
+/**
+ * Packs textures into shared pages so that faces with different textures can be drawn with one material.
+ *
+ * Each page is a grid of cells of [cellSize] pixels with a [gutter] of repeated edge pixels around every texture,
+ * which prevents neighbouring textures from bleeding into each other when the image is filtered.
+ * Because all RuneScape textures are (at most) 128x128 a grid is sufficient, and freeing a cell is trivial.
+ *
+ * A region can only be used for faces whose UV coordinates lie within [0, 1],
+ * because UVs outside of that range would sample neighbouring cells rather than wrap around.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class TextureAtlas(
+    private val pageSize: Int = 1024,
+    private val cellSize: Int = 128,
+    private val gutter: Int = 2
+) {
+
+    private val pages = ArrayList<Page>()
+
+    private val cellStride = cellSize + gutter * 2
+    private val cellsPerRow = pageSize / cellStride
+
+    /**
+     * Copies the [pixels] into a free cell of a page.
+     *
+     * @param pixels the ARGB pixels of the texture, row by row.
+     *
+     * @return the [Region] of the texture, or `null` if the texture does not fit in a cell.
+     */
+    @Synchronized
+    fun allocate(pixels: IntArray, width: Int, height: Int) : Region? {
+        if (width > cellSize || height > cellSize || width <= 0 || height <= 0)
+            return null
+        val page = pages.firstOrNull { it.freeCells.isNotEmpty() }
+            ?: Page(pages.size).also { pages += it }
+        val cell = page.freeCells.removeLast()
+        val x = (cell % cellsPerRow) * cellStride + gutter
+        val y = (cell / cellsPerRow) * cellStride + gutter
+        page.write(x, y, width, height, pixels)
+        return Region(
+            page = page,
+            cell = cell,
+            minU = x.toFloat() / pageSize,
+            minV = y.toFloat() / pageSize,
+            maxU = (x + width).toFloat() / pageSize,
+            maxV = (y + height).toFloat() / pageSize
+        )
+    }
+
+    /**
+     * Returns the cell of the [region] to its page, so it can be reused by another texture.
+     */
+    @Synchronized
+    fun free(region: Region) {
+        region.page.freeCells += region.cell
+    }
+
+    inner class Page(val index: Int) {
+
+        val image = WritableImage(pageSize, pageSize)
+        val material = PhongMaterial().apply { diffuseMap = image }
+
+        internal val freeCells = ArrayList<Int>().apply {
+            for (cell in cellsPerRow * cellsPerRow - 1 downTo 0)
+                add(cell)
+        }
+
+        /**
+         * Writes the [pixels] at [x], [y] and repeats the edge pixels of the texture in the gutter.
+         *
+         * The [image] may be shown already, so off the JavaFX application thread it is written later on that thread,
+         * which is before any skin prepared along with the write (see [Model][stan.qodat.scene.runescape.model.Model]) is shown.
+         */
+        internal fun write(x: Int, y: Int, width: Int, height: Int, pixels: IntArray) {
+            val paddedWidth = width + gutter * 2
+            val paddedHeight = height + gutter * 2
+            val padded = IntArray(paddedWidth * paddedHeight)
+            for (row in 0 until paddedHeight) {
+                val sourceRow = (row - gutter).coerceIn(0, height - 1)
+                for (column in 0 until paddedWidth) {
+                    val sourceColumn = (column - gutter).coerceIn(0, width - 1)
+                    padded[row * paddedWidth + column] = pixels[sourceRow * width + sourceColumn]
+                }
+            }
+            val writePixels = {
+                image.pixelWriter.setPixels(
+                    x - gutter, y - gutter, paddedWidth, paddedHeight,
+                    PixelFormat.getIntArgbInstance(), IntBuffer.wrap(padded), paddedWidth
+                )
+            }
+            if (Platform.isFxApplicationThread())
+                writePixels()
+            else
+                Platform.runLater(writePixels)
+        }
+    }
+
+    /**
+     * The UV rectangle of a texture in a [page].
+     */
+    class Region(
+        val page: Page,
+        internal val cell: Int,
+        val minU: Float,
+        val minV: Float,
+        val maxU: Float,
+        val maxV: Float
+    ) {
+
+        /**
+         * Maps a [u] coordinate in [0, 1] of the texture to the page.
+         */
+        fun mapU(u: Float) = minU + (maxU - minU) * u
+
+        /**
+         * Maps a [v] coordinate in [0, 1] of the texture to the page.
+         */
+        fun mapV(v: Float) = minV + (maxV - minV) * v
+    }
+}
@@ -0,0 +1,169 @@
+package stan.qodat.scene.paint
+
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
+import qodat.cache.Cache
+import qodat.cache.definition.SpriteDefinition
+import qodat.cache.definition.TextureDefinition
+import stan.qodat.Qodat
+import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
+import java.nio.IntBuffer
+
+/**
+ * A global cache of [TextureMaterial] instances keyed by texture id,
+ * so that each texture is decoded once per session regardless of how many faces, models or entities use it.
+ *
+ * Users of a texture [acquire] it and [release] it when they no longer need it.
+ * Unreferenced textures are kept around until they take up more than [UNREFERENCED_PIXEL_BUDGET] pixels,
+ * at which point they are evicted (and their [TextureAtlas] region is freed).
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object TextureCache {
+
+    /**
+     * The maximum number of pixels of unreferenced textures to keep, roughly 64 MB worth of ARGB pixels.
+     */
+    private const val UNREFERENCED_PIXEL_BUDGET = 16 * 1024 * 1024
+
+    private val entries = LinkedHashMap<Int, Entry>(64, 0.75f, true)
+    private val failedTextureIds = HashSet<Int>()
+
+    val atlas = TextureAtlas()
+
+    /**
+     * Gets the shared [TextureMaterial] of the [textureId] and increments its reference count.
+     *
+     * @return the loaded material, or `null` if the texture could not be loaded.
+     */
+    @Synchronized
+    fun acquire(textureId: Int, cache: Cache = OldschoolCacheRuneLite) : TextureMaterial? {
+        val entry = getEntry(textureId, cache) ?: return null
+        entry.referenceCount++
+        return entry.material
+    }
+
+    /**
+     * Decrements the reference count of the [textureId], see [acquire].
+     */
+    @Synchronized
+    fun release(textureId: Int) {
+        val entry = entries[textureId] ?: return
+        if (entry.referenceCount > 0 && --entry.referenceCount == 0)
+            trim()
+    }
+
+    /**
+     * Gets the shared [TextureMaterial] of the [textureId] without referencing it,
+     * use [acquire] if the texture should not be evicted while in use.
+     */
+    @Synchronized
+    fun get(textureId: Int, cache: Cache = OldschoolCacheRuneLite) : TextureMaterial? =
+        getEntry(textureId, cache)?.material
+
+    /**
+     * Gets the region of the [textureId] in the shared [atlas], packing it on first use.
+     *
+     * @return the region, or `null` if the texture is not loaded or does not fit in the atlas.
+     */
+    @Synchronized
+    fun getRegion(textureId: Int) : TextureAtlas.Region? {
+        val entry = entries[textureId] ?: return null
+        if (entry.region == null && !entry.regionFailed) {
+            entry.region = atlas.allocate(entry.pixels, entry.width, entry.height)
+            entry.regionFailed = entry.region == null
+        }
+        return entry.region
+    }
+
+    /**
+     * Gets the decoded image of the [definition], decoding it if it is not cached.
+     */
+    @Synchronized
+    fun getImage(definition: TextureDefinition) : WritableImage? =
+        getEntry(definition.id, definition)?.image
+
+    @Synchronized
+    fun clear() {
+        for (entry in entries.values)
+            entry.region?.let(atlas::free)
+        entries.clear()
+        failedTextureIds.clear()
+    }
+
+    private fun getEntry(textureId: Int, cache: Cache) : Entry? {
+        entries[textureId]?.let { return it }
+        if (textureId in failedTextureIds)
+            return null
+        val definition = try {
+            cache.getTexture(textureId)
+        } catch (e: Exception) {
+            Qodat.logException("Failed to get texture $textureId", e)
+            failedTextureIds += textureId
+            return null
+        }
+        return getEntry(textureId, definition)
+    }
+
+    private fun getEntry(textureId: Int, definition: TextureDefinition) : Entry? {
+        entries[textureId]?.let { return it }
+        if (textureId in failedTextureIds)
+            return null
+        val entry = try {
+            decode(definition, OldschoolCacheRuneLite.getSprite(definition.fileIds[0], 0))
+        } catch (e: Exception) {
+            Qodat.logException("Failed to load texture sprite ${definition.fileIds.firstOrNull()}", e)
+            null
+        }
+        if (entry == null) {
+            failedTextureIds += textureId
+            return null
+        }
+        entries[textureId] = entry
+        entry.material.setImage(entry.image)
+        trim()
+        return entry
+    }
+
+    /**
+     * Writes the pixels of the [sprite] straight into a [WritableImage],
+     * without going through a [java.awt.image.BufferedImage].
+     */
+    private fun decode(definition: TextureDefinition, sprite: SpriteDefinition) : Entry {
+        val width = sprite.width
+        val height = sprite.height
+        val pixels = sprite.pixels
+        val image = WritableImage(width, height)
+        image.pixelWriter.setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), IntBuffer.wrap(pixels), width)
+        return Entry(TextureMaterial(definition), image, pixels, width, height)
+    }
+
+    /**
+     * Evicts the least recently used unreferenced textures until they fit in the [UNREFERENCED_PIXEL_BUDGET].
+     */
+    private fun trim() {
+        var unreferencedPixels = entries.values.sumOf { if (it.referenceCount == 0) it.width * it.height else 0 }
+        val iterator = entries.values.iterator()
+        while (unreferencedPixels > UNREFERENCED_PIXEL_BUDGET && iterator.hasNext()) {
+            val entry = iterator.next()
+            if (entry.referenceCount == 0) {
+                entry.region?.let(atlas::free)
+                unreferencedPixels -= entry.width * entry.height
+                iterator.remove()
+            }
+        }
+    }
+
+    private class Entry(
+        val material: TextureMaterial,
+        val image: WritableImage,
+        val pixels: IntArray,
+        val width: Int,
+        val height: Int
+    ) {
+        var referenceCount = 0
+        var region: TextureAtlas.Region? = null
+        var regionFailed = false
+    }
+}
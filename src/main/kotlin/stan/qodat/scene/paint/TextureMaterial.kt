@@ -2,7 +2,6 @@ package stan.qodat.scene.paint
 
 import javafx.animation.AnimationTimer
 import javafx.beans.property.SimpleObjectProperty
-import javafx.embed.swing.SwingFXUtils
 import javafx.geometry.Pos
 import javafx.scene.Node
 import javafx.scene.control.Label
@@ -14,8 +13,6 @@ import javafx.scene.paint.PhongMaterial
 import javafx.scene.text.Text
 import qodat.cache.definition.SpriteDefinition
 import qodat.cache.definition.TextureDefinition
-import stan.qodat.Qodat
-import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
 import stan.qodat.util.DEFAULT
 import java.awt.image.BufferedImage
 import java.util.concurrent.TimeUnit
@@ -23,7 +20,7 @@ import java.util.concurrent.TimeUnit
 /**
  * This class represents a [PhongMaterial] with its [PhongMaterial.diffuseMapProperty] bound to [imageProperty].
  *
- * Make sure to first load the image in [load].
+ * Make sure to first load the image in [load], or get a loaded instance from the [TextureCache].
  *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   28/09/2019
@@ -64,32 +61,23 @@ data class TextureMaterial(val definition: TextureDefinition) : Material {
     }
 
 
-    fun load() = try {
-        val textureSprite = OldschoolCacheRuneLite.getSprite(definition.fileIds[0], 0)
-        fxMaterial.diffuseMapProperty().bind(imageProperty)
-        val textureSpriteImage = try {
-            textureSprite.let {
-                val width = it.width
-                val height = it.height
-                val pixels = it.pixels
-                BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB).apply {
-                    setRGB(0, 0, width, height, pixels, 0, width)
-                }
-            }
-        } catch (e: Exception) {
-            Qodat.logException("Failed to export texture sprite ${textureSprite}", e)
-            null
-        }
-        if (textureSpriteImage != null) {
-            imageProperty.set(SwingFXUtils.toFXImage(textureSpriteImage, null))
-            true
-        } else
-            false
-    } catch (e: Exception) {
-        Qodat.logException("Failed to load texture sprite ${definition.fileIds[0]}", e)
-        false
+    /**
+     * Loads the decoded image of this texture from the [TextureCache],
+     * which decodes the texture sprite only the first time it is requested.
+     *
+     * @return `true` if the image was loaded, `false` if the texture sprite could not be decoded.
+     */
+    fun load() : Boolean {
+        val image = TextureCache.getImage(definition) ?: return false
+        setImage(image)
+        return true
     }
 
+    internal fun setImage(image: Image) {
+        if (!fxMaterial.diffuseMapProperty().isBound)
+            fxMaterial.diffuseMapProperty().bind(imageProperty)
+        imageProperty.set(image)
+    }
 
     fun SpriteDefinition.export(): BufferedImage {
         val bi = BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
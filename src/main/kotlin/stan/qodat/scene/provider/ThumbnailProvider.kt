@@ -0,0 +1,21 @@
+package stan.qodat.scene.provider
+
+import javafx.scene.image.Image
+import java.util.concurrent.Future
+
+/**
+ * Represents an interface that can be shown as a small image in GUI elements.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+interface ThumbnailProvider {
+
+    /**
+     * Requests the thumbnail, [onLoaded] is called on the JavaFX application thread once it is available.
+     *
+     * @return the pending request, which can be cancelled if the thumbnail is no longer needed,
+     *         or `null` if [onLoaded] was already called.
+     */
+    fun requestThumbnail(onLoaded: (Image) -> Unit) : Future<*>?
+}
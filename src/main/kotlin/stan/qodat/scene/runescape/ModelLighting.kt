@@ -0,0 +1,254 @@
+package stan.qodat.scene.runescape
+
+import qodat.cache.definition.ModelDefinition
+import kotlin.math.sqrt
+
+/**
+ * Lights the faces of a model the way the client does, for any pose of the model.
+ *
+ * The face normals, the summed vertex normals and the lit colors are kept in primitive arrays.
+ * When the model is lit in a new pose (see [update]), only the faces with a vertex that moved get a new normal,
+ * and only the faces sharing a vertex with those faces get a new color,
+ * the result is identical to lighting the pose from scratch.
+ *
+ * The lit colors are HSL colors, except for textured faces, which hold their inverted brightness
+ * (see [applyLighting] and [applyTextureLighting]).
+ * Shaded faces have a color for each corner, the other faces only have [colors1].
+ *
+ * @param shade should the corners of shaded faces be lit (otherwise their colors remain 0).
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelLighting(
+    private val definition: ModelDefinition,
+    private val brightnessOffset: Int = 64,
+    shadowModifier: Int = 850,
+    private val sizeX: Int = -30,
+    private val sizeY: Int = -50,
+    private val sizeZ: Int = -30,
+    private val shade: Boolean = true
+) {
+
+    private val shadow = shadowModifier * sqrt((sizeX * sizeX + sizeY * sizeY + sizeZ * sizeZ).toDouble()).toInt() shr 8
+
+    private val vertexCount = definition.getVertexCount()
+    val faceCount = definition.getFaceCount()
+
+    private val vertices1 = definition.getFaceVertexIndices1()
+    private val vertices2 = definition.getFaceVertexIndices2()
+    private val vertices3 = definition.getFaceVertexIndices3()
+    private val faceColors = definition.getFaceColors()
+
+    /**
+     * For each face, its type as passed to [applyLighting], or -1 if the face is shaded.
+     */
+    private val lightingTypes = IntArray(faceCount)
+
+    /**
+     * For each shaded face, the type its corners are lit with in [applyLighting].
+     */
+    private val shadingTypes = IntArray(faceCount)
+
+    private val faceNormalsX = IntArray(faceCount)
+    private val faceNormalsY = IntArray(faceCount)
+    private val faceNormalsZ = IntArray(faceCount)
+
+    private val vertexNormalsX = IntArray(vertexCount)
+    private val vertexNormalsY = IntArray(vertexCount)
+    private val vertexNormalsZ = IntArray(vertexCount)
+
+    /**
+     * For each vertex, the number of shaded faces it is part of.
+     */
+    private val vertexMagnitudes = IntArray(vertexCount)
+
+    /**
+     * The faces of each vertex `v` are `vertexFaces[vertexFaceOffsets[v] until vertexFaceOffsets[v + 1]]`.
+     */
+    private val vertexFaceOffsets = IntArray(vertexCount + 1)
+    private val vertexFaces = IntArray(faceCount * 3)
+
+    private val positionsX = IntArray(vertexCount)
+    private val positionsY = IntArray(vertexCount)
+    private val positionsZ = IntArray(vertexCount)
+
+    val colors1 = IntArray(faceCount)
+    val colors2 = IntArray(faceCount)
+    val colors3 = IntArray(faceCount)
+
+    /**
+     * The faces whose colors changed in the last [update], the first [changedFaceCount] are valid.
+     */
+    var changedFaces = IntArray(0)
+        private set
+    var changedFaceCount = 0
+        private set
+
+    private val faceMarks = IntArray(faceCount)
+    private val colorMarks = IntArray(faceCount)
+    private var markGeneration = 0
+    private var movedFaces = IntArray(0)
+
+    init {
+        val types = definition.getFaceTypes()
+        val textures = definition.getFaceTextures()
+        for (face in 0 until faceCount) {
+            val type = types?.get(face)?.toInt() ?: 0
+            val textured = (textures?.get(face)?.toInt() ?: -1) != -1
+            if (type and 1 == 0) {
+                lightingTypes[face] = -1
+                shadingTypes[face] = when {
+                    textured -> RENDER_TEXTURED_TRIANGLE
+                    types == null -> RENDER_FLAT_TRIANGLE
+                    else -> type
+                }
+                vertexMagnitudes[vertices1[face]]++
+                vertexMagnitudes[vertices2[face]]++
+                vertexMagnitudes[vertices3[face]]++
+            } else
+                lightingTypes[face] = if (textured) RENDER_TEXTURED_TRIANGLE else type
+            vertexFaceOffsets[vertices1[face] + 1]++
+            vertexFaceOffsets[vertices2[face] + 1]++
+            vertexFaceOffsets[vertices3[face] + 1]++
+        }
+        for (vertex in 0 until vertexCount)
+            vertexFaceOffsets[vertex + 1] += vertexFaceOffsets[vertex]
+        val next = vertexFaceOffsets.copyOf(vertexCount)
+        for (face in 0 until faceCount) {
+            vertexFaces[next[vertices1[face]]++] = face
+            vertexFaces[next[vertices2[face]]++] = face
+            vertexFaces[next[vertices3[face]]++] = face
+        }
+        definition.getVertexPositionsX().copyInto(positionsX, endIndex = vertexCount)
+        definition.getVertexPositionsY().copyInto(positionsY, endIndex = vertexCount)
+        definition.getVertexPositionsZ().copyInto(positionsZ, endIndex = vertexCount)
+        for (face in 0 until faceCount) {
+            computeFaceNormal(face)
+            if (lightingTypes[face] == -1)
+                addToVertexNormals(face, 1)
+        }
+        for (face in 0 until faceCount)
+            computeColors(face)
+    }
+
+    /**
+     * Lights the model in the pose of the specified vertex positions,
+     * afterwards [changedFaces] holds the faces whose colors changed.
+     *
+     * @return the number of faces whose colors changed.
+     */
+    fun update(xs: IntArray, ys: IntArray, zs: IntArray) : Int {
+        val generation = ++markGeneration
+        var movedCount = 0
+        for (vertex in 0 until vertexCount) {
+            val x = xs[vertex]
+            val y = ys[vertex]
+            val z = zs[vertex]
+            if (x == positionsX[vertex] && y == positionsY[vertex] && z == positionsZ[vertex])
+                continue
+            positionsX[vertex] = x
+            positionsY[vertex] = y
+            positionsZ[vertex] = z
+            for (index in vertexFaceOffsets[vertex] until vertexFaceOffsets[vertex + 1]) {
+                val face = vertexFaces[index]
+                if (faceMarks[face] != generation) {
+                    faceMarks[face] = generation
+                    if (movedCount == movedFaces.size)
+                        movedFaces = movedFaces.copyOf(maxOf(16, movedCount * 2))
+                    movedFaces[movedCount++] = face
+                }
+            }
+        }
+        changedFaceCount = 0
+        for (index in 0 until movedCount) {
+            val face = movedFaces[index]
+            if (lightingTypes[face] == -1) {
+                addToVertexNormals(face, -1)
+                computeFaceNormal(face)
+                addToVertexNormals(face, 1)
+                markColorsChanged(vertices1[face], generation)
+                markColorsChanged(vertices2[face], generation)
+                markColorsChanged(vertices3[face], generation)
+            } else {
+                computeFaceNormal(face)
+                markColorChanged(face, generation)
+            }
+        }
+        for (index in 0 until changedFaceCount)
+            computeColors(changedFaces[index])
+        return changedFaceCount
+    }
+
+    private fun markColorsChanged(vertex: Int, generation: Int) {
+        for (index in vertexFaceOffsets[vertex] until vertexFaceOffsets[vertex + 1])
+            markColorChanged(vertexFaces[index], generation)
+    }
+
+    private fun markColorChanged(face: Int, generation: Int) {
+        if (colorMarks[face] == generation)
+            return
+        colorMarks[face] = generation
+        if (changedFaceCount == changedFaces.size)
+            changedFaces = changedFaces.copyOf(maxOf(16, changedFaceCount * 2))
+        changedFaces[changedFaceCount++] = face
+    }
+
+    private fun computeFaceNormal(face: Int) {
+        val v1 = vertices1[face]
+        val v2 = vertices2[face]
+        val v3 = vertices3[face]
+        val dx1 = positionsX[v2] - positionsX[v1]
+        val dy1 = positionsY[v2] - positionsY[v1]
+        val dz1 = positionsZ[v2] - positionsZ[v1]
+        val dx2 = positionsX[v3] - positionsX[v1]
+        val dy2 = positionsY[v3] - positionsY[v1]
+        val dz2 = positionsZ[v3] - positionsZ[v1]
+        var d1 = dy1 * dz2 - dy2 * dz1
+        var d2 = dz1 * dx2 - dz2 * dx1
+        var d3 = dx1 * dy2 - dx2 * dy1
+        while (d1 > MAX_VIEW_DISTANCE || d2 > MAX_VIEW_DISTANCE || d3 > MAX_VIEW_DISTANCE
+            || d1 < -MAX_VIEW_DISTANCE || d2 < -MAX_VIEW_DISTANCE || d3 < -MAX_VIEW_DISTANCE
+        ) {
+            d1 = d1 shr 1
+            d2 = d2 shr 1
+            d3 = d3 shr 1
+        }
+        var distance = sqrt((d1 * d1 + d2 * d2 + d3 * d3).toDouble()).toInt()
+        if (distance <= 0)
+            distance = 1
+        faceNormalsX[face] = d1 * 256 / distance
+        faceNormalsY[face] = d2 * 256 / distance
+        faceNormalsZ[face] = d3 * 256 / distance
+    }
+
+    private fun addToVertexNormals(face: Int, sign: Int) {
+        val x = faceNormalsX[face] * sign
+        val y = faceNormalsY[face] * sign
+        val z = faceNormalsZ[face] * sign
+        for (vertex in intArrayOf(vertices1[face], vertices2[face], vertices3[face])) {
+            vertexNormalsX[vertex] += x
+            vertexNormalsY[vertex] += y
+            vertexNormalsZ[vertex] += z
+        }
+    }
+
+    private fun computeColors(face: Int) {
+        val color = faceColors[face].toInt() and 0xFFFF
+        val type = lightingTypes[face]
+        if (type != -1) {
+            val brightness = (sizeX * faceNormalsX[face] + sizeY * faceNormalsY[face] + sizeZ * faceNormalsZ[face]) /
+                    (shadow + shadow / 2)
+            colors1[face] = applyLighting(type, color, brightnessOffset + brightness)
+        } else if (shade) {
+            val shadingType = shadingTypes[face]
+            colors1[face] = applyLighting(shadingType, color, vertexBrightness(vertices1[face]))
+            colors2[face] = applyLighting(shadingType, color, vertexBrightness(vertices2[face]))
+            colors3[face] = applyLighting(shadingType, color, vertexBrightness(vertices3[face]))
+        }
+    }
+
+    private fun vertexBrightness(vertex: Int) = brightnessOffset +
+            (sizeX * vertexNormalsX[vertex] + sizeY * vertexNormalsY[vertex] + sizeZ * vertexNormalsZ[vertex]) /
+            (shadow * vertexMagnitudes[vertex])
+}
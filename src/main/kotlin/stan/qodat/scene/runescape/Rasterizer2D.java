@@ -7,29 +7,37 @@ import java.awt.geom.Ellipse2D;
 import java.awt.image.*;
 import java.util.Hashtable;
 
+/**
+ * A raster of pixels with a depth buffer and a clip area, and the 2D drawing operations on it.
+ *
+ * All state is held by the instance, so separate instances can be drawn to from separate threads.
+ */
 public class Rasterizer2D {
 
     private static final ColorModel COLOR_MODEL = new DirectColorModel(32, 0xff0000, 0xff00, 0xff);
 
-    public static float[] depthBuffer;
+    public float[] depthBuffer;
 
-    public static int[] Rasterizer2D_pixels;
+    public int[] Rasterizer2D_pixels;
 
-    public static int Rasterizer2D_width;
-    public static int Rasterizer2D_height;
-    public static int Rasterizer2D_yClipStart;
-    public static int Rasterizer2D_yClipEnd;
-    public static int Rasterizer2D_xClipStart;
-    public static int Rasterizer2D_xClipEnd;
-    public static int lastX;
-    public static int viewportCenterX;
-    public static int viewportCenterY;
+    public int Rasterizer2D_width;
+    public int Rasterizer2D_height;
+    public int Rasterizer2D_yClipStart;
+    public int Rasterizer2D_yClipEnd;
+    public int Rasterizer2D_xClipStart;
+    public int Rasterizer2D_xClipEnd;
+    public int lastX;
+    public int viewportCenterX;
+    public int viewportCenterY;
 
-    static {
-        Rasterizer2D_yClipStart = 0;
-        Rasterizer2D_yClipEnd = 0;
-        Rasterizer2D_xClipStart = 0;
-        Rasterizer2D_xClipEnd = 0;
+    /**
+     * Creates a raster of the specified size with its own pixel and depth buffers.
+     *
+     * @param width  The width of the drawingArea.
+     * @param height The height of the drawingArea.
+     */
+    public Rasterizer2D(int width, int height) {
+        Rasterizer2D_replace(new int[width * height], new float[width * height], width, height);
     }
 
     /**
@@ -39,7 +47,7 @@ public class Rasterizer2D {
      * @param width  The width of the drawingArea.
      * @param height The height of the drawingArea.
      */
-    public static void Rasterizer2D_replace(int[] pixels, float[] depth, int width, int height) {
+    public void Rasterizer2D_replace(int[] pixels, float[] depth, int width, int height) {
         if(depth != null)
             depthBuffer = depth;
         Rasterizer2D_pixels = pixels;
@@ -47,7 +55,7 @@ public class Rasterizer2D {
         Rasterizer2D_height = height;
         Rasterizer2D_setClip(0, height, width, 0);
     }
-    public static void Rasterizer2D_clear() {
+    public void Rasterizer2D_clear() {
         int var0 = 0;
 
         int var1;
@@ -69,7 +77,7 @@ public class Rasterizer2D {
     /**
      * Sets default size and position for 2D raster
      */
-    public static void Rasterizer2D_resetClip() {
+    public void Rasterizer2D_resetClip() {
         Rasterizer2D_xClipStart = 0;
         Rasterizer2D_yClipStart = 0;
         Rasterizer2D_xClipEnd = Rasterizer2D_width;
@@ -85,7 +93,7 @@ public class Rasterizer2D {
      * @param rightX  The right edge X-Coordinate.
      * @param topY    The top edge Y-Coordinate.
      */
-    public static void Rasterizer2D_setClip(int leftX, int bottomY, int rightX, int topY) {
+    public void Rasterizer2D_setClip(int leftX, int bottomY, int rightX, int topY) {
         if (leftX < 0)
             leftX = 0;
 
@@ -98,17 +106,17 @@ public class Rasterizer2D {
         if (bottomY > Rasterizer2D_height)
             bottomY = Rasterizer2D_height;
 
-        Rasterizer2D.Rasterizer2D_xClipStart = leftX;
-        Rasterizer2D.Rasterizer2D_yClipStart = topY;
-        Rasterizer2D.Rasterizer2D_xClipEnd = rightX;
-        Rasterizer2D.Rasterizer2D_yClipEnd = bottomY;
-        lastX = Rasterizer2D.Rasterizer2D_xClipEnd;
-        viewportCenterX = Rasterizer2D.Rasterizer2D_xClipEnd / 2;
-        viewportCenterY = Rasterizer2D.Rasterizer2D_yClipEnd / 2;
+        Rasterizer2D_xClipStart = leftX;
+        Rasterizer2D_yClipStart = topY;
+        Rasterizer2D_xClipEnd = rightX;
+        Rasterizer2D_yClipEnd = bottomY;
+        lastX = Rasterizer2D_xClipEnd;
+        viewportCenterX = Rasterizer2D_xClipEnd / 2;
+        viewportCenterY = Rasterizer2D_yClipEnd / 2;
     }
 
 	/* Graphics2D methods */
-    public static void Rasterizer2D_fillRectangle(int x, int y, int var2, int var3, int color) {
+    public void Rasterizer2D_fillRectangle(int x, int y, int var2, int var3, int color) {
         if(x < Rasterizer2D_xClipStart) {
             var2 -= Rasterizer2D_xClipStart - x;
             x = Rasterizer2D_xClipStart;
@@ -151,7 +159,7 @@ public class Rasterizer2D {
     /**
      * Clears the drawingArea by setting every pixel to 0 (black).
      */
-    public static void clear() {
+    public void clear() {
 
         int i = 0;
 
@@ -170,6 +178,7 @@ public class Rasterizer2D {
             ;
         }
         if(depthBuffer != null) {
+            i = 0;
             for (count = Rasterizer2D_width * Rasterizer2D_height - 7; i < count; depthBuffer[i++] = Float.MAX_VALUE) {
                 depthBuffer[i++] = Float.MAX_VALUE;
                 depthBuffer[i++] = Float.MAX_VALUE;
@@ -195,21 +204,21 @@ public class Rasterizer2D {
      * @param height    The height of the box.
      * @param rgbColour The RGBColour of the box.
      */
-    public static void drawBox(int leftX, int topY, int width, int height, int rgbColour) {
-        if (leftX < Rasterizer2D.Rasterizer2D_xClipStart) {
-            width -= Rasterizer2D.Rasterizer2D_xClipStart - leftX;
-            leftX = Rasterizer2D.Rasterizer2D_xClipStart;
+    public void drawBox(int leftX, int topY, int width, int height, int rgbColour) {
+        if (leftX < Rasterizer2D_xClipStart) {
+            width -= Rasterizer2D_xClipStart - leftX;
+            leftX = Rasterizer2D_xClipStart;
         }
-        if (topY < Rasterizer2D.Rasterizer2D_yClipStart) {
-            height -= Rasterizer2D.Rasterizer2D_yClipStart - topY;
-            topY = Rasterizer2D.Rasterizer2D_yClipStart;
+        if (topY < Rasterizer2D_yClipStart) {
+            height -= Rasterizer2D_yClipStart - topY;
+            topY = Rasterizer2D_yClipStart;
         }
         if (leftX + width > Rasterizer2D_xClipEnd)
             width = Rasterizer2D_xClipEnd - leftX;
         if (topY + height > Rasterizer2D_yClipEnd)
             height = Rasterizer2D_yClipEnd - topY;
-        int leftOver = Rasterizer2D.Rasterizer2D_width - width;
-        int pixelIndex = leftX + topY * Rasterizer2D.Rasterizer2D_width;
+        int leftOver = Rasterizer2D_width - width;
+        int pixelIndex = leftX + topY * Rasterizer2D_width;
         for (int rowIndex = 0; rowIndex < height; rowIndex++) {
             for (int columnIndex = 0; columnIndex < width; columnIndex++)
                 Rasterizer2D_pixels[pixelIndex++] = rgbColour;
@@ -227,14 +236,14 @@ public class Rasterizer2D {
      * @param rgbColour The box colour.
      * @param opacity   The opacity value ranging from 0 to 256.
      */
-    public static void drawTransparentBox(int leftX, int topY, int width, int height, int rgbColour, int opacity) {
-        if (leftX < Rasterizer2D.Rasterizer2D_xClipStart) {
-            width -= Rasterizer2D.Rasterizer2D_xClipStart - leftX;
-            leftX = Rasterizer2D.Rasterizer2D_xClipStart;
+    public void drawTransparentBox(int leftX, int topY, int width, int height, int rgbColour, int opacity) {
+        if (leftX < Rasterizer2D_xClipStart) {
+            width -= Rasterizer2D_xClipStart - leftX;
+            leftX = Rasterizer2D_xClipStart;
         }
-        if (topY < Rasterizer2D.Rasterizer2D_yClipStart) {
-            height -= Rasterizer2D.Rasterizer2D_yClipStart - topY;
-            topY = Rasterizer2D.Rasterizer2D_yClipStart;
+        if (topY < Rasterizer2D_yClipStart) {
+            height -= Rasterizer2D_yClipStart - topY;
+            topY = Rasterizer2D_yClipStart;
         }
         if (leftX + width > Rasterizer2D_xClipEnd)
             width = Rasterizer2D_xClipEnd - leftX;
@@ -244,8 +253,8 @@ public class Rasterizer2D {
         int red = (rgbColour >> 16 & 0xff) * opacity;
         int green = (rgbColour >> 8 & 0xff) * opacity;
         int blue = (rgbColour & 0xff) * opacity;
-        int leftOver = Rasterizer2D.Rasterizer2D_width - width;
-        int pixelIndex = leftX + topY * Rasterizer2D.Rasterizer2D_width;
+        int leftOver = Rasterizer2D_width - width;
+        int pixelIndex = leftX + topY * Rasterizer2D_width;
         for (int rowIndex = 0; rowIndex < height; rowIndex++) {
             for (int columnIndex = 0; columnIndex < width; columnIndex++) {
                 int otherRed = (Rasterizer2D_pixels[pixelIndex] >> 16 & 0xff) * transparency;
@@ -258,7 +267,7 @@ public class Rasterizer2D {
         }
     }
 
-    public static void drawPixels(int height, int posY, int posX, int color, int w) {
+    public void drawPixels(int height, int posY, int posX, int color, int w) {
         if (posX < Rasterizer2D_xClipStart) {
             w -= Rasterizer2D_xClipStart - posX;
             posX = Rasterizer2D_xClipStart;
@@ -293,7 +302,7 @@ public class Rasterizer2D {
      * @param height    The height.
      * @param rgbColour The RGB-Colour.
      */
-    public static void drawBoxOutline(int leftX, int topY, int width, int height, int rgbColour) {
+    public void drawBoxOutline(int leftX, int topY, int width, int height, int rgbColour) {
         drawHorizontalLine(leftX, topY, width, rgbColour);
         drawHorizontalLine(leftX, (topY + height) - 1, width, rgbColour);
         drawVerticalLine(leftX, topY, height, rgbColour);
@@ -308,7 +317,7 @@ public class Rasterizer2D {
      * @param width     The width of the line.
      * @param rgbColour The colour of the line.
      */
-    public static void drawHorizontalLine(int xPosition, int yPosition, int width, int rgbColour) {
+    public void drawHorizontalLine(int xPosition, int yPosition, int width, int rgbColour) {
         if (yPosition < Rasterizer2D_yClipStart || yPosition >= Rasterizer2D_yClipEnd)
             return;
         if (xPosition < Rasterizer2D_xClipStart) {
@@ -317,12 +326,12 @@ public class Rasterizer2D {
         }
         if (xPosition + width > Rasterizer2D_xClipEnd)
             width = Rasterizer2D_xClipEnd - xPosition;
-        int pixelIndex = xPosition + yPosition * Rasterizer2D.Rasterizer2D_width;
+        int pixelIndex = xPosition + yPosition * Rasterizer2D_width;
         for (int i = 0; i < width; i++)
             Rasterizer2D_pixels[pixelIndex + i] = rgbColour;
     }
     
-    public static void drawHorizontalLine(int x, int y, int width, int color, int alpha) {
+    public void drawHorizontalLine(int x, int y, int width, int color, int alpha) {
     	if (y < Rasterizer2D_yClipStart || y >= Rasterizer2D_yClipEnd)
             return;
         if (x < Rasterizer2D_xClipStart) {
@@ -335,7 +344,7 @@ public class Rasterizer2D {
         int red = (color >> 16 & 0xff) * alpha;
         int green = (color >> 8 & 0xff) * alpha;
         int blue = (color & 0xff) * alpha;
-        int pixelIndex = x + y * Rasterizer2D.Rasterizer2D_width;
+        int pixelIndex = x + y * Rasterizer2D_width;
         for (int j3 = 0; j3 < width; j3++) {
             int otherRed = (Rasterizer2D_pixels[pixelIndex] >> 16 & 0xff) * transparency;
             int otherGreen = (Rasterizer2D_pixels[pixelIndex] >> 8 & 0xff) * transparency;
@@ -345,7 +354,7 @@ public class Rasterizer2D {
         }
     }
     
-    public static void fillRectangle(int xPos, int yPos, int w, int h, int color) {
+    public void fillRectangle(int xPos, int yPos, int w, int h, int color) {
         if (xPos < Rasterizer2D_xClipStart) {
             w -= Rasterizer2D_xClipStart - xPos;
             xPos = Rasterizer2D_xClipStart;
@@ -358,8 +367,8 @@ public class Rasterizer2D {
             w = Rasterizer2D_xClipEnd - xPos;
         if (yPos + h > Rasterizer2D_yClipEnd)
             h = Rasterizer2D_yClipEnd - yPos;
-        int k1 = Rasterizer2D.Rasterizer2D_width - w;
-        int l1 = xPos + yPos * Rasterizer2D.Rasterizer2D_width;
+        int k1 = Rasterizer2D_width - w;
+        int l1 = xPos + yPos * Rasterizer2D_width;
         for (int i2 = -h; i2 < 0; i2++) {
             for (int j2 = -w; j2 < 0; j2++)
             	Rasterizer2D_pixels[l1++] = color;
@@ -368,7 +377,7 @@ public class Rasterizer2D {
         }
     }
     
-    public static void fillRectangle(int x, int y, int w, int h, int color, int alpha) {
+    public void fillRectangle(int x, int y, int w, int h, int color, int alpha) {
         if (x < Rasterizer2D_xClipStart) {
             w -= Rasterizer2D_xClipStart - x;
             x = Rasterizer2D_xClipStart;
@@ -385,8 +394,8 @@ public class Rasterizer2D {
         int r1 = (color >> 16 & 0xff) * alpha;
         int g1 = (color >> 8 & 0xff) * alpha;
         int b1 = (color & 0xff) * alpha;
-        int k3 = Rasterizer2D.Rasterizer2D_width - w;
-        int pixel = x + y * Rasterizer2D.Rasterizer2D_width;
+        int k3 = Rasterizer2D_width - w;
+        int pixel = x + y * Rasterizer2D_width;
         for (int i4 = 0; i4 < h; i4++) {
             for (int index = -w; index < 0; index++) {
                 int r2 = (Rasterizer2D_pixels[pixel] >> 16 & 0xff) * a2;
@@ -407,7 +416,7 @@ public class Rasterizer2D {
      * @param height    The height of the line.
      * @param rgbColour The colour of the line.
      */
-    public static void drawVerticalLine(int xPosition, int yPosition, int height, int rgbColour) {
+    public void drawVerticalLine(int xPosition, int yPosition, int height, int rgbColour) {
         if (xPosition < Rasterizer2D_xClipStart || xPosition >= Rasterizer2D_xClipEnd)
             return;
         if (yPosition < Rasterizer2D_yClipStart) {
@@ -431,7 +440,7 @@ public class Rasterizer2D {
      * @param rgbColour The RGB-Colour.
      * @param opacity   The opacity value ranging from 0 to 256.
      */
-    public static void drawTransparentBoxOutline(int leftX, int topY, int width, int height, int rgbColour, int opacity) {
+    public void drawTransparentBoxOutline(int leftX, int topY, int width, int height, int rgbColour, int opacity) {
         drawTransparentHorizontalLine(leftX, topY, width, rgbColour, opacity);
         drawTransparentHorizontalLine(leftX, topY + height - 1, width, rgbColour, opacity);
         if (height >= 3) {
@@ -449,7 +458,7 @@ public class Rasterizer2D {
      * @param rgbColour The colour of the line.
      * @param opacity   The opacity value ranging from 0 to 256.
      */
-    public static void drawTransparentHorizontalLine(int xPosition, int yPosition, int width, int rgbColour, int opacity) {
+    public void drawTransparentHorizontalLine(int xPosition, int yPosition, int width, int rgbColour, int opacity) {
         if (yPosition < Rasterizer2D_yClipStart || yPosition >= Rasterizer2D_yClipEnd) {
             return;
         }
@@ -464,7 +473,7 @@ public class Rasterizer2D {
         final int red = (rgbColour >> 16 & 0xff) * opacity;
         final int green = (rgbColour >> 8 & 0xff) * opacity;
         final int blue = (rgbColour & 0xff) * opacity;
-        int pixelIndex = xPosition + yPosition * Rasterizer2D.Rasterizer2D_width;
+        int pixelIndex = xPosition + yPosition * Rasterizer2D_width;
         for (int i = 0; i < width; i++) {
             final int otherRed = (Rasterizer2D_pixels[pixelIndex] >> 16 & 0xff) * transparency;
             final int otherGreen = (Rasterizer2D_pixels[pixelIndex] >> 8 & 0xff) * transparency;
@@ -483,7 +492,7 @@ public class Rasterizer2D {
      * @param rgbColour The colour of the line.
      * @param opacity   The opacity value ranging from 0 to 256.
      */
-    public static void drawTransparentVerticalLine(int xPosition, int yPosition, int height, int rgbColour, int opacity) {
+    public void drawTransparentVerticalLine(int xPosition, int yPosition, int height, int rgbColour, int opacity) {
         if (xPosition < Rasterizer2D_xClipStart || xPosition >= Rasterizer2D_xClipEnd) {
             return;
         }
@@ -509,7 +518,7 @@ public class Rasterizer2D {
         }
     }
 
-    public static void drawFilledCircle(int x, int y, int radius, int color, int alpha) {
+    public void drawFilledCircle(int x, int y, int radius, int color, int alpha) {
         int y1 = y - radius;
         if (y1 < 0) {
             y1 = 0;
@@ -548,7 +557,7 @@ public class Rasterizer2D {
         }
     }
     
-    public static void fillGradientRectangle(int x, int y, int w, int h, int startColour, int endColour) {
+    public void fillGradientRectangle(int x, int y, int w, int h, int startColour, int endColour) {
 		int k1 = 0;
 		int l1 = 0x10000 / h;
 		if (x < Rasterizer2D_xClipStart) {
@@ -580,7 +589,7 @@ public class Rasterizer2D {
 		}
 	}
 
-    public static void fillGradientHorizontalLine(int x, int y, int w, int startColour, int endColour) {
+    public void fillGradientHorizontalLine(int x, int y, int w, int startColour, int endColour) {
         if (y < Rasterizer2D_yClipStart || y >= Rasterizer2D_yClipEnd)
             return;
         int k1 = 0;
@@ -605,7 +614,7 @@ public class Rasterizer2D {
         }
     }
 
-    public static Graphics2D createGraphics(boolean renderingHints) {
+    public Graphics2D createGraphics(boolean renderingHints) {
         Graphics2D g2d = createGraphics(Rasterizer2D_pixels, Rasterizer2D_width, Rasterizer2D_height);
         if (renderingHints) {
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -631,7 +640,7 @@ public class Rasterizer2D {
         return ring;
     }
 
-	public static void drawDarkBox(int xPos, int yPos, int width, int height) {
+	public void drawDarkBox(int xPos, int yPos, int width, int height) {
 		drawTransparentBox(xPos, yPos, width, height, 0x000000, 220);
 		drawBoxOutline(xPos, yPos, width, height, 0x726451);
 		drawBoxOutline(xPos + 1, yPos + 1, width - 2, height - 2, 0x2E2B23);
@@ -641,13 +650,13 @@ public class Rasterizer2D {
     public static final int STYLISH_BOX_OUTLINE_COLOR = 0x5a5245;
     public static final int STYLISH_BOX_BACKGROUND_COLOR = 0x463D32;
 
-    public static void drawStylishBox(int x, int y, int width, int height) {
-        Rasterizer2D.drawBoxOutline(x, y, width, height, STYLISH_BOX_OUTLINE_OUTLINE_COLOR);
-        Rasterizer2D.drawBoxOutline(x + 1, y + 1, width - 2, height - 2, STYLISH_BOX_OUTLINE_COLOR);
-        Rasterizer2D.drawTransparentBox(x + 2, y + 2, width - 4, height - 4, STYLISH_BOX_BACKGROUND_COLOR, 156);
+    public void drawStylishBox(int x, int y, int width, int height) {
+        drawBoxOutline(x, y, width, height, STYLISH_BOX_OUTLINE_OUTLINE_COLOR);
+        drawBoxOutline(x + 1, y + 1, width - 2, height - 2, STYLISH_BOX_OUTLINE_COLOR);
+        drawTransparentBox(x + 2, y + 2, width - 4, height - 4, STYLISH_BOX_BACKGROUND_COLOR, 156);
     }
 
-    public static void drawRoundedRectangle(int x, int y, int width, int height, int color, int alpha, boolean filled, boolean shadowed) {
+    public void drawRoundedRectangle(int x, int y, int width, int height, int color, int alpha, boolean filled, boolean shadowed) {
         if (shadowed)
             drawRoundedRectangle(x + 1, y + 1, width, height, 0, alpha, filled, false);
         if (alpha == -1) {
@@ -681,21 +690,21 @@ public class Rasterizer2D {
         }
     }
 
-    public static void drawSaturationBrightnessMap(int leftX, int topY, int width, int height, float hue) {
-        if (leftX < Rasterizer2D.Rasterizer2D_xClipStart) {
-            width -= Rasterizer2D.Rasterizer2D_xClipStart - leftX;
-            leftX = Rasterizer2D.Rasterizer2D_xClipStart;
+    public void drawSaturationBrightnessMap(int leftX, int topY, int width, int height, float hue) {
+        if (leftX < Rasterizer2D_xClipStart) {
+            width -= Rasterizer2D_xClipStart - leftX;
+            leftX = Rasterizer2D_xClipStart;
         }
-        if (topY < Rasterizer2D.Rasterizer2D_yClipStart) {
-            height -= Rasterizer2D.Rasterizer2D_yClipStart - topY;
-            topY = Rasterizer2D.Rasterizer2D_yClipStart;
+        if (topY < Rasterizer2D_yClipStart) {
+            height -= Rasterizer2D_yClipStart - topY;
+            topY = Rasterizer2D_yClipStart;
         }
         if (leftX + width > Rasterizer2D_xClipEnd)
             width = Rasterizer2D_xClipEnd - leftX;
         if (topY + height > Rasterizer2D_yClipEnd)
             height = Rasterizer2D_yClipEnd - topY;
-        int leftOver = Rasterizer2D.Rasterizer2D_width - width;
-        int pixelIndex = leftX + topY * Rasterizer2D.Rasterizer2D_width;
+        int leftOver = Rasterizer2D_width - width;
+        int pixelIndex = leftX + topY * Rasterizer2D_width;
 
         float saturation = 0.0f;
         float brightness = 1.0f;
@@ -710,21 +719,21 @@ public class Rasterizer2D {
         }
     }
 
-    public static void drawHueMap(int leftX, int topY, int width, int height) {
-        if (leftX < Rasterizer2D.Rasterizer2D_xClipStart) {
-            width -= Rasterizer2D.Rasterizer2D_xClipStart - leftX;
-            leftX = Rasterizer2D.Rasterizer2D_xClipStart;
+    public void drawHueMap(int leftX, int topY, int width, int height) {
+        if (leftX < Rasterizer2D_xClipStart) {
+            width -= Rasterizer2D_xClipStart - leftX;
+            leftX = Rasterizer2D_xClipStart;
         }
-        if (topY < Rasterizer2D.Rasterizer2D_yClipStart) {
-            height -= Rasterizer2D.Rasterizer2D_yClipStart - topY;
-            topY = Rasterizer2D.Rasterizer2D_yClipStart;
+        if (topY < Rasterizer2D_yClipStart) {
+            height -= Rasterizer2D_yClipStart - topY;
+            topY = Rasterizer2D_yClipStart;
         }
         if (leftX + width > Rasterizer2D_xClipEnd)
             width = Rasterizer2D_xClipEnd - leftX;
         if (topY + height > Rasterizer2D_yClipEnd)
             height = Rasterizer2D_yClipEnd - topY;
-        int leftOver = Rasterizer2D.Rasterizer2D_width - width;
-        int pixelIndex = leftX + topY * Rasterizer2D.Rasterizer2D_width;
+        int leftOver = Rasterizer2D_width - width;
+        int pixelIndex = leftX + topY * Rasterizer2D_width;
 
         float hue = 1.0f;
         float saturation = 1.0f;
@@ -743,8 +752,8 @@ public class Rasterizer2D {
      * Draws an arc (from https://www.rune-server.ee/runescape-development/rs2-client/snippets/666519-draw-arc.html)
      */
 
-    public static void drawArc(int x, int y, int width, int height, int stroke, int start, int sweep, int color, int alpha, int closure, boolean fill) {
-        Graphics2D graphics = createGraphics(Rasterizer2D.Rasterizer2D_pixels, Rasterizer2D.Rasterizer2D_width, Rasterizer2D.Rasterizer2D_height);
+    public void drawArc(int x, int y, int width, int height, int stroke, int start, int sweep, int color, int alpha, int closure, boolean fill) {
+        Graphics2D graphics = createGraphics(Rasterizer2D_pixels, Rasterizer2D_width, Rasterizer2D_height);
         graphics.setColor(new Color((color >> 16 & 0xff), (color >> 8 & 0xff), (color & 0xff), ((alpha >= 256 || alpha < 0) ? 255 : alpha)));
 
         RenderingHints render = new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -755,7 +764,7 @@ public class Rasterizer2D {
         if(!fill) {
             graphics.setStroke(new BasicStroke((Math.max(stroke, 1))));
         }
-        graphics.setClip(Rasterizer2D.Rasterizer2D_xClipStart, Rasterizer2D.Rasterizer2D_yClipStart, Rasterizer2D.Rasterizer2D_xClipEnd - Rasterizer2D.Rasterizer2D_xClipStart, Rasterizer2D.Rasterizer2D_yClipEnd - Rasterizer2D.Rasterizer2D_yClipStart);
+        graphics.setClip(Rasterizer2D_xClipStart, Rasterizer2D_yClipStart, Rasterizer2D_xClipEnd - Rasterizer2D_xClipStart, Rasterizer2D_yClipEnd - Rasterizer2D_yClipStart);
         // Closure types - OPEN(0), CHORD(1), PIE(2)
         Arc2D.Double arc = new Arc2D.Double(x + stroke, y + stroke, width, height, start, sweep, closure);
         if(fill) {
@@ -767,15 +776,15 @@ public class Rasterizer2D {
 
     // copied to work with Ellipse2D for circles
 
-    public static Graphics2D createEllipseGraphics(){
-        Graphics2D graphics = createGraphics(Rasterizer2D.Rasterizer2D_pixels, Rasterizer2D.Rasterizer2D_width, Rasterizer2D.Rasterizer2D_height);
+    public Graphics2D createEllipseGraphics(){
+        Graphics2D graphics = createGraphics(Rasterizer2D_pixels, Rasterizer2D_width, Rasterizer2D_height);
 
         RenderingHints render = new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         render.put(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);//fix the 'jittering'
 
         graphics.setRenderingHints(render);
         graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
-        graphics.setClip(Rasterizer2D.Rasterizer2D_xClipStart, Rasterizer2D.Rasterizer2D_yClipStart, Rasterizer2D.Rasterizer2D_xClipEnd - Rasterizer2D.Rasterizer2D_xClipStart, Rasterizer2D.Rasterizer2D_yClipEnd - Rasterizer2D.Rasterizer2D_yClipStart);
+        graphics.setClip(Rasterizer2D_xClipStart, Rasterizer2D_yClipStart, Rasterizer2D_xClipEnd - Rasterizer2D_xClipStart, Rasterizer2D_yClipEnd - Rasterizer2D_yClipStart);
         return graphics;
     }
 
@@ -790,7 +799,7 @@ public class Rasterizer2D {
         }
     }
 
-    public static void drawBlackBox(int xPos, int yPos) {
+    public void drawBlackBox(int xPos, int yPos) {
         drawBox(xPos - 2, yPos - 1, 1, 71, 0x726451);
         drawBox(xPos + 174, yPos, 1, 69, 0x726451);
         drawBox(xPos - 2, yPos - 2, 178, 1, 0x726451);
@@ -1,51 +1,30 @@
 package stan.qodat.scene.runescape;
 
+import stan.qodat.scene.paint.HslPalette;
+
+/**
+ * A 3D raster, drawing the client's flat and gouraud shaded triangles into the pixels of its [Rasterizer2D].
+ *
+ * Every instance owns its pixels, depth buffer, clip area and drawing state,
+ * so separate instances can rasterize concurrently.
+ * The lookup tables (sine, cosine and reciprocals) are static, and never written after creation,
+ * so they are shared by all instances, like the HSL to RGB palettes (see [HslPalette.clientPalette]).
+ */
 public final class Rasterizer3D extends Rasterizer2D {
 
-    public static final int[] __et_p;
-
-    public static int Rasterizer3D_alpha;
-
-    static int[] Rasterizer3D_rowOffsets;
-
-    public static int[] Rasterizer3D_sine;
-    public static int[] Rasterizer3D_cosine;
-
     /**
-     * Contains the pixel index onsets for each row
-     * that together comprise the raster.
+     * The brightness of the palette of a new raster.
      */
-    public static int[] scanOffsets;
+    public static final double DEFAULT_BRIGHTNESS = 0.7;
 
-    public static boolean triangleIsOutOfBounds;
-    public static boolean notTextured = true;
-    public static int alpha;
+    public static final int[] __et_p = new int[2048];
 
-    /**
-     * Raster center x
-     */
-    public static int originViewX;
+    private static final int[] __et_r = new int[512];
 
-    /**
-     * Raster center y
-     */
-    public static int originViewY;
-    public static int[] hslToRgb = new int[0x10000];
-    private static boolean opaque;
-    private static int[] __et_r;
-    public static int[] Rasterizer3D_colorPalette;
-    public static int Rasterizer3D_zoom;
+    public static final int[] Rasterizer3D_sine = new int[2048];
+    public static final int[] Rasterizer3D_cosine = new int[2048];
 
     static {
-        __et_r = new int[512];
-        __et_p = new int[2048];
-        Rasterizer3D_rowOffsets = new int[1024];
-        Rasterizer3D_sine = new int[2048];
-        Rasterizer3D_cosine = new int[2048];
-        Rasterizer3D_colorPalette = new int[65536];
-        Rasterizer3D_zoom = 512;
-        Rasterizer3D_alpha = 0;
-
         for (int i = 1; i < 512; i++) {
             __et_r[i] = 32768 / i;
         }
@@ -59,185 +38,83 @@ public final class Rasterizer3D extends Rasterizer2D {
     }
 
     /**
-     * Nullifies all fields in this class.
+     * Contains the pixel index onsets for each row
+     * that together comprise the raster.
      */
-    public static void clear() {
-        __et_r = null;
-        Rasterizer3D_sine = null;
-        Rasterizer3D_cosine = null;
-        scanOffsets = null;
-        hslToRgb = null;
-    }
+    public int[] scanOffsets;
+
+    public boolean triangleIsOutOfBounds;
+    public boolean notTextured = true;
+    public int alpha;
 
     /**
-     * Calculates the pixel row onsets based on the raster height and width.
+     * Raster center x
      */
-    public static void useViewport() {
-        scanOffsets = new int[Rasterizer2D.Rasterizer2D_height];
-        for (int y = 0; y < Rasterizer2D.Rasterizer2D_height; y++)
-            scanOffsets[y] = Rasterizer2D.Rasterizer2D_width * y;
-
-        originViewX = Rasterizer2D.Rasterizer2D_width / 2;
-        originViewY = Rasterizer2D.Rasterizer2D_height / 2;
-    }
+    public int originViewX;
 
     /**
-     * Recalculates the hsl to rgb mapping and the texture palettes.
-     *
-     * @param brightness the new brightness value (ranging from 0.0 to 1.0)
+     * Raster center y
      */
-    public static void changeBrightness(double brightness) {
-        int j = 0;
-        for (int k = 0; k < 512; k++) {
-            double d1 = (double) (k / 8) / 64D + 0.0078125D;
-            double d2 = (double) (k & 7) / 8D + 0.0625D;
-            for (int k1 = 0; k1 < 128; k1++) {
-                double d3 = (double) k1 / 128D;
-                double r = d3;
-                double g = d3;
-                double b = d3;
-                if (d2 != 0.0D) {
-                    double d7;
-                    if (d3 < 0.5D)
-                        d7 = d3 * (1.0D + d2);
-                    else
-                        d7 = (d3 + d2) - d3 * d2;
-                    double d8 = 2D * d3 - d7;
-                    double d9 = d1 + 0.33333333333333331D;
-                    if (d9 > 1.0D)
-                        d9--;
-                    double d11 = d1 - 0.33333333333333331D;
-                    if (d11 < 0.0D)
-                        d11++;
-                    if (6D * d9 < 1.0D)
-                        r = d8 + (d7 - d8) * 6D * d9;
-                    else if (2D * d9 < 1.0D)
-                        r = d7;
-                    else if (3D * d9 < 2D)
-                        r = d8 + (d7 - d8) * (0.66666666666666663D - d9) * 6D;
-                    else
-                        r = d8;
-                    if (6D * d1 < 1.0D)
-                        g = d8 + (d7 - d8) * 6D * d1;
-                    else if (2D * d1 < 1.0D)
-                        g = d7;
-                    else if (3D * d1 < 2D)
-                        g = d8 + (d7 - d8) * (0.66666666666666663D - d1) * 6D;
-                    else
-                        g = d8;
-                    if (6D * d11 < 1.0D)
-                        b = d8 + (d7 - d8) * 6D * d11;
-                    else if (2D * d11 < 1.0D)
-                        b = d7;
-                    else if (3D * d11 < 2D)
-                        b = d8 + (d7 - d8) * (0.66666666666666663D - d11) * 6D;
-                    else
-                        b = d8;
-                }
-                int byteR = (int) (r * 256D);
-                int byteG = (int) (g * 256D);
-                int byteB = (int) (b * 256D);
-                int rgb = (byteR << 16) + (byteG << 8) + byteB;
-                rgb = Rasterizer3D_brighten(rgb, brightness);
-                if (rgb == 0)
-                    rgb = 1;
-                hslToRgb[j++] = rgb;
-            }
-        }
-    }
-
-    public static int Rasterizer3D_brighten(int var0, double var1) {
-        double var3 = (double)(var0 >> 16) / 256.0D;
-        double var5 = (double)(var0 >> 8 & 255) / 256.0D;
-        double var7 = (double)(var0 & 255) / 256.0D;
-        var3 = Math.pow(var3, var1);
-        var5 = Math.pow(var5, var1);
-        var7 = Math.pow(var7, var1);
-        int var9 = (int)(var3 * 256.0D);
-        int var10 = (int)(var5 * 256.0D);
-        int var11 = (int)(var7 * 256.0D);
-        return var11 + (var10 << 8) + (var9 << 16);
-    }
+    public int originViewY;
 
-    public static void Rasterizer3D_setBrightness(double brightness) {
-        Rasterizer3D_buildPalette(brightness);
-    }
-
-    static void Rasterizer3D_buildPalette(double brightness) {
-        int var4 = 0;
-
-        for(int var5 = 0; var5 < 512; ++var5) {
-            double var6 = (double)(var5 >> 3) / 64.0D + 0.0078125D;
-            double var8 = (double)(var5 & 7) / 8.0D + 0.0625D;
-
-            for(int var10 = 0; var10 < 128; ++var10) {
-                double var11 = (double)var10 / 128.0D;
-                double var13 = var11;
-                double var15 = var11;
-                double var17 = var11;
-                if(var8 != 0.0D) {
-                    double var19;
-                    if(var11 < 0.5D) {
-                        var19 = var11 * (1.0D + var8);
-                    } else {
-                        var19 = var11 + var8 - var11 * var8;
-                    }
-
-                    double var21 = 2.0D * var11 - var19;
-                    double var23 = var6 + 0.3333333333333333D;
-                    if(var23 > 1.0D) {
-                        --var23;
-                    }
+    /**
+     * The HSL to RGB palette of this raster, shared with all rasters of the same brightness, must not be modified.
+     */
+    public int[] hslToRgb;
 
-                    double var27 = var6 - 0.3333333333333333D;
-                    if(var27 < 0.0D) {
-                        ++var27;
-                    }
+    /**
+     * The pixel index of the first row scanlines are drawn to, see [setBand].
+     */
+    private int bandStartOffset = 0;
 
-                    if(6.0D * var23 < 1.0D) {
-                        var13 = var21 + (var19 - var21) * 6.0D * var23;
-                    } else if(2.0D * var23 < 1.0D) {
-                        var13 = var19;
-                    } else if(3.0D * var23 < 2.0D) {
-                        var13 = var21 + (var19 - var21) * (0.6666666666666666D - var23) * 6.0D;
-                    } else {
-                        var13 = var21;
-                    }
+    /**
+     * The pixel index of the row after the last row scanlines are drawn to, see [setBand].
+     */
+    private int bandEndOffset = Integer.MAX_VALUE;
 
-                    if(6.0D * var6 < 1.0D) {
-                        var15 = var21 + (var19 - var21) * 6.0D * var6;
-                    } else if(2.0D * var6 < 1.0D) {
-                        var15 = var19;
-                    } else if(3.0D * var6 < 2.0D) {
-                        var15 = var21 + (var19 - var21) * (0.6666666666666666D - var6) * 6.0D;
-                    } else {
-                        var15 = var21;
-                    }
+    /**
+     * Creates a raster of the specified size with its own pixel and depth buffers.
+     */
+    public Rasterizer3D(int width, int height) {
+        super(width, height);
+        useViewport();
+        hslToRgb = HslPalette.clientPalette(DEFAULT_BRIGHTNESS);
+    }
 
-                    if(6.0D * var27 < 1.0D) {
-                        var17 = var21 + (var19 - var21) * 6.0D * var27;
-                    } else if(2.0D * var27 < 1.0D) {
-                        var17 = var19;
-                    } else if(3.0D * var27 < 2.0D) {
-                        var17 = var21 + (var19 - var21) * (0.6666666666666666D - var27) * 6.0D;
-                    } else {
-                        var17 = var21;
-                    }
-                }
+    /**
+     * Calculates the pixel row onsets based on the raster height and width.
+     */
+    public void useViewport() {
+        scanOffsets = new int[Rasterizer2D_height];
+        for (int y = 0; y < Rasterizer2D_height; y++)
+            scanOffsets[y] = Rasterizer2D_width * y;
 
-                int var29 = (int)(var13 * 256.0D);
-                int var20 = (int)(var15 * 256.0D);
-                int var30 = (int)(var17 * 256.0D);
-                int var22 = var30 + (var20 << 8) + (var29 << 16);
-                var22 = Rasterizer3D_brighten(var22, brightness);
-                if(var22 == 0) {
-                    var22 = 1;
-                }
+        originViewX = Rasterizer2D_width / 2;
+        originViewY = Rasterizer2D_height / 2;
+    }
 
-                Rasterizer3D_colorPalette[var4++] = var22;
-            }
-        }
+    /**
+     * Restricts drawing to the rows from startRow (inclusive) to endRow (exclusive).
+     *
+     * Unlike the clip area, this does not affect how triangles are set up and stepped,
+     * it only skips the scanlines outside the band, so every row in the band is drawn exactly
+     * as it would be without a band. Must be called again after the raster is replaced.
+     *
+     * @param startRow the first row to draw to.
+     * @param endRow   the row after the last row to draw to.
+     */
+    public void setBand(int startRow, int endRow) {
+        bandStartOffset = startRow * Rasterizer2D_width;
+        bandEndOffset = endRow * Rasterizer2D_width;
+    }
 
+    /**
+     * Uses the hsl to rgb palette of the specified brightness.
+     *
+     * @param brightness the new brightness value (ranging from 0.0 to 1.0)
+     */
+    public void changeBrightness(double brightness) {
+        hslToRgb = HslPalette.clientPalette(brightness);
     }
 
     public static int method3039(int x, int z, int var2, int var3) {
@@ -273,7 +150,7 @@ public final class Rasterizer3D extends Rasterizer2D {
      * @param z_c z coordinate of vertex c
      */
     @Deprecated
-    public static void drawDepthTriangle(int x_a, int x_b, int x_c, int y_a, int y_b, int y_c, float z_a, float z_b, float z_c) {
+    public void drawDepthTriangle(int x_a, int x_b, int x_c, int y_a, int y_b, int y_c, float z_a, float z_b, float z_c) {
         if (true)
             return;
         int a_to_b = 0, b_to_c = 0, c_to_a = 0;
@@ -327,7 +204,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     if (y_a != y_b && c_to_a < a_to_b || y_a == y_b && c_to_a > b_to_c) {
                         y_c -= y_b;
                         y_b -= y_a;
-                        y_a = Rasterizer3D.scanOffsets[y_a];
+                        y_a = scanOffsets[y_a];
                         while (--y_b >= 0) {
                             drawDepthScanLine(y_a, x_c >> 16, x_a >> 16, z_a, depth_slope);
                             x_c += c_to_a;
@@ -345,7 +222,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     } else {
                         y_c -= y_b;
                         y_b -= y_a;
-                        y_a = Rasterizer3D.scanOffsets[y_a];
+                        y_a = scanOffsets[y_a];
                         while (--y_b >= 0) {
                             drawDepthScanLine(y_a, x_a >> 16, x_c >> 16, z_a, depth_slope);
                             x_c += c_to_a;
@@ -377,7 +254,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     if (y_a != y_c && c_to_a < a_to_b || y_a == y_c && b_to_c > a_to_b) {
                         y_b -= y_c;
                         y_c -= y_a;
-                        y_a = Rasterizer3D.scanOffsets[y_a];
+                        y_a = scanOffsets[y_a];
                         while (--y_c >= 0) {
                             drawDepthScanLine(y_a, x_b >> 16, x_a >> 16, z_a, depth_slope);
                             x_b += c_to_a;
@@ -395,7 +272,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     } else {
                         y_b -= y_c;
                         y_c -= y_a;
-                        y_a = Rasterizer3D.scanOffsets[y_a];
+                        y_a = scanOffsets[y_a];
                         while (--y_c >= 0) {
                             drawDepthScanLine(y_a, x_a >> 16, x_b >> 16, z_a, depth_slope);
                             x_b += c_to_a;
@@ -441,7 +318,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     if (y_b != y_c && a_to_b < b_to_c || y_b == y_c && a_to_b > c_to_a) {
                         y_a -= y_c;
                         y_c -= y_b;
-                        y_b = Rasterizer3D.scanOffsets[y_b];
+                        y_b = scanOffsets[y_b];
                         while (--y_c >= 0) {
                             drawDepthScanLine(y_b, x_a >> 16, x_b >> 16, z_b, depth_slope);
                             x_a += a_to_b;
@@ -459,7 +336,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     } else {
                         y_a -= y_c;
                         y_c -= y_b;
-                        y_b = Rasterizer3D.scanOffsets[y_b];
+                        y_b = scanOffsets[y_b];
                         while (--y_c >= 0) {
                             drawDepthScanLine(y_b, x_b >> 16, x_a >> 16, z_b, depth_slope);
                             x_a += a_to_b;
@@ -491,7 +368,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     if (a_to_b < b_to_c) {
                         y_c -= y_a;
                         y_a -= y_b;
-                        y_b = Rasterizer3D.scanOffsets[y_b];
+                        y_b = scanOffsets[y_b];
                         while (--y_a >= 0) {
                             drawDepthScanLine(y_b, x_c >> 16, x_b >> 16, z_b, depth_slope);
                             x_c += a_to_b;
@@ -509,7 +386,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                     } else {
                         y_c -= y_a;
                         y_a -= y_b;
-                        y_b = Rasterizer3D.scanOffsets[y_b];
+                        y_b = scanOffsets[y_b];
                         while (--y_a >= 0) {
                             drawDepthScanLine(y_b, x_b >> 16, x_c >> 16, z_b, depth_slope);
                             x_c += a_to_b;
@@ -549,7 +426,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                 if (b_to_c < c_to_a) {
                     y_b -= y_a;
                     y_a -= y_c;
-                    y_c = Rasterizer3D.scanOffsets[y_c];
+                    y_c = scanOffsets[y_c];
                     while (--y_a >= 0) {
                         drawDepthScanLine(y_c, x_b >> 16, x_c >> 16, z_c, depth_slope);
                         x_b += b_to_c;
@@ -567,7 +444,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                 } else {
                     y_b -= y_a;
                     y_a -= y_c;
-                    y_c = Rasterizer3D.scanOffsets[y_c];
+                    y_c = scanOffsets[y_c];
                     while (--y_a >= 0) {
                         drawDepthScanLine(y_c, x_c >> 16, x_b >> 16, z_c, depth_slope);
                         x_b += b_to_c;
@@ -599,7 +476,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                 if (b_to_c < c_to_a) {
                     y_a -= y_b;
                     y_b -= y_c;
-                    y_c = Rasterizer3D.scanOffsets[y_c];
+                    y_c = scanOffsets[y_c];
                     while (--y_b >= 0) {
                         drawDepthScanLine(y_c, x_a >> 16, x_c >> 16, z_c, depth_slope);
                         x_a += b_to_c;
@@ -617,7 +494,7 @@ public final class Rasterizer3D extends Rasterizer2D {
                 } else {
                     y_a -= y_b;
                     y_b -= y_c;
-                    y_c = Rasterizer3D.scanOffsets[y_c];
+                    y_c = scanOffsets[y_c];
                     while (--y_b >= 0) {
                         drawDepthScanLine(y_c, x_c >> 16, x_a >> 16, z_c, depth_slope);
                         x_a += b_to_c;
@@ -637,9 +514,11 @@ public final class Rasterizer3D extends Rasterizer2D {
         }
     }
 
-    private static void drawDepthScanLine(int dest_off, int start_x, int end_x, float depth, float depth_slope) {
+    private void drawDepthScanLine(int dest_off, int start_x, int end_x, float depth, float depth_slope) {
+        if (dest_off < bandStartOffset || dest_off >= bandEndOffset)
+            return;
         int dbl = depthBuffer.length;
-        if (Rasterizer3D.triangleIsOutOfBounds) {
+        if (triangleIsOutOfBounds) {
             if (end_x > Rasterizer2D_width)
                 end_x = Rasterizer2D_width;
             if (start_x < 0)
@@ -651,7 +530,7 @@ public final class Rasterizer3D extends Rasterizer2D {
         int loops = end_x - start_x >> 2;
         depth += depth_slope * (float) start_x;
 
-        if (Rasterizer3D.alpha == 0) {
+        if (alpha == 0) {
             while (--loops >= 0) {
 
                 dest_off++;
@@ -711,7 +590,7 @@ public final class Rasterizer3D extends Rasterizer2D {
      * @param hsl2 hsl color value at vertex b
      * @param hsl3 hsl color value at vertex c
      */
-    public static void drawGouraudTriangle(int x1, int x2, int x3, int y1, int y2, int y3, float z1, float z2, float z3, int hsl1, int hsl2, int hsl3) {
+    public void drawGouraudTriangle(int x1, int x2, int x3, int y1, int y2, int y3, float z1, float z2, float z3, int hsl1, int hsl2, int hsl3) {
         if (z1 < 0 || z2 < 0 || z3 < 0)
             return;
         int distance_v1_v2_x = 0;
@@ -743,12 +622,12 @@ public final class Rasterizer3D extends Rasterizer2D {
         float depth_slope = (dz_21 * dy_31 - dz_31 * dy_21) / div;
         float depth_increment = (dz_31 * dx_21 - dz_21 * dx_31) / div;
         if (y1 <= y2 && y1 <= y3) {
-            if (y1 >= Rasterizer2D.Rasterizer2D_yClipEnd)
+            if (y1 >= Rasterizer2D_yClipEnd)
                 return;
-            if (y2 > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y2 = Rasterizer2D.Rasterizer2D_yClipEnd;
-            if (y3 > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y3 = Rasterizer2D.Rasterizer2D_yClipEnd;
+            if (y2 > Rasterizer2D_yClipEnd)
+                y2 = Rasterizer2D_yClipEnd;
+            if (y3 > Rasterizer2D_yClipEnd)
+                y3 = Rasterizer2D_yClipEnd;
             z1 = z1 - depth_slope * x1 + depth_slope;
             if (y2 < y3) {
                 x3 = x1 <<= 16;
@@ -771,8 +650,8 @@ public final class Rasterizer3D extends Rasterizer2D {
                 if (y1 != y2 && distance_v1_v3_x < distance_v1_v2_x || y1 == y2 && distance_v1_v3_x > distance_v2_v3_x) {
                     y3 -= y2;
                     y2 -= y1;
-                    for (y1 = scanOffsets[y1]; --y2 >= 0; y1 += Rasterizer2D.Rasterizer2D_width) {
-                        drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1, depth_slope);
+                    for (y1 = scanOffsets[y1]; --y2 >= 0; y1 += Rasterizer2D_width) {
+                        drawGouraudScanline(Rasterizer2D_pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1, depth_slope);
                         x3 += distance_v1_v3_x;
                         x1 += distance_v1_v2_x;
                         hsl3 += distance_v1_v3_hsl;
@@ -781,20 +660,20 @@ public final class Rasterizer3D extends Rasterizer2D {
                     }
 
                     while (--y3 >= 0) {
-                        drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z1, depth_slope);
+                        drawGouraudScanline(Rasterizer2D_pixels, y1, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z1, depth_slope);
                         x3 += distance_v1_v3_x;
                         x2 += distance_v2_v3_x;
                         hsl3 += distance_v1_v3_hsl;
                         hsl2 += distance_v2_v3_hsl;
-                        y1 += Rasterizer2D.Rasterizer2D_width;
+                        y1 += Rasterizer2D_width;
                         z1 += depth_increment;
                     }
                     return;
                 }
                 y3 -= y2;
                 y2 -= y1;
-                for (y1 = scanOffsets[y1]; --y2 >= 0; y1 += Rasterizer2D.Rasterizer2D_width) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1, depth_slope);
+                for (y1 = scanOffsets[y1]; --y2 >= 0; y1 += Rasterizer2D_width) {
+                    drawGouraudScanline(Rasterizer2D_pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1, depth_slope);
                     x3 += distance_v1_v3_x;
                     x1 += distance_v1_v2_x;
                     hsl3 += distance_v1_v3_hsl;
@@ -803,12 +682,12 @@ public final class Rasterizer3D extends Rasterizer2D {
                 }
 
                 while (--y3 >= 0) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z1, depth_slope);
+                    drawGouraudScanline(Rasterizer2D_pixels, y1, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z1, depth_slope);
                     x3 += distance_v1_v3_x;
                     x2 += distance_v2_v3_x;
                     hsl3 += distance_v1_v3_hsl;
                     hsl2 += distance_v2_v3_hsl;
-                    y1 += Rasterizer2D.Rasterizer2D_width;
+                    y1 += Rasterizer2D_width;
                     z1 += depth_increment;
                 }
                 return;
@@ -833,8 +712,8 @@ public final class Rasterizer3D extends Rasterizer2D {
             if (y1 != y3 && distance_v1_v3_x < distance_v1_v2_x || y1 == y3 && distance_v2_v3_x > distance_v1_v2_x) {
                 y2 -= y3;
                 y3 -= y1;
-                for (y1 = scanOffsets[y1]; --y3 >= 0; y1 += Rasterizer2D.Rasterizer2D_width) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z1, depth_slope);
+                for (y1 = scanOffsets[y1]; --y3 >= 0; y1 += Rasterizer2D_width) {
+                    drawGouraudScanline(Rasterizer2D_pixels, y1, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z1, depth_slope);
                     x2 += distance_v1_v3_x;
                     x1 += distance_v1_v2_x;
                     hsl2 += distance_v1_v3_hsl;
@@ -843,20 +722,20 @@ public final class Rasterizer3D extends Rasterizer2D {
                 }
 
                 while (--y2 >= 0) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1, depth_slope);
+                    drawGouraudScanline(Rasterizer2D_pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1, depth_slope);
                     x3 += distance_v2_v3_x;
                     x1 += distance_v1_v2_x;
                     hsl3 += distance_v2_v3_hsl;
                     hsl1 += distance_v1_v2_hsl;
-                    y1 += Rasterizer2D.Rasterizer2D_width;
+                    y1 += Rasterizer2D_width;
                     z1 += depth_increment;
                 }
                 return;
             }
             y2 -= y3;
             y3 -= y1;
-            for (y1 = scanOffsets[y1]; --y3 >= 0; y1 += Rasterizer2D.Rasterizer2D_width) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z1, depth_slope);
+            for (y1 = scanOffsets[y1]; --y3 >= 0; y1 += Rasterizer2D_width) {
+                drawGouraudScanline(Rasterizer2D_pixels, y1, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z1, depth_slope);
                 x2 += distance_v1_v3_x;
                 x1 += distance_v1_v2_x;
                 hsl2 += distance_v1_v3_hsl;
@@ -865,23 +744,23 @@ public final class Rasterizer3D extends Rasterizer2D {
             }
 
             while (--y2 >= 0) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1, depth_slope);
+                drawGouraudScanline(Rasterizer2D_pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1, depth_slope);
                 x3 += distance_v2_v3_x;
                 x1 += distance_v1_v2_x;
                 hsl3 += distance_v2_v3_hsl;
                 hsl1 += distance_v1_v2_hsl;
-                y1 += Rasterizer2D.Rasterizer2D_width;
+                y1 += Rasterizer2D_width;
                 z1 += depth_increment;
             }
             return;
         }
         if (y2 <= y3) {
-            if (y2 >= Rasterizer2D.Rasterizer2D_yClipEnd)
+            if (y2 >= Rasterizer2D_yClipEnd)
                 return;
-            if (y3 > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y3 = Rasterizer2D.Rasterizer2D_yClipEnd;
-            if (y1 > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y1 = Rasterizer2D.Rasterizer2D_yClipEnd;
+            if (y3 > Rasterizer2D_yClipEnd)
+                y3 = Rasterizer2D_yClipEnd;
+            if (y1 > Rasterizer2D_yClipEnd)
+                y1 = Rasterizer2D_yClipEnd;
             z2 = z2 - depth_slope * x2 + depth_slope;
             if (y3 < y1) {
                 x1 = x2 <<= 16;
@@ -904,8 +783,8 @@ public final class Rasterizer3D extends Rasterizer2D {
                 if (y2 != y3 && distance_v1_v2_x < distance_v2_v3_x || y2 == y3 && distance_v1_v2_x > distance_v1_v3_x) {
                     y1 -= y3;
                     y3 -= y2;
-                    for (y2 = scanOffsets[y2]; --y3 >= 0; y2 += Rasterizer2D.Rasterizer2D_width) {
-                        drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2, depth_slope);
+                    for (y2 = scanOffsets[y2]; --y3 >= 0; y2 += Rasterizer2D_width) {
+                        drawGouraudScanline(Rasterizer2D_pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2, depth_slope);
                         x1 += distance_v1_v2_x;
                         x2 += distance_v2_v3_x;
                         hsl1 += distance_v1_v2_hsl;
@@ -914,20 +793,20 @@ public final class Rasterizer3D extends Rasterizer2D {
                     }
 
                     while (--y1 >= 0) {
-                        drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z2, depth_slope);
+                        drawGouraudScanline(Rasterizer2D_pixels, y2, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z2, depth_slope);
                         x1 += distance_v1_v2_x;
                         x3 += distance_v1_v3_x;
                         hsl1 += distance_v1_v2_hsl;
                         hsl3 += distance_v1_v3_hsl;
-                        y2 += Rasterizer2D.Rasterizer2D_width;
+                        y2 += Rasterizer2D_width;
                         z2 += depth_increment;
                     }
                     return;
                 }
                 y1 -= y3;
                 y3 -= y2;
-                for (y2 = scanOffsets[y2]; --y3 >= 0; y2 += Rasterizer2D.Rasterizer2D_width) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2, depth_slope);
+                for (y2 = scanOffsets[y2]; --y3 >= 0; y2 += Rasterizer2D_width) {
+                    drawGouraudScanline(Rasterizer2D_pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2, depth_slope);
                     x1 += distance_v1_v2_x;
                     x2 += distance_v2_v3_x;
                     hsl1 += distance_v1_v2_hsl;
@@ -936,12 +815,12 @@ public final class Rasterizer3D extends Rasterizer2D {
                 }
 
                 while (--y1 >= 0) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z2, depth_slope);
+                    drawGouraudScanline(Rasterizer2D_pixels, y2, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z2, depth_slope);
                     x1 += distance_v1_v2_x;
                     x3 += distance_v1_v3_x;
                     hsl1 += distance_v1_v2_hsl;
                     hsl3 += distance_v1_v3_hsl;
-                    y2 += Rasterizer2D.Rasterizer2D_width;
+                    y2 += Rasterizer2D_width;
                     z2 += depth_increment;
                 }
                 return;
@@ -966,8 +845,8 @@ public final class Rasterizer3D extends Rasterizer2D {
             if (distance_v1_v2_x < distance_v2_v3_x) {
                 y3 -= y1;
                 y1 -= y2;
-                for (y2 = scanOffsets[y2]; --y1 >= 0; y2 += Rasterizer2D.Rasterizer2D_width) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z2, depth_slope);
+                for (y2 = scanOffsets[y2]; --y1 >= 0; y2 += Rasterizer2D_width) {
+                    drawGouraudScanline(Rasterizer2D_pixels, y2, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z2, depth_slope);
                     x3 += distance_v1_v2_x;
                     x2 += distance_v2_v3_x;
                     hsl3 += distance_v1_v2_hsl;
@@ -976,20 +855,20 @@ public final class Rasterizer3D extends Rasterizer2D {
                 }
 
                 while (--y3 >= 0) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2, depth_slope);
+                    drawGouraudScanline(Rasterizer2D_pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2, depth_slope);
                     x1 += distance_v1_v3_x;
                     x2 += distance_v2_v3_x;
                     hsl1 += distance_v1_v3_hsl;
                     hsl2 += distance_v2_v3_hsl;
-                    y2 += Rasterizer2D.Rasterizer2D_width;
+                    y2 += Rasterizer2D_width;
                     z2 += depth_increment;
                 }
                 return;
             }
             y3 -= y1;
             y1 -= y2;
-            for (y2 = scanOffsets[y2]; --y1 >= 0; y2 += Rasterizer2D.Rasterizer2D_width) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z2, depth_slope);
+            for (y2 = scanOffsets[y2]; --y1 >= 0; y2 += Rasterizer2D_width) {
+                drawGouraudScanline(Rasterizer2D_pixels, y2, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z2, depth_slope);
                 x3 += distance_v1_v2_x;
                 x2 += distance_v2_v3_x;
                 hsl3 += distance_v1_v2_hsl;
@@ -998,22 +877,22 @@ public final class Rasterizer3D extends Rasterizer2D {
             }
 
             while (--y3 >= 0) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2, depth_slope);
+                drawGouraudScanline(Rasterizer2D_pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2, depth_slope);
                 x1 += distance_v1_v3_x;
                 x2 += distance_v2_v3_x;
                 hsl1 += distance_v1_v3_hsl;
                 hsl2 += distance_v2_v3_hsl;
-                y2 += Rasterizer2D.Rasterizer2D_width;
+                y2 += Rasterizer2D_width;
                 z2 += depth_increment;
             }
             return;
         }
-        if (y3 >= Rasterizer2D.Rasterizer2D_yClipEnd)
+        if (y3 >= Rasterizer2D_yClipEnd)
             return;
-        if (y1 > Rasterizer2D.Rasterizer2D_yClipEnd)
-            y1 = Rasterizer2D.Rasterizer2D_yClipEnd;
-        if (y2 > Rasterizer2D.Rasterizer2D_yClipEnd)
-            y2 = Rasterizer2D.Rasterizer2D_yClipEnd;
+        if (y1 > Rasterizer2D_yClipEnd)
+            y1 = Rasterizer2D_yClipEnd;
+        if (y2 > Rasterizer2D_yClipEnd)
+            y2 = Rasterizer2D_yClipEnd;
         z3 = z3 - depth_slope * x3 + depth_slope;
         if (y1 < y2) {
             x2 = x3 <<= 16;
@@ -1036,8 +915,8 @@ public final class Rasterizer3D extends Rasterizer2D {
             if (distance_v2_v3_x < distance_v1_v3_x) {
                 y2 -= y1;
                 y1 -= y3;
-                for (y3 = scanOffsets[y3]; --y1 >= 0; y3 += Rasterizer2D.Rasterizer2D_width) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3, depth_slope);
+                for (y3 = scanOffsets[y3]; --y1 >= 0; y3 += Rasterizer2D_width) {
+                    drawGouraudScanline(Rasterizer2D_pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3, depth_slope);
                     x2 += distance_v2_v3_x;
                     x3 += distance_v1_v3_x;
                     hsl2 += distance_v2_v3_hsl;
@@ -1046,20 +925,20 @@ public final class Rasterizer3D extends Rasterizer2D {
                 }
 
                 while (--y2 >= 0) {
-                    drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z3, depth_slope);
+                    drawGouraudScanline(Rasterizer2D_pixels, y3, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z3, depth_slope);
                     x2 += distance_v2_v3_x;
                     x1 += distance_v1_v2_x;
                     hsl2 += distance_v2_v3_hsl;
                     hsl1 += distance_v1_v2_hsl;
-                    y3 += Rasterizer2D.Rasterizer2D_width;
+                    y3 += Rasterizer2D_width;
                     z3 += depth_increment;
                 }
                 return;
             }
             y2 -= y1;
             y1 -= y3;
-            for (y3 = scanOffsets[y3]; --y1 >= 0; y3 += Rasterizer2D.Rasterizer2D_width) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depth_slope);
+            for (y3 = scanOffsets[y3]; --y1 >= 0; y3 += Rasterizer2D_width) {
+                drawGouraudScanline(Rasterizer2D_pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depth_slope);
                 x2 += distance_v2_v3_x;
                 x3 += distance_v1_v3_x;
                 hsl2 += distance_v2_v3_hsl;
@@ -1068,12 +947,12 @@ public final class Rasterizer3D extends Rasterizer2D {
             }
 
             while (--y2 >= 0) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z3, depth_slope);
+                drawGouraudScanline(Rasterizer2D_pixels, y3, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z3, depth_slope);
                 x2 += distance_v2_v3_x;
                 x1 += distance_v1_v2_x;
                 hsl2 += distance_v2_v3_hsl;
                 hsl1 += distance_v1_v2_hsl;
-                y3 += Rasterizer2D.Rasterizer2D_width;
+                y3 += Rasterizer2D_width;
                 z3 += depth_increment;
             }
             return;
@@ -1098,8 +977,8 @@ public final class Rasterizer3D extends Rasterizer2D {
         if (distance_v2_v3_x < distance_v1_v3_x) {
             y1 -= y2;
             y2 -= y3;
-            for (y3 = scanOffsets[y3]; --y2 >= 0; y3 += Rasterizer2D.Rasterizer2D_width) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z3, depth_slope);
+            for (y3 = scanOffsets[y3]; --y2 >= 0; y3 += Rasterizer2D_width) {
+                drawGouraudScanline(Rasterizer2D_pixels, y3, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z3, depth_slope);
                 x1 += distance_v2_v3_x;
                 x3 += distance_v1_v3_x;
                 hsl1 += distance_v2_v3_hsl;
@@ -1108,20 +987,20 @@ public final class Rasterizer3D extends Rasterizer2D {
             }
 
             while (--y1 >= 0) {
-                drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3, depth_slope);
+                drawGouraudScanline(Rasterizer2D_pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3, depth_slope);
                 x2 += distance_v1_v2_x;
                 x3 += distance_v1_v3_x;
                 hsl2 += distance_v1_v2_hsl;
                 hsl3 += distance_v1_v3_hsl;
-                y3 += Rasterizer2D.Rasterizer2D_width;
+                y3 += Rasterizer2D_width;
                 z3 += depth_increment;
             }
             return;
         }
         y1 -= y2;
         y2 -= y3;
-        for (y3 = scanOffsets[y3]; --y2 >= 0; y3 += Rasterizer2D.Rasterizer2D_width) {
-            drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z3, depth_slope);
+        for (y3 = scanOffsets[y3]; --y2 >= 0; y3 += Rasterizer2D_width) {
+            drawGouraudScanline(Rasterizer2D_pixels, y3, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z3, depth_slope);
             x1 += distance_v2_v3_x;
             x3 += distance_v1_v3_x;
             hsl1 += distance_v2_v3_hsl;
@@ -1130,17 +1009,19 @@ public final class Rasterizer3D extends Rasterizer2D {
         }
 
         while (--y1 >= 0) {
-            drawGouraudScanline(Rasterizer2D.Rasterizer2D_pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depth_slope);
+            drawGouraudScanline(Rasterizer2D_pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depth_slope);
             x2 += distance_v1_v2_x;
             x3 += distance_v1_v3_x;
             hsl2 += distance_v1_v2_hsl;
             hsl3 += distance_v1_v3_hsl;
-            y3 += Rasterizer2D.Rasterizer2D_width;
+            y3 += Rasterizer2D_width;
             z3 += depth_increment;
         }
     }
 
-    private static void drawGouraudScanline(int[] pixelBuffer, int offset, int x1, int x2, int hsl1, int hsl2, float depth, float depth_slope) {
+    private void drawGouraudScanline(int[] pixelBuffer, int offset, int x1, int x2, int hsl1, int hsl2, float depth, float depth_slope) {
+        if (offset < bandStartOffset || offset >= bandEndOffset)
+            return;
         int rgb;
         int k;
         if (notTextured) {
@@ -1150,8 +1031,8 @@ public final class Rasterizer3D extends Rasterizer2D {
                     l1 = (hsl2 - hsl1) / (x2 - x1);
                 else
                     l1 = 0;
-                if (x2 > Rasterizer2D.lastX)
-                    x2 = Rasterizer2D.lastX;
+                if (x2 > lastX)
+                    x2 = lastX;
                 if (x1 < 0) {
                     hsl1 -= x1 * l1;
                     x1 = 0;
@@ -1239,8 +1120,8 @@ public final class Rasterizer3D extends Rasterizer2D {
             return;
         int i2 = (hsl2 - hsl1) / (x2 - x1);
         if (triangleIsOutOfBounds) {
-            if (x2 > Rasterizer2D.lastX)
-                x2 = Rasterizer2D.lastX;
+            if (x2 > lastX)
+                x2 = lastX;
             if (x1 < 0) {
                 hsl1 -= x1 * i2;
                 x1 = 0;
@@ -1284,7 +1165,7 @@ public final class Rasterizer3D extends Rasterizer2D {
      * @param z_c z coordinate of vertex c
      * @param rgb the rgb color value of the triangle
      */
-    public static void drawFlatTriangle(int x_a, int x_b, int x_c, int y_a, int y_b, int y_c, float z_a, float z_b, float z_c, int rgb) {
+    public void drawFlatTriangle(int x_a, int x_b, int x_c, int y_a, int y_b, int y_c, float z_a, float z_b, float z_c, int rgb) {
         if (z_a < 0 || z_b < 0 || z_c < 0) return;
         int a_to_b = 0;
         if (y_b != y_a) {
@@ -1309,12 +1190,12 @@ public final class Rasterizer3D extends Rasterizer2D {
         float depth_slope = (b_aZ * c_aY - c_aZ * b_aY) / div;
         float depth_increment = (c_aZ * b_aX - b_aZ * c_aX) / div;
         if (y_a <= y_b && y_a <= y_c) {
-            if (y_a >= Rasterizer2D.Rasterizer2D_yClipEnd)
+            if (y_a >= Rasterizer2D_yClipEnd)
                 return;
-            if (y_b > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y_b = Rasterizer2D.Rasterizer2D_yClipEnd;
-            if (y_c > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y_c = Rasterizer2D.Rasterizer2D_yClipEnd;
+            if (y_b > Rasterizer2D_yClipEnd)
+                y_b = Rasterizer2D_yClipEnd;
+            if (y_c > Rasterizer2D_yClipEnd)
+                y_c = Rasterizer2D_yClipEnd;
             z_a = z_a - depth_slope * x_a + depth_slope;
             if (y_b < y_c) {
                 x_c = x_a <<= 16;
@@ -1332,36 +1213,36 @@ public final class Rasterizer3D extends Rasterizer2D {
                 if (y_a != y_b && c_to_a < a_to_b || y_a == y_b && c_to_a > b_to_c) {
                     y_c -= y_b;
                     y_b -= y_a;
-                    for (y_a = scanOffsets[y_a]; --y_b >= 0; y_a += Rasterizer2D.Rasterizer2D_width) {
-                        drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_c >> 16, x_a >> 16, z_a, depth_slope);
+                    for (y_a = scanOffsets[y_a]; --y_b >= 0; y_a += Rasterizer2D_width) {
+                        drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_c >> 16, x_a >> 16, z_a, depth_slope);
                         x_c += c_to_a;
                         x_a += a_to_b;
                         z_a += depth_increment;
                     }
 
                     while (--y_c >= 0) {
-                        drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_c >> 16, x_b >> 16, z_a, depth_slope);
+                        drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_c >> 16, x_b >> 16, z_a, depth_slope);
                         x_c += c_to_a;
                         x_b += b_to_c;
-                        y_a += Rasterizer2D.Rasterizer2D_width;
+                        y_a += Rasterizer2D_width;
                         z_a += depth_increment;
                     }
                     return;
                 }
                 y_c -= y_b;
                 y_b -= y_a;
-                for (y_a = scanOffsets[y_a]; --y_b >= 0; y_a += Rasterizer2D.Rasterizer2D_width) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_a >> 16, x_c >> 16, z_a, depth_slope);
+                for (y_a = scanOffsets[y_a]; --y_b >= 0; y_a += Rasterizer2D_width) {
+                    drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_a >> 16, x_c >> 16, z_a, depth_slope);
                     x_c += c_to_a;
                     x_a += a_to_b;
                     z_a += depth_increment;
                 }
 
                 while (--y_c >= 0) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_b >> 16, x_c >> 16, z_a, depth_slope);
+                    drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_b >> 16, x_c >> 16, z_a, depth_slope);
                     x_c += c_to_a;
                     x_b += b_to_c;
-                    y_a += Rasterizer2D.Rasterizer2D_width;
+                    y_a += Rasterizer2D_width;
                     z_a += depth_increment;
                 }
                 return;
@@ -1382,47 +1263,47 @@ public final class Rasterizer3D extends Rasterizer2D {
             if (y_a != y_c && c_to_a < a_to_b || y_a == y_c && b_to_c > a_to_b) {
                 y_b -= y_c;
                 y_c -= y_a;
-                for (y_a = scanOffsets[y_a]; --y_c >= 0; y_a += Rasterizer2D.Rasterizer2D_width) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_b >> 16, x_a >> 16, z_a, depth_slope);
+                for (y_a = scanOffsets[y_a]; --y_c >= 0; y_a += Rasterizer2D_width) {
+                    drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_b >> 16, x_a >> 16, z_a, depth_slope);
                     x_b += c_to_a;
                     x_a += a_to_b;
                     z_a += depth_increment;
                 }
 
                 while (--y_b >= 0) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_c >> 16, x_a >> 16, z_a, depth_slope);
+                    drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_c >> 16, x_a >> 16, z_a, depth_slope);
                     x_c += b_to_c;
                     x_a += a_to_b;
-                    y_a += Rasterizer2D.Rasterizer2D_width;
+                    y_a += Rasterizer2D_width;
                     z_a += depth_increment;
                 }
                 return;
             }
             y_b -= y_c;
             y_c -= y_a;
-            for (y_a = scanOffsets[y_a]; --y_c >= 0; y_a += Rasterizer2D.Rasterizer2D_width) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_a >> 16, x_b >> 16, z_a, depth_slope);
+            for (y_a = scanOffsets[y_a]; --y_c >= 0; y_a += Rasterizer2D_width) {
+                drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_a >> 16, x_b >> 16, z_a, depth_slope);
                 x_b += c_to_a;
                 x_a += a_to_b;
                 z_a += depth_increment;
             }
 
             while (--y_b >= 0) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_a, rgb, x_a >> 16, x_c >> 16, z_a, depth_slope);
+                drawFlatScanline(Rasterizer2D_pixels, y_a, rgb, x_a >> 16, x_c >> 16, z_a, depth_slope);
                 x_c += b_to_c;
                 x_a += a_to_b;
-                y_a += Rasterizer2D.Rasterizer2D_width;
+                y_a += Rasterizer2D_width;
                 z_a += depth_increment;
             }
             return;
         }
         if (y_b <= y_c) {
-            if (y_b >= Rasterizer2D.Rasterizer2D_yClipEnd)
+            if (y_b >= Rasterizer2D_yClipEnd)
                 return;
-            if (y_c > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y_c = Rasterizer2D.Rasterizer2D_yClipEnd;
-            if (y_a > Rasterizer2D.Rasterizer2D_yClipEnd)
-                y_a = Rasterizer2D.Rasterizer2D_yClipEnd;
+            if (y_c > Rasterizer2D_yClipEnd)
+                y_c = Rasterizer2D_yClipEnd;
+            if (y_a > Rasterizer2D_yClipEnd)
+                y_a = Rasterizer2D_yClipEnd;
             z_b = z_b - depth_slope * x_b + depth_slope;
             if (y_c < y_a) {
                 x_a = x_b <<= 16;
@@ -1440,36 +1321,36 @@ public final class Rasterizer3D extends Rasterizer2D {
                 if (y_b != y_c && a_to_b < b_to_c || y_b == y_c && a_to_b > c_to_a) {
                     y_a -= y_c;
                     y_c -= y_b;
-                    for (y_b = scanOffsets[y_b]; --y_c >= 0; y_b += Rasterizer2D.Rasterizer2D_width) {
-                        drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_a >> 16, x_b >> 16, z_b, depth_slope);
+                    for (y_b = scanOffsets[y_b]; --y_c >= 0; y_b += Rasterizer2D_width) {
+                        drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_a >> 16, x_b >> 16, z_b, depth_slope);
                         x_a += a_to_b;
                         x_b += b_to_c;
                         z_b += depth_increment;
                     }
 
                     while (--y_a >= 0) {
-                        drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_a >> 16, x_c >> 16, z_b, depth_slope);
+                        drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_a >> 16, x_c >> 16, z_b, depth_slope);
                         x_a += a_to_b;
                         x_c += c_to_a;
-                        y_b += Rasterizer2D.Rasterizer2D_width;
+                        y_b += Rasterizer2D_width;
                         z_b += depth_increment;
                     }
                     return;
                 }
                 y_a -= y_c;
                 y_c -= y_b;
-                for (y_b = scanOffsets[y_b]; --y_c >= 0; y_b += Rasterizer2D.Rasterizer2D_width) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_b >> 16, x_a >> 16, z_b, depth_slope);
+                for (y_b = scanOffsets[y_b]; --y_c >= 0; y_b += Rasterizer2D_width) {
+                    drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_b >> 16, x_a >> 16, z_b, depth_slope);
                     x_a += a_to_b;
                     x_b += b_to_c;
                     z_b += depth_increment;
                 }
 
                 while (--y_a >= 0) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_c >> 16, x_a >> 16, z_b, depth_slope);
+                    drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_c >> 16, x_a >> 16, z_b, depth_slope);
                     x_a += a_to_b;
                     x_c += c_to_a;
-                    y_b += Rasterizer2D.Rasterizer2D_width;
+                    y_b += Rasterizer2D_width;
                     z_b += depth_increment;
                 }
                 return;
@@ -1489,46 +1370,46 @@ public final class Rasterizer3D extends Rasterizer2D {
             if (a_to_b < b_to_c) {
                 y_c -= y_a;
                 y_a -= y_b;
-                for (y_b = scanOffsets[y_b]; --y_a >= 0; y_b += Rasterizer2D.Rasterizer2D_width) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_c >> 16, x_b >> 16, z_b, depth_slope);
+                for (y_b = scanOffsets[y_b]; --y_a >= 0; y_b += Rasterizer2D_width) {
+                    drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_c >> 16, x_b >> 16, z_b, depth_slope);
                     x_c += a_to_b;
                     x_b += b_to_c;
                     z_b += depth_increment;
                 }
 
                 while (--y_c >= 0) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_a >> 16, x_b >> 16, z_b, depth_slope);
+                    drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_a >> 16, x_b >> 16, z_b, depth_slope);
                     x_a += c_to_a;
                     x_b += b_to_c;
-                    y_b += Rasterizer2D.Rasterizer2D_width;
+                    y_b += Rasterizer2D_width;
                     z_b += depth_increment;
                 }
                 return;
             }
             y_c -= y_a;
             y_a -= y_b;
-            for (y_b = scanOffsets[y_b]; --y_a >= 0; y_b += Rasterizer2D.Rasterizer2D_width) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_b >> 16, x_c >> 16, z_b, depth_slope);
+            for (y_b = scanOffsets[y_b]; --y_a >= 0; y_b += Rasterizer2D_width) {
+                drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_b >> 16, x_c >> 16, z_b, depth_slope);
                 x_c += a_to_b;
                 x_b += b_to_c;
                 z_b += depth_increment;
             }
 
             while (--y_c >= 0) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_b, rgb, x_b >> 16, x_a >> 16, z_b, depth_slope);
+                drawFlatScanline(Rasterizer2D_pixels, y_b, rgb, x_b >> 16, x_a >> 16, z_b, depth_slope);
                 x_a += c_to_a;
                 x_b += b_to_c;
-                y_b += Rasterizer2D.Rasterizer2D_width;
+                y_b += Rasterizer2D_width;
                 z_b += depth_increment;
             }
             return;
         }
-        if (y_c >= Rasterizer2D.Rasterizer2D_yClipEnd)
+        if (y_c >= Rasterizer2D_yClipEnd)
             return;
-        if (y_a > Rasterizer2D.Rasterizer2D_yClipEnd)
-            y_a = Rasterizer2D.Rasterizer2D_yClipEnd;
-        if (y_b > Rasterizer2D.Rasterizer2D_yClipEnd)
-            y_b = Rasterizer2D.Rasterizer2D_yClipEnd;
+        if (y_a > Rasterizer2D_yClipEnd)
+            y_a = Rasterizer2D_yClipEnd;
+        if (y_b > Rasterizer2D_yClipEnd)
+            y_b = Rasterizer2D_yClipEnd;
         z_c = z_c - depth_slope * x_c + depth_slope;
         if (y_a < y_b) {
             x_b = x_c <<= 16;
@@ -1546,36 +1427,36 @@ public final class Rasterizer3D extends Rasterizer2D {
             if (b_to_c < c_to_a) {
                 y_b -= y_a;
                 y_a -= y_c;
-                for (y_c = scanOffsets[y_c]; --y_a >= 0; y_c += Rasterizer2D.Rasterizer2D_width) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_b >> 16, x_c >> 16, z_c, depth_slope);
+                for (y_c = scanOffsets[y_c]; --y_a >= 0; y_c += Rasterizer2D_width) {
+                    drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_b >> 16, x_c >> 16, z_c, depth_slope);
                     x_b += b_to_c;
                     x_c += c_to_a;
                     z_c += depth_increment;
                 }
 
                 while (--y_b >= 0) {
-                    drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_b >> 16, x_a >> 16, z_c, depth_slope);
+                    drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_b >> 16, x_a >> 16, z_c, depth_slope);
                     x_b += b_to_c;
                     x_a += a_to_b;
-                    y_c += Rasterizer2D.Rasterizer2D_width;
+                    y_c += Rasterizer2D_width;
                     z_c += depth_increment;
                 }
                 return;
             }
             y_b -= y_a;
             y_a -= y_c;
-            for (y_c = scanOffsets[y_c]; --y_a >= 0; y_c += Rasterizer2D.Rasterizer2D_width) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_c >> 16, x_b >> 16, z_c, depth_slope);
+            for (y_c = scanOffsets[y_c]; --y_a >= 0; y_c += Rasterizer2D_width) {
+                drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_c >> 16, x_b >> 16, z_c, depth_slope);
                 x_b += b_to_c;
                 x_c += c_to_a;
                 z_c += depth_increment;
             }
 
             while (--y_b >= 0) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_a >> 16, x_b >> 16, z_c, depth_slope);
+                drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_a >> 16, x_b >> 16, z_c, depth_slope);
                 x_b += b_to_c;
                 x_a += a_to_b;
-                y_c += Rasterizer2D.Rasterizer2D_width;
+                y_c += Rasterizer2D_width;
                 z_c += depth_increment;
             }
             return;
@@ -1595,44 +1476,46 @@ public final class Rasterizer3D extends Rasterizer2D {
         if (b_to_c < c_to_a) {
             y_a -= y_b;
             y_b -= y_c;
-            for (y_c = scanOffsets[y_c]; --y_b >= 0; y_c += Rasterizer2D.Rasterizer2D_width) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_a >> 16, x_c >> 16, z_c, depth_slope);
+            for (y_c = scanOffsets[y_c]; --y_b >= 0; y_c += Rasterizer2D_width) {
+                drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_a >> 16, x_c >> 16, z_c, depth_slope);
                 x_a += b_to_c;
                 x_c += c_to_a;
                 z_c += depth_increment;
             }
 
             while (--y_a >= 0) {
-                drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_b >> 16, x_c >> 16, z_c, depth_slope);
+                drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_b >> 16, x_c >> 16, z_c, depth_slope);
                 x_b += a_to_b;
                 x_c += c_to_a;
-                y_c += Rasterizer2D.Rasterizer2D_width;
+                y_c += Rasterizer2D_width;
                 z_c += depth_increment;
             }
             return;
         }
         y_a -= y_b;
         y_b -= y_c;
-        for (y_c = scanOffsets[y_c]; --y_b >= 0; y_c += Rasterizer2D.Rasterizer2D_width) {
-            drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_c >> 16, x_a >> 16, z_c, depth_slope);
+        for (y_c = scanOffsets[y_c]; --y_b >= 0; y_c += Rasterizer2D_width) {
+            drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_c >> 16, x_a >> 16, z_c, depth_slope);
             x_a += b_to_c;
             x_c += c_to_a;
             z_c += depth_increment;
         }
 
         while (--y_a >= 0) {
-            drawFlatScanline(Rasterizer2D.Rasterizer2D_pixels, y_c, rgb, x_c >> 16, x_b >> 16, z_c, depth_slope);
+            drawFlatScanline(Rasterizer2D_pixels, y_c, rgb, x_c >> 16, x_b >> 16, z_c, depth_slope);
             x_b += a_to_b;
             x_c += c_to_a;
-            y_c += Rasterizer2D.Rasterizer2D_width;
+            y_c += Rasterizer2D_width;
             z_c += depth_increment;
         }
     }
 
-    private static void drawFlatScanline(int[] dest, int offset, int rgb, int x1, int x2, float depth, float depth_slope) {
+    private void drawFlatScanline(int[] dest, int offset, int rgb, int x1, int x2, float depth, float depth_slope) {
+        if (offset < bandStartOffset || offset >= bandEndOffset)
+            return;
         if (triangleIsOutOfBounds) {
-            if (x2 > Rasterizer2D.lastX) {
-                x2 = Rasterizer2D.lastX;
+            if (x2 > lastX) {
+                x2 = lastX;
             }
             if (x1 < 0) {
                 x1 = 0;
@@ -1,6 +1,5 @@
 package stan.qodat.scene.runescape
 
-import qodat.cache.models.VertexNormal
 import qodat.cache.definition.ModelDefinition
 import kotlin.math.absoluteValue
 import kotlin.math.sqrt
@@ -8,25 +7,6 @@ import kotlin.math.sqrt
 const val MAX_VIEW_DISTANCE = 8192
 const val DISTANCE_EPSILON = 0.98999999999999999
 
-private fun VertexNormal.add(dx: Int, dy: Int, dz: Int) {
-    x += dx
-    y += dy
-    z += dz
-    magnitude++
-}
-
-fun ModelDefinition.getPoints(face: Int): Triple<
-        Triple<Int, Int, Int>,
-        Triple<Int, Int, Int>,
-        Triple<Int, Int, Int>>
-{
-    val (v1, v2, v3) = getVertices(face)
-    return Triple(
-        Triple(getX(v1), getY(v1), getZ(v1)),
-        Triple(getX(v2), getY(v2), getZ(v2)),
-        Triple(getX(v3), getY(v3), getZ(v3)))
-}
-
 fun ModelDefinition.getVertices(face: Int) = Triple(getFaceVertexIndices1()[face], getFaceVertexIndices2()[face], getFaceVertexIndices3()[face])
 fun ModelDefinition.getX(vertex: Int) = getVertexPositionsX()[vertex]
 fun ModelDefinition.getY(vertex: Int) = getVertexPositionsY()[vertex]
@@ -70,63 +50,14 @@ const val RENDER_SHADED_TRIANGLE = 0
 const val RENDER_FLAT_TRIANGLE = 1
 const val RENDER_TEXTURED_TRIANGLE = 2
 
+/**
+ * Lights this model in its default pose, see [ModelLighting].
+ *
+ * @return the lit colors of the first, second and third corner of each face.
+ */
 fun ModelDefinition.calculateFaceColors(brightnessOffset: Int, shadowModifier: Int, sizeX: Int, sizeY: Int, sizeZ: Int, shade: Boolean) : Triple<IntArray, IntArray, IntArray> {
-    val area = sqrt((sizeX * sizeX + sizeY * sizeY + sizeZ * sizeZ).toDouble()).toInt()
-    val shadow = shadowModifier * area shr 8 // shr 8 means >> 8
-
-    val normals = Array(getVertexCount()) { VertexNormal() }
-    val faceCount = getFaceCount()
-    val faceColors1 = IntArray(faceCount)
-    val faceColors2 = IntArray(faceCount)
-    val faceColors3 = IntArray(faceCount)
-
-    for (face in 0 until faceCount) {
-        val (v1, v2, v3) = getVertices(face)
-        val dx1 = getX(v2) - getX(v1)
-        val dy1 = getY(v2) - getY(v1)
-        val dz1 = getZ(v2) - getZ(v1)
-        val dx2 = getX(v3) - getX(v1)
-        val dy2 = getY(v3) - getY(v1)
-        val dz2 = getZ(v3) - getZ(v1)
-        var d1: Int = dy1 * dz2 - dy2 * dz1
-        var d2: Int = dz1 * dx2 - dz2 * dx1
-        var d3: Int = dx1 * dy2 - dx2 * dy1
-        while (d1 > MAX_VIEW_DISTANCE || d2 > MAX_VIEW_DISTANCE || d3 > MAX_VIEW_DISTANCE
-            || d1 < -MAX_VIEW_DISTANCE || d2 < -MAX_VIEW_DISTANCE || d3 < -MAX_VIEW_DISTANCE
-        ) {
-            d1 = d1 shr 1 // shr 1 means >> 1
-            d2 = d2 shr 1
-            d3 = d3 shr 1
-        }
-        var distance = sqrt((d1 * d1 + d2 * d2 + d3 * d3).toDouble()).toInt()
-        if (distance <= 0) distance = 1
-        d1 = d1 * 256 / distance
-        d2 = d2 * 256 / distance
-        d3 = d3 * 256 / distance
-        // testures are always -1 at the moment
-        val texture = getFaceTextures()?.get(face)?.toInt()?:-1
-        var type = getFaceTypes()?.get(face)?.toInt()?:0
-        /*
-       the `type and 1 == 0` part functions as a `type % 2 == 0` check.
-       TODO: find out if type is ever more than 3 (this check can be replaced with just `type == RENDER_TEXTURED_TRIANGLE` instead.
-        */
-        if (type == RENDER_SHADED_TRIANGLE || type and 1 == 0) {
-            normals[v1].add(d1, d2, d3)
-            normals[v2].add(d1, d2, d3)
-            normals[v3].add(d1, d2, d3)
-            continue
-        }
-        if (texture != -1)
-            type = RENDER_TEXTURED_TRIANGLE
-        faceColors1[face] = applyLighting(
-            type = type,
-            color = getColor(face),
-            brightness = brightnessOffset + (sizeX * d1 + sizeY * d2 + sizeZ * d3) / (shadow + shadow / 2)
-        )
-    }
-    if (shade)
-        doShading(normals, faceColors1, faceColors2, faceColors3, brightnessOffset, shadow, sizeX, sizeY, sizeZ)
-    return Triple(faceColors1, faceColors2, faceColors3)
+    val lighting = ModelLighting(this, brightnessOffset, shadowModifier, sizeX, sizeY, sizeZ, shade)
+    return Triple(lighting.colors1, lighting.colors2, lighting.colors3)
 }
 
 fun applyLighting(type: Int, color: Int, brightness: Int): Int {
@@ -146,55 +77,69 @@ fun applyLighting(type: Int, color: Int, brightness: Int): Int {
     return (color and 65408) + colorBrightness
 }
 
-fun ModelDefinition.doShading(normals: Array<VertexNormal>, faceColors1: IntArray, faceColors2: IntArray, faceColors3: IntArray, brightnessOffset: Int, shadow: Int, sizeX: Int, sizeY: Int, sizeZ: Int) {
-    for (face in 0 until getFaceCount()) {
-        var skip = false
-        val type = if (getFaceTextures()?.get(face)?.toInt()?:-1 != -1)
-            RENDER_TEXTURED_TRIANGLE
-        else
-            getFaceTypes()
-                ?.get(face)?.toInt()?.also {
-                    if(it and 1 != 0)
-                        skip = true
-                }
-                ?:RENDER_FLAT_TRIANGLE
-        if (skip)
-            continue
-        val hsl = getFaceColors()[face].toInt() and 0xFFFF
-        val (v1, v2, v3) = getVertices(face)
-        val n1 = normals[v1]
-        val n2 = normals[v2]
-        val n3 = normals[v3]
-        faceColors1[face] = applyLighting(
-            type = type,
-            color = hsl,
-            brightness = brightnessOffset + (sizeX * n1.x + sizeY * n1.y + sizeZ * n1.z) / (shadow * n1.magnitude))
-        faceColors2[face] = applyLighting(
-            type = type,
-            color = hsl,
-            brightness = brightnessOffset + (sizeX * n2.x + sizeY * n2.y + sizeZ * n2.z) / (shadow * n2.magnitude))
-        faceColors3[face] = applyLighting(
-            type = type,
-            color = hsl,
-            brightness = brightnessOffset + (sizeX * n3.x + sizeY * n3.y + sizeZ * n3.z) / (shadow * n3.magnitude))
-    }
-}
-
-fun ModelDefinition.draw(shade: Boolean = false) {
+fun ModelDefinition.draw(rasterizer: Rasterizer3D, shade: Boolean = false) {
     val (colors1, colors2, colors3) = calculateFaceColors(64, 850, -30, -50, -30, shade)
     for (face in 0 until getFaceCount())
-        drawFace(face, colors1, colors2, colors3)
+        drawFace(rasterizer, face, colors1, colors2, colors3)
 }
 
-fun ModelDefinition.drawFace(face: Int, colors1: IntArray, colors2: IntArray, colors3: IntArray) {
-    val type = getFaceTypes()?.get(face)?.toInt()?.let { it and 3 }?:0
-    if (type == RENDER_SHADED_TRIANGLE) {
-        val (v1, v2, v3) = getVertices(face)
-        Rasterizer3D.drawGouraudTriangle(
-            getX(v1), getX(v2), getX(v3),
-            getY(v1), getY(v2), getY(v3),
-            getZ(v1).absoluteValue.toFloat(), getZ(v2).absoluteValue.toFloat(), getZ(v3).absoluteValue.toFloat(),
-            colors1[face], colors2[face], colors3[face]
-        )
+fun ModelDefinition.drawFace(rasterizer: Rasterizer3D, face: Int, colors1: IntArray, colors2: IntArray, colors3: IntArray) {
+    val (v1, v2, v3) = getVertices(face)
+    val textured = (getFaceTextures()?.get(face)?.toInt() ?: -1) != -1
+    val flat = (getFaceTypes()?.get(face)?.toInt() ?: 0) and 1 == 1
+    var hsl1 = colors1[face]
+    var hsl2 = if (flat) hsl1 else colors2[face]
+    var hsl3 = if (flat) hsl1 else colors3[face]
+    if (textured) {
+        hsl1 = applyTextureLighting(DEFAULT_TEXTURE_HSL, hsl1)
+        hsl2 = applyTextureLighting(DEFAULT_TEXTURE_HSL, hsl2)
+        hsl3 = applyTextureLighting(DEFAULT_TEXTURE_HSL, hsl3)
     }
+    rasterizer.drawTriangle(
+        if (flat) RENDER_FLAT_TRIANGLE else RENDER_SHADED_TRIANGLE,
+        getX(v1), getX(v2), getX(v3),
+        getY(v1), getY(v2), getY(v3),
+        getZ(v1).absoluteValue.toFloat(), getZ(v2).absoluteValue.toFloat(), getZ(v3).absoluteValue.toFloat(),
+        hsl1, hsl2, hsl3
+    )
+}
+
+/**
+ * The HSL color textured faces are drawn with when the color of their texture is unknown, a light grey.
+ */
+const val DEFAULT_TEXTURE_HSL = 100
+
+/**
+ * The rasterizer does not map textures, so textured faces are drawn in the (average) color of their texture.
+ *
+ * [calculateFaceColors] stores the inverted brightness (0 is brightest) of textured faces rather than a color,
+ * this applies that brightness to the lightness of the [textureHsl] color.
+ */
+fun applyTextureLighting(textureHsl: Int, light: Int) : Int {
+    var lightness = (textureHsl and 127) * (127 - light) shr 7
+    if (lightness < 2)
+        lightness = 2
+    else if (lightness > 126)
+        lightness = 126
+    return (textureHsl and 65408) + lightness
+}
+
+/**
+ * Draws a triangle of the [renderType] with the screen coordinates and depths of its corners
+ * into the raster of this [Rasterizer3D], using its current [alpha][Rasterizer3D.alpha].
+ *
+ * A [RENDER_FLAT_TRIANGLE] is filled with the color of [hsl1],
+ * any other type is gouraud shaded between the colors of its corners.
+ */
+fun Rasterizer3D.drawTriangle(
+    renderType: Int,
+    x1: Int, x2: Int, x3: Int,
+    y1: Int, y2: Int, y3: Int,
+    z1: Float, z2: Float, z3: Float,
+    hsl1: Int, hsl2: Int, hsl3: Int
+) {
+    if (renderType == RENDER_FLAT_TRIANGLE)
+        drawFlatTriangle(x1, x2, x3, y1, y2, y3, z1, z2, z3, hslToRgb[hsl1])
+    else
+        drawGouraudTriangle(x1, x2, x3, y1, y2, y3, z1, z2, z3, hsl1, hsl2, hsl3)
 }
@@ -1,15 +1,19 @@
 package stan.qodat.scene.runescape.animation
 
+import javafx.application.Platform
 import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.property.SimpleObjectProperty
 import javafx.beans.property.SimpleStringProperty
 import javafx.collections.FXCollections
+import javafx.collections.ListChangeListener
 import javafx.collections.ObservableList
 import javafx.collections.ObservableMap
 import javafx.scene.Node
 import javafx.scene.control.*
 import javafx.scene.layout.HBox
 import javafx.util.Callback
+import qodat.animation.AnimationFrameRegistry
+import qodat.animation.AnimationSequence
 import qodat.cache.Cache
 import qodat.cache.Encoder
 import qodat.cache.definition.AnimationDefinition
@@ -57,11 +61,12 @@ class Animation(
     fun getSkeletons(): ObservableMap<Int, AnimationSkeleton> {
         if (!this::skeletons.isInitialized) {
             try {
+                val registry = if (definition == null) null else getRegistry()
                 val skeletonsMap: Map<Int, AnimationSkeleton> = definition
-                    ?.frameHashes
-                    ?.map { getCacheSafe().getAnimationSkeletonDefinition(it) }
-                    ?.distinctBy { it.id }
-                    ?.associate { it.id to AnimationSkeleton("${it.id}", it) }
+                    ?.let { registry!!.getSkeletons(it) }
+                    ?.associate { skeleton ->
+                        skeleton.id to registry!!.getSkeletonView(skeleton) { AnimationSkeleton("${it.id}", it) }
+                    }
                     ?: emptyMap()
                 skeletons = FXCollections.observableMap(skeletonsMap)
             } catch (e: Exception) {
@@ -75,17 +80,33 @@ class Animation(
     override fun getFrameList(): ObservableList<AnimationFrame> {
         if (!this::frames.isInitialized) {
             try {
+                val registry = if (definition == null) null else getRegistry()
                 val framesArray = if (definition == null) emptyArray() else Array(definition.frameHashes.size) { idx ->
-                    val frameDefinition = getCacheSafe().getFrameDefinition(definition.frameHashes[idx])!!
+                    val frameHash = definition.frameHashes[idx]
+                    val duration = definition.frameLengths[idx]
                     AnimationFrame(
                         name = "frame[$idx]",
-                        definition = frameDefinition,
-                        duration = definition.frameLengths[idx]
+                        definition = registry!!.getFrameDefinition(frameHash),
+                        duration = duration,
+                        sharedKeyFrame = registry.getKeyFrame(frameHash, duration)
                     ).apply {
                         idProperty.set(this@Animation.definition.frameHashes[idx])
                     }
                 }
                 frames = FXCollections.observableArrayList(*framesArray)
+                // cached bounds no longer apply once a frame is edited, added or removed
+                val invalidateBounds = { AnimationBoundsCache.invalidate(this) }
+                for (frame in framesArray)
+                    frame.onEdited = invalidateBounds
+                frames.addListener(ListChangeListener { change ->
+                    while (change.next()) {
+                        for (removed in change.removed)
+                            removed.onEdited = null
+                        for (added in change.addedSubList)
+                            added.onEdited = invalidateBounds
+                    }
+                    invalidateBounds()
+                })
             } catch (e: Exception) {
                 Qodat.logException("Could not get animation {${getName()}}'s frames", e)
                 return FXCollections.emptyObservableList()
@@ -94,6 +115,21 @@ class Animation(
         return frames
     }
 
+    /**
+     * Get an immutable [AnimationSequence] of the key frames in this animation,
+     * which can be evaluated without touching any JavaFX state (see [qodat.animation.AnimationEvaluator]).
+     */
+    fun getSequence() : AnimationSequence {
+        if (!this::frames.isInitialized && definition != null && loopOffsetProperty.get() == definition.loopOffset)
+            return getRegistry().getSequence(definition)
+        return AnimationSequence(
+            frames = getFrameList().map { it.getKeyFrame() },
+            loopOffset = loopOffsetProperty.get()
+        )
+    }
+
+    private fun getRegistry() = AnimationFrameRegistry.of(getCacheSafe())
+
     private fun getCacheSafe() = requireNotNull(cache)
     { "Cache must not be null if loading from cache definition!" }
 
@@ -120,6 +156,35 @@ class Animation(
         if (!this::viewBox.isInitialized) {
             viewBox = LabeledHBox(labelProperty).apply {
                 label.contextMenu = ContextMenu().apply {
+                    menu("layer") {
+                        menuItem("play on top of current animation") {
+                            val context = SubScene3D.contextProperty.get()
+                            val base = context.animationPlayer.transformerProperty.get()
+                            if (base != null && base != this@Animation) {
+                                context.animationPlayer.pause()
+                                context.layeredAnimationPlayer.play(
+                                    transformables = context.animationPlayer.transformableList.toList(),
+                                    layers = listOf(
+                                        LayeredAnimationPlayer.Layer(base, maskAnimatedGroups = false),
+                                        LayeredAnimationPlayer.Layer(this@Animation)
+                                    )
+                                )
+                            }
+                        }
+                        menuItem("stop layered playback") {
+                            SubScene3D.contextProperty.get().layeredAnimationPlayer.stop()
+                        }
+                    }
+                    menu("camera") {
+                        menuItem("frame all frames") {
+                            val transformables = SubScene3D.contextProperty.get().animationPlayer.transformableList.toList()
+                            BackgroundTasks.submit(addProgressIndicator = false) {
+                                val bounds = AnimationBoundsCache.get(transformables, this@Animation)
+                                if (bounds != null)
+                                    Platform.runLater { SubScene3D.cameraHandler.frame(bounds.union) }
+                            }
+                        }
+                    }
                     menu("export") {
                         menuItem("GIF") {
                             BackgroundTasks.submit(
@@ -153,6 +218,7 @@ class Animation(
     fun copy() = Animation(labelProperty.get(), definition, cache)
 
     companion object {
+
         fun createCellFactory() = Callback<ListView<Animation>, ListCell<Animation>> {
             object : ListCell<Animation>() {
                 override fun updateItem(item: Animation?, empty: Boolean) {
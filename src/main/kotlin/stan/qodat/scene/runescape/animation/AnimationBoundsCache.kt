@@ -0,0 +1,135 @@
+package stan.qodat.scene.runescape.animation
+
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.launch
+import org.slf4j.LoggerFactory
+import qodat.animation.AnimationBounds
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.runescape.entity.Entity
+import stan.qodat.scene.runescape.model.Model
+import stan.qodat.scene.transform.Transformable
+
+/**
+ * Caches the [AnimationBounds] of animations applied to a set of models,
+ * used to frame the camera and to size exports without reading bounds from the scene graph.
+ *
+ * Entries are keyed by the models and the frames (ids and lengths) of the animation,
+ * an [Animation] invalidates its entries whenever one of its frames is edited, added or removed.
+ * At most [MAX_ENTRIES] bounds are kept, the least recently used are evicted first.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object AnimationBoundsCache {
+
+    private const val MAX_ENTRIES = 256
+
+    private val logger = LoggerFactory.getLogger(AnimationBoundsCache::class.java)
+
+    private val cache = object : LinkedHashMap<Key, AnimationBounds>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, AnimationBounds>) = size > MAX_ENTRIES
+    }
+
+    /**
+     * Get the bounds of the [animation] applied to the [definitions], computing them if absent.
+     *
+     * @param modelsKey uniquely identifies the [definitions], e.g. the model ids of an entity.
+     */
+    fun get(modelsKey: Any, definitions: List<ModelDefinition>, animation: Animation) : AnimationBounds {
+        val key = Key(modelsKey, animation)
+        synchronized(cache) { cache[key] }?.let { return it }
+        // computed outside the lock, so a slow animation does not block lookups of other animations
+        val bounds = AnimationBounds.compute(definitions, animation.getSequence())
+        synchronized(cache) { cache[key] = bounds }
+        return bounds
+    }
+
+    /**
+     * Get the bounds of the [animation] applied to the models of the [entity].
+     */
+    fun get(entity: Entity<*>, animation: Animation) =
+        get(entity.definition.modelIds.toList(), entity.getModels().map { it.modelDefinition }, animation)
+
+    /**
+     * Get the bounds of the [animation] applied to the [model].
+     */
+    fun get(model: Model, animation: Animation) =
+        get(model.modelDefinition, listOf(model.modelDefinition), animation)
+
+    /**
+     * Get the bounds of the [animation] applied to all models of the [transformables],
+     * or `null` if none of the [transformables] is a [Model] or an [Entity].
+     */
+    fun get(transformables: List<Transformable>, animation: Animation) : AnimationBounds? {
+        val models = transformables.flatMap {
+            when (it) {
+                is Model -> listOf(it)
+                is Entity<*> -> it.getModels().toList()
+                else -> emptyList()
+            }
+        }
+        if (models.isEmpty())
+            return null
+        return get(models.map { it.modelDefinition }, models.map { it.modelDefinition }, animation)
+    }
+
+    /**
+     * Computes the bounds of the [animations] applied to the models of the [entity] in the background,
+     * in parallel across animations, so they are cached by the time the camera is framed or an animation is exported.
+     *
+     * Only the first [MAX_ENTRIES] animations are computed, as the cache would evict the others.
+     * Must be called on the JavaFX thread, as the frame lists of the animations are created up front.
+     * Animations that fail to evaluate are logged and left out.
+     */
+    fun precompute(entity: Entity<*>, animations: Array<Animation>) : Job {
+        val modelsKey = entity.definition.modelIds.toList()
+        val definitions = entity.getModels().map { it.modelDefinition }
+        val pending = animations.take(MAX_ENTRIES).mapNotNull { animation ->
+            val key = Key(modelsKey, animation)
+            if (synchronized(cache) { cache.containsKey(key) })
+                null
+            else
+                Triple(key, animation, animation.getSequence())
+        }
+        return GlobalScope.launch(Dispatchers.Default) {
+            for ((key, animation, sequence) in pending) {
+                launch {
+                    try {
+                        val bounds = AnimationBounds.compute(definitions, sequence)
+                        synchronized(cache) { cache[key] = bounds }
+                    } catch (e: Exception) {
+                        logger.error("Failed to compute bounds of animation {} for {}", animation.getName(), entity.getName(), e)
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all cached bounds of the [animation].
+     */
+    fun invalidate(animation: Animation) {
+        synchronized(cache) { cache.keys.removeIf { it.animation === animation } }
+    }
+
+    fun clear() {
+        synchronized(cache) { cache.clear() }
+    }
+
+    private data class Key(val models: Any, val animation: Animation, val frames: List<Long>) {
+
+        constructor(models: Any, animation: Animation) : this(models, animation, frames(animation))
+
+        companion object {
+
+            /**
+             * Packs the id and length of every frame of the [animation].
+             */
+            fun frames(animation: Animation) = animation.getFrameList().map {
+                (it.idProperty.get().toLong() shl 32) or (it.getLength() and 0xFFFFFFFFL)
+            }
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package stan.qodat.scene.runescape.animation
 
+import javafx.beans.InvalidationListener
 import javafx.beans.property.SimpleBooleanProperty
 import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.property.SimpleObjectProperty
 import javafx.beans.property.SimpleStringProperty
 import javafx.collections.FXCollections
+import javafx.collections.ListChangeListener
+import javafx.collections.ObservableList
 import javafx.scene.Node
 import javafx.scene.layout.HBox
 import javafx.util.Duration
+import qodat.animation.AnimationKeyFrame
 import qodat.cache.definition.AnimationFrameDefinition
 import qodat.cache.definition.AnimationTransformationGroup
 import stan.qodat.scene.control.LabeledHBox
@@ -26,7 +30,8 @@ import stan.qodat.util.onInvalidation
 class AnimationFrame(
     name: String,
     val definition: AnimationFrameDefinition?,
-    duration: Int
+    duration: Int,
+    private val sharedKeyFrame: AnimationKeyFrame? = null
 ) : TransformationGroup, Searchable, ViewNodeProvider {
 
     private lateinit var viewBox : HBox
@@ -34,35 +39,112 @@ class AnimationFrame(
 
     val idProperty = SimpleIntegerProperty()
     val transformationCountProperty = SimpleIntegerProperty(definition?.transformationCount?:0)
-    val transformationList = FXCollections.observableArrayList<Transformation>()
     val durationProperty = SimpleObjectProperty(FrameTimeUtil.frame(duration))
     val enabledProperty = SimpleBooleanProperty(true)
 
+    /**
+     * The (editable) transformations of this frame, created the first time they are accessed,
+     * until then this frame is represented by the [sharedKeyFrame] (or the [definition]).
+     */
+    val transformationList: ObservableList<Transformation>
+        get() = getTransformations()
+
+    private var transformations: ObservableList<Transformation>? = null
+
     fun getLength() = FrameTimeUtil.toFrame(durationProperty.get())
 
+    /**
+     * Immutable snapshot of the enabled transformations in this frame, see [getKeyFrame].
+     */
+    private var keyFrame: AnimationKeyFrame? = null
+
+    /**
+     * Called whenever this frame is edited, i.e. when its duration or one of its transformations changes.
+     */
+    var onEdited: (() -> Unit)? = null
+
+    private val invalidateKeyFrame = InvalidationListener {
+        keyFrame = null
+        onEdited?.invoke()
+    }
+
     init {
-        if (definition != null) {
-            val transformations = Array(transformationCountProperty.get()) {
-                val groupIndex = definition.transformationGroupAccessIndices[it]
-                Transformation(
-                    "transform[$it]",
-                    definition.transformationGroup.targetVertexGroupsIndices[groupIndex],
-                    definition.transformationGroup.transformationTypes[groupIndex],
-                    definition.transformationDeltaX[it],
-                    definition.transformationDeltaY[it],
-                    definition.transformationDeltaZ[it]
-                ).apply {
-                    idProperty.set(it)
-                    groupIndexProperty.set(groupIndex)
-                }
+        durationProperty.addListener(invalidateKeyFrame)
+    }
+
+    private fun getTransformations() : ObservableList<Transformation> {
+        var list = transformations
+        if (list == null) {
+            list = FXCollections.observableArrayList<Transformation>()
+            if (definition != null) {
+                list.addAll(Array(definition.transformationCount) {
+                    val groupIndex = definition.transformationGroupAccessIndices[it]
+                    Transformation(
+                        "transform[$it]",
+                        definition.transformationGroup.targetVertexGroupsIndices[groupIndex],
+                        definition.transformationGroup.transformationTypes[groupIndex],
+                        definition.transformationDeltaX[it],
+                        definition.transformationDeltaY[it],
+                        definition.transformationDeltaZ[it]
+                    ).apply {
+                        idProperty.set(it)
+                        groupIndexProperty.set(groupIndex)
+                    }
+                })
+            }
+            list.onInvalidation {
+                transformationCountProperty.set(size)
             }
-            transformationList.addAll(transformations)
+            for (transformation in list)
+                transformation.observables.forEach { it.addListener(invalidateKeyFrame) }
+            list.addListener(ListChangeListener { change ->
+                while (change.next()) {
+                    for (removed in change.removed)
+                        removed.observables.forEach { it.removeListener(invalidateKeyFrame) }
+                    for (added in change.addedSubList)
+                        added.observables.forEach { it.addListener(invalidateKeyFrame) }
+                }
+                keyFrame = null
+                onEdited?.invoke()
+            })
+            transformations = list
+            keyFrame = null
         }
-        transformationList.onInvalidation {
-            transformationCountProperty.set(transformationList.size)
+        return list
+    }
+
+    /**
+     * Get an immutable [AnimationKeyFrame] representing this frame,
+     * the key frame is recreated when a (enabled) transformation or the duration of this frame changes.
+     *
+     * As long as the [transformationList] was never accessed, this shares its data with the [sharedKeyFrame].
+     */
+    fun getKeyFrame() : AnimationKeyFrame {
+        var current = keyFrame
+        if (current == null) {
+            val transformations = transformations
+            current = when {
+                transformations != null -> createKeyFrame(transformations.filter { it.enabledProperty.get() })
+                sharedKeyFrame != null -> sharedKeyFrame.withDuration(getLength().toInt())
+                definition != null -> AnimationKeyFrame.create(definition, getLength().toInt())
+                else -> createKeyFrame(emptyList())
+            }
+            keyFrame = current
         }
+        return current
     }
 
+    private fun createKeyFrame(transformations: List<Transformation>) = AnimationKeyFrame(
+        duration = getLength().toInt(),
+        skeletonId = definition?.transformationGroup?.id ?: -1,
+        transformGroupIndices = IntArray(transformations.size) { transformations[it].groupIndexProperty.get() },
+        transformTypes = IntArray(transformations.size) { transformations[it].getType().ordinal },
+        targetVertexGroups = Array(transformations.size) { transformations[it].groupIndices.toArray(null) },
+        deltaX = IntArray(transformations.size) { transformations[it].getDeltaX() },
+        deltaY = IntArray(transformations.size) { transformations[it].getDeltaY() },
+        deltaZ = IntArray(transformations.size) { transformations[it].getDeltaZ() }
+    )
+
     fun getTransformationCount() = transformationCountProperty.get()
 
     override fun durationProperty(): SimpleObjectProperty<Duration> = durationProperty
@@ -0,0 +1,106 @@
+package stan.qodat.scene.runescape.animation
+
+import javafx.animation.AnimationTimer
+import javafx.beans.property.SimpleBooleanProperty
+import qodat.animation.AnimationLayer
+import qodat.animation.AnimationMask
+import qodat.animation.LayeredAnimationEvaluator
+import stan.qodat.scene.SceneContext
+import stan.qodat.scene.runescape.entity.Entity
+import stan.qodat.scene.runescape.model.Model
+import stan.qodat.scene.transform.Transformable
+
+/**
+ * Plays multiple [animations][Animation] simultaneously on the same models,
+ * see [LayeredAnimationEvaluator] for how the layers are combined.
+ *
+ * The models are only updated when the frame of one of the layers changes.
+ * Playback is stopped when the [AnimationPlayer] of the same scene starts playing (see [SceneContext]),
+ * so the two players never pose the same models at once.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class LayeredAnimationPlayer {
+
+    private var models: Array<Model> = emptyArray()
+    private var evaluators: Array<LayeredAnimationEvaluator> = emptyArray()
+    private var layers: List<AnimationLayer> = emptyList()
+    private var lastFrameIndices = IntArray(0)
+    private var startNanos = 0L
+
+    val playingProperty = SimpleBooleanProperty(false)
+
+    private val timer = object : AnimationTimer() {
+        override fun handle(now: Long) {
+            update(now)
+        }
+    }
+
+    /**
+     * Starts playing the [layers] on all models of the [transformables], replacing any previous playback.
+     */
+    fun play(transformables: List<Transformable>, layers: List<Layer>) {
+        stop()
+        models = transformables.flatMap {
+            when (it) {
+                is Model -> listOf(it)
+                is Entity<*> -> it.getModels().toList()
+                else -> emptyList()
+            }
+        }.toTypedArray()
+        evaluators = Array(models.size) { LayeredAnimationEvaluator(models[it].modelDefinition) }
+        this.layers = layers.map {
+            val sequence = it.animation.getSequence()
+            AnimationLayer(
+                sequence = sequence,
+                mask = if (it.maskAnimatedGroups) AnimationMask.ofAnimatedGroups(sequence) else null,
+                weight = it.weight,
+                startTimeMillis = it.startTimeMillis
+            )
+        }
+        lastFrameIndices = IntArray(layers.size) { -2 }
+        startNanos = System.nanoTime()
+        timer.start()
+        playingProperty.set(true)
+    }
+
+    fun stop() {
+        timer.stop()
+        playingProperty.set(false)
+    }
+
+    private fun update(now: Long) {
+        val timeMillis = (now - startNanos) / 1_000_000L
+        var changed = false
+        for (layerIndex in layers.indices) {
+            val frameIndex = layers[layerIndex].getFrameIndex(timeMillis)
+            if (frameIndex != lastFrameIndices[layerIndex]) {
+                lastFrameIndices[layerIndex] = frameIndex
+                changed = true
+            }
+        }
+        if (!changed)
+            return
+        for (modelIndex in models.indices) {
+            val evaluator = evaluators[modelIndex]
+            evaluator.evaluate(layers, timeMillis)
+            models[modelIndex].setPose(evaluator.positionsX, evaluator.positionsY, evaluator.positionsZ)
+        }
+    }
+
+    /**
+     * An [animation] to play as a layer.
+     *
+     * @param maskAnimatedGroups if `true` the layer only controls the groups it moves (see [AnimationMask.ofAnimatedGroups]),
+     *                           otherwise it controls every group.
+     * @param weight             see [AnimationLayer.weight].
+     * @param startTimeMillis    the time after the start of playback at which this layer starts playing.
+     */
+    class Layer(
+        val animation: Animation,
+        val maskAnimatedGroups: Boolean = true,
+        val weight: Float = 1f,
+        val startTimeMillis: Long = 0L
+    )
+}
@@ -1,6 +1,7 @@
 package stan.qodat.scene.runescape.animation
 
 import javafx.beans.InvalidationListener
+import javafx.beans.Observable
 import javafx.beans.binding.Bindings
 import javafx.beans.property.SimpleBooleanProperty
 import javafx.beans.property.SimpleIntegerProperty
@@ -45,6 +46,20 @@ open class Transformation(
     val enabledProperty = SimpleBooleanProperty(true)
     val labelProperty = SimpleStringProperty(name)
 
+    /**
+     * The observables that affect how this transformation deforms a model,
+     * used to invalidate the [AnimationFrame.getKeyFrame] of the frame containing this transformation.
+     */
+    val observables: Array<Observable> = arrayOf(
+        groupIndices,
+        groupIndexProperty,
+        typeProperty,
+        deltaXProperty,
+        deltaYProperty,
+        deltaZProperty,
+        enabledProperty
+    )
+
     fun bind(frame: AnimationFrame, entity: AnimatedEntity<*>){
         Bindings.createBooleanBinding(
             {
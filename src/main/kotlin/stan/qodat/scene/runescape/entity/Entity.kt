@@ -6,28 +6,33 @@ import javafx.beans.property.SimpleStringProperty
 import javafx.scene.Group
 import javafx.scene.Node
 import javafx.scene.control.TreeView
+import javafx.scene.image.Image
 import javafx.scene.layout.HBox
 import javafx.scene.text.TextFlow
 import qodat.cache.Cache
 import qodat.cache.definition.EntityDefinition
 import qodat.cache.models.RS2ModelBuilder
+import qodat.cache.models.unordered
 import stan.qodat.Properties
 import stan.qodat.Qodat
 import stan.qodat.javafx.menloText
 import stan.qodat.scene.SubScene3D
 import stan.qodat.scene.control.LabeledHBox
+import stan.qodat.scene.control.ThumbnailService
 import stan.qodat.scene.control.ViewNodeListView
 import stan.qodat.scene.control.export.Exportable
 import stan.qodat.scene.control.tree.EntityTreeItem
 import stan.qodat.scene.controller.EntityViewController
 import stan.qodat.scene.paint.Material
 import stan.qodat.scene.provider.SceneNodeProvider
+import stan.qodat.scene.provider.ThumbnailProvider
 import stan.qodat.scene.provider.TreeItemProvider
 import stan.qodat.scene.provider.ViewNodeProvider
 import stan.qodat.scene.runescape.model.Model
 import stan.qodat.util.DEFAULT
 import stan.qodat.util.formatName
 import stan.qodat.util.getMaterial
+import java.util.concurrent.Future
 
 /**
  * TODO: add documentation
@@ -38,7 +43,7 @@ import stan.qodat.util.getMaterial
 abstract class Entity<D : EntityDefinition>(
     protected val cache: Cache,
     val definition: D
-) : Exportable, SceneNodeProvider, ViewNodeProvider, TreeItemProvider {
+) : Exportable, SceneNodeProvider, ViewNodeProvider, ThumbnailProvider, TreeItemProvider {
 
     private var modelGroup: Group? = null
     private var models: Array<Model>? = null
@@ -79,7 +84,7 @@ abstract class Entity<D : EntityDefinition>(
                         }
                     }"
                     val modelDefinition = RS2ModelBuilder(*definitions).build()
-                    val model = Model(multiModelName, modelDefinition, definition.findColor, definition.replaceColor)
+                    val model = Model(multiModelName, Model.preprocess(modelDefinition), definition.findColor, definition.replaceColor)
                     arrayOf(model)
                 } else
                     createDistinctModels()
@@ -122,9 +127,9 @@ abstract class Entity<D : EntityDefinition>(
         if (definition.modelIds.size == 1)
             getModels().first().modelDefinition
         else
-            getModels().map { it.modelDefinition }
+            getModels().map { it.modelDefinition.unordered() }
                 .toTypedArray()
-                .let { RS2ModelBuilder(*it).build() },
+                .let { Model.preprocess(RS2ModelBuilder(*it).build()) },
         definition.findColor,
         definition.replaceColor
     )
@@ -136,7 +141,7 @@ abstract class Entity<D : EntityDefinition>(
 
     private fun createDistinctModels() = definition.modelIds.map {
         val modelDefinition = cache.getModelDefinition(it)
-        Model(it, modelDefinition, definition.findColor, definition.replaceColor)
+        Model(it, Model.preprocess(modelDefinition), definition.findColor, definition.replaceColor)
     }.toTypedArray()
 
     override fun getViewNode(): Node {
@@ -159,6 +164,9 @@ abstract class Entity<D : EntityDefinition>(
         return viewBox
     }
 
+    override fun requestThumbnail(onLoaded: (Image) -> Unit): Future<*>? =
+        ThumbnailService.request(cache, definition, onLoaded)
+
     override fun getSceneNode(): Group {
         if (modelGroup == null) {
             modelGroup = Group().apply {
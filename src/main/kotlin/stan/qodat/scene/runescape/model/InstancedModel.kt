@@ -0,0 +1,155 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.scene.shape.MeshView
+import javafx.scene.shape.TriangleMesh
+import qodat.animation.AnimationEvaluator
+import qodat.animation.AnimationSequence
+import qodat.animation.VertexDeformer
+import stan.qodat.util.setAndBind
+
+/**
+ * Shares the meshes and materials of a single [model] between any number of [ModelInstance] nodes.
+ *
+ * Static instances all show the meshes of the [model] itself.
+ * Animated instances that show the same frame of the same [AnimationSequence] share one [Pose],
+ * so the number of posed meshes scales with the number of distinct frames rather than instances.
+ * The poses of a sequence are kept for as long as any instance plays it (see [retainSequence]),
+ * so looping instances do not create meshes after the first playback.
+ *
+ * When the skin of the [model] is rebuilt or recolored, all poses are discarded
+ * and the instances are given new mesh views (see [refresh]).
+ *
+ * @see ModelInstancer
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class InstancedModel(val model: Model) {
+
+    /**
+     * The meshes of the current skin of the [model].
+     */
+    var meshes: List<ModelMesh> = model.getSceneNode().let { model.collectMeshes().toList() }
+        private set
+
+    private var sourceViews = meshes.map { it.getSceneNode() }
+    private val evaluator by lazy { AnimationEvaluator(model.modelDefinition) }
+    private val poses = HashMap<AnimationSequence, Array<Pose?>>()
+    private val sequenceUsers = HashMap<AnimationSequence, Int>()
+    private val instances = ArrayList<ModelInstance>()
+    private val meshesChangedListener = { refresh() }
+
+    init {
+        model.onMeshesChanged = meshesChangedListener
+    }
+
+    internal fun register(instance: ModelInstance) {
+        instances += instance
+    }
+
+    internal fun unregister(instance: ModelInstance) {
+        instances -= instance
+    }
+
+    /**
+     * Stops following changes of the skin of the [model], once no instances of this model are left.
+     */
+    fun dispose() {
+        if (model.onMeshesChanged === meshesChangedListener)
+            model.onMeshesChanged = null
+    }
+
+    /**
+     * Collects the meshes of the current skin of the [model] again, and discards all poses,
+     * because the poses are copies of the tex coords and faces of the previous meshes.
+     */
+    private fun refresh() {
+        for (instance in instances)
+            instance.clearPose()
+        poses.clear()
+        meshes = model.collectMeshes().toList()
+        sourceViews = meshes.map { it.getSceneNode() }
+        for (instance in instances)
+            instance.recreateMeshViews()
+    }
+
+    /**
+     * Creates a [MeshView] for each of the [meshes], sharing the mesh and the material of the [model].
+     */
+    fun createMeshViews() : List<MeshView> = meshes.mapIndexed { index, mesh ->
+        val source = sourceViews[index]
+        MeshView(mesh).apply {
+            isPickOnBounds = false
+            materialProperty().setAndBind(source.materialProperty())
+            drawModeProperty().setAndBind(source.drawModeProperty())
+            cullFaceProperty().setAndBind(source.cullFaceProperty())
+            visibleProperty().setAndBind(source.visibleProperty())
+        }
+    }
+
+    /**
+     * Keeps the poses of the [sequence] until a matching call to [releaseSequence].
+     */
+    fun retainSequence(sequence: AnimationSequence) {
+        sequenceUsers.merge(sequence, 1, Int::plus)
+    }
+
+    /**
+     * Discards the poses of the [sequence] once no instance plays it anymore.
+     */
+    fun releaseSequence(sequence: AnimationSequence) {
+        val users = (sequenceUsers[sequence] ?: return) - 1
+        if (users > 0)
+            sequenceUsers[sequence] = users
+        else {
+            sequenceUsers.remove(sequence)
+            poses.remove(sequence)
+        }
+    }
+
+    /**
+     * Gets the shared [Pose] of the frame at [frameIndex] in the [sequence],
+     * creating it the first time an instance shows this frame.
+     * The [sequence] must be [retained][retainSequence].
+     */
+    fun getPose(sequence: AnimationSequence, frameIndex: Int) : Pose {
+        val framePoses = poses.getOrPut(sequence) { arrayOfNulls(sequence.frameCount) }
+        return framePoses[frameIndex] ?: run {
+            val deformer = evaluator.evaluateFrame(sequence, frameIndex)
+            Pose(PoseKey(sequence, frameIndex), meshes.map { createPoseMesh(it, deformer) })
+        }.also { framePoses[frameIndex] = it }
+    }
+
+    /**
+     * @return the number of distinct poses kept for the sequences played by instances of this model.
+     */
+    fun getPoseCount() = poses.values.sumOf { framePoses -> framePoses.count { it != null } }
+
+    /**
+     * Creates a copy of the [mesh] with the points of the [deformer],
+     * the tex coords and faces are copied as is so the material of the [mesh] applies.
+     */
+    private fun createPoseMesh(mesh: ModelMesh, deformer: VertexDeformer) : TriangleMesh {
+        val poseMesh = TriangleMesh()
+        val localVertexCount = mesh.localVertexCount
+        val points = FloatArray(localVertexCount * 3)
+        for (localVertex in 0 until localVertexCount) {
+            val vertex = mesh.getSkeletonVertex(localVertex)
+            points[localVertex * 3] = deformer.positionsX[vertex].toFloat()
+            points[localVertex * 3 + 1] = deformer.positionsY[vertex].toFloat()
+            points[localVertex * 3 + 2] = deformer.positionsZ[vertex].toFloat()
+        }
+        poseMesh.points.setAll(*points)
+        poseMesh.texCoords.setAll(mesh.texCoords)
+        poseMesh.faces.setAll(mesh.faces)
+        poseMesh.faceSmoothingGroups.setAll(mesh.faceSmoothingGroups)
+        return poseMesh
+    }
+
+    data class PoseKey(val sequence: AnimationSequence, val frameIndex: Int)
+
+    /**
+     * A posed copy of each of the [meshes], shared by all instances showing the same frame.
+     */
+    class Pose(val key: PoseKey, val meshes: List<TriangleMesh>)
+}
@@ -2,37 +2,48 @@ package stan.qodat.scene.runescape.model
 
 import javafx.beans.property.BooleanProperty
 import javafx.beans.property.SimpleBooleanProperty
+import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.property.SimpleObjectProperty
 import javafx.beans.property.SimpleStringProperty
 import javafx.scene.DepthTest
 import javafx.scene.Group
 import javafx.scene.Node
+import javafx.scene.SubScene
 import javafx.scene.control.TreeItem
 import javafx.scene.control.TreeView
+import javafx.scene.input.MouseEvent
 import javafx.scene.layout.HBox
-import javafx.scene.paint.PhongMaterial
+import javafx.scene.shape.Box
 import javafx.scene.shape.CullFace
 import javafx.scene.shape.DrawMode
 import javafx.scene.shape.MeshView
-import javafx.scene.shape.Sphere
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.javafx.JavaFx
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import kotlinx.serialization.json.decodeFromStream
 import mqo.MQOImporter
+import qodat.animation.PoseBounds
 import qodat.cache.Cache
 import qodat.cache.EncodeResult
 import qodat.cache.Encoder
 import qodat.cache.definition.ModelDefinition
 import qodat.cache.models.RSModelLoader
+import qodat.cache.models.orderedBySkinGroup
 import stan.qodat.Properties
+import stan.qodat.Qodat
 import stan.qodat.cache.impl.qodat.QodatCache
 import stan.qodat.cache.impl.qodat.QodatModelDefinition
+import stan.qodat.scene.SubScene3D
 import stan.qodat.scene.control.LabeledHBox
 import stan.qodat.scene.control.export.Exportable
 import stan.qodat.scene.control.tree.ModelTreeItem
 import stan.qodat.scene.provider.SceneNodeProvider
 import stan.qodat.scene.provider.TreeItemProvider
 import stan.qodat.scene.provider.ViewNodeProvider
+import stan.qodat.scene.runescape.ModelLighting
 import stan.qodat.scene.runescape.animation.AnimationFrame
-import stan.qodat.util.DISTINCT_COLORS
 import stan.qodat.util.onInvalidation
 import stan.qodat.util.setAndBind
 import java.io.File
@@ -59,7 +70,46 @@ class Model(label: String,
     private lateinit var modelSkin : ModelSkin
     private lateinit var viewBox : HBox
     private lateinit var treeItem: ModelTreeItem
-    private lateinit var priorityLabels: Group
+    private lateinit var priorityMesh: ModelPriorityMesh
+    private var skinGeneration = 0
+    private val selectionBoxes = ArrayList<Box>()
+
+    /**
+     * Incremented whenever the skin is updated to a new pose, see [ModelFacePicker].
+     */
+    internal var poseGeneration = 0
+        private set
+    private var facePicker: ModelFacePicker? = null
+
+    /**
+     * The level of detail the current skin was built from, or `null` if it was built from all faces of this model.
+     */
+    internal var skinLod: ModelLod? = null
+        private set
+    @Volatile private var lods: List<ModelLod>? = null
+
+    /**
+     * The skins built so far for each level of detail, while the level of detail applies to the skin,
+     * so that switching levels swaps in a built skin rather than building it again (see [LodSkins]).
+     */
+    private var lodSkins: LodSkins? = null
+
+    /**
+     * Invoked after the meshes of the skin were replaced or recolored, see [InstancedModel].
+     */
+    internal var onMeshesChanged: (() -> Unit)? = null
+
+    /**
+     * The bounds of the model in its original pose.
+     */
+    val bounds: PoseBounds by lazy {
+        PoseBounds.of(
+            modelDefinition.getVertexPositionsX(),
+            modelDefinition.getVertexPositionsY(),
+            modelDefinition.getVertexPositionsZ(),
+            modelDefinition.getVertexCount()
+        )
+    }
 
     val labelProperty = SimpleStringProperty(label)
     val selectedProperty = SimpleBooleanProperty(false)
@@ -69,11 +119,34 @@ class Model(label: String,
     val depthTestProperty = SimpleObjectProperty(DepthTest.ENABLE)
     val buildTypeProperty = SimpleObjectProperty(
         if (!Properties.alwaysRenderUsingAtlas.get() && modelDefinition.getFaceTextures() != null)
-            ModelMeshBuildType.MESH_PER_FACE
+            ModelMeshBuildType.MESH_PER_MATERIAL
         else
             ModelMeshBuildType.ATLAS
     )
     val displayFacePriorityLabelsProperty = SimpleBooleanProperty(false)
+
+    /**
+     * The face of this model under the mouse while this model is selected or edited, or -1 (see [pickFace]).
+     */
+    val hoveredFaceProperty = SimpleIntegerProperty(-1)
+
+    /**
+     * The face of this model that was last clicked while this model is selected or edited, or -1 (see [pickFace]).
+     */
+    val pickedFaceProperty = SimpleIntegerProperty(-1)
+
+    /**
+     * The level of detail to render this model at, 0 is the full model,
+     * and level `n` is the `n`-th level of [getLods] (if it exists).
+     *
+     * This is ignored if the level of detail does not apply to the current skin (see [isLodApplicable]).
+     */
+    val lodLevelProperty = SimpleIntegerProperty(0)
+
+    /**
+     * Should the transparent faces of an [ATLAS][ModelMeshBuildType.ATLAS] skin be sorted (see [ModelTransparencySkin])?
+     */
+    val sortTransparentFacesProperty = SimpleBooleanProperty(false)
     val shadingProperty = SimpleBooleanProperty(false)
     val editProperty = SimpleObjectProperty<(ModelFaceMesh.EditContext.() -> Unit)?>(null)
 
@@ -81,93 +154,205 @@ class Model(label: String,
         buildTypeProperty.onInvalidation {
             rebuildModel()
         }
+        lodLevelProperty.onInvalidation {
+            if (isLodApplicable(buildTypeProperty.get()!!))
+                swapOrRebuildLodSkin()
+        }
+        sortTransparentFacesProperty.setAndBind(Properties.sortTransparentFaces)
+        sortTransparentFacesProperty.onInvalidation {
+            if (buildTypeProperty.get() == ModelMeshBuildType.ATLAS)
+                rebuildModel()
+        }
         shadingProperty.onInvalidation {
             buildTypeProperty.set(if (value) ModelMeshBuildType.TEXTURED_ATLAS else ModelMeshBuildType.ATLAS)
         }
-        selectedProperty.onInvalidation { addOrRemoveSelectionBoxes(value) }
+        selectedProperty.onInvalidation {
+            addOrRemoveSelectionBoxes(value)
+            updatePickable()
+        }
         displayFacePriorityLabelsProperty.onInvalidation { showOrHidePriorityLabels(value) }
         displayFacePriorityLabelsProperty.setAndBind(Properties.showPriorityLabels, biDirectional = true)
         editProperty.onInvalidation {
+            // every face needs its own material to be edited
             buildTypeProperty.set(ModelMeshBuildType.MESH_PER_FACE)
+            updatePickable()
         }
     }
 
+    /**
+     * Prepares a new [ModelSkin] for the current [buildTypeProperty] on a background thread (see [prepareModelSkin]),
+     * and then creates it and swaps it with the current skin on the JavaFX thread (see [swapModelSkin]).
+     *
+     * The current skin stays visible (and animated) until the new skin is finished,
+     * if the build type changes again in the meantime only the latest skin is created.
+     */
     private fun rebuildModel() {
-        if (this@Model::sceneNode.isInitialized)
-            getSceneNode().children.remove(sceneNode)
-        buildModelSkin()
-        getSceneNode().children.add(sceneNode)
+        if (!this::modelSkin.isInitialized)
+            return
+        val generation = ++skinGeneration
+        val buildType = buildTypeProperty.get()!!
+        val lodLevel = getEffectiveLodLevel(buildType)
+        val sortTransparentFaces = sortTransparentFacesProperty.get()
+        GlobalScope.launch(Dispatchers.Default) {
+            val createSkin = try {
+                prepareModelSkin(buildType, lodLevel, sortTransparentFaces)
+            } catch (e: Exception) {
+                Qodat.logException("Failed to build $buildType skin for model ${labelProperty.get()}", e)
+                return@launch
+            }
+            withContext(Dispatchers.JavaFx) {
+                if (generation != skinGeneration)
+                    return@withContext
+                val skin = try {
+                    createSkin().also { it.getSceneNode() }
+                } catch (e: Exception) {
+                    Qodat.logException("Failed to build $buildType skin for model ${labelProperty.get()}", e)
+                    return@withContext
+                }
+                skinLod = getLod(lodLevel)
+                cacheLodSkin(skin, buildType, lodLevel, sortTransparentFaces)
+                swapModelSkin(skin)
+            }
+        }
     }
 
+    /**
+     * Swaps in the skin of the current level of detail if it was built before, otherwise builds it (see [rebuildModel]).
+     */
+    private fun swapOrRebuildLodSkin() {
+        if (!this::modelSkin.isInitialized)
+            return
+        val buildType = buildTypeProperty.get()!!
+        val lodLevel = getEffectiveLodLevel(buildType)
+        val skin = lodSkins
+            ?.takeIf { it.buildType == buildType && it.sortTransparentFaces == sortTransparentFacesProperty.get() }
+            ?.skins?.get(lodLevel)
+        if (skin == null) {
+            rebuildModel()
+            return
+        }
+        if (skin === modelSkin)
+            return
+        // a build of another level that is still in progress must not replace this skin
+        ++skinGeneration
+        skinLod = getLod(lodLevel)
+        swapModelSkin(skin)
+    }
+
+    /**
+     * Keeps the [skin] built for the [lodLevel] if the level of detail applies to the [buildType],
+     * skins built for other settings are disposed.
+     */
+    private fun cacheLodSkin(skin: ModelSkin, buildType: ModelMeshBuildType, lodLevel: Int, sortTransparentFaces: Boolean) {
+        val current = lodSkins
+        val applicable = isLodApplicable(buildType)
+        if (current != null && (!applicable || current.buildType != buildType || current.sortTransparentFaces != sortTransparentFaces))
+            disposeLodSkins()
+        if (!applicable)
+            return
+        val skins = lodSkins ?: LodSkins(buildType, sortTransparentFaces).also { lodSkins = it }
+        val replaced = skins.skins.put(lodLevel, skin)
+        if (replaced != null && replaced !== skin && (!this::modelSkin.isInitialized || replaced !== modelSkin))
+            replaced.dispose()
+    }
+
+    /**
+     * Disposes the skins of all levels of detail but the current skin, which is disposed once it is replaced.
+     */
+    private fun disposeLodSkins() {
+        val skins = lodSkins ?: return
+        for (skin in skins.skins.values) {
+            if (skin !== modelSkin)
+                skin.dispose()
+        }
+        lodSkins = null
+    }
+
+    /**
+     * Replaces the current [modelSkin] by the [skin] in the [sceneGroup] in one pulse,
+     * the [skin] was built from the original vertex positions, so the current pose is applied first.
+     */
+    private fun swapModelSkin(skin: ModelSkin) {
+        val selected = selectedProperty.get()
+        if (selected)
+            addOrRemoveSelectionBoxes(false)
+        if (lodSkins?.skins?.containsValue(modelSkin) != true)
+            modelSkin.dispose()
+        val oldSceneNode = sceneNode
+        modelSkin = skin
+        sceneNode = skin.getSceneNode()
+        updateSkinPoints()
+        val children = getSceneNode().children
+        val index = children.indexOf(oldSceneNode)
+        if (index != -1)
+            children[index] = sceneNode
+        else
+            children.add(sceneNode)
+        if (selected)
+            addOrRemoveSelectionBoxes(true)
+        onMeshesChanged?.invoke()
+    }
+
+    /**
+     * Adds a selection box for each mesh of the current skin, or removes the boxes that were added,
+     * the added boxes are remembered so they are removed even if the skin was replaced in the meantime.
+     */
     private fun addOrRemoveSelectionBoxes(add: Boolean) {
         val group = getSceneNode()
-        val meshes = collectMeshes()
+        group.children.removeAll(selectionBoxes)
+        selectionBoxes.clear()
         if (add) {
-            for (mesh in meshes)
-                group.children.add(mesh.getSelectionBox())
-        } else {
-            for (mesh in meshes)
-                group.children.remove(mesh.getSelectionBox())
+            for (mesh in collectMeshes())
+                selectionBoxes += mesh.getSelectionBox()
+            group.children.addAll(selectionBoxes)
         }
     }
 
+    /**
+     * Shows or hides a [ModelPriorityMesh] on top of the model, visualising the priority of each face.
+     */
     private fun showOrHidePriorityLabels(value: Boolean) {
         if (value) {
-            if (!this@Model::priorityLabels.isInitialized) {
-                priorityLabels = Group()
-                val facePriorities = modelDefinition.getFacePriorities()
-                    ?: ByteArray(modelDefinition.getFaceCount())
-                    { modelDefinition.getPriority() }
-                // TODO: disable for SkeletonMesh?
-                for ((face, priority) in facePriorities.withIndex()) {
-                    val center = getCenterPoint(face)
-                    val circle = Sphere().apply {
-                        material = PhongMaterial(DISTINCT_COLORS[priority.toInt()])
-                        translateX = center.x
-                        translateY = center.y
-                        translateZ = center.z - 60.0
-                    }
-//                    val text = Text3D(priority.toString(),  Font.font(6.0)).apply {
-//                        depthTest = DepthTest.DISABLE
-//                        translateX = center.x
-//                        translateY = center.y
-//                        translateZ = center.z - 60.0
-//                    }
-                    priorityLabels.children.add(circle)
-                }
-            }
-            if (!getSceneNode().children.contains(priorityLabels))
-                getSceneNode().children.add(priorityLabels)
-        } else if (this@Model::priorityLabels.isInitialized)
-            getSceneNode().children.remove(priorityLabels)
+            if (!this::priorityMesh.isInitialized)
+                priorityMesh = ModelPriorityMesh(this)
+            priorityMesh.updatePoints(this)
+            val priorityNode = priorityMesh.getSceneNode()
+            if (!getSceneNode().children.contains(priorityNode))
+                getSceneNode().children.add(priorityNode)
+        } else if (this::priorityMesh.isInitialized)
+            getSceneNode().children.remove(priorityMesh.getSceneNode())
     }
 
-    fun collectMeshes() : Collection<ModelMesh> {
-        return when (buildTypeProperty.get()!!){
-            ModelMeshBuildType.ATLAS -> {
-                listOf(modelSkin as ModelAtlasMesh)
-            }
-            ModelMeshBuildType.TEXTURED_ATLAS -> {
-                emptyList()
-            }
-            ModelMeshBuildType.SKELETON_ATLAS -> {
-                val atlasGroup = (modelSkin as ModelSkeletonMesh).getSceneNode()
-                return atlasGroup.children.map {
-                    (it as MeshView).mesh as ModelAtlasMesh
-                }
-            }
-            ModelMeshBuildType.MESH_PER_FACE -> {
-                val faceMeshGroup = (modelSkin as ModelFaceMeshGroup).getSceneNode()
-                return faceMeshGroup.children.map {
-                    (it as MeshView).mesh as ModelFaceMesh
-                }
-            }
+    /**
+     * Updates the points of the skin (and the priority overlay if shown) to the current pose.
+     */
+    private fun updateSkinPoints() {
+        poseGeneration++
+        getModelSkin().updatePoints(this)
+        if (displayFacePriorityLabelsProperty.get() && this::priorityMesh.isInitialized)
+            priorityMesh.updatePoints(this)
+    }
+
+    /**
+     * Collects the meshes of the current skin, based on the type of the skin rather than the [buildTypeProperty],
+     * because a new skin is only swapped in some time after the build type changed (see [rebuildModel]).
+     */
+    fun collectMeshes() : Collection<ModelMesh> = when (val skin = modelSkin) {
+        is ModelAtlasMesh -> listOf(skin)
+        is ModelTransparencySkin -> skin.getMeshes()
+        is ModelMaterialMeshGroup -> skin.getMeshes()
+        is ModelSkeletonMesh -> skin.getSceneNode().children.map {
+            (it as MeshView).mesh as ModelAtlasMesh
         }
+        is ModelFaceMeshGroup -> skin.getSceneNode().children.map {
+            (it as MeshView).mesh as ModelFaceMesh
+        }
+        else -> emptyList()
     }
 
     fun reset(){
         copyOriginalVertexValues()
-        getModelSkin().updatePoints(this)
+        updateSkinPoints()
     }
 
     fun recolor() {
@@ -175,13 +360,70 @@ class Model(label: String,
             is ModelAtlasMesh -> {
                 skin.rebuildAtlas()
             }
+            is ModelMaterialMeshGroup -> {
+                skin.rebuildAtlas()
+            }
+            is ModelTransparencySkin -> {
+                skin.rebuildAtlas()
+            }
             else -> throw Exception("Recoloring is not supported for this skin $skin")
         }
+        // the skins of the other levels of detail still have the old colors
+        lodSkins?.skins?.values?.removeIf { skin ->
+            (skin !== modelSkin).also { if (it) skin.dispose() }
+        }
+        onMeshesChanged?.invoke()
+    }
+
+    /**
+     * Gets the face of this model drawn at the point ([x], [y]) in the local coordinates of the [subScene],
+     * regardless of the [buildTypeProperty] (see [ModelFacePicker]).
+     *
+     * @return the index of the face, or -1 if no face of this model is drawn there.
+     */
+    fun pickFace(subScene: SubScene, x: Double, y: Double) : Int {
+        if (facePicker == null)
+            facePicker = ModelFacePicker(this)
+        return facePicker!!.pick(subScene, x, y)
+    }
+
+    /**
+     * Updates the [hoveredFaceProperty] when the mouse moves over the [subScene],
+     * and the [pickedFaceProperty] when it is clicked, called by [SubScene3D] while this model is selected or edited.
+     *
+     * While this model is edited, the [editProperty] is invoked for the hovered or picked face.
+     */
+    internal fun handleFacePick(subScene: SubScene, event: MouseEvent) {
+        val face = pickFace(subScene, event.x, event.y)
+        when (event.eventType) {
+            MouseEvent.MOUSE_MOVED -> hoveredFaceProperty.set(face)
+            MouseEvent.MOUSE_CLICKED -> if (event.isStillSincePress) pickedFaceProperty.set(face) else return
+        }
+        val edit = editProperty.get() ?: return
+        val faceMesh = (modelSkin as? ModelFaceMeshGroup)?.getFaceMesh(face) ?: return
+        edit(ModelFaceMesh.EditContext(faceMesh, event))
+    }
+
+    /**
+     * Faces are only picked while this model is selected or edited (see [handleFacePick]).
+     */
+    private fun updatePickable() {
+        if (selectedProperty.get() || editProperty.get() != null)
+            SubScene3D.pickableModels.add(this)
+        else {
+            SubScene3D.pickableModels.remove(this)
+            hoveredFaceProperty.set(-1)
+        }
     }
 
     override fun animate(frame: AnimationFrame) {
         super.animate(frame)
-        getModelSkin().updatePoints(this)
+        updateSkinPoints()
+    }
+
+    override fun setPose(positionsX: IntArray, positionsY: IntArray, positionsZ: IntArray) {
+        super.setPose(positionsX, positionsY, positionsZ)
+        updateSkinPoints()
     }
 
     override fun getViewNode(): Node {
@@ -213,15 +455,91 @@ class Model(label: String,
     }
 
     private fun buildModelSkin() {
-        modelSkin = when (buildTypeProperty.get()!!) {
-            ModelMeshBuildType.ATLAS -> ModelAtlasMesh(this)
-            ModelMeshBuildType.TEXTURED_ATLAS -> ModelTexturedMesh(this)
-            ModelMeshBuildType.SKELETON_ATLAS -> ModelSkeletonMesh(this)
-            ModelMeshBuildType.MESH_PER_FACE -> ModelFaceMeshGroup(this)
-        }
+        val buildType = buildTypeProperty.get()!!
+        val lodLevel = getEffectiveLodLevel(buildType)
+        val sortTransparentFaces = sortTransparentFacesProperty.get()
+        modelSkin = prepareModelSkin(buildType, lodLevel, sortTransparentFaces)()
+        skinLod = getLod(lodLevel)
+        cacheLodSkin(modelSkin, buildType, lodLevel, sortTransparentFaces)
         sceneNode = modelSkin.getSceneNode()
     }
 
+    /**
+     * Gets the levels of detail of this model, simplifying the model on first use.
+     *
+     * @return the levels ordered from most to least detailed, empty if this model is too simple.
+     */
+    fun getLods() : List<ModelLod> {
+        lods?.let { return it }
+        synchronized(this) {
+            return lods ?: ModelSimplifier.createLods(modelDefinition).also { lods = it }
+        }
+    }
+
+    /**
+     * A level of detail only applies to [ATLAS][ModelMeshBuildType.ATLAS]
+     * and [SKELETON_ATLAS][ModelMeshBuildType.SKELETON_ATLAS] skins, and never while this model is being edited,
+     * because the faces of a simplified mesh are not the faces of the model,
+     * nor while it is shaded or textured, because the simplified faces have no normals or UV coordinates.
+     */
+    private fun isLodApplicable(buildType: ModelMeshBuildType) =
+        (buildType == ModelMeshBuildType.ATLAS || buildType == ModelMeshBuildType.SKELETON_ATLAS)
+                && editProperty.get() == null
+                && !shadingProperty.get()
+
+    private fun getEffectiveLodLevel(buildType: ModelMeshBuildType) =
+        if (isLodApplicable(buildType)) lodLevelProperty.get() else 0
+
+    /**
+     * Gets the level of detail at the [lodLevel], or the least detailed level if this model does not have that many levels.
+     *
+     * @return `null` if the [lodLevel] is 0 or this model has no levels of detail.
+     */
+    private fun getLod(lodLevel: Int) =
+        if (lodLevel > 0) getLods().let { it.getOrNull(minOf(lodLevel, it.size) - 1) } else null
+
+    /**
+     * Computes the data of a new [ModelSkin] of the [buildType] (such as its geometry or lighting),
+     * this only reads the [modelDefinition], so it may be called from any thread.
+     * Skins with textures load them into the [TextureCache][stan.qodat.scene.paint.TextureCache] here,
+     * the skin acquires them when it is created.
+     *
+     * If the [lodLevel] is above 0 the skin is prepared from the faces of that level of detail,
+     * or of the least detailed level if the model does not have that many levels.
+     *
+     * If [sortTransparentFaces] is set, an [ATLAS][ModelMeshBuildType.ATLAS] skin of a model with transparent faces
+     * is prepared as a [ModelTransparencySkin].
+     *
+     * @return a function creating the skin from the computed data, which binds the skin to the properties
+     *         of this model, so it must be called on the JavaFX application thread.
+     */
+    private fun prepareModelSkin(buildType: ModelMeshBuildType, lodLevel: Int, sortTransparentFaces: Boolean) : () -> ModelSkin {
+        val lod = getLod(lodLevel)
+        if (sortTransparentFaces && buildType == ModelMeshBuildType.ATLAS && ModelTransparencySkin.hasTransparentFaces(modelDefinition)) {
+            val geometries = ModelTransparencySkin.createGeometries(modelDefinition, lod)
+            return { ModelTransparencySkin(this, geometries) }
+        }
+        return when (buildType) {
+            ModelMeshBuildType.ATLAS ->
+                ModelMeshGeometry.create(modelDefinition, lod).let { geometry -> { ModelAtlasMesh(this, geometry) } }
+            ModelMeshBuildType.TEXTURED_ATLAS ->
+                ModelTexturedMesh.createGeometry(modelDefinition).let { geometry -> { ModelTexturedMesh(this, geometry) } }
+            ModelMeshBuildType.SKELETON_ATLAS ->
+                ModelSkeletonMesh.createGroupGeometries(modelDefinition, lod).let { geometries -> { ModelSkeletonMesh(this, geometries) } }
+            ModelMeshBuildType.MESH_PER_MATERIAL ->
+                ModelMaterialMeshGroup.createGeometries(modelDefinition).let { geometries -> { ModelMaterialMeshGroup(this, geometries) } }
+            ModelMeshBuildType.MESH_PER_FACE ->
+                ModelFaceMeshGroup.createGeometries(modelDefinition).let { geometries -> { ModelFaceMeshGroup(this, geometries) } }
+        }
+    }
+
+    /**
+     * The skins of a [buildType] built for each level of detail (0 is the full model).
+     */
+    private class LodSkins(val buildType: ModelMeshBuildType, val sortTransparentFaces: Boolean) {
+        val skins = HashMap<Int, ModelSkin>()
+    }
+
     override fun treeItemExpandedProperty(): BooleanProperty =
         Properties.treeItemEntityExpanded
 
@@ -258,7 +576,18 @@ class Model(label: String,
                     RSModelLoader().load(file.nameWithoutExtension, file.readBytes())
                 }
             }
-            return Model(definition.getName(), definition)
+            return Model(definition.getName(), preprocess(definition))
         }
+
+        /**
+         * Applies the optional preprocessing stages to the [definition] before it is used to create a [Model].
+         *
+         * @see Properties.reorderVerticesBySkinGroup
+         */
+        fun preprocess(definition: ModelDefinition) : ModelDefinition =
+            if (Properties.reorderVerticesBySkinGroup.get())
+                definition.orderedBySkinGroup()
+            else
+                definition
     }
 }
@@ -10,7 +10,6 @@ import javafx.scene.shape.DrawMode
 import javafx.scene.shape.MeshView
 import qodat.cache.definition.ModelDefinition
 import stan.qodat.scene.paint.AtlasMaterial
-import stan.qodat.util.ModelUtil
 import stan.qodat.util.setAndBind
 
 /**
@@ -21,10 +20,22 @@ import stan.qodat.util.setAndBind
  *
  * For each face the UV coordinate of the face color is stores as that face's tex coords.
  *
+ * The triangles of the mesh are specified by a [geometry], which may hold a subset of the faces of the model,
+ * or the simplified faces of a [ModelLod].
+ *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   28/09/2019
  */
-class ModelAtlasMesh(private val model: Model, private val faceList: List<Int>? = null) : ModelMesh() {
+class ModelAtlasMesh(
+    private val model: Model,
+    private val geometry: ModelMeshGeometry
+) : ModelMesh() {
+
+    /**
+     * Creates a mesh of the [faceList] of the [model] (or all faces if `null`), or of the faces of the [lod].
+     */
+    constructor(model: Model, faceList: List<Int>? = null, lod: ModelLod? = null) :
+            this(model, ModelMeshGeometry.create(model.modelDefinition, lod, faceList?.toIntArray()))
 
     private lateinit var meshView: MeshView
 
@@ -34,6 +45,16 @@ class ModelAtlasMesh(private val model: Model, private val faceList: List<Int>?
     val materialProperty = SimpleObjectProperty<Material>()
     val depthTestProperty = SimpleObjectProperty<DepthTest>()
 
+    /**
+     * The faces array in the order the triangles were built in, see [sortFaces].
+     */
+    private var builtFaces = IntArray(0)
+
+    /**
+     * For each triangle in [faces], the index of the triangle in [builtFaces], or `null` if not sorted.
+     */
+    private var faceOrder: IntArray? = null
+
     private var densityFunction: (Point3F) -> Double = {0.0}
     private var min = 0.0
     private var max = 1.0
@@ -62,80 +83,92 @@ class ModelAtlasMesh(private val model: Model, private val faceList: List<Int>?
 
     /**
      * Build this mesh from the specified [model].
+     *
+     * The points, tex coords and faces are first collected in plain arrays,
+     * and then each uploaded to this mesh in a single call.
      */
     private fun buildMesh() {
 
         val definition = model.modelDefinition
         val atlasMaterial = createAtlas(definition)
 
-        materialProperty.set(atlasMaterial)
-
-        val faceIterator = faceList?:(0 until definition.getFaceCount())
-        for (face in faceIterator) {
-
-            val vertexIndex1 = definition.getFaceVertexIndices1()[face].let {
-                addVertex(
-                        it,
-                        definition.getVertexPositionsX()[it],
-                        definition.getVertexPositionsY()[it],
-                        definition.getVertexPositionsZ()[it]
-                )
-            }
-            val vertexIndex2 = definition.getFaceVertexIndices2()[face].let {
-                addVertex(
-                        it,
-                        definition.getVertexPositionsX()[it],
-                        definition.getVertexPositionsY()[it],
-                        definition.getVertexPositionsZ()[it]
-                )
-            }
-            val vertexIndex3 = definition.getFaceVertexIndices3()[face].let {
-                addVertex(
-                        it,
-                        definition.getVertexPositionsX()[it],
-                        definition.getVertexPositionsY()[it],
-                        definition.getVertexPositionsZ()[it]
-                )
-            }
+        setGeometry(geometry)
+        val modelFaces = geometry.modelFaces
+        val triangles = geometry.triangles
+        val faceArray = IntArray(geometry.triangleCount * 6)
+        for (triangle in 0 until geometry.triangleCount) {
 
             /*
-            Compute UV coordinates of colors in the atlas.
-
-            The U coordinate represents the centre x coordinate of the requested color in the image.
-            The V coordinate represents the centre y coordinate which in this case is always 0.5f (half a pixel).
+            The tex coords of every color in the atlas are set before the faces,
+            so the tex coord index of a face is the slot of its color in the atlas.
              */
-            val texIndex = addUV(u = atlasMaterial.getU(face), v = 0.5F)
-
-            faces.addAll(
-                    vertexIndex1, texIndex,
-                    vertexIndex2, texIndex,
-                    vertexIndex3, texIndex
-            )
-            // (1 shl (definition.getFacePriorities()?.get(face)?.toInt()?:definition.getPriority().toInt()))
-            faceSmoothingGroups.addAll(0)
+            val texIndex = atlasMaterial.getSlot(modelFaces[triangle])
+
+            val offset = triangle * 6
+            faceArray[offset] = triangles[triangle * 3]
+            faceArray[offset + 1] = texIndex
+            faceArray[offset + 2] = triangles[triangle * 3 + 1]
+            faceArray[offset + 3] = texIndex
+            faceArray[offset + 4] = triangles[triangle * 3 + 2]
+            faceArray[offset + 5] = texIndex
         }
+        uploadPoints()
+        materialProperty.set(atlasMaterial)
+        texCoords.setAll(*atlasMaterial.createTexCoords())
+        builtFaces = faceArray
+        faces.setAll(*faceArray)
+        // (1 shl (definition.getFacePriorities()?.get(face)?.toInt()?:definition.getPriority().toInt()))
+        faceSmoothingGroups.setAll(*IntArray(faceArray.size / 6))
+    }
+
+    /**
+     * Reorders the triangles of this mesh, which is the order they are drawn in.
+     *
+     * @param order for each triangle, the index of the triangle in the order this mesh was built in.
+     */
+    fun sortFaces(order: IntArray) {
+        val sorted = IntArray(builtFaces.size)
+        for ((triangle, index) in order.withIndex())
+            System.arraycopy(builtFaces, index * 6, sorted, triangle * 6, 6)
+        faces.set(0, sorted, 0, sorted.size)
+        faceOrder = order
     }
 
     fun rebuildAtlas(){
-        val atlasMaterial = createAtlas(model.modelDefinition)
+        val definition = model.modelDefinition
+        val atlasMaterial = createAtlas(definition)
+        texCoords.setAll(*atlasMaterial.createTexCoords())
+        // recoloring may change the slots, so update the tex coord index of each face
+        val faceArray = builtFaces
+        for ((index, face) in geometry.modelFaces.withIndex()) {
+            val slot = atlasMaterial.getSlot(face)
+            faceArray[index * 6 + 1] = slot
+            faceArray[index * 6 + 3] = slot
+            faceArray[index * 6 + 5] = slot
+        }
+        val order = faceOrder
+        if (order != null)
+            sortFaces(order)
+        else
+            faces.set(0, faceArray, 0, faceArray.size)
         materialProperty.set(atlasMaterial)
     }
 
+    override fun dispose() {
+        visibleProperty.unbind()
+        drawModeProperty.unbind()
+        cullFaceProperty.unbind()
+        depthTestProperty.unbind()
+    }
+
     /**
      * Create a new [AtlasMaterial].
      */
     private fun createAtlas(definition: ModelDefinition) : AtlasMaterial{
         val atlas = AtlasMaterial()
-
-        val faceRange = (0 until definition.getFaceCount())
-        if (!faceRange.isEmpty()) {
-            atlas.setColors(faceRange.map {
-                ModelUtil.hsbToColor(
-                    getColor(definition, it),
-                    definition.getFaceAlphas()?.get(it)
-                )
-            }.toTypedArray())
-        }
+        val faceCount = definition.getFaceCount()
+        if (faceCount > 0)
+            atlas.setColors(ShortArray(faceCount) { getColor(definition, it) }, definition.getFaceAlphas())
         return atlas
     }
 
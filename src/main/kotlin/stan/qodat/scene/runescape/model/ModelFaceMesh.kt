@@ -2,7 +2,6 @@ package stan.qodat.scene.runescape.model
 
 import javafx.beans.property.SimpleBooleanProperty
 import javafx.beans.property.SimpleObjectProperty
-import javafx.event.EventHandler
 import javafx.scene.DepthTest
 import javafx.scene.input.MouseEvent
 import javafx.scene.paint.Material
@@ -28,13 +27,9 @@ class ModelFaceMesh(val face: Int, material: Material) : ModelMesh() {
     val drawModeProperty = SimpleObjectProperty<DrawMode>()
     val cullFaceProperty = SimpleObjectProperty<CullFace>()
     val materialProperty = SimpleObjectProperty(material)
-    val editableProperty = SimpleObjectProperty<(EditContext.() -> Unit)?>(null)
     val depthTestProperty = SimpleObjectProperty<DepthTest>()
 
     private var textured = false
-    private val mouseEventHandler = EventHandler<MouseEvent> {
-        editableProperty.get()?.invoke(EditContext(this, it))
-    }
 
     init {
         materialProperty.onInvalidation {
@@ -70,12 +65,6 @@ class ModelFaceMesh(val face: Int, material: Material) : ModelMesh() {
     override fun getSceneNode(): MeshView {
         if (!this::meshView.isInitialized) {
             meshView = MeshView(this)
-            editableProperty.addListener { _, oldValue, newValue ->
-                if (oldValue != null)
-                    meshView.removeEventHandler(MouseEvent.ANY, mouseEventHandler)
-                if (newValue != null)
-                    meshView.addEventHandler(MouseEvent.ANY, mouseEventHandler)
-            }
             meshView.isPickOnBounds = false
             meshView.isMouseTransparent = true
             meshView.visibleProperty().setAndBind(visibleProperty, true)
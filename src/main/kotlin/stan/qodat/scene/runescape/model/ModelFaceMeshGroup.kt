@@ -17,27 +17,31 @@ import stan.qodat.util.setAndBind
  * This class represents a [ModelSkin] where each triangle in the specified [ModelDefinition]
  * corresponds to one [ModelFaceMesh] child in this [faceMeshGroup].
  *
+ * The [geometries] of the faces are computed without touching any JavaFX state (see [createGeometries]),
+ * so they can be prepared on a background thread.
+ *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   28/09/2019
  * @version 1.0
  */
 class ModelFaceMeshGroup(
-    private val model: Model) : ModelSkin {
+    private val model: Model,
+    private val geometries: List<FaceGeometry>
+) : ModelSkin {
+
+    constructor(model: Model) : this(model, createGeometries(model.modelDefinition))
 
     private lateinit var faceMeshGroup: Group
-    private lateinit var materials: List<Material>
 
     val visibleProperty = SimpleBooleanProperty()
     val drawModeProperty = SimpleObjectProperty<DrawMode>()
     val cullFaceProperty = SimpleObjectProperty<CullFace>()
-    val editableProperty = SimpleObjectProperty<(ModelFaceMesh.EditContext.() -> Unit)?>(null)
     val depthTestProperty = SimpleObjectProperty<DepthTest>()
 
     init {
         visibleProperty.setAndBind(model.visibleProperty)
         drawModeProperty.setAndBind(model.drawModeProperty)
         cullFaceProperty.setAndBind(model.cullFaceProperty)
-        editableProperty.setAndBind(model.editProperty)
         depthTestProperty.setAndBind(model.depthTestProperty)
     }
 
@@ -55,10 +59,7 @@ class ModelFaceMeshGroup(
     override fun getSceneNode(): Group {
         if (!this::faceMeshGroup.isInitialized){
             faceMeshGroup = Group()
-            val definition = model.modelDefinition
-            materials = createMaterials(definition)
-            val faceMeshes = createMeshes(definition)
-            val faceMeshSceneNodes = faceMeshes.map {
+            val faceMeshSceneNodes = createMeshes().map {
                 it.getSceneNode()
             }
             faceMeshGroup.children.addAll(faceMeshSceneNodes)
@@ -66,63 +67,102 @@ class ModelFaceMeshGroup(
         return faceMeshGroup
     }
 
-    private fun createMeshes(definition: ModelDefinition): MutableList<ModelFaceMesh> {
-        definition.computeTextureUVCoordinates()
-        return MutableList(definition.getFaceCount()) { face ->
+    /**
+     * Gets the mesh of the [face], the meshes are in the order of the faces of the model.
+     */
+    fun getFaceMesh(face: Int) = (getSceneNode().children.getOrNull(face) as? MeshView)?.mesh as? ModelFaceMesh
+
+    override fun dispose() {
+        visibleProperty.unbind()
+        drawModeProperty.unbind()
+        cullFaceProperty.unbind()
+        depthTestProperty.unbind()
+    }
+
+    private fun createMeshes(): List<ModelFaceMesh> {
+        return geometries.mapIndexed { face, geometry ->
 
-            val material = materials[face]
-            val mesh = ModelFaceMesh(face, material)
+            val mesh = ModelFaceMesh(face, geometry.material)
 
             mesh.visibleProperty.setAndBind(visibleProperty)
             mesh.cullFaceProperty.setAndBind(cullFaceProperty)
             mesh.drawModeProperty.setAndBind(drawModeProperty)
-            mesh.editableProperty.setAndBind(editableProperty)
             mesh.depthTestProperty.setAndBind(depthTestProperty)
 
-            val vertexIndex1 = definition.getFaceVertexIndices1()[face].let {
-                mesh.addVertex(
-                    it,
-                    definition.getVertexPositionsX()[it],
-                    definition.getVertexPositionsY()[it],
-                    definition.getVertexPositionsZ()[it]
-                )
-            }
-            val vertexIndex2 = definition.getFaceVertexIndices2()[face].let {
-                mesh.addVertex(
-                    it,
-                    definition.getVertexPositionsX()[it],
-                    definition.getVertexPositionsY()[it],
-                    definition.getVertexPositionsZ()[it]
-                )
-            }
-            val vertexIndex3 = definition.getFaceVertexIndices3()[face].let {
-                mesh.addVertex(
-                    it,
-                    definition.getVertexPositionsX()[it],
-                    definition.getVertexPositionsY()[it],
-                    definition.getVertexPositionsZ()[it]
-                )
-            }
+            mesh.setGeometry(geometry.points)
+            mesh.uploadPoints()
+            mesh.texCoords.setAll(*geometry.texCoords)
+            mesh.faces.setAll(*geometry.faces)
+            mesh
+        }
+    }
 
-            val u = definition.getFaceTextureUCoordinates()?.get(face) ?: floatArrayOf(-1f, -1f, -1f)
-            val v = definition.getFaceTextureVCoordinates()?.get(face) ?: floatArrayOf(-1f, -1f, -1f)
+    /**
+     * The arrays and the material of a single [ModelFaceMesh].
+     */
+    class FaceGeometry(
+        val points: ModelMeshGeometry,
+        val texCoords: FloatArray,
+        val faces: IntArray,
+        val material: Material
+    )
 
-            val texIndex1 = mesh.addUV(u[0], v[0])
-            val texIndex2 = mesh.addUV(u[1], v[1])
-            val texIndex3 = mesh.addUV(u[2], v[2])
+    companion object {
 
-            mesh.faces.addAll(
-                vertexIndex1, texIndex1,
-                vertexIndex2, texIndex2,
-                vertexIndex3, texIndex3
-            )
-            mesh
+        private val NO_UVS = floatArrayOf(-1f, -1f, -1f)
+
+        /**
+         * Creates the [FaceGeometry] of each face of the [definition], in the order of the faces.
+         */
+        fun createGeometries(definition: ModelDefinition) : List<FaceGeometry> {
+            definition.computeTextureUVCoordinates()
+            return List(definition.getFaceCount()) { face ->
+                val points = createFacePoints(definition, face)
+                val u = definition.getFaceTextureUCoordinates()?.get(face) ?: NO_UVS
+                val v = definition.getFaceTextureVCoordinates()?.get(face) ?: NO_UVS
+                FaceGeometry(
+                    points = points,
+                    texCoords = floatArrayOf(u[0], v[0], u[1], v[1], u[2], v[2]),
+                    faces = intArrayOf(
+                        points.triangles[0], 0,
+                        points.triangles[1], 1,
+                        points.triangles[2], 2
+                    ),
+                    material = definition.getMaterial(face, OldschoolCacheRuneLite).fxMaterial
+                )
+            }
         }
-    }
 
-    private fun createMaterials(definition: ModelDefinition) : List<Material> {
-        return MutableList(definition.getFaceCount()) { face ->
-            definition.getMaterial(face, OldschoolCacheRuneLite).fxMaterial
+        /**
+         * Creates the geometry of the single [face], which unlike [ModelMeshGeometry.create]
+         * does not allocate a lookup of all vertices of the [definition] for every face.
+         */
+        private fun createFacePoints(definition: ModelDefinition, face: Int) : ModelMeshGeometry {
+            val vertices = intArrayOf(
+                definition.getFaceVertexIndices1()[face],
+                definition.getFaceVertexIndices2()[face],
+                definition.getFaceVertexIndices3()[face]
+            )
+            val skeletonVertices = IntArray(3)
+            val triangle = IntArray(3)
+            var pointCount = 0
+            for (corner in 0 until 3) {
+                val vertex = vertices[corner]
+                var local = (0 until pointCount).firstOrNull { skeletonVertices[it] == vertex }
+                if (local == null) {
+                    local = pointCount++
+                    skeletonVertices[local] = vertex
+                }
+                triangle[corner] = local
+            }
+            val points = FloatArray(pointCount * 3)
+            for (local in 0 until pointCount) {
+                val vertex = skeletonVertices[local]
+                points[local * 3] = definition.getVertexPositionsX()[vertex].toFloat()
+                points[local * 3 + 1] = definition.getVertexPositionsY()[vertex].toFloat()
+                points[local * 3 + 2] = definition.getVertexPositionsZ()[vertex].toFloat()
+            }
+            return ModelMeshGeometry(intArrayOf(face), triangle, skeletonVertices.copyOf(pointCount), points)
         }
     }
-}
\ No newline at end of file
+}
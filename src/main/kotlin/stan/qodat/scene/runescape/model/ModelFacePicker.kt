@@ -0,0 +1,197 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.beans.InvalidationListener
+import javafx.beans.WeakInvalidationListener
+import javafx.scene.Node
+import javafx.scene.SubScene
+import javafx.scene.shape.CullFace
+import javafx.scene.transform.NonInvertibleTransformException
+import stan.qodat.scene.SubScene3D
+import stan.qodat.scene.runescape.Rasterizer3D
+import kotlin.math.tan
+
+/**
+ * Finds the face of a [model] at a point of the sub scene by looking it up in an ID buffer,
+ * this works for every [ModelMeshBuildType], so faces can be picked without a mesh per face.
+ *
+ * The ID buffer is rasterized with [Rasterizer3D.drawFlatTriangle] for the current camera,
+ * using the index of each triangle (plus one) as its color, drawn from far to near so the nearest one ends up on top.
+ * The triangles are those of the shown skin, so of its [level of detail][Model.skinLod] if it has one,
+ * and the triangles culled by the [cull face][Model.cullFaceProperty] of the [model] are skipped.
+ * It is only rasterized again when the camera, the transform, the pose or the cull face of the [model],
+ * or the size of the sub scene changed since the last pick.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelFacePicker(private val model: Model) {
+
+    private val definition = model.modelDefinition
+
+    private var rasterizer: Rasterizer3D? = null
+    private var valid = false
+    private var poseGeneration = -1
+    private var listenedNode: Node? = null
+    private var lod: ModelLod? = null
+
+    private val invalidationListener = InvalidationListener { valid = false }
+    private val weakInvalidationListener = WeakInvalidationListener(invalidationListener)
+
+    private var screenX = IntArray(0)
+    private var screenY = IntArray(0)
+    private var viewZ = FloatArray(0)
+    private var sortKeys = LongArray(0)
+
+    init {
+        SubScene3D.cameraHandler.camera.localToSceneTransformProperty().addListener(weakInvalidationListener)
+        model.cullFaceProperty.addListener(weakInvalidationListener)
+    }
+
+    /**
+     * Gets the face of the [model] drawn at the point ([x], [y]) in the local coordinates of the [subScene],
+     * e.g. the [x][javafx.scene.input.MouseEvent.getX] and [y][javafx.scene.input.MouseEvent.getY]
+     * of a mouse event on the [subScene].
+     *
+     * @return the index of the face, or -1 if no face of the [model] is drawn there,
+     *         for a triangle of a level of detail this is the face it inherits its color from.
+     */
+    fun pick(subScene: SubScene, x: Double, y: Double) : Int {
+        val width = subScene.width.toInt()
+        val height = subScene.height.toInt()
+        val pixelX = x.toInt()
+        val pixelY = y.toInt()
+        if (pixelX < 0 || pixelY < 0 || pixelX >= width || pixelY >= height)
+            return -1
+        val node = model.getSceneNode()
+        if (node !== listenedNode) {
+            listenedNode?.localToSceneTransformProperty()?.removeListener(weakInvalidationListener)
+            node.localToSceneTransformProperty().addListener(weakInvalidationListener)
+            listenedNode = node
+            valid = false
+        }
+        var rasterizer = rasterizer
+        if (rasterizer == null || rasterizer.Rasterizer2D_width != width || rasterizer.Rasterizer2D_height != height) {
+            rasterizer = Rasterizer3D(width, height)
+            this.rasterizer = rasterizer
+            valid = false
+        }
+        if (!valid || poseGeneration != model.poseGeneration) {
+            rasterize(rasterizer, node, width, height)
+            valid = true
+            poseGeneration = model.poseGeneration
+        }
+        val triangle = rasterizer.Rasterizer2D_pixels[pixelY * width + pixelX] - 1
+        if (triangle == -1)
+            return -1
+        return lod?.faces?.get(triangle) ?: triangle
+    }
+
+    private fun rasterize(rasterizer: Rasterizer3D, node: Node, width: Int, height: Int) {
+        rasterizer.clear()
+        val lod = model.skinLod
+        this.lod = lod
+        if (node.scene == null || !model.visibleProperty.get())
+            return
+        val camera = SubScene3D.cameraHandler.camera
+        val toCamera = try {
+            camera.localToSceneTransform.createInverse().createConcatenation(node.localToSceneTransform)
+        } catch (e: NonInvertibleTransformException) {
+            return
+        }
+        val focalLength = height / 2.0 / tan(Math.toRadians(camera.fieldOfView / 2.0))
+        val nearClip = camera.nearClip
+        val xs = model.getPointXValues()
+        val ys = model.getPointYValues()
+        val zs = model.getPointZValues()
+        val vertexCount = definition.getVertexCount()
+        if (screenX.size < vertexCount) {
+            screenX = IntArray(vertexCount)
+            screenY = IntArray(vertexCount)
+            viewZ = FloatArray(vertexCount)
+        }
+        for (vertex in 0 until vertexCount) {
+            val x = xs[vertex].toDouble()
+            val y = ys[vertex].toDouble()
+            val z = zs[vertex].toDouble()
+            val cameraZ = toCamera.mzx * x + toCamera.mzy * y + toCamera.mzz * z + toCamera.tz
+            viewZ[vertex] = cameraZ.toFloat()
+            if (cameraZ >= nearClip) {
+                val cameraX = toCamera.mxx * x + toCamera.mxy * y + toCamera.mxz * z + toCamera.tx
+                val cameraY = toCamera.myx * x + toCamera.myy * y + toCamera.myz * z + toCamera.ty
+                screenX[vertex] = (width / 2.0 + cameraX * focalLength / cameraZ).toInt()
+                screenY[vertex] = (height / 2.0 + cameraY * focalLength / cameraZ).toInt()
+            }
+        }
+        val vertices1 = lod?.vertexIndices1 ?: definition.getFaceVertexIndices1()
+        val vertices2 = lod?.vertexIndices2 ?: definition.getFaceVertexIndices2()
+        val vertices3 = lod?.vertexIndices3 ?: definition.getFaceVertexIndices3()
+        val triangleCount = sortTriangles(
+            lod?.faceCount ?: definition.getFaceCount(),
+            vertices1, vertices2, vertices3,
+            model.cullFaceProperty.get(),
+            nearClip.toFloat()
+        )
+        val lastX = rasterizer.lastX
+        rasterizer.alpha = 0
+        for (index in 0 until triangleCount) {
+            val triangle = (sortKeys[index] and TRIANGLE_MASK).toInt()
+            val v1 = vertices1[triangle]
+            val v2 = vertices2[triangle]
+            val v3 = vertices3[triangle]
+            val x1 = screenX[v1]
+            val x2 = screenX[v2]
+            val x3 = screenX[v3]
+            rasterizer.triangleIsOutOfBounds = x1 < 0 || x2 < 0 || x3 < 0 || x1 > lastX || x2 > lastX || x3 > lastX
+            rasterizer.drawFlatTriangle(
+                x1, x2, x3,
+                screenY[v1], screenY[v2], screenY[v3],
+                viewZ[v1], viewZ[v2], viewZ[v3],
+                triangle + 1
+            )
+        }
+    }
+
+    /**
+     * Collects the triangles in front of the near clip plane, and not culled by the [cullFace],
+     * in [sortKeys], sorted from far to near.
+     *
+     * @return the number of collected triangles.
+     */
+    private fun sortTriangles(
+        triangleCount: Int,
+        vertices1: IntArray,
+        vertices2: IntArray,
+        vertices3: IntArray,
+        cullFace: CullFace?,
+        nearClip: Float
+    ) : Int {
+        if (sortKeys.size < triangleCount)
+            sortKeys = LongArray(triangleCount)
+        var count = 0
+        for (triangle in 0 until triangleCount) {
+            val v1 = vertices1[triangle]
+            val v2 = vertices2[triangle]
+            val v3 = vertices3[triangle]
+            val z1 = viewZ[v1]
+            val z2 = viewZ[v2]
+            val z3 = viewZ[v3]
+            if (z1 < nearClip || z2 < nearClip || z3 < nearClip)
+                continue
+            if (cullFace != null && cullFace != CullFace.NONE) {
+                val frontFacing = (screenX[v1] - screenX[v2]) * (screenY[v3] - screenY[v2]) -
+                        (screenY[v1] - screenY[v2]) * (screenX[v3] - screenX[v2]) > 0
+                if (frontFacing == (cullFace == CullFace.FRONT))
+                    continue
+            }
+            val depth = (z1 + z2 + z3) / 3F
+            sortKeys[count++] = (ModelTransparencySkin.toSortableBits(-depth) shl DEPTH_SHIFT) or triangle.toLong()
+        }
+        sortKeys.sort(0, count)
+        return count
+    }
+
+    private companion object {
+        const val DEPTH_SHIFT = 20
+        const val TRIANGLE_MASK = (1L shl DEPTH_SHIFT) - 1
+    }
+}
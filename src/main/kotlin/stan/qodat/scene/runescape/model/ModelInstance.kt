@@ -0,0 +1,101 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.scene.Group
+import javafx.scene.transform.Rotate
+import javafx.scene.transform.Translate
+import qodat.animation.AnimationSequence
+import stan.qodat.scene.provider.SceneNodeProvider
+
+/**
+ * A placement of an [InstancedModel] in a scene, holding only a transform and the current animation state.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelInstance(val instancedModel: InstancedModel) : SceneNodeProvider {
+
+    private var meshViews = instancedModel.createMeshViews()
+    private val group = Group()
+
+    val translate = Translate()
+    val rotate = Rotate(0.0, Rotate.Y_AXIS)
+
+    private var sequence: AnimationSequence? = null
+    private var startTimeMillis = 0L
+    private var pose: InstancedModel.Pose? = null
+
+    init {
+        group.children.addAll(meshViews)
+        group.transforms.addAll(translate, rotate)
+        instancedModel.register(this)
+    }
+
+    val isAnimating: Boolean
+        get() = sequence != null
+
+    /**
+     * Plays the [sequence] from [startTimeMillis], the pose is updated in [update].
+     */
+    fun play(sequence: AnimationSequence, startTimeMillis: Long) {
+        if (sequence !== this.sequence) {
+            setPose(null)
+            this.sequence?.let(instancedModel::releaseSequence)
+            instancedModel.retainSequence(sequence)
+            this.sequence = sequence
+        }
+        this.startTimeMillis = startTimeMillis
+    }
+
+    /**
+     * Stops playing and shows the static meshes of the model again.
+     */
+    fun stop() {
+        setPose(null)
+        sequence?.let(instancedModel::releaseSequence)
+        sequence = null
+    }
+
+    /**
+     * Shows the shared pose of the frame at [timeMillis], only touching the scene graph if the frame changed.
+     */
+    fun update(timeMillis: Long) {
+        val sequence = sequence ?: return
+        val frameIndex = sequence.getFrameIndex(timeMillis - startTimeMillis)
+        if (frameIndex == -1) {
+            setPose(null)
+            return
+        }
+        val current = pose
+        if (current != null && current.key.sequence === sequence && current.key.frameIndex == frameIndex)
+            return
+        setPose(instancedModel.getPose(sequence, frameIndex))
+    }
+
+    /**
+     * Shows the static meshes of the model, the next [update] acquires the pose of the current frame again.
+     */
+    internal fun clearPose() = setPose(null)
+
+    /**
+     * Replaces the mesh views by views of the current [InstancedModel.meshes].
+     */
+    internal fun recreateMeshViews() {
+        meshViews = instancedModel.createMeshViews()
+        group.children.setAll(meshViews)
+    }
+
+    private fun setPose(newPose: InstancedModel.Pose?) {
+        if (pose === newPose)
+            return
+        for ((index, meshView) in meshViews.withIndex())
+            meshView.mesh = newPose?.meshes?.get(index) ?: instancedModel.meshes[index]
+        pose = newPose
+    }
+
+    override fun getSceneNode() = group
+
+    override fun removeSceneNodeReference() {
+        stop()
+        instancedModel.unregister(this)
+    }
+}
@@ -0,0 +1,107 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.animation.AnimationTimer
+import qodat.animation.AnimationSequence
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.runescape.animation.Animation
+import stan.qodat.scene.runescape.entity.Entity
+
+/**
+ * Creates [ModelInstance] nodes that share an [InstancedModel] per unique model,
+ * so that memory and build time scale with the number of unique models rather than the number of instances.
+ *
+ * Models are considered identical if they have the same model definition instances (or entities the same model ids)
+ * and the same recolors.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelInstancer {
+
+    private val instancedModels = HashMap<Key, InstancedModel>()
+    private val sequences = HashMap<Animation, AnimationSequence>()
+    private val animatedInstances = ArrayList<ModelInstance>()
+
+    private val timer = object : AnimationTimer() {
+        override fun handle(now: Long) {
+            val timeMillis = now / 1_000_000L
+            for (instance in animatedInstances)
+                instance.update(timeMillis)
+        }
+    }
+
+    /**
+     * Creates an instance of the [model], sharing the meshes of the first model created with the same definition.
+     */
+    fun createInstance(model: Model) : ModelInstance {
+        val key = Key(DefinitionKey(model.modelDefinition), model.findColor?.toList(), model.replaceColor?.toList())
+        return ModelInstance(instancedModels.getOrPut(key) { InstancedModel(model) })
+    }
+
+    /**
+     * Creates an instance of the [entity], sharing the meshes of the first instance of an entity with the same models.
+     */
+    fun createInstance(entity: Entity<*>) : ModelInstance {
+        val definition = entity.definition
+        val key = Key(definition.modelIds.joinToString(), definition.findColor?.toList(), definition.replaceColor?.toList())
+        return ModelInstance(instancedModels.getOrPut(key) { InstancedModel(entity.createMergedModel(entity.getName())) })
+    }
+
+    /**
+     * Plays the [animation] on the [instance], instances playing the same [animation] share the same posed meshes
+     * whenever they show the same frame.
+     */
+    fun play(instance: ModelInstance, animation: Animation) {
+        val sequence = sequences.getOrPut(animation) { animation.getSequence() }
+        instance.play(sequence, System.nanoTime() / 1_000_000L)
+        if (instance !in animatedInstances)
+            animatedInstances += instance
+        timer.start()
+    }
+
+    fun stop(instance: ModelInstance) {
+        instance.stop()
+        animatedInstances -= instance
+        if (animatedInstances.isEmpty())
+            timer.stop()
+    }
+
+    /**
+     * Removes all unused [InstancedModel] entries, keeping those used by the [instancesInUse],
+     * and stops the instances that are no longer in use.
+     */
+    fun trim(instancesInUse: Collection<ModelInstance>) {
+        val used = instancesInUse.mapTo(HashSet()) { it.instancedModel }
+        val iterator = instancedModels.values.iterator()
+        while (iterator.hasNext()) {
+            val instancedModel = iterator.next()
+            if (instancedModel !in used) {
+                instancedModel.dispose()
+                iterator.remove()
+            }
+        }
+        val inUse = instancesInUse.toSet()
+        for (instance in animatedInstances.filter { it !in inUse })
+            stop(instance)
+        sequences.clear()
+        if (animatedInstances.isEmpty())
+            timer.stop()
+    }
+
+    private data class Key(
+        val models: Any,
+        val findColor: List<Short>?,
+        val replaceColor: List<Short>?
+    )
+
+    /**
+     * Compares model definitions by identity, as definitions of different caches may share a name
+     * and some definitions are data classes that would otherwise be compared by content.
+     */
+    private class DefinitionKey(val definition: ModelDefinition) {
+
+        override fun equals(other: Any?) = other is DefinitionKey && other.definition === definition
+
+        override fun hashCode() = System.identityHashCode(definition)
+    }
+}
@@ -0,0 +1,25 @@
+package stan.qodat.scene.runescape.model
+
+/**
+ * A simplified level of detail of a model, created by [ModelSimplifier].
+ *
+ * The vertex indices refer to the vertices of the original model,
+ * so a level of detail animates through the same [ModelSkeleton] as the full model.
+ *
+ * @param faces             for each face in this level, the index of the original face it inherits its color from.
+ * @param vertexIndices1    for each face in this level, the index of its first vertex.
+ * @param vertexIndices2    for each face in this level, the index of its second vertex.
+ * @param vertexIndices3    for each face in this level, the index of its third vertex.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelLod(
+    val faces: IntArray,
+    val vertexIndices1: IntArray,
+    val vertexIndices2: IntArray,
+    val vertexIndices3: IntArray
+) {
+    val faceCount: Int
+        get() = faces.size
+}
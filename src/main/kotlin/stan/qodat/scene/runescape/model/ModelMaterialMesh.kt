@@ -0,0 +1,121 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.beans.property.SimpleBooleanProperty
+import javafx.beans.property.SimpleObjectProperty
+import javafx.scene.DepthTest
+import javafx.scene.paint.Material
+import javafx.scene.shape.CullFace
+import javafx.scene.shape.DrawMode
+import javafx.scene.shape.MeshView
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.paint.TextureAtlas
+import stan.qodat.util.setAndBind
+
+/**
+ * A [ModelMesh] containing the faces of a [model] that share the same [material].
+ *
+ * The tex coords of each face are the texture UV coordinates of the model definition,
+ * so this is used for textured faces (see [ModelMaterialMeshGroup]).
+ *
+ * @param geometry the points, tex coords and faces of this mesh, see [createGeometry].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelMaterialMesh(
+    private val model: Model,
+    private val material: Material,
+    private val geometry: Geometry
+) : ModelMesh() {
+
+    private lateinit var meshView: MeshView
+
+    val visibleProperty = SimpleBooleanProperty()
+    val drawModeProperty = SimpleObjectProperty<DrawMode>()
+    val cullFaceProperty = SimpleObjectProperty<CullFace>()
+    val depthTestProperty = SimpleObjectProperty<DepthTest>()
+
+    init {
+        visibleProperty.setAndBind(model.visibleProperty)
+        drawModeProperty.setAndBind(model.drawModeProperty)
+        cullFaceProperty.setAndBind(model.cullFaceProperty)
+        depthTestProperty.setAndBind(model.depthTestProperty)
+    }
+
+    override fun getSceneNode(): MeshView {
+        if (!this::meshView.isInitialized) {
+            buildMesh()
+            meshView = MeshView(this)
+            meshView.material = material
+            meshView.isPickOnBounds = false
+            meshView.isMouseTransparent = true
+            meshView.visibleProperty().setAndBind(visibleProperty, true)
+            meshView.cullFaceProperty().setAndBind(cullFaceProperty, true)
+            meshView.drawModeProperty().setAndBind(drawModeProperty, true)
+            meshView.depthTestProperty().setAndBind(depthTestProperty, true)
+        }
+        return meshView
+    }
+
+    override fun dispose() {
+        visibleProperty.unbind()
+        drawModeProperty.unbind()
+        cullFaceProperty.unbind()
+        depthTestProperty.unbind()
+    }
+
+    private fun buildMesh() {
+        setGeometry(geometry.points)
+        uploadPoints()
+        texCoords.setAll(*geometry.texCoords)
+        faces.setAll(*geometry.faces)
+        faceSmoothingGroups.setAll(*IntArray(geometry.points.triangleCount))
+    }
+
+    /**
+     * The arrays of a [ModelMaterialMesh], which are computed without touching any JavaFX state (see [createGeometry]).
+     *
+     * @param points    the welded points of the faces.
+     * @param texCoords the u and v coordinate of each corner of each face.
+     * @param faces     for each corner of each face, the index of its point and of its tex coord.
+     */
+    class Geometry(val points: ModelMeshGeometry, val texCoords: FloatArray, val faces: IntArray)
+
+    companion object {
+
+        /**
+         * Creates the geometry of the [modelFaces] of the [definition], of which the UV coordinates must be computed.
+         *
+         * @param modelFaces  the faces of the [definition] in the mesh, the index of a face in this array
+         *                    is the index of its triangle in the mesh.
+         * @param faceRegions if the material is a page of a [TextureAtlas], the region of the texture of each face,
+         *                    to which the UV coordinates of that face are mapped.
+         */
+        fun createGeometry(
+            definition: ModelDefinition,
+            modelFaces: IntArray,
+            faceRegions: Array<TextureAtlas.Region>? = null
+        ) : Geometry {
+            val points = ModelMeshGeometry.create(definition, faces = modelFaces)
+            val uCoordinates = definition.getFaceTextureUCoordinates()
+            val vCoordinates = definition.getFaceTextureVCoordinates()
+            val texCoordArray = FloatArray(modelFaces.size * 6)
+            val faceArray = IntArray(modelFaces.size * 6)
+            for ((localFace, face) in modelFaces.withIndex()) {
+                val u = uCoordinates?.get(face)
+                val v = vCoordinates?.get(face)
+                val region = faceRegions?.get(localFace)
+                val offset = localFace * 6
+                for (corner in 0 until 3) {
+                    val cornerU = u?.get(corner) ?: 0F
+                    val cornerV = v?.get(corner) ?: 0F
+                    texCoordArray[offset + corner * 2] = region?.mapU(cornerU) ?: cornerU
+                    texCoordArray[offset + corner * 2 + 1] = region?.mapV(cornerV) ?: cornerV
+                    faceArray[offset + corner * 2] = points.triangles[localFace * 3 + corner]
+                    faceArray[offset + corner * 2 + 1] = localFace * 3 + corner
+                }
+            }
+            return Geometry(points, texCoordArray, faceArray)
+        }
+    }
+}
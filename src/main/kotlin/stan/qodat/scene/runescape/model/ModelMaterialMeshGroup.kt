@@ -0,0 +1,196 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.scene.Group
+import javafx.scene.paint.Material
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.paint.TextureAtlas
+import stan.qodat.scene.paint.TextureCache
+import stan.qodat.scene.paint.TextureMaterial
+
+/**
+ * This class represents a [ModelSkin] that batches the faces of a [ModelDefinition] by material,
+ * so that a model needs one [ModelMesh] per material rather than one per face (see [ModelFaceMeshGroup]).
+ *
+ * All colored faces are put in a single [ModelAtlasMesh].
+ * Textured faces whose UV coordinates lie within [0, 1] are put in a single [ModelMaterialMesh]
+ * per page of the shared [TextureCache.atlas], all other textured faces (relying on the texture to repeat)
+ * are put in a single [ModelMaterialMesh] per texture.
+ *
+ * The [geometries] are computed without touching any JavaFX state (see [createGeometries]),
+ * so the arrays of the meshes can be prepared on a background thread, and only be uploaded on the JavaFX thread.
+ *
+ * The textures are acquired from the [TextureCache] when this group is created
+ * and have to be released through [release] (or [dispose]).
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelMaterialMeshGroup(
+    private val model: Model,
+    geometries: Geometries
+) : ModelSkin {
+
+    constructor(model: Model) : this(model, createGeometries(model.modelDefinition))
+
+    private lateinit var group: Group
+    private lateinit var meshes: List<ModelMesh>
+    private val acquiredTextureIds = ArrayList<Int>()
+    private val geometries = acquireTextures(geometries)
+
+    override fun updatePoints(skeleton: ModelSkeleton) {
+        for (mesh in getMeshes())
+            mesh.updatePoints(skeleton)
+    }
+
+    override fun getSceneNode(): Group {
+        if (!this::group.isInitialized) {
+            group = Group()
+            group.children.addAll(getMeshes().map { it.getSceneNode() })
+        }
+        return group
+    }
+
+    /**
+     * Rebuilds the atlas of the colored faces, e.g. after the model was recolored.
+     */
+    fun rebuildAtlas() {
+        for (mesh in getMeshes())
+            (mesh as? ModelAtlasMesh)?.rebuildAtlas()
+    }
+
+    /**
+     * Releases all textures acquired from the [TextureCache] by this group.
+     */
+    fun release() {
+        for (textureId in acquiredTextureIds)
+            TextureCache.release(textureId)
+        acquiredTextureIds.clear()
+    }
+
+    override fun dispose() {
+        if (this::meshes.isInitialized) {
+            for (mesh in meshes)
+                mesh.dispose()
+        }
+        release()
+    }
+
+    fun getMeshes(): List<ModelMesh> {
+        if (!this::meshes.isInitialized) {
+            val meshes = ArrayList<ModelMesh>(geometries.texturedMeshes.size + 1)
+            geometries.colorMesh?.let { meshes += ModelAtlasMesh(model, it) }
+            for (mesh in geometries.texturedMeshes)
+                meshes += ModelMaterialMesh(model, mesh.material, mesh.geometry)
+            this.meshes = meshes
+        }
+        return meshes
+    }
+
+    /**
+     * Acquires the textures of the [prepared] geometries.
+     *
+     * If a texture was evicted from the [TextureCache] after the geometries were prepared,
+     * its region in the atlas may have been reused, so the geometries are created again.
+     */
+    private fun acquireTextures(prepared: Geometries) : Geometries {
+        var geometries = prepared
+        while (true) {
+            for (textureId in geometries.textures.keys) {
+                if (TextureCache.acquire(textureId) != null)
+                    acquiredTextureIds += textureId
+            }
+            if (geometries.textures.all { (textureId, material) -> TextureCache.get(textureId) === material })
+                return geometries
+            release()
+            geometries = createGeometries(model.modelDefinition)
+        }
+    }
+
+    /**
+     * The arrays of the meshes of a [ModelMaterialMeshGroup].
+     *
+     * @param colorMesh      the geometry of the colored faces, or `null` if all faces are textured.
+     * @param texturedMeshes the geometry and material of each mesh of textured faces.
+     * @param textures       the material of each texture used by the [texturedMeshes].
+     */
+    class Geometries(
+        val colorMesh: ModelMeshGeometry?,
+        val texturedMeshes: List<TexturedMesh>,
+        val textures: Map<Int, TextureMaterial>
+    )
+
+    class TexturedMesh(val material: Material, val geometry: ModelMaterialMesh.Geometry)
+
+    companion object {
+
+        private val UNIT_RANGE = -0.001F..1.001F
+
+        /**
+         * Creates the [Geometries] of the [definition], this loads the textures of the faces
+         * and packs them in the [TextureCache.atlas] but does not acquire them.
+         */
+        fun createGeometries(definition: ModelDefinition) : Geometries {
+            val faceTextures = definition.getFaceTextures()
+            val colorFaces = ArrayList<Int>()
+            val texturedFaces = LinkedHashMap<Int, MutableList<Int>>()
+            val textures = HashMap<Int, TextureMaterial>()
+            for (face in 0 until definition.getFaceCount()) {
+                val textureId = faceTextures?.getOrNull(face)?.toInt() ?: -1
+                val material = if (textureId != -1)
+                    textures[textureId] ?: TextureCache.get(textureId)?.also { textures[textureId] = it }
+                else
+                    null
+                if (material != null)
+                    texturedFaces.getOrPut(textureId) { ArrayList() }.add(face)
+                else
+                    colorFaces.add(face)
+            }
+            val colorMesh = if (colorFaces.isNotEmpty()) {
+                val allColored = colorFaces.size == definition.getFaceCount()
+                ModelMeshGeometry.create(definition, faces = if (allColored) null else colorFaces.toIntArray())
+            } else
+                null
+            val texturedMeshes = ArrayList<TexturedMesh>()
+            if (texturedFaces.isNotEmpty())
+                definition.computeTextureUVCoordinates()
+            val atlasPageFaces = LinkedHashMap<TextureAtlas.Page, MutableList<Pair<Int, TextureAtlas.Region>>>()
+            for ((textureId, faces) in texturedFaces) {
+                val region = if (faces.all { hasUnitUVs(definition, it) }) TextureCache.getRegion(textureId) else null
+                if (region != null) {
+                    val pageFaces = atlasPageFaces.getOrPut(region.page) { ArrayList() }
+                    for (face in faces)
+                        pageFaces += face to region
+                } else
+                    texturedMeshes += TexturedMesh(
+                        material = textures[textureId]!!.fxMaterial,
+                        geometry = ModelMaterialMesh.createGeometry(definition, faces.toIntArray())
+                    )
+            }
+            for ((page, faces) in atlasPageFaces) {
+                texturedMeshes += TexturedMesh(
+                    material = page.material,
+                    geometry = ModelMaterialMesh.createGeometry(
+                        definition = definition,
+                        modelFaces = IntArray(faces.size) { faces[it].first },
+                        faceRegions = Array(faces.size) { faces[it].second }
+                    )
+                )
+            }
+            return Geometries(colorMesh, texturedMeshes, textures)
+        }
+
+        /**
+         * @return `true` if all UV coordinates of the [face] lie within [0, 1],
+         *         so the face can be mapped to a region of a [TextureAtlas].
+         */
+        private fun hasUnitUVs(definition: ModelDefinition, face: Int): Boolean {
+            val u = definition.getFaceTextureUCoordinates()?.get(face) ?: return false
+            val v = definition.getFaceTextureVCoordinates()?.get(face) ?: return false
+            for (corner in 0 until 3) {
+                if (u[corner] !in UNIT_RANGE || v[corner] !in UNIT_RANGE)
+                    return false
+            }
+            return true
+        }
+    }
+}
@@ -14,14 +14,39 @@ import javafx.scene.shape.*
  */
 abstract class ModelMesh : TriangleMesh(), ModelSkin {
 
-    val vertexMap = HashMap<Int, Int>()
+    /**
+     * Maps a vertex index of the [ModelSkeleton] to the index of the local vertex in [points], or -1 if absent.
+     */
+    private var localVertices = IntArray(0)
+
+    /**
+     * Maps a local vertex (see [localVertices]) back to the vertex index of the [ModelSkeleton].
+     */
+    private var skeletonVertices = IntArray(16)
+
+    /**
+     * The number of local vertices mapped to a skeleton vertex.
+     */
+    var localVertexCount = 0
+        private set
+
+    /**
+     * Holds the coordinates of all local vertices as a plain array,
+     * vertices are added to this array first and uploaded to [points] in bulk (see [uploadPoints]),
+     * which also allows building the mesh off the JavaFX application thread.
+     *
+     * It is also used to detect changes in [updatePoints] without reading from [points].
+     */
+    private var stagingPoints = FloatArray(48)
+    private var pointsUploaded = true
 
     private lateinit var selectionBox: Box
 
     /**
      * Store the vertex points in this mesh's [points] and then return its onset.
      *
-     * This method only computes new coordinates when there is no previous mapping in [vertexMap].
+     * This method only computes new coordinates when the [vertex] was not added before.
+     * The coordinates are only stored in [points] once [uploadPoints] is called.
      *
      * @param vertex the vertex index.
      * @param vertexX the x coordinate of the point
@@ -30,13 +55,64 @@ abstract class ModelMesh : TriangleMesh(), ModelSkin {
      *
      * @return the onset index of the vertex point coordinates in [points]
      */
-    fun addVertex(vertex: Int, vertexX: Int, vertexY: Int, vertexZ: Int) = vertexMap.getOrPut(vertex) {
-        val onset = points.size() / 3
+    fun addVertex(vertex: Int, vertexX: Int, vertexY: Int, vertexZ: Int) : Int {
+        if (vertex >= localVertices.size) {
+            val oldSize = localVertices.size
+            localVertices = localVertices.copyOf(maxOf(vertex + 1, oldSize * 2))
+            localVertices.fill(-1, oldSize, localVertices.size)
+        }
+        val existing = localVertices[vertex]
+        if (existing != -1)
+            return existing
+
+        val onset = localVertexCount
+        if (onset * 3 + 3 > stagingPoints.size)
+            stagingPoints = stagingPoints.copyOf(maxOf(onset * 3 + 3, stagingPoints.size * 2))
+        stagingPoints[onset * 3] = vertexX.toFloat()
+        stagingPoints[onset * 3 + 1] = vertexY.toFloat()
+        stagingPoints[onset * 3 + 2] = vertexZ.toFloat()
 
-        points.addAll(vertexX.toFloat(), vertexY.toFloat(), vertexZ.toFloat())
-        onset
+        if (onset >= skeletonVertices.size)
+            skeletonVertices = skeletonVertices.copyOf(maxOf(onset + 1, skeletonVertices.size * 2))
+        skeletonVertices[onset] = vertex
+        localVertices[vertex] = onset
+        localVertexCount = onset + 1
+        pointsUploaded = false
+        return onset
     }
 
+    /**
+     * Replaces the local vertices by the points of the [geometry], as if each point was added through [addVertex].
+     *
+     * The points are only stored in [points] once [uploadPoints] is called, the [geometry] must not be shared.
+     */
+    fun setGeometry(geometry: ModelMeshGeometry) {
+        val skeletonVertices = geometry.skeletonVertices
+        val pointCount = geometry.pointCount
+        localVertices = IntArray(if (pointCount == 0) 0 else skeletonVertices.maxOrNull()!! + 1) { -1 }
+        for (local in 0 until pointCount)
+            localVertices[skeletonVertices[local]] = local
+        this.skeletonVertices = skeletonVertices
+        stagingPoints = geometry.points
+        localVertexCount = pointCount
+        pointsUploaded = false
+    }
+
+    /**
+     * Uploads the coordinates of all vertices added through [addVertex] to [points] in a single call.
+     */
+    fun uploadPoints() {
+        if (!pointsUploaded) {
+            points.setAll(stagingPoints, 0, localVertexCount * 3)
+            pointsUploaded = true
+        }
+    }
+
+    /**
+     * @return the vertex index in the [ModelSkeleton] of the [localVertex].
+     */
+    fun getSkeletonVertex(localVertex: Int) = skeletonVertices[localVertex]
+
     /**
      * Store the UV coordinates in this mesh's [texCoords] and then return its onset.
      *
@@ -59,25 +135,45 @@ abstract class ModelMesh : TriangleMesh(), ModelSkin {
         points.clear()
         faces.clear()
         faceSmoothingGroups.clear()
+        localVertices.fill(-1)
+        localVertexCount = 0
+        pointsUploaded = true
     }
 
     /**
      * Compares each vertex coordinate from the [skeleton] to the local [points].
      *
-     * Because performing operations on the [points] collection is expensive,
-     * we only update the x,y,z coordinates that have changed.
+     * Because every write to the [points] collection notifies its listeners (and syncs the mesh),
+     * the changed coordinates are collected in the staging array and uploaded with a single call
+     * covering the range from the first to the last changed coordinate.
      *
      * @param skeleton the [ModelSkeleton] to retrieve x,y,z values from for each local vertex.
      */
     override fun updatePoints(skeleton: ModelSkeleton){
-        for((vertex, localVertex) in vertexMap){
-            val x = skeleton.getX(vertex).toFloat()
-            val y = skeleton.getY(vertex).toFloat()
-            val z = skeleton.getZ(vertex).toFloat()
-            (localVertex * 3 ).let { if (points.get(it) != x) points.set(it, x) }
-            (localVertex * 3 + 1).let { if (points.get(it) != y) points.set(it, y) }
-            (localVertex * 3 + 2).let { if (points.get(it) != z) points.set(it, z) }
+        uploadPoints()
+        val staging = stagingPoints
+        val xs = skeleton.getPointXValues()
+        val ys = skeleton.getPointYValues()
+        val zs = skeleton.getPointZValues()
+        var dirtyStart = Int.MAX_VALUE
+        var dirtyEnd = -1
+        for (localVertex in 0 until localVertexCount) {
+            val vertex = skeletonVertices[localVertex]
+            val x = xs[vertex].toFloat()
+            val y = ys[vertex].toFloat()
+            val z = zs[vertex].toFloat()
+            val offset = localVertex * 3
+            if (staging[offset] != x || staging[offset + 1] != y || staging[offset + 2] != z) {
+                staging[offset] = x
+                staging[offset + 1] = y
+                staging[offset + 2] = z
+                if (offset < dirtyStart)
+                    dirtyStart = offset
+                dirtyEnd = offset + 3
+            }
         }
+        if (dirtyEnd != -1)
+            points.set(dirtyStart, staging, dirtyStart, dirtyEnd - dirtyStart)
     }
 
     fun getSelectionBox() : Box {
@@ -19,8 +19,19 @@ enum class ModelMeshBuildType {
 
     SKELETON_ATLAS,
 
+    /**
+     * Creates a mesh for each material in the model,
+     * all colored faces share an [ATLAS] mesh and all faces with the same texture share a mesh.
+     *
+     * Use [Model.pickFace] to find the face at a point in the sub scene.
+     */
+    MESH_PER_MATERIAL,
+
     /**
      * Creates a mesh for each triangle in the model.
+     *
+     * This is only used for editing individual faces, prefer [MESH_PER_MATERIAL] otherwise,
+     * faces of any other build type can be picked with [Model.pickFace].
      */
     MESH_PER_FACE
 }
\ No newline at end of file
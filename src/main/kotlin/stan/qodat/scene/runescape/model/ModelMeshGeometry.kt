@@ -0,0 +1,82 @@
+package stan.qodat.scene.runescape.model
+
+import qodat.cache.definition.ModelDefinition
+
+/**
+ * The geometry of a [ModelMesh] as plain arrays, with the vertices shared between triangles welded into one point.
+ *
+ * Creating the geometry does not touch any JavaFX state, so it can be done on any thread,
+ * and then be set in a mesh on the JavaFX application thread (see [ModelMesh.setGeometry]).
+ *
+ * @param modelFaces        for each triangle, the face of the model it was created from.
+ * @param triangles         for each triangle, the indices of its three points.
+ * @param skeletonVertices  for each point, the vertex of the [ModelSkeleton] it represents.
+ * @param points            the x, y and z coordinate of each point.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelMeshGeometry(
+    val modelFaces: IntArray,
+    val triangles: IntArray,
+    val skeletonVertices: IntArray,
+    val points: FloatArray
+) {
+
+    val triangleCount: Int
+        get() = modelFaces.size
+
+    val pointCount: Int
+        get() = skeletonVertices.size
+
+    companion object {
+
+        /**
+         * Creates the geometry of the [faces] of the [definition], or of the [lod] if specified.
+         *
+         * @param faces the faces to include, indices of faces of the [lod] if specified, otherwise of the [definition],
+         *              or `null` to include all faces.
+         */
+        fun create(definition: ModelDefinition, lod: ModelLod? = null, faces: IntArray? = null) : ModelMeshGeometry {
+            val vertices1 = lod?.vertexIndices1 ?: definition.getFaceVertexIndices1()
+            val vertices2 = lod?.vertexIndices2 ?: definition.getFaceVertexIndices2()
+            val vertices3 = lod?.vertexIndices3 ?: definition.getFaceVertexIndices3()
+            val triangleCount = faces?.size ?: lod?.faceCount ?: definition.getFaceCount()
+
+            val localVertices = IntArray(definition.getVertexCount()) { -1 }
+            val skeletonVertices = IntArray(definition.getVertexCount())
+            var pointCount = 0
+            fun weld(vertex: Int) : Int {
+                var local = localVertices[vertex]
+                if (local == -1) {
+                    local = pointCount++
+                    localVertices[vertex] = local
+                    skeletonVertices[local] = vertex
+                }
+                return local
+            }
+
+            val modelFaces = IntArray(triangleCount)
+            val triangles = IntArray(triangleCount * 3)
+            for (triangle in 0 until triangleCount) {
+                val face = faces?.get(triangle) ?: triangle
+                modelFaces[triangle] = lod?.faces?.get(face) ?: face
+                triangles[triangle * 3] = weld(vertices1[face])
+                triangles[triangle * 3 + 1] = weld(vertices2[face])
+                triangles[triangle * 3 + 2] = weld(vertices3[face])
+            }
+
+            val positionsX = definition.getVertexPositionsX()
+            val positionsY = definition.getVertexPositionsY()
+            val positionsZ = definition.getVertexPositionsZ()
+            val points = FloatArray(pointCount * 3)
+            for (local in 0 until pointCount) {
+                val vertex = skeletonVertices[local]
+                points[local * 3] = positionsX[vertex].toFloat()
+                points[local * 3 + 1] = positionsY[vertex].toFloat()
+                points[local * 3 + 2] = positionsZ[vertex].toFloat()
+            }
+            return ModelMeshGeometry(modelFaces, triangles, skeletonVertices.copyOf(pointCount), points)
+        }
+    }
+}
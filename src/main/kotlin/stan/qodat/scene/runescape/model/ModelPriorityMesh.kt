@@ -0,0 +1,119 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.scene.DepthTest
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
+import javafx.scene.paint.PhongMaterial
+import javafx.scene.shape.CullFace
+import javafx.scene.shape.MeshView
+import javafx.scene.shape.TriangleMesh
+import stan.qodat.util.DISTINCT_COLORS
+import java.nio.IntBuffer
+
+/**
+ * An overlay that visualises the render priority of each face of a [model] in a single mesh.
+ *
+ * Each face is represented by a marker triangle, the face shrunk towards its centre,
+ * colored by its priority through a single row image of [DISTINCT_COLORS] (one pixel per priority).
+ *
+ * The markers are drawn without depth testing so that the priorities of hidden faces can also be inspected.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelPriorityMesh(model: Model) : TriangleMesh(), ModelSkin {
+
+    private val definition = model.modelDefinition
+    private val faceCount = definition.getFaceCount()
+    private val vertices1 = definition.getFaceVertexIndices1()
+    private val vertices2 = definition.getFaceVertexIndices2()
+    private val vertices3 = definition.getFaceVertexIndices3()
+
+    /**
+     * The coordinates of the three corners of each marker triangle.
+     */
+    private val markerPoints = FloatArray(faceCount * 9)
+
+    private lateinit var meshView: MeshView
+
+    init {
+        val priorities = definition.getFacePriorities()
+            ?: ByteArray(faceCount) { definition.getPriority() }
+        val priorityCount = (priorities.maxOfOrNull { it.toInt() and 0xFF } ?: 0) + 1
+        texCoords.setAll(*FloatArray(priorityCount * 2) {
+            if (it % 2 == 0) ((it / 2 + 0.5) / priorityCount).toFloat() else 0.5F
+        })
+        faces.setAll(*IntArray(faceCount * 6) {
+            val face = it / 6
+            if (it % 2 == 0)
+                face * 3 + (it % 6) / 2
+            else
+                priorities[face].toInt() and 0xFF
+        })
+        faceSmoothingGroups.setAll(*IntArray(faceCount))
+        computeMarkerPoints(
+            definition.getVertexPositionsX(),
+            definition.getVertexPositionsY(),
+            definition.getVertexPositionsZ()
+        )
+        points.setAll(*markerPoints)
+    }
+
+    override fun getSceneNode(): MeshView {
+        if (!this::meshView.isInitialized) {
+            meshView = MeshView(this)
+            meshView.isPickOnBounds = false
+            meshView.isMouseTransparent = true
+            meshView.cullFace = CullFace.NONE
+            meshView.depthTest = DepthTest.DISABLE
+            meshView.material = PhongMaterial(Color.WHITE).apply {
+                diffuseMap = createPriorityImage(texCoords.size() / 2)
+            }
+        }
+        return meshView
+    }
+
+    override fun updatePoints(skeleton: ModelSkeleton) {
+        computeMarkerPoints(skeleton.getPointXValues(), skeleton.getPointYValues(), skeleton.getPointZValues())
+        points.set(0, markerPoints, 0, markerPoints.size)
+    }
+
+    private fun computeMarkerPoints(xs: IntArray, ys: IntArray, zs: IntArray) {
+        for (face in 0 until faceCount) {
+            val v1 = vertices1[face]
+            val v2 = vertices2[face]
+            val v3 = vertices3[face]
+            val centerX = (xs[v1] + xs[v2] + xs[v3]) / 3F
+            val centerY = (ys[v1] + ys[v2] + ys[v3]) / 3F
+            val centerZ = (zs[v1] + zs[v2] + zs[v3]) / 3F
+            var offset = face * 9
+            for (vertex in intArrayOf(v1, v2, v3)) {
+                markerPoints[offset++] = centerX + (xs[vertex] - centerX) * MARKER_SCALE
+                markerPoints[offset++] = centerY + (ys[vertex] - centerY) * MARKER_SCALE
+                markerPoints[offset++] = centerZ + (zs[vertex] - centerZ) * MARKER_SCALE
+            }
+        }
+    }
+
+    private fun createPriorityImage(priorityCount: Int) : WritableImage {
+        val pixels = IntArray(priorityCount) {
+            val color = DISTINCT_COLORS[it % DISTINCT_COLORS.size]
+            ((color.opacity * 255).toInt() shl 24) or
+                    ((color.red * 255).toInt() shl 16) or
+                    ((color.green * 255).toInt() shl 8) or
+                    (color.blue * 255).toInt()
+        }
+        val image = WritableImage(priorityCount, 1)
+        image.pixelWriter.setPixels(0, 0, priorityCount, 1, PixelFormat.getIntArgbInstance(), IntBuffer.wrap(pixels), priorityCount)
+        return image
+    }
+
+    private companion object {
+
+        /**
+         * The size of a marker relative to the face it represents.
+         */
+        const val MARKER_SCALE = 0.5F
+    }
+}
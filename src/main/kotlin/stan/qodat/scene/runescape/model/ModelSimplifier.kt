@@ -0,0 +1,330 @@
+package stan.qodat.scene.runescape.model
+
+import qodat.cache.definition.ModelDefinition
+import java.util.PriorityQueue
+import kotlin.math.sqrt
+
+/**
+ * Creates [levels of detail][ModelLod] of a [ModelDefinition] using quadric error metric edge collapses.
+ *
+ * Each collapse moves a vertex onto one of its neighbours (a half-edge collapse),
+ * so that no new vertices are introduced and every level animates through the original skeleton.
+ * A vertex is only collapsed if:
+ * - it has the same skin (vertex group) as the neighbour it is collapsed onto,
+ * - all its faces share the same color, alpha, texture and priority,
+ *   so that color and texture boundaries are preserved,
+ * - it does not lie on an open edge of the mesh, which preserves silhouettes and seams,
+ * - none of its remaining faces flip.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+object ModelSimplifier {
+
+    /**
+     * The default fractions of the original face count of each level of detail.
+     */
+    val DEFAULT_RATIOS = floatArrayOf(0.5f, 0.25f, 0.125f)
+
+    /**
+     * Models with fewer faces than this are not worth simplifying.
+     */
+    private const val MIN_FACE_COUNT = 64
+
+    /**
+     * Creates a [ModelLod] for each of the [ratios] (in descending order) in a single simplification pass.
+     *
+     * If the model cannot be simplified down to a ratio (because of the constraints),
+     * the levels stop at the most simplified mesh that could be reached.
+     */
+    fun createLods(definition: ModelDefinition, ratios: FloatArray = DEFAULT_RATIOS) : List<ModelLod> {
+        val faceCount = definition.getFaceCount()
+        if (faceCount < MIN_FACE_COUNT)
+            return emptyList()
+        val simplification = Simplification(definition)
+        val lods = ArrayList<ModelLod>(ratios.size)
+        for (ratio in ratios) {
+            val reached = simplification.collapseUntil((faceCount * ratio).toInt())
+            val previousFaceCount = lods.lastOrNull()?.faceCount ?: faceCount
+            if (simplification.aliveFaceCount >= previousFaceCount)
+                break
+            lods += simplification.toLod()
+            if (!reached)
+                break
+        }
+        return lods
+    }
+
+    private class Simplification(definition: ModelDefinition) {
+
+        private val vertexCount = definition.getVertexCount()
+        private val faceCount = definition.getFaceCount()
+
+        private val x = DoubleArray(vertexCount) { definition.getVertexPositionsX()[it].toDouble() }
+        private val y = DoubleArray(vertexCount) { definition.getVertexPositionsY()[it].toDouble() }
+        private val z = DoubleArray(vertexCount) { definition.getVertexPositionsZ()[it].toDouble() }
+        private val skins = definition.getVertexSkins()
+
+        private val vertices1 = definition.getFaceVertexIndices1().copyOf()
+        private val vertices2 = definition.getFaceVertexIndices2().copyOf()
+        private val vertices3 = definition.getFaceVertexIndices3().copyOf()
+
+        private val colors = definition.getFaceColors()
+        private val alphas = definition.getFaceAlphas()
+        private val textures = definition.getFaceTextures()
+        private val priorities = definition.getFacePriorities()
+
+        private val faceAlive = BooleanArray(faceCount) { true }
+        private val vertexAlive = BooleanArray(vertexCount) { true }
+        private val vertexFaces = Array(vertexCount) { ArrayList<Int>(6) }
+        private val vertexStamps = IntArray(vertexCount)
+
+        /**
+         * The 10 unique coefficients of the symmetric 4x4 quadric of each vertex.
+         */
+        private val quadrics = DoubleArray(vertexCount * 10)
+
+        private val queue = PriorityQueue<Candidate>(vertexCount.coerceAtLeast(1))
+
+        var aliveFaceCount = faceCount
+            private set
+
+        init {
+            for (face in 0 until faceCount) {
+                val v1 = vertices1[face]
+                val v2 = vertices2[face]
+                val v3 = vertices3[face]
+                if (v1 == v2 || v2 == v3 || v1 == v3) {
+                    faceAlive[face] = false
+                    aliveFaceCount--
+                    continue
+                }
+                vertexFaces[v1] += face
+                vertexFaces[v2] += face
+                vertexFaces[v3] += face
+                addFaceQuadric(face)
+            }
+            for (vertex in 0 until vertexCount)
+                pushCandidate(vertex)
+        }
+
+        /**
+         * Collapses the cheapest edges until at most [targetFaceCount] faces are left.
+         *
+         * @return `true` if the target was reached, `false` if no more edges could be collapsed.
+         */
+        fun collapseUntil(targetFaceCount: Int) : Boolean {
+            while (aliveFaceCount > targetFaceCount) {
+                val candidate = queue.poll() ?: return false
+                val from = candidate.from
+                if (!vertexAlive[from] || candidate.stamp != vertexStamps[from])
+                    continue
+                val to = candidate.to
+                if (!vertexAlive[to] || !canCollapse(from, to)) {
+                    vertexStamps[from]++
+                    continue
+                }
+                collapse(from, to)
+            }
+            return true
+        }
+
+        fun toLod() : ModelLod {
+            val faces = IntArray(aliveFaceCount)
+            var index = 0
+            for (face in 0 until faceCount) {
+                if (faceAlive[face])
+                    faces[index++] = face
+            }
+            return ModelLod(
+                faces = faces,
+                vertexIndices1 = IntArray(faces.size) { vertices1[faces[it]] },
+                vertexIndices2 = IntArray(faces.size) { vertices2[faces[it]] },
+                vertexIndices3 = IntArray(faces.size) { vertices3[faces[it]] }
+            )
+        }
+
+        private fun collapse(from: Int, to: Int) {
+            for (face in vertexFaces[from]) {
+                if (!faceAlive[face])
+                    continue
+                if (vertices1[face] == to || vertices2[face] == to || vertices3[face] == to) {
+                    faceAlive[face] = false
+                    aliveFaceCount--
+                    continue
+                }
+                when (from) {
+                    vertices1[face] -> vertices1[face] = to
+                    vertices2[face] -> vertices2[face] = to
+                    else -> vertices3[face] = to
+                }
+                vertexFaces[to] += face
+            }
+            vertexFaces[from].clear()
+            vertexFaces[to].removeAll { !faceAlive[it] }
+            vertexAlive[from] = false
+            for (i in 0 until 10)
+                quadrics[to * 10 + i] += quadrics[from * 10 + i]
+            pushCandidate(to)
+            forEachNeighbour(to) { pushCandidate(it) }
+        }
+
+        /**
+         * Finds the cheapest valid neighbour to collapse the [vertex] onto and queues it.
+         */
+        private fun pushCandidate(vertex: Int) {
+            val stamp = ++vertexStamps[vertex]
+            if (!vertexAlive[vertex] || vertexFaces[vertex].isEmpty() || !hasSingleMaterial(vertex))
+                return
+            var bestTarget = -1
+            var bestCost = Double.MAX_VALUE
+            forEachNeighbour(vertex) { neighbour ->
+                if (sameSkin(vertex, neighbour)) {
+                    val cost = collapseCost(vertex, neighbour)
+                    if (cost < bestCost) {
+                        bestCost = cost
+                        bestTarget = neighbour
+                    }
+                }
+            }
+            if (bestTarget != -1)
+                queue += Candidate(vertex, bestTarget, bestCost, stamp)
+        }
+
+        private fun canCollapse(from: Int, to: Int) : Boolean {
+            if (!sameSkin(from, to) || !hasSingleMaterial(from) || isOnOpenEdge(from))
+                return false
+            for (face in vertexFaces[from]) {
+                if (!faceAlive[face])
+                    continue
+                val v1 = vertices1[face]
+                val v2 = vertices2[face]
+                val v3 = vertices3[face]
+                if (v1 == to || v2 == to || v3 == to)
+                    continue
+                if (flips(v1, v2, v3, from, to))
+                    return false
+            }
+            return true
+        }
+
+        /**
+         * @return `true` if the normal of the face ([v1], [v2], [v3]) reverses when [from] is moved to [to].
+         */
+        private fun flips(v1: Int, v2: Int, v3: Int, from: Int, to: Int) : Boolean {
+            val before = normal(v1, v2, v3)
+            val after = normal(
+                if (v1 == from) to else v1,
+                if (v2 == from) to else v2,
+                if (v3 == from) to else v3
+            )
+            return before[0] * after[0] + before[1] * after[1] + before[2] * after[2] <= 0.0
+        }
+
+        private fun isOnOpenEdge(vertex: Int) : Boolean {
+            var open = false
+            forEachNeighbour(vertex) { neighbour ->
+                var sharedFaces = 0
+                for (face in vertexFaces[vertex]) {
+                    if (faceAlive[face] && (vertices1[face] == neighbour || vertices2[face] == neighbour || vertices3[face] == neighbour))
+                        sharedFaces++
+                }
+                if (sharedFaces < 2)
+                    open = true
+            }
+            return open
+        }
+
+        private fun hasSingleMaterial(vertex: Int) : Boolean {
+            var first = -1
+            for (face in vertexFaces[vertex]) {
+                if (!faceAlive[face])
+                    continue
+                if (first == -1)
+                    first = face
+                else if (!sameMaterial(first, face))
+                    return false
+            }
+            return true
+        }
+
+        private fun sameMaterial(face1: Int, face2: Int) =
+            colors[face1] == colors[face2]
+                    && alphas?.get(face1) == alphas?.get(face2)
+                    && textures?.get(face1) == textures?.get(face2)
+                    && priorities?.get(face1) == priorities?.get(face2)
+
+        private fun sameSkin(vertex1: Int, vertex2: Int) =
+            skins == null || skins[vertex1] == skins[vertex2]
+
+        private inline fun forEachNeighbour(vertex: Int, action: (Int) -> Unit) {
+            val visited = HashSet<Int>()
+            for (face in vertexFaces[vertex]) {
+                if (!faceAlive[face])
+                    continue
+                for (neighbour in intArrayOf(vertices1[face], vertices2[face], vertices3[face])) {
+                    if (neighbour != vertex && visited.add(neighbour))
+                        action(neighbour)
+                }
+            }
+        }
+
+        /**
+         * Evaluates the combined quadric of [from] and [to] at the position of [to].
+         */
+        private fun collapseCost(from: Int, to: Int) : Double {
+            val q = DoubleArray(10) { quadrics[from * 10 + it] + quadrics[to * 10 + it] }
+            val px = x[to]
+            val py = y[to]
+            val pz = z[to]
+            return q[0] * px * px + 2 * q[1] * px * py + 2 * q[2] * px * pz + 2 * q[3] * px +
+                    q[4] * py * py + 2 * q[5] * py * pz + 2 * q[6] * py +
+                    q[7] * pz * pz + 2 * q[8] * pz +
+                    q[9]
+        }
+
+        private fun addFaceQuadric(face: Int) {
+            val v1 = vertices1[face]
+            val cross = cross(v1, vertices2[face], vertices3[face])
+            val length = sqrt(cross[0] * cross[0] + cross[1] * cross[1] + cross[2] * cross[2])
+            if (length == 0.0)
+                return
+            val a = cross[0] / length
+            val b = cross[1] / length
+            val c = cross[2] / length
+            val d = -(a * x[v1] + b * y[v1] + c * z[v1])
+            // weigh each plane by the area of the face
+            val area = length / 2
+            val plane = doubleArrayOf(a * a, a * b, a * c, a * d, b * b, b * c, b * d, c * c, c * d, d * d)
+            for (vertex in intArrayOf(v1, vertices2[face], vertices3[face])) {
+                for (i in 0 until 10)
+                    quadrics[vertex * 10 + i] += plane[i] * area
+            }
+        }
+
+        private fun normal(v1: Int, v2: Int, v3: Int) = cross(v1, v2, v3)
+
+        private fun cross(v1: Int, v2: Int, v3: Int) : DoubleArray {
+            val dx1 = x[v2] - x[v1]
+            val dy1 = y[v2] - y[v1]
+            val dz1 = z[v2] - z[v1]
+            val dx2 = x[v3] - x[v1]
+            val dy2 = y[v3] - y[v1]
+            val dz2 = z[v3] - z[v1]
+            return doubleArrayOf(
+                dy1 * dz2 - dz1 * dy2,
+                dz1 * dx2 - dx1 * dz2,
+                dx1 * dy2 - dy1 * dx2
+            )
+        }
+    }
+
+    private class Candidate(
+        val from: Int,
+        val to: Int,
+        val cost: Double,
+        val stamp: Int
+    ) : Comparable<Candidate> {
+        override fun compareTo(other: Candidate) = cost.compareTo(other.cost)
+    }
+}
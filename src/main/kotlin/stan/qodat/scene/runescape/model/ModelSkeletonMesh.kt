@@ -7,15 +7,22 @@ import javafx.scene.Group
 import javafx.scene.shape.CullFace
 import javafx.scene.shape.DrawMode
 import javafx.scene.shape.MeshView
+import qodat.cache.definition.ModelDefinition
 import stan.qodat.util.setAndBind
 
 /**
- * TODO: add documentation
+ * A [ModelSkin] with a [ModelAtlasMesh] per face group of the [model].
+ *
+ * @param groupGeometries the geometry of each face group, computed from the model definition if `null`,
+ *                        see [createGroupGeometries].
  *
  * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
  * @since   10/02/2021
  */
-class ModelSkeletonMesh(private val model: Model) : ModelSkin {
+class ModelSkeletonMesh(
+    private val model: Model,
+    private val groupGeometries: List<ModelMeshGeometry>? = null
+) : ModelSkin {
 
     private lateinit var group: Group
 
@@ -42,6 +49,17 @@ class ModelSkeletonMesh(private val model: Model) : ModelSkin {
         }
     }
 
+    override fun dispose() {
+        visibleProperty.unbind()
+        drawModeProperty.unbind()
+        cullFaceProperty.unbind()
+        depthTestProperty.unbind()
+        if (this::group.isInitialized) {
+            for (child in group.children)
+                ((child as? MeshView)?.mesh as? ModelSkin)?.dispose()
+        }
+    }
+
     override fun getSceneNode(): Group {
         if (!this::group.isInitialized){
             buildMesh()
@@ -55,15 +73,40 @@ class ModelSkeletonMesh(private val model: Model) : ModelSkin {
      */
     private fun buildMesh() {
 
-        val definition = model.modelDefinition
-
-        definition.computeAnimationTables()
-
         group = Group()
 
-        for (faceGroup in definition.getFaceGroups()?:return){
-            val groupMesh = ModelAtlasMesh(model, faceGroup.toList())
+        for (geometry in groupGeometries ?: createGroupGeometries(model.modelDefinition)){
+            val groupMesh = ModelAtlasMesh(model, geometry)
             group.children.add(groupMesh.getSceneNode())
         }
     }
+
+    companion object {
+
+        /**
+         * Creates the geometry of each face group of the [definition], this does not touch any JavaFX state.
+         *
+         * If a [lod] is specified, each face of the [lod] is put in the group of the face it was simplified from.
+         */
+        fun createGroupGeometries(definition: ModelDefinition, lod: ModelLod? = null) : List<ModelMeshGeometry> {
+            definition.computeAnimationTables()
+            val faceGroups = definition.getFaceGroups() ?: return emptyList()
+            if (lod == null)
+                return faceGroups.map { ModelMeshGeometry.create(definition, faces = it) }
+            val faceGroupOf = IntArray(definition.getFaceCount()) { -1 }
+            for ((group, faces) in faceGroups.withIndex()) {
+                for (face in faces)
+                    faceGroupOf[face] = group
+            }
+            val lodFaceGroups = List(faceGroups.size) { ArrayList<Int>() }
+            for (lodFace in 0 until lod.faceCount) {
+                val group = faceGroupOf[lod.faces[lodFace]]
+                if (group != -1)
+                    lodFaceGroups[group].add(lodFace)
+            }
+            return lodFaceGroups
+                .filter { it.isNotEmpty() }
+                .map { ModelMeshGeometry.create(definition, lod, it.toIntArray()) }
+        }
+    }
 }
\ No newline at end of file
@@ -16,4 +16,10 @@ interface ModelSkin : SceneNodeProvider {
      * @param skeleton the [ModelSkeleton] to retrieve x,y,z values from for each local vertex.
      */
     fun updatePoints(skeleton: ModelSkeleton)
-}
\ No newline at end of file
+
+    /**
+     * Should release everything this skin holds on to, such as bindings to the properties of its [Model],
+     * called on the JavaFX application thread once the skin is no longer used.
+     */
+    fun dispose() {}
+}
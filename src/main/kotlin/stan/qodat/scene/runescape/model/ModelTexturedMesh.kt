@@ -2,162 +2,255 @@ package stan.qodat.scene.runescape.model
 
 import fxyz3d.scene.paint.ColorPalette
 import fxyz3d.shapes.primitives.TexturedMesh
-import fxyz3d.shapes.primitives.helper.MeshHelper
 import fxyz3d.shapes.primitives.helper.TriangleMeshHelper
-import javafx.scene.paint.Color
 import javafx.scene.shape.MeshView
+import javafx.scene.shape.TriangleMesh
 import qodat.cache.definition.ModelDefinition
+import stan.qodat.Properties
 import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
+import stan.qodat.scene.paint.AtlasMaterial
+import stan.qodat.scene.paint.HslPalette
 import stan.qodat.scene.runescape.*
-import stan.qodat.util.ModelUtil
+import stan.qodat.util.IntIntHashMap
 
-class ModelTexturedMesh(private val model: Model) : TexturedMesh(), ModelSkin {
+/**
+ * A [TexturedMesh] that colors each corner of a face with the lit color from [ModelLighting].
+ *
+ * Shaded faces get a color per corner (gouraud), flat faces use the first color for all corners.
+ *
+ * Because a [TriangleMesh] indexes points and tex coords separately, the (position, color) pair of each corner
+ * is welded into a shared point per model vertex and a shared palette entry per unique color,
+ * rather than emitting three unique points per face.
+ *
+ * When [Properties.relightFrames] is enabled, the model is lit again in every pose set through [updatePoints],
+ * only the faces whose lighting changed are welded again and uploaded.
+ * The palette only grows, so it is only rebuilt when a pose produces a color that was not lit before.
+ *
+ * The welded arrays are computed without touching any JavaFX state (see [createGeometry]),
+ * so they can be prepared on another thread, and only be uploaded when the mesh is built.
+ *
+ * @param initialGeometry the geometry of the model definition to build the mesh with,
+ *                        created when the mesh is built if `null`.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   30/01/2021
+ */
+class ModelTexturedMesh(
+    private val model: Model,
+    private var initialGeometry: Geometry? = null
+) : TexturedMesh(), ModelSkin {
+
+    private lateinit var geometry: Geometry
+    private var relit = false
 
-    val vertexMap : MutableMap<Int, Int>
     init {
-        vertexMap = mutableMapOf<Int, Int>()
         sectionType = TriangleMeshHelper.SectionType.TRIANGLE
         textureType = TriangleMeshHelper.TextureType.COLORED_VERTICES_3D
         helper.sectionType = sectionType
         updateMesh()
     }
 
+    override fun updateMesh() {
+        val definition = model.modelDefinition
+        geometry = initialGeometry ?: createGeometry(definition)
+        initialGeometry = null
+        relit = false
+
+        val triangleMesh = TriangleMesh()
+        triangleMesh.points.setAll(*geometry.stagingPoints)
+        triangleMesh.faces.setAll(*geometry.stagingFaces)
+        triangleMesh.faceSmoothingGroups.setAll(*IntArray(definition.getFaceCount()))
+        applyPalette(triangleMesh)
+    }
+
+    /**
+     * The welded arrays of a [ModelTexturedMesh], which keep being updated as the model is relit.
+     *
+     * @param lighting          the lighting of the model.
+     * @param skeletonVertices  maps a local point back to the vertex index of the [ModelSkeleton].
+     * @param stagingPoints     mirrors the coordinates of the points, used to upload all changed coordinates at once.
+     * @param stagingFaces      mirrors the faces, used to upload the tex coord indices of all relit faces at once.
+     */
+    class Geometry(
+        internal val definition: ModelDefinition,
+        internal val lighting: ModelLighting,
+        internal val skeletonVertices: IntArray,
+        internal val stagingPoints: FloatArray,
+        internal val stagingFaces: IntArray
+    ) {
+        internal val paletteSlots = IntIntHashMap(64)
+        internal var paletteKeys = IntArray(64)
+
+        /**
+         * Sets the tex coord indices of the [face] in [stagingFaces] to the palette entries of its lit colors.
+         */
+        internal fun weldColors(face: Int) {
+            val alpha = definition.getFaceAlphas()?.get(face) ?: 0
+            val type = definition.getFaceTypes()?.get(face)?.toInt() ?: RENDER_SHADED_TRIANGLE
+            val color1 = weldColor(lighting.colors1[face], alpha)
+            val offset = face * 6
+            stagingFaces[offset + 1] = color1
+            // same check as in ModelLighting, only odd types are flat
+            if (type and 1 == 0) {
+                stagingFaces[offset + 3] = weldColor(lighting.colors2[face], alpha)
+                stagingFaces[offset + 5] = weldColor(lighting.colors3[face], alpha)
+            } else {
+                stagingFaces[offset + 3] = color1
+                stagingFaces[offset + 5] = color1
+            }
+        }
+
+        private fun weldColor(color: Int, alpha: Byte) : Int {
+            val key = AtlasMaterial.pack(color.toShort(), alpha)
+            val slot = paletteSlots.getOrPutIndex(key)
+            if (slot == paletteKeys.size)
+                paletteKeys = paletteKeys.copyOf(paletteKeys.size * 2)
+            paletteKeys[slot] = key
+            return slot
+        }
+    }
+
     companion object {
+
+        /**
+         * Lights the [definition] and welds its vertices and lit colors.
+         */
+        fun createGeometry(definition: ModelDefinition) : Geometry {
+            val faceCount = definition.getFaceCount()
+            val localVertices = IntIntHashMap(definition.getVertexCount())
+            var skeletonVertices = IntArray(definition.getVertexCount())
+            val stagingFaces = IntArray(faceCount * 6)
+
+            fun weldVertex(vertex: Int) : Int {
+                val local = localVertices.getOrPutIndex(vertex)
+                skeletonVertices[local] = vertex
+                return local
+            }
+
+            for (face in 0 until faceCount) {
+                val (v1, v2, v3) = definition.getVertices(face)
+                val offset = face * 6
+                stagingFaces[offset] = weldVertex(v1)
+                stagingFaces[offset + 2] = weldVertex(v2)
+                stagingFaces[offset + 4] = weldVertex(v3)
+            }
+
+            val pointCount = localVertices.size
+            skeletonVertices = skeletonVertices.copyOf(pointCount)
+            val stagingPoints = FloatArray(pointCount * 3)
+            for (local in 0 until pointCount) {
+                val vertex = skeletonVertices[local]
+                stagingPoints[local * 3] = definition.getX(vertex).toFloat()
+                stagingPoints[local * 3 + 1] = definition.getY(vertex).toFloat()
+                stagingPoints[local * 3 + 2] = definition.getZ(vertex).toFloat()
+            }
+
+            val geometry = Geometry(definition, ModelLighting(definition), skeletonVertices, stagingPoints, stagingFaces)
+            for (face in 0 until faceCount)
+                geometry.weldColors(face)
+            return geometry
+        }
+
         @JvmStatic
         fun main(args: Array<String>) {
             val npc = OldschoolCacheRuneLite.npcManager.npcs.find { it.name.contains("abyssal demon", true) }!!
             val model = OldschoolCacheRuneLite.getModelDefinition(npc.models.first().toString())
 
-            model.draw(false)
+            model.draw(Rasterizer3D(512, 512), false)
 
 
         }
     }
 
-    data class Vertex(val x: Int, val y: Int, val z: Int, val face: Int)
-
-    override fun updateMesh() {
-        val definition = model.modelDefinition
-
-        val (colors1, colors2, colors3) = definition.calculateFaceColors(
-            brightnessOffset = 64,
-            shadowModifier = 850,
-            sizeX = -30,
-            sizeY = -50,
-            sizeZ = -30,
-            shade = true
-        )
-        val uniqueColorHSBValues = (colors1 + colors2 + colors3).toSet().toList()
-        val uniqueColors = uniqueColorHSBValues.map { ModelUtil.hsbToColor(it, null) }
-
-        val meshHelper = MeshHelper()
-        val faceCount = definition.getFaceCount()
-        val f = FloatArray(faceCount * 3)
-        val points = FloatArray(faceCount * 9)
-        val faces = IntArray(faceCount * 6)
-        val faceSmoothinGroups = IntArray(faceCount)
-        var vi = 0
-        var pi = 0
-        var fi = 0
-        var gi = 0
-        for (face in 0 until faceCount) {
-            val (v1, v2, v3) = definition.getVertices(face)
-            f[vi++] = face.toFloat()
-            f[vi++] = face.toFloat()
-            f[vi++] = face.toFloat()
-            val v1Onset = addVertex(pi, points, definition, v1)
-            pi += 3
-            val v2Onset = addVertex(pi, points, definition, v2)
-            pi += 3
-            val v3Onset = addVertex(pi, points, definition, v3)
-            pi += 3
-            faces[fi++] = v1Onset
-            faces[fi++] = 0
-            faces[fi++] = v2Onset
-            faces[fi++] = 0
-            faces[fi++] = v3Onset
-            faces[fi++] = 0
-
-            faceSmoothinGroups[gi++] = 0
-        }
-        meshHelper.points = points
-        meshHelper.f = f
-        meshHelper.faceSmoothingGroups = faceSmoothinGroups
-        meshHelper.faces = faces
-
-        val pointColorIndexMap = HashMap<Vertex, Int>()
-        var idx = 0
-        val colors = arrayOfNulls<Color>(definition.getFaceCount() * 3)
-        for (face in 0 until definition.getFaceCount()) {
-            val alpha = definition.getFaceAlphas()?.get(face)
-            val type = definition.getFaceTypes()?.get(face)?.toInt()?.let { it and 3 } ?: 0
-            val (p1, p2, p3) = definition.getPoints(face)
-            val v1 = Vertex(p1.first, p1.second, p1.third, face)
-            val v2 = Vertex(p2.first, p2.second, p2.third, face)
-            val v3 = Vertex(p3.first, p3.second, p3.third, face)
-//            assert(!pointColorIndexMap.containsKey(v1))
-//            assert(!pointColorIndexMap.containsKey(v2))
-//            assert(!pointColorIndexMap.containsKey(v3))
-
-            if (type == RENDER_SHADED_TRIANGLE) {
-                pointColorIndexMap[v1] = idx
-                colors[idx++] = ModelUtil.hsbToColor(colors1[face], alpha)
-                pointColorIndexMap[v2] = idx
-                colors[idx++] = ModelUtil.hsbToColor(colors2[face], alpha)
-                pointColorIndexMap[v3] = idx
-                colors[idx++] = ModelUtil.hsbToColor(colors3[face], alpha)
-            } else if (type == RENDER_FLAT_TRIANGLE) {
-                pointColorIndexMap[v1] = idx
-                colors[idx++] = ModelUtil.hsbToColor(colors1[face], alpha)
-                pointColorIndexMap[v2] = idx
-                colors[idx++] = ModelUtil.hsbToColor(colors1[face], alpha)
-                pointColorIndexMap[v3] = idx
-                colors[idx++] = ModelUtil.hsbToColor(colors1[face], alpha)
-            }
-        }
-        // Face3{p0=41, p1=50, p2=51}
+    /**
+     * Creates the palette texture of all welded colors, and (re)attaches the [triangleMesh] with its tex coords.
+     */
+    private fun applyPalette(triangleMesh: TriangleMesh) {
+        val colors = Array(geometry.paletteSlots.size) { HslPalette.color(geometry.paletteKeys[it]) }
         val palette = object : ColorPalette {
             override fun getNumColors() = colors.size
-            override fun getColor(i: Int) = colors[i]!!
+            override fun getColor(i: Int) = colors[i]
         }
 
-        setTextureModeVertices3D(palette) { point3F ->
-            val key = Vertex(point3F.x.toInt(), point3F.y.toInt(), point3F.z.toInt(), point3F.f.toInt())
-            val colorIndex = pointColorIndexMap[key]!!
-            colorIndex
-        }
+        // detach the previous mesh, so the palette listeners of the helper do not rewrite its faces
+        mesh = null
+        setTextureModeVertices3D(palette) { 0 }
 
-
-        updateMesh(meshHelper)
+        triangleMesh.texCoords.setAll(*helper.texturePaletteArray)
+        mesh = triangleMesh
+        setMesh(triangleMesh)
     }
 
+    /**
+     * Compares each vertex coordinate from the [skeleton] to the staged points,
+     * and uploads the range from the first to the last changed coordinate in a single call.
+     */
+    override fun updatePoints(skeleton: ModelSkeleton) {
+        val triangleMesh = mesh ?: return
+        val points = triangleMesh.points
+        val staging = geometry.stagingPoints
+        val xs = skeleton.getPointXValues()
+        val ys = skeleton.getPointYValues()
+        val zs = skeleton.getPointZValues()
+        var dirtyStart = Int.MAX_VALUE
+        var dirtyEnd = -1
+        val skeletonVertices = geometry.skeletonVertices
+        for (local in skeletonVertices.indices) {
+            val vertex = skeletonVertices[local]
+            val x = xs[vertex].toFloat()
+            val y = ys[vertex].toFloat()
+            val z = zs[vertex].toFloat()
+            val offset = local * 3
+            if (staging[offset] != x || staging[offset + 1] != y || staging[offset + 2] != z) {
+                staging[offset] = x
+                staging[offset + 1] = y
+                staging[offset + 2] = z
+                if (offset < dirtyStart)
+                    dirtyStart = offset
+                dirtyEnd = offset + 3
+            }
+        }
+        if (dirtyEnd != -1)
+            points.set(dirtyStart, staging, dirtyStart, dirtyEnd - dirtyStart)
 
-    private fun addVertex(
-        pi: Int,
-        points: FloatArray,
-        definition: ModelDefinition,
-        index: Int
-    ): Int {
-        val onset = pi / 3
-        points[pi] = definition.getX(index).toFloat()
-        points[pi + 1] = definition.getY(index).toFloat()
-        points[pi + 2] = definition.getZ(index).toFloat()
-        return onset
+        if (Properties.relightFrames.get()) {
+            relight(triangleMesh, xs, ys, zs)
+            relit = true
+        } else if (relit) {
+            val definition = model.modelDefinition
+            relight(triangleMesh,
+                definition.getVertexPositionsX(), definition.getVertexPositionsY(), definition.getVertexPositionsZ())
+            relit = false
+        }
     }
 
-    override fun updatePoints(skeleton: ModelSkeleton) {
-        val points = mesh.points
-        for((vertex, localVertex) in vertexMap){
-            val x = skeleton.getX(vertex).toFloat()
-            val y = skeleton.getY(vertex).toFloat()
-            val z = skeleton.getZ(vertex).toFloat()
-            (localVertex * 3 ).let { if (points.get(it) != x) points.set(it, x) }
-            (localVertex * 3 + 1).let { if (points.get(it) != y) points.set(it, y) }
-            (localVertex * 3 + 2).let { if (points.get(it) != z) points.set(it, z) }
+    /**
+     * Lights the model in the pose of the specified vertex positions, and uploads the range
+     * from the first to the last relit face in a single call.
+     */
+    private fun relight(triangleMesh: TriangleMesh, xs: IntArray, ys: IntArray, zs: IntArray) {
+        val lighting = geometry.lighting
+        val changedCount = lighting.update(xs, ys, zs)
+        if (changedCount == 0)
+            return
+        val changedFaces = lighting.changedFaces
+        val paletteSize = geometry.paletteSlots.size
+        var firstFace = Int.MAX_VALUE
+        var lastFace = -1
+        for (index in 0 until changedCount) {
+            val face = changedFaces[index]
+            geometry.weldColors(face)
+            if (face < firstFace)
+                firstFace = face
+            if (face > lastFace)
+                lastFace = face
         }
+        if (geometry.paletteSlots.size != paletteSize)
+            applyPalette(triangleMesh)
+        triangleMesh.faces.set(firstFace * 6, geometry.stagingFaces, firstFace * 6, (lastFace - firstFace + 1) * 6)
     }
 
     override fun getSceneNode(): MeshView {
         return this
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package stan.qodat.scene.runescape.model
+
+import javafx.application.Platform
+import javafx.beans.InvalidationListener
+import javafx.beans.WeakInvalidationListener
+import javafx.scene.Group
+import javafx.scene.transform.NonInvertibleTransformException
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.SubScene3D
+
+/**
+ * A [ModelSkin] that draws the transparent faces of a [model] in the order the RuneScape client draws them.
+ *
+ * JavaFX draws the triangles of a mesh in the order they are defined in,
+ * so alpha blended faces inside a single atlas mesh blend in arbitrary order.
+ * This skin draws all opaque faces in one [ModelAtlasMesh] first,
+ * followed by a second [ModelAtlasMesh] containing only the transparent faces,
+ * sorted by priority band (ascending) and then by depth (back to front).
+ *
+ * The transparent faces are only sorted again when the pose of the [model],
+ * the transform of the model or the camera changes, and at most once per pulse.
+ *
+ * @param geometries the geometry of the opaque and of the transparent faces, see [createGeometries].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class ModelTransparencySkin(
+    private val model: Model,
+    geometries: Geometries = createGeometries(model.modelDefinition)
+) : ModelSkin {
+
+    private val definition = model.modelDefinition
+    private val transparentGeometry = geometries.transparent
+    private val transparentFaces = transparentGeometry.modelFaces
+    private val opaqueMesh: ModelAtlasMesh?
+    private val transparentMesh: ModelAtlasMesh
+    private val group = Group()
+
+    private val sortKeys: LongArray
+    private val sortedOrder: IntArray
+    private var sortScheduled = false
+
+    private val orderInvalidationListener = InvalidationListener { invalidateOrder() }
+    private val weakOrderInvalidationListener = WeakInvalidationListener(orderInvalidationListener)
+
+    init {
+        opaqueMesh = geometries.opaque?.let { ModelAtlasMesh(model, it) }
+        transparentMesh = ModelAtlasMesh(model, transparentGeometry)
+        sortKeys = LongArray(transparentFaces.size)
+        sortedOrder = IntArray(transparentFaces.size)
+
+        if (opaqueMesh != null)
+            group.children.add(opaqueMesh.getSceneNode())
+        val transparentView = transparentMesh.getSceneNode()
+        group.children.add(transparentView)
+        transparentView.localToSceneTransformProperty().addListener(orderInvalidationListener)
+        transparentView.sceneProperty().addListener { _, _, scene ->
+            val cameraTransform = SubScene3D.cameraHandler.camera.localToSceneTransformProperty()
+            if (scene != null) {
+                cameraTransform.addListener(weakOrderInvalidationListener)
+                invalidateOrder()
+            } else
+                cameraTransform.removeListener(weakOrderInvalidationListener)
+        }
+    }
+
+    override fun getSceneNode() = group
+
+    override fun updatePoints(skeleton: ModelSkeleton) {
+        opaqueMesh?.updatePoints(skeleton)
+        transparentMesh.updatePoints(skeleton)
+        invalidateOrder()
+    }
+
+    override fun dispose() {
+        opaqueMesh?.dispose()
+        transparentMesh.dispose()
+    }
+
+    fun getMeshes() : List<ModelAtlasMesh> = listOfNotNull(opaqueMesh, transparentMesh)
+
+    fun rebuildAtlas() {
+        opaqueMesh?.rebuildAtlas()
+        transparentMesh.rebuildAtlas()
+    }
+
+    /**
+     * Schedules the transparent faces to be sorted in the next pulse,
+     * so that a camera and a pose change in the same pulse only result in a single sort.
+     */
+    private fun invalidateOrder() {
+        if (sortScheduled)
+            return
+        sortScheduled = true
+        Platform.runLater {
+            sortScheduled = false
+            sortTransparentFaces()
+        }
+    }
+
+    /**
+     * Sorts the transparent faces by priority, and faces of the same priority by the depth of their centre
+     * in camera space from far to near, using a single primitive sort of packed keys.
+     *
+     * Each key holds the priority in the highest bits, followed by the order-preserving bits of the negated depth,
+     * followed by the index of the face in [transparentFaces].
+     */
+    private fun sortTransparentFaces() {
+        val meshView = transparentMesh.getSceneNode()
+        if (meshView.scene == null || transparentFaces.isEmpty())
+            return
+        val toCamera = try {
+            SubScene3D.cameraHandler.camera.localToSceneTransform.createInverse()
+                .createConcatenation(meshView.localToSceneTransform)
+        } catch (e: NonInvertibleTransformException) {
+            return
+        }
+        val mzx = toCamera.mzx
+        val mzy = toCamera.mzy
+        val mzz = toCamera.mzz
+        val tz = toCamera.tz
+        val xs = model.getPointXValues()
+        val ys = model.getPointYValues()
+        val zs = model.getPointZValues()
+        val triangles = transparentGeometry.triangles
+        val skeletonVertices = transparentGeometry.skeletonVertices
+        val priorities = definition.getFacePriorities()
+        val defaultPriority = definition.getPriority().toLong() and 0xFF
+        for ((index, face) in transparentFaces.withIndex()) {
+            val v1 = skeletonVertices[triangles[index * 3]]
+            val v2 = skeletonVertices[triangles[index * 3 + 1]]
+            val v3 = skeletonVertices[triangles[index * 3 + 2]]
+            val x = (xs[v1] + xs[v2] + xs[v3]) / 3.0
+            val y = (ys[v1] + ys[v2] + ys[v3]) / 3.0
+            val z = (zs[v1] + zs[v2] + zs[v3]) / 3.0
+            val depth = (mzx * x + mzy * y + mzz * z + tz).toFloat()
+            val priority = priorities?.get(face)?.toLong()?.and(0xFF) ?: defaultPriority
+            sortKeys[index] = (priority shl PRIORITY_SHIFT) or
+                    (toSortableBits(-depth) shl DEPTH_SHIFT) or
+                    index.toLong()
+        }
+        sortKeys.sort()
+        var changed = false
+        for ((triangle, key) in sortKeys.withIndex()) {
+            val index = (key and INDEX_MASK).toInt()
+            if (sortedOrder[triangle] != index) {
+                sortedOrder[triangle] = index
+                changed = true
+            }
+        }
+        if (changed)
+            transparentMesh.sortFaces(sortedOrder.copyOf())
+    }
+
+    /**
+     * The geometry of the [opaque] faces (`null` if there are none) and of the [transparent] faces of a model.
+     */
+    class Geometries(val opaque: ModelMeshGeometry?, val transparent: ModelMeshGeometry)
+
+    companion object {
+
+        private const val PRIORITY_SHIFT = 52
+        private const val DEPTH_SHIFT = 20
+        private const val INDEX_MASK = (1L shl DEPTH_SHIFT) - 1
+
+        /**
+         * Splits the faces of the [definition] (or of the [lod] if specified) into opaque and transparent faces,
+         * this does not touch any JavaFX state.
+         */
+        fun createGeometries(definition: ModelDefinition, lod: ModelLod? = null) : Geometries {
+            val faceCount = lod?.faceCount ?: definition.getFaceCount()
+            val transparent = BooleanArray(faceCount) { isTransparent(definition, lod?.faces?.get(it) ?: it) }
+            val opaqueFaces = (0 until faceCount).filter { !transparent[it] }.toIntArray()
+            val transparentFaces = (0 until faceCount).filter { transparent[it] }.toIntArray()
+            return Geometries(
+                opaque = if (opaqueFaces.isEmpty()) null else ModelMeshGeometry.create(definition, lod, opaqueFaces),
+                transparent = ModelMeshGeometry.create(definition, lod, transparentFaces)
+            )
+        }
+
+        /**
+         * @return `true` if the [definition] has any faces that are not fully opaque.
+         */
+        fun hasTransparentFaces(definition: ModelDefinition) =
+            (0 until definition.getFaceCount()).any { isTransparent(definition, it) }
+
+        private fun isTransparent(definition: ModelDefinition, face: Int) =
+            (definition.getFaceAlphas()?.get(face)?.toInt() ?: 0) != 0
+
+        /**
+         * Maps the [value] to an unsigned 32-bit int with the same ordering as the float.
+         */
+        internal fun toSortableBits(value: Float) : Long {
+            val bits = java.lang.Float.floatToIntBits(value)
+            val ordered = if (bits < 0) bits.inv() else bits or Int.MIN_VALUE
+            return ordered.toLong() and 0xFFFFFFFFL
+        }
+    }
+}
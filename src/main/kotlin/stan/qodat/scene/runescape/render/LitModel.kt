@@ -0,0 +1,178 @@
+package stan.qodat.scene.runescape.render
+
+import qodat.cache.Cache
+import qodat.cache.definition.ModelDefinition
+import stan.qodat.scene.runescape.DEFAULT_TEXTURE_HSL
+import stan.qodat.scene.runescape.ModelLighting
+import stan.qodat.scene.runescape.RENDER_FLAT_TRIANGLE
+import stan.qodat.scene.runescape.RENDER_SHADED_TRIANGLE
+import stan.qodat.scene.runescape.applyTextureLighting
+
+/**
+ * A [ModelDefinition] lit the way the client lights models (see [ModelLighting]),
+ * holding for each face the HSL color of each corner and how it should be drawn.
+ *
+ * Like in the client the lighting is computed once from the original pose and reused for every pose of the model,
+ * so a [LitModel] can be shared by any number of [OffscreenRenderer]s.
+ * A model can also be lit in another pose with [relight], which only recolors the faces affected by the new pose,
+ * but then it must not be shared by renderers on other threads.
+ *
+ * @param textureColors gets the RGB color textured faces of the texture with the given id are drawn in,
+ *                      or `null` if unknown, see [textureColorsOf].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class LitModel(
+    val definition: ModelDefinition,
+    textureColors: (Int) -> Int? = { null }
+) {
+
+    val faceCount = definition.getFaceCount()
+
+    /**
+     * For each face, either [RENDER_SHADED_TRIANGLE] or [RENDER_FLAT_TRIANGLE].
+     */
+    val renderTypes = ByteArray(faceCount)
+
+    val colors1 = IntArray(faceCount)
+    val colors2 = IntArray(faceCount)
+    val colors3 = IntArray(faceCount)
+
+    /**
+     * For each face, the alpha the rasterizer blends it with (0 is opaque).
+     */
+    val alphas = IntArray(faceCount)
+
+    val priorities = IntArray(faceCount)
+
+    private val lighting = ModelLighting(definition)
+
+    /**
+     * For each face, the HSL color of its texture, or -1 if the face is not textured.
+     */
+    private val textureHsls = IntArray(faceCount)
+
+    init {
+        val types = definition.getFaceTypes()
+        val textures = definition.getFaceTextures()
+        val faceAlphas = definition.getFaceAlphas()
+        val facePriorities = definition.getFacePriorities()
+        val hslOfTexture = HashMap<Int, Int>()
+        for (face in 0 until faceCount) {
+            val flat = (types?.get(face)?.toInt() ?: 0) and 1 == 1
+            val texture = textures?.get(face)?.toInt() ?: -1
+            renderTypes[face] = (if (flat) RENDER_FLAT_TRIANGLE else RENDER_SHADED_TRIANGLE).toByte()
+            textureHsls[face] = if (texture == -1) -1 else hslOfTexture.getOrPut(texture) {
+                textureColors(texture)?.let(::rgbToHsl) ?: DEFAULT_TEXTURE_HSL
+            }
+            updateColors(face)
+            alphas[face] = faceAlphas?.get(face)?.toInt()?.and(0xFF) ?: 0
+            priorities[face] = facePriorities?.get(face)?.toInt()?.and(0xFF) ?: (definition.getPriority().toInt() and 0xFF)
+        }
+    }
+
+    /**
+     * Lights the model in the pose of the specified vertex positions,
+     * only the colors of the faces whose lighting changed since the previous pose are updated.
+     *
+     * @return the number of faces whose colors changed.
+     */
+    fun relight(positionsX: IntArray, positionsY: IntArray, positionsZ: IntArray) : Int {
+        val changedCount = lighting.update(positionsX, positionsY, positionsZ)
+        val changedFaces = lighting.changedFaces
+        for (index in 0 until changedCount)
+            updateColors(changedFaces[index])
+        return changedCount
+    }
+
+    private fun updateColors(face: Int) {
+        val flat = renderTypes[face].toInt() == RENDER_FLAT_TRIANGLE
+        var hsl1 = lighting.colors1[face]
+        var hsl2 = if (flat) hsl1 else lighting.colors2[face]
+        var hsl3 = if (flat) hsl1 else lighting.colors3[face]
+        val textureHsl = textureHsls[face]
+        if (textureHsl != -1) {
+            hsl1 = applyTextureLighting(textureHsl, hsl1)
+            hsl2 = applyTextureLighting(textureHsl, hsl2)
+            hsl3 = applyTextureLighting(textureHsl, hsl3)
+        }
+        colors1[face] = hsl1
+        colors2[face] = hsl2
+        colors3[face] = hsl3
+    }
+
+    companion object {
+
+        /**
+         * Creates a function getting the average RGB color of a texture in the [cache],
+         * the average of each texture is computed once.
+         *
+         * The function may be called from any thread, the [cache] is not thread-safe,
+         * so textures are read from it while holding its lock (like [BatchRenderer][stan.qodat.scene.runescape.render.batch.BatchRenderer] does).
+         */
+        fun textureColorsOf(cache: Cache) : (Int) -> Int? {
+            val averages = HashMap<Int, Int?>()
+            return textureColors@{ texture ->
+                synchronized(averages) {
+                    if (averages.containsKey(texture))
+                        return@textureColors averages[texture]
+                }
+                // computed outside the lock of the averages, so the locks are never held together
+                val average = try {
+                    averageRgb(synchronized(cache) { cache.getTexture(texture).pixels })
+                } catch (e: Exception) {
+                    null
+                }
+                synchronized(averages) { averages.getOrPut(texture) { average } }
+            }
+        }
+
+        private fun averageRgb(pixels: IntArray) : Int? {
+            var red = 0L
+            var green = 0L
+            var blue = 0L
+            var count = 0
+            for (pixel in pixels) {
+                if (pixel and 0xFFFFFF == 0)
+                    continue
+                red += pixel shr 16 and 0xFF
+                green += pixel shr 8 and 0xFF
+                blue += pixel and 0xFF
+                count++
+            }
+            if (count == 0)
+                return null
+            return ((red / count).toInt() shl 16) or ((green / count).toInt() shl 8) or (blue / count).toInt()
+        }
+
+        /**
+         * Wraps the [definition] so that faces with a color in [findColor] have the color
+         * at the same index in [replaceColor] instead, the way entity definitions recolor their models.
+         */
+        fun recolor(definition: ModelDefinition, findColor: ShortArray?, replaceColor: ShortArray?) : ModelDefinition {
+            if (findColor == null || replaceColor == null)
+                return definition
+            val colors = definition.getFaceColors().copyOf()
+            for (face in colors.indices) {
+                for (index in findColor.indices) {
+                    if (findColor[index] == colors[face])
+                        colors[face] = replaceColor[index]
+                }
+            }
+            return object : ModelDefinition by definition {
+                override fun getFaceColors() = colors
+            }
+        }
+
+        /**
+         * Converts an RGB color to the 16-bit HSL format of the client (6 bits hue, 3 bits saturation, 7 bits lightness).
+         */
+        fun rgbToHsl(rgb: Int) : Int {
+            val hsb = java.awt.Color.RGBtoHSB(rgb shr 16 and 0xFF, rgb shr 8 and 0xFF, rgb and 0xFF, null)
+            return (hsb[0] * 63).toInt().shl(10) +
+                    (hsb[1] * 7).toInt().shl(7) +
+                    (hsb[2] * 127).toInt()
+        }
+    }
+}
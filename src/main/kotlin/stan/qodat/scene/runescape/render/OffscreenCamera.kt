@@ -0,0 +1,106 @@
+package stan.qodat.scene.runescape.render
+
+import qodat.animation.PoseBounds
+import kotlin.math.max
+
+/**
+ * The camera of an [OffscreenRenderer], orbiting a target point in model space like the client's camera.
+ *
+ * The angles are in client units, where 2048 units make a full turn.
+ *
+ * @param yaw       the rotation around the y-axis (after the [roll]).
+ * @param pitch     the rotation around the x-axis (after the [yaw] and offsets), positive values look down on the model.
+ * @param distance  the distance of the camera to the target.
+ * @param zoom      the distance of the projection plane to the camera in pixels,
+ *                  a higher value results in a narrower field of view.
+ * @param roll      the rotation of the model around the z-axis.
+ * @param offsetX   the translation of the model along the x-axis after the [yaw].
+ * @param offsetY   the translation of the model along the y-axis after the [yaw].
+ * @param offsetZ   the translation of the model along the z-axis after the [yaw].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+data class OffscreenCamera(
+    val targetX: Int = 0,
+    val targetY: Int = 0,
+    val targetZ: Int = 0,
+    val yaw: Int = 0,
+    val pitch: Int = DEFAULT_PITCH,
+    val distance: Int = 1000,
+    val zoom: Int = DEFAULT_ZOOM,
+    val roll: Int = 0,
+    val offsetX: Int = 0,
+    val offsetY: Int = 0,
+    val offsetZ: Int = 0
+) {
+
+    companion object {
+
+        const val DEFAULT_PITCH = 128
+        const val DEFAULT_ZOOM = 512
+
+        /**
+         * The height of an item sprite in the inventory of the client.
+         */
+        const val INVENTORY_SIZE = 32
+
+        /**
+         * Creates a camera looking at the centre of the [bounds] from a distance at which
+         * the bounding sphere fits in an image of [width] by [height] pixels, with [padding] pixels to spare.
+         */
+        fun framing(
+            bounds: PoseBounds,
+            width: Int,
+            height: Int,
+            yaw: Int = 0,
+            pitch: Int = DEFAULT_PITCH,
+            zoom: Int = DEFAULT_ZOOM,
+            padding: Int = 4
+        ) : OffscreenCamera {
+            if (bounds.isEmpty())
+                return OffscreenCamera(yaw = yaw, pitch = pitch, zoom = zoom)
+            val halfSize = max(1, minOf(width, height) / 2 - padding)
+            val radius = max(1.0, bounds.radius)
+            return OffscreenCamera(
+                targetX = bounds.centerX.toInt(),
+                targetY = bounds.centerY.toInt(),
+                targetZ = bounds.centerZ.toInt(),
+                yaw = yaw,
+                pitch = pitch,
+                distance = (radius * zoom / halfSize + radius).toInt(),
+                zoom = zoom
+            )
+        }
+
+        /**
+         * Creates a camera that positions a model like the client does for its item sprites,
+         * scaled from an [INVENTORY_SIZE] sprite to an image of [width] by [height] pixels.
+         *
+         * @param modelHeight the height of the model above its origin (the negated minimum y coordinate).
+         * @param zoom2d      the distance of the camera to the model.
+         * @param offsetX2d   the translation of the model along the x-axis.
+         * @param offsetY2d   the translation of the model along the y-axis and the z-axis.
+         */
+        fun inventory(
+            modelHeight: Int,
+            width: Int,
+            height: Int,
+            yaw: Int,
+            pitch: Int,
+            roll: Int,
+            zoom2d: Int,
+            offsetX2d: Int,
+            offsetY2d: Int
+        ) = OffscreenCamera(
+            yaw = yaw,
+            pitch = pitch,
+            distance = zoom2d,
+            zoom = DEFAULT_ZOOM * minOf(width, height) / INVENTORY_SIZE,
+            roll = roll,
+            offsetX = offsetX2d,
+            offsetY = modelHeight / 2 + offsetY2d,
+            offsetZ = offsetY2d
+        )
+    }
+}
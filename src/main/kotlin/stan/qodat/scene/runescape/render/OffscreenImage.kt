@@ -0,0 +1,56 @@
+package stan.qodat.scene.runescape.render
+
+import java.awt.image.BufferedImage
+import java.io.File
+import javax.imageio.ImageIO
+
+/**
+ * An image produced by an [OffscreenRenderer].
+ *
+ * Every pixel is an RGB color, 0 marks a pixel that no face was drawn to
+ * (the rasterizer never produces pure black, see [stan.qodat.scene.paint.HslPalette.clientPalette]).
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class OffscreenImage(
+    val width: Int,
+    val height: Int,
+    val pixels: IntArray
+) {
+
+    /**
+     * Creates an ARGB [BufferedImage] of this image, pixels that were not drawn to are fully transparent,
+     * or filled with the [background] RGB color if specified.
+     */
+    fun toBufferedImage(background: Int? = null) : BufferedImage {
+        val argb = toArgb(background)
+        val image = BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+        image.setRGB(0, 0, width, height, argb, 0, width)
+        return image
+    }
+
+    /**
+     * Gets the ARGB colors of the pixels of this image, pixels that were not drawn to are fully transparent,
+     * or have the [background] RGB color if specified.
+     */
+    fun toArgb(background: Int? = null) = IntArray(pixels.size) {
+        val rgb = pixels[it]
+        when {
+            rgb != 0 -> rgb or OPAQUE
+            background != null -> background or OPAQUE
+            else -> 0
+        }
+    }
+
+    /**
+     * Writes this image to the [file] as a PNG.
+     */
+    fun writePng(file: File, background: Int? = null) {
+        ImageIO.write(toBufferedImage(background), "png", file)
+    }
+
+    private companion object {
+        const val OPAQUE = 0xFF shl 24
+    }
+}
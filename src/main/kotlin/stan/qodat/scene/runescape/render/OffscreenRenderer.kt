@@ -0,0 +1,215 @@
+package stan.qodat.scene.runescape.render
+
+import qodat.animation.AnimationEvaluator
+import qodat.animation.AnimationSequence
+import stan.qodat.scene.runescape.Rasterizer3D
+import stan.qodat.scene.runescape.drawTriangle
+
+/**
+ * Renders models into an `int[]` framebuffer with the software [Rasterizer3D], the way the client renders them.
+ *
+ * For every render the vertices are rotated around the [camera target][OffscreenCamera] and projected,
+ * back faces and faces crossing the near plane are culled, and the remaining faces are drawn with [drawTriangle]
+ * in the order of the client's painter's algorithm (see [PainterSort]).
+ *
+ * This does not depend on JavaFX, so it also runs on a headless machine.
+ *
+ * Every renderer draws into a [Rasterizer3D] of its own, so separate renderers can render on separate threads,
+ * but a single renderer must not be used by multiple threads at once.
+ *
+ * A [parallel] renderer draws into a [TiledRaster] instead, rasterizing its tiles on multiple threads,
+ * which produces the same pixels, but is faster for large images of detailed models.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class OffscreenRenderer(
+    val width: Int,
+    val height: Int,
+    private val cullBackFaces: Boolean = true,
+    val parallel: Boolean = false
+) {
+
+    private val rasterizer = Rasterizer3D(width, height).apply { changeBrightness(BRIGHTNESS) }
+    private val tiledRaster = if (parallel) TiledRaster(width, height, brightness = BRIGHTNESS) else null
+
+    private var screenX = IntArray(0)
+    private var screenY = IntArray(0)
+    private var viewZ = IntArray(0)
+    private var visibleFaces = IntArray(0)
+    private var faceDepths = IntArray(0)
+    private val painterSort = PainterSort()
+
+    /**
+     * Renders the [model] in the pose of the specified vertex positions (the original pose by default).
+     */
+    fun render(
+        model: LitModel,
+        camera: OffscreenCamera,
+        positionsX: IntArray = model.definition.getVertexPositionsX(),
+        positionsY: IntArray = model.definition.getVertexPositionsY(),
+        positionsZ: IntArray = model.definition.getVertexPositionsZ()
+    ) : OffscreenImage {
+        project(camera, positionsX, positionsY, positionsZ, model.definition.getVertexCount())
+        val faceCount = sortFaces(model)
+        if (tiledRaster != null)
+            return renderTiled(tiledRaster, model, faceCount)
+        rasterizer.clear()
+        val order = painterSort.order
+        for (index in 0 until faceCount)
+            rasterizer.drawFace(model, order[index])
+        rasterizer.alpha = 0
+        return OffscreenImage(width, height, rasterizer.Rasterizer2D_pixels.copyOf())
+    }
+
+    private fun renderTiled(raster: TiledRaster, model: LitModel, faceCount: Int) : OffscreenImage {
+        val definition = model.definition
+        val vertices1 = definition.getFaceVertexIndices1()
+        val vertices2 = definition.getFaceVertexIndices2()
+        val vertices3 = definition.getFaceVertexIndices3()
+        val order = painterSort.order
+        raster.clear()
+        for (index in 0 until faceCount) {
+            val face = order[index]
+            val y1 = screenY[vertices1[face]]
+            val y2 = screenY[vertices2[face]]
+            val y3 = screenY[vertices3[face]]
+            raster.bin(index, minOf(y1, y2, y3), maxOf(y1, y2, y3))
+        }
+        raster.rasterize { index ->
+            drawFace(model, order[index])
+        }
+        return OffscreenImage(width, height, raster.pixels.copyOf())
+    }
+
+    /**
+     * Renders every frame of the [sequence] applied to the [model].
+     *
+     * @param relight should the [model] be [lit again][LitModel.relight] in the pose of each frame,
+     *                rather than keeping the lighting of its original pose like the client does.
+     *                The model is lit in its original pose again afterwards.
+     */
+    fun renderAnimation(
+        model: LitModel,
+        sequence: AnimationSequence,
+        camera: OffscreenCamera,
+        relight: Boolean = false
+    ) : List<OffscreenImage> {
+        val evaluator = AnimationEvaluator(model.definition)
+        val images = List(sequence.frameCount) { frameIndex ->
+            val deformer = evaluator.evaluateFrame(sequence, frameIndex)
+            if (relight)
+                model.relight(deformer.positionsX, deformer.positionsY, deformer.positionsZ)
+            render(model, camera, deformer.positionsX, deformer.positionsY, deformer.positionsZ)
+        }
+        if (relight) {
+            val definition = model.definition
+            model.relight(definition.getVertexPositionsX(), definition.getVertexPositionsY(), definition.getVertexPositionsZ())
+        }
+        return images
+    }
+
+    /**
+     * Rotates each vertex around the target of the [camera] (roll, yaw, offset, then pitch) and projects it onto the screen.
+     */
+    private fun project(camera: OffscreenCamera, xs: IntArray, ys: IntArray, zs: IntArray, vertexCount: Int) {
+        if (screenX.size < vertexCount) {
+            screenX = IntArray(vertexCount)
+            screenY = IntArray(vertexCount)
+            viewZ = IntArray(vertexCount)
+        }
+        val yawSine = Rasterizer3D.Rasterizer3D_sine[camera.yaw and 2047]
+        val yawCosine = Rasterizer3D.Rasterizer3D_cosine[camera.yaw and 2047]
+        val pitchSine = Rasterizer3D.Rasterizer3D_sine[camera.pitch and 2047]
+        val pitchCosine = Rasterizer3D.Rasterizer3D_cosine[camera.pitch and 2047]
+        val rollSine = Rasterizer3D.Rasterizer3D_sine[camera.roll and 2047]
+        val rollCosine = Rasterizer3D.Rasterizer3D_cosine[camera.roll and 2047]
+        val centerX = width / 2
+        val centerY = height / 2
+        for (vertex in 0 until vertexCount) {
+            val x = xs[vertex] - camera.targetX
+            val y = ys[vertex] - camera.targetY
+            val z = zs[vertex] - camera.targetZ
+            val rolledX = y * rollSine + x * rollCosine shr 16
+            val rolledY = (y * rollCosine - x * rollSine shr 16) + camera.offsetY
+            val rotatedX = (rolledX * yawCosine + z * yawSine shr 16) + camera.offsetX
+            val rotatedZ = (z * yawCosine - rolledX * yawSine shr 16) + camera.offsetZ
+            val rotatedY = rolledY * pitchCosine - rotatedZ * pitchSine shr 16
+            val vertexDepth = (rolledY * pitchSine + rotatedZ * pitchCosine shr 16) + camera.distance
+            viewZ[vertex] = vertexDepth
+            if (vertexDepth >= NEAR_PLANE) {
+                screenX[vertex] = centerX + rotatedX * camera.zoom / vertexDepth
+                screenY[vertex] = centerY + rotatedY * camera.zoom / vertexDepth
+            }
+        }
+    }
+
+    /**
+     * Collects the visible faces of the [model] in the [order][PainterSort.order] they should be drawn in.
+     *
+     * @return the number of visible faces.
+     */
+    private fun sortFaces(model: LitModel) : Int {
+        val definition = model.definition
+        val vertices1 = definition.getFaceVertexIndices1()
+        val vertices2 = definition.getFaceVertexIndices2()
+        val vertices3 = definition.getFaceVertexIndices3()
+        if (visibleFaces.size < model.faceCount) {
+            visibleFaces = IntArray(model.faceCount)
+            faceDepths = IntArray(model.faceCount)
+        }
+        var count = 0
+        for (face in 0 until model.faceCount) {
+            if (model.alphas[face] == INVISIBLE_ALPHA)
+                continue
+            val v1 = vertices1[face]
+            val v2 = vertices2[face]
+            val v3 = vertices3[face]
+            val z1 = viewZ[v1]
+            val z2 = viewZ[v2]
+            val z3 = viewZ[v3]
+            if (z1 < NEAR_PLANE || z2 < NEAR_PLANE || z3 < NEAR_PLANE)
+                continue
+            if (cullBackFaces && !isFrontFacing(v1, v2, v3))
+                continue
+            faceDepths[face] = (z1 + z2 + z3) / 3
+            visibleFaces[count++] = face
+        }
+        return painterSort.sort(visibleFaces, count, faceDepths, model.priorities)
+    }
+
+    private fun isFrontFacing(v1: Int, v2: Int, v3: Int) =
+        (screenX[v1] - screenX[v2]) * (screenY[v3] - screenY[v2]) -
+                (screenY[v1] - screenY[v2]) * (screenX[v3] - screenX[v2]) > 0
+
+    private fun Rasterizer3D.drawFace(model: LitModel, face: Int) {
+        val definition = model.definition
+        val v1 = definition.getFaceVertexIndices1()[face]
+        val v2 = definition.getFaceVertexIndices2()[face]
+        val v3 = definition.getFaceVertexIndices3()[face]
+        val x1 = screenX[v1]
+        val x2 = screenX[v2]
+        val x3 = screenX[v3]
+        triangleIsOutOfBounds = x1 < 0 || x2 < 0 || x3 < 0 || x1 > lastX || x2 > lastX || x3 > lastX
+        alpha = model.alphas[face]
+        drawTriangle(
+            model.renderTypes[face].toInt(),
+            x1, x2, x3,
+            screenY[v1], screenY[v2], screenY[v3],
+            viewZ[v1].toFloat(), viewZ[v2].toFloat(), viewZ[v3].toFloat(),
+            model.colors1[face], model.colors2[face], model.colors3[face]
+        )
+    }
+
+    companion object {
+
+        /**
+         * Vertices closer to the camera than this are not projected, and their faces are not drawn.
+         */
+        const val NEAR_PLANE = 50
+
+        const val BRIGHTNESS = 0.7
+
+        private const val INVISIBLE_ALPHA = 255
+    }
+}
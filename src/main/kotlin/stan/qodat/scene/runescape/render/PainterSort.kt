@@ -0,0 +1,141 @@
+package stan.qodat.scene.runescape.render
+
+/**
+ * Orders faces the way the client's painter's algorithm draws them, which determines
+ * what is visible, since the [rasterizer][stan.qodat.scene.runescape.Rasterizer3D] does not test depth.
+ *
+ * The faces are first bucketed by depth from far to near, then split by priority (keeping that order).
+ * Priorities 0 to 9 are drawn in ascending order, while the faces of priority 10 and 11 are drawn in between,
+ * before priority 0, 3 and 5 for as long as they are further away than the average depth
+ * of priority 1 and 2, 3 and 4, and 6 and 8 respectively, the rest is drawn last.
+ *
+ * Both passes are counting sorts, so faces are never compared with each other.
+ *
+ * Instances reuse their buffers and must not be used by multiple threads at once.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class PainterSort {
+
+    /**
+     * The faces in the order they should be drawn in, the number of valid entries is returned by [sort].
+     */
+    var order = IntArray(0)
+        private set
+
+    private var bucketOffsets = IntArray(0)
+    private var depthSorted = IntArray(0)
+    private var prioritySorted = IntArray(0)
+    private var prioritySortedDepths = IntArray(0)
+
+    private val priorityCounts = IntArray(PRIORITY_COUNT)
+    private val priorityOffsets = IntArray(PRIORITY_COUNT)
+    private val priorityDepthSums = IntArray(PRIORITY_COUNT)
+
+    /**
+     * Sorts the first [count] entries of [faces] into [order].
+     *
+     * @param depths     for each face (by index), its depth, a higher depth is further away.
+     * @param priorities for each face (by index), its priority from 0 to 11,
+     *                   or `null` to order the faces by depth only.
+     *
+     * @return the number of sorted faces, which is [count].
+     */
+    fun sort(faces: IntArray, count: Int, depths: IntArray, priorities: IntArray?) : Int {
+        if (order.size < count) {
+            order = IntArray(count)
+            depthSorted = IntArray(count)
+            prioritySorted = IntArray(count)
+            prioritySortedDepths = IntArray(count)
+        }
+        if (count == 0)
+            return 0
+        var minDepth = Int.MAX_VALUE
+        var maxDepth = Int.MIN_VALUE
+        for (index in 0 until count) {
+            val depth = depths[faces[index]]
+            if (depth < minDepth)
+                minDepth = depth
+            if (depth > maxDepth)
+                maxDepth = depth
+        }
+        val bucketCount = maxDepth - minDepth + 1
+        if (bucketOffsets.size < bucketCount)
+            bucketOffsets = IntArray(bucketCount)
+        bucketOffsets.fill(0, 0, bucketCount)
+        for (index in 0 until count)
+            bucketOffsets[depths[faces[index]] - minDepth]++
+        var offset = 0
+        for (bucket in bucketCount - 1 downTo 0) {
+            val size = bucketOffsets[bucket]
+            bucketOffsets[bucket] = offset
+            offset += size
+        }
+        val sorted = if (priorities == null) order else depthSorted
+        for (index in 0 until count) {
+            val face = faces[index]
+            sorted[bucketOffsets[depths[face] - minDepth]++] = face
+        }
+        if (priorities != null)
+            sortByPriority(count, depths, minDepth, priorities)
+        return count
+    }
+
+    private fun sortByPriority(count: Int, depths: IntArray, minDepth: Int, priorities: IntArray) {
+        priorityCounts.fill(0)
+        priorityDepthSums.fill(0)
+        for (index in 0 until count) {
+            val face = depthSorted[index]
+            val priority = minOf(priorities[face], PRIORITY_COUNT - 1)
+            priorityCounts[priority]++
+            priorityDepthSums[priority] += depths[face] - minDepth
+        }
+        var offset = 0
+        for (priority in 0 until PRIORITY_COUNT) {
+            priorityOffsets[priority] = offset
+            offset += priorityCounts[priority]
+        }
+        for (index in 0 until count) {
+            val face = depthSorted[index]
+            val priority = minOf(priorities[face], PRIORITY_COUNT - 1)
+            val target = priorityOffsets[priority]++
+            prioritySorted[target] = face
+            prioritySortedDepths[target] = depths[face] - minDepth
+        }
+        val averageDepth12 = averageDepth(1, 2)
+        val averageDepth34 = averageDepth(3, 4)
+        val averageDepth68 = averageDepth(6, 8)
+
+        // the faces of priority 10 are followed by those of priority 11, which is the order the client draws them in
+        var next = priorityOffsets[9]
+        val end = priorityOffsets[11]
+        var drawn = 0
+        for (priority in 0 until 10) {
+            val threshold = when (priority) {
+                0 -> averageDepth12
+                3 -> averageDepth34
+                5 -> averageDepth68
+                else -> -1
+            }
+            if (threshold != -1) {
+                while (next < end && prioritySortedDepths[next] > threshold)
+                    order[drawn++] = prioritySorted[next++]
+            }
+            val start = priorityOffsets[priority] - priorityCounts[priority]
+            for (index in start until priorityOffsets[priority])
+                order[drawn++] = prioritySorted[index]
+        }
+        while (next < end)
+            order[drawn++] = prioritySorted[next++]
+    }
+
+    private fun averageDepth(priority1: Int, priority2: Int) : Int {
+        val count = priorityCounts[priority1] + priorityCounts[priority2]
+        return if (count > 0) (priorityDepthSums[priority1] + priorityDepthSums[priority2]) / count else 0
+    }
+
+    private companion object {
+        const val PRIORITY_COUNT = 12
+    }
+}
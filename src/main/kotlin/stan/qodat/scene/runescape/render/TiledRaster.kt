@@ -0,0 +1,110 @@
+package stan.qodat.scene.runescape.render
+
+import stan.qodat.scene.runescape.Rasterizer3D
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.Future
+
+/**
+ * A raster split into tiles of [tileHeight] rows that are rasterized in parallel.
+ *
+ * Triangles are first [binned][bin] into every tile their rows overlap, in draw order,
+ * and then every tile draws its triangles in that order with a [Rasterizer3D] of its own.
+ *
+ * Tiles span the full width of the raster, because [Rasterizer3D.drawGouraudTriangle] steps colors
+ * in runs of four pixels from the left end of each scanline, clipping a scanline at a vertical tile edge
+ * would shift these runs. The tile rasterizers also set up and step every triangle over the full raster,
+ * and only skip the scanlines outside their tile (see [Rasterizer3D.setBand]),
+ * so the pixels are identical to drawing all triangles with a single [Rasterizer3D].
+ *
+ * The tiles share the pixel and depth buffers, but never write to the same rows.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class TiledRaster(
+    val width: Int,
+    val height: Int,
+    val tileHeight: Int = DEFAULT_TILE_HEIGHT,
+    brightness: Double = Rasterizer3D.DEFAULT_BRIGHTNESS,
+    private val executor: ExecutorService = ForkJoinPool.commonPool()
+) {
+
+    val pixels = IntArray(width * height)
+    private val depth = FloatArray(width * height)
+
+    val tileCount = (height + tileHeight - 1) / tileHeight
+
+    private val tiles = Array(tileCount) { tile ->
+        Rasterizer3D(1, 1).apply {
+            Rasterizer2D_replace(pixels, depth, width, height)
+            useViewport()
+            setBand(tile * tileHeight, minOf(height, (tile + 1) * tileHeight))
+            changeBrightness(brightness)
+        }
+    }
+
+    private val bins = Array(tileCount) { IntArray(INITIAL_BIN_SIZE) }
+    private val binSizes = IntArray(tileCount)
+
+    /**
+     * Clears the pixels and empties the bins.
+     */
+    fun clear() {
+        pixels.fill(0)
+        depth.fill(Float.MAX_VALUE)
+        binSizes.fill(0)
+    }
+
+    /**
+     * Adds the triangle of the [drawIndex] to every tile that overlaps the rows [minY] to [maxY] (inclusive).
+     *
+     * Triangles must be binned in the order they are to be drawn in.
+     */
+    fun bin(drawIndex: Int, minY: Int, maxY: Int) {
+        if (maxY < 0 || minY >= height)
+            return
+        val firstTile = maxOf(0, minY) / tileHeight
+        val lastTile = minOf(height - 1, maxY) / tileHeight
+        for (tile in firstTile..lastTile) {
+            var bin = bins[tile]
+            val size = binSizes[tile]
+            if (size == bin.size) {
+                bin = bin.copyOf(size * 2)
+                bins[tile] = bin
+            }
+            bin[size] = drawIndex
+            binSizes[tile] = size + 1
+        }
+    }
+
+    /**
+     * Draws the binned triangles of every tile in parallel, and waits until all tiles are drawn.
+     *
+     * @param draw draws the triangle of the given draw index into the receiving tile rasterizer,
+     *             it is called from multiple threads at once.
+     */
+    fun rasterize(draw: Rasterizer3D.(drawIndex: Int) -> Unit) {
+        val futures = ArrayList<Future<*>>(tileCount)
+        for (tile in 0 until tileCount) {
+            if (binSizes[tile] == 0)
+                continue
+            futures += executor.submit {
+                val rasterizer = tiles[tile]
+                val bin = bins[tile]
+                for (index in 0 until binSizes[tile])
+                    rasterizer.draw(bin[index])
+                rasterizer.alpha = 0
+            }
+        }
+        for (future in futures)
+            future.get()
+    }
+
+    companion object {
+
+        const val DEFAULT_TILE_HEIGHT = 32
+
+        private const val INITIAL_BIN_SIZE = 256
+    }
+}
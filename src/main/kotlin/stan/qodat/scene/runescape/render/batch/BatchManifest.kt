@@ -0,0 +1,44 @@
+package stan.qodat.scene.runescape.render.batch
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Records the [ids][RenderJob.id] of completed jobs in a text file, one per line,
+ * so that a batch that was cancelled or interrupted can be resumed without rendering those jobs again.
+ *
+ * A job is only recorded after its output was moved into place, and every record is written through to the disk.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class BatchManifest(private val file: Path) {
+
+    private val completed = HashSet<String>()
+
+    init {
+        if (Files.exists(file)) {
+            val text = Files.readString(file)
+            text.lineSequence().filterTo(completed) { it.isNotBlank() }
+            // a line cut off by a crash is not an id, make sure the next record starts on a line of its own
+            if (text.isNotEmpty() && !text.endsWith('\n'))
+                append("")
+        }
+    }
+
+    @Synchronized
+    fun isCompleted(job: RenderJob) = job.id in completed
+
+    @Synchronized
+    fun markCompleted(job: RenderJob) {
+        if (completed.add(job.id))
+            append(job.id)
+    }
+
+    private fun append(line: String) {
+        Files.createDirectories(file.parent)
+        Files.writeString(file, line + "\n",
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC)
+    }
+}
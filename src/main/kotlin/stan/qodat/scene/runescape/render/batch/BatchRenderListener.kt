@@ -0,0 +1,27 @@
+package stan.qodat.scene.runescape.render.batch
+
+/**
+ * Receives the progress of a [BatchRenderer].
+ *
+ * Methods are called on the worker threads of the renderer, so implementations must be thread-safe,
+ * and should hand off to the JavaFX application thread themselves if they update the UI.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+interface BatchRenderListener {
+
+    fun onJobStarted(job: RenderJob) {}
+
+    fun onFrameRendered(job: RenderJob, frameIndex: Int, frameCount: Int) {}
+
+    /**
+     * Called after the output of the [job] was moved into place and recorded in the manifest.
+     *
+     * @param completed the number of completed jobs of the batch, including skipped jobs.
+     * @param total     the number of jobs in the batch.
+     */
+    fun onJobCompleted(job: RenderJob, completed: Int, total: Int) {}
+
+    fun onJobFailed(job: RenderJob, exception: Exception) {}
+}
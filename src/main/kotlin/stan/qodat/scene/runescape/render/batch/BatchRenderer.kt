@@ -0,0 +1,255 @@
+package stan.qodat.scene.runescape.render.batch
+
+import qodat.animation.AnimationBounds
+import qodat.animation.AnimationEvaluator
+import qodat.animation.AnimationSequence
+import qodat.cache.Cache
+import qodat.cache.definition.ModelDefinition
+import qodat.cache.models.RS2ModelBuilder
+import stan.qodat.cache.impl.oldschool.OldschoolCacheRuneLite
+import stan.qodat.scene.control.export.gif.encoder.DisposalMethod
+import stan.qodat.scene.control.export.gif.encoder.GifEncoder
+import stan.qodat.scene.control.export.gif.encoder.ImageOptions
+import stan.qodat.scene.runescape.render.LitModel
+import stan.qodat.scene.runescape.render.OffscreenImage
+import stan.qodat.scene.runescape.render.OffscreenRenderer
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+import kotlin.system.exitProcess
+
+/**
+ * Renders batches of [RenderJob]s with the [OffscreenRenderer] on [workers] threads, without a display.
+ *
+ * The output of each job is written to a temporary location in the [outputDirectory] first,
+ * and moved to `outputDirectory/<job id>` once complete, so an output is never seen half-written.
+ * Completed jobs are recorded in a [BatchManifest] in the [outputDirectory],
+ * running a batch again (e.g. after [cancel]) skips the jobs that were completed before.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class BatchRenderer(
+    private val cache: Cache,
+    private val outputDirectory: Path,
+    private val workers: Int = maxOf(1, Runtime.getRuntime().availableProcessors() - 1),
+    private val listener: BatchRenderListener = object : BatchRenderListener {}
+) {
+
+    val manifest = BatchManifest(outputDirectory.resolve(MANIFEST_NAME))
+
+    private val partialDirectory = outputDirectory.resolve(PARTIAL_DIRECTORY_NAME)
+    private val textureColors = LitModel.textureColorsOf(cache)
+    private val cancelled = AtomicBoolean()
+
+    /**
+     * Renders the [jobs] that are not yet completed according to the [manifest], blocks until all are done,
+     * or until the batch is [cancelled][cancel] (the job a worker is rendering is then abandoned).
+     *
+     * @return the number of jobs that failed.
+     */
+    fun run(jobs: List<RenderJob>) : Int {
+        cancelled.set(false)
+        val queue = ConcurrentLinkedQueue<RenderJob>()
+        val completed = AtomicInteger()
+        for (job in jobs) {
+            if (manifest.isCompleted(job))
+                completed.incrementAndGet()
+            else
+                queue.add(job)
+        }
+        val failed = AtomicInteger()
+        val latch = CountDownLatch(workers)
+        repeat(workers) { index ->
+            thread(name = "batch-renderer-$index", isDaemon = true) {
+                try {
+                    val renderers = HashMap<CameraPreset, OffscreenRenderer>()
+                    while (!cancelled.get()) {
+                        val job = queue.poll() ?: break
+                        listener.onJobStarted(job)
+                        try {
+                            val renderer = renderers.getOrPut(job.camera) {
+                                OffscreenRenderer(job.camera.width, job.camera.height)
+                            }
+                            if (render(job, renderer)) {
+                                manifest.markCompleted(job)
+                                listener.onJobCompleted(job, completed.incrementAndGet(), jobs.size)
+                            }
+                        } catch (e: Exception) {
+                            failed.incrementAndGet()
+                            listener.onJobFailed(job, e)
+                        }
+                    }
+                } finally {
+                    latch.countDown()
+                }
+            }
+        }
+        latch.await()
+        return failed.get()
+    }
+
+    /**
+     * Stops the batch that is running, the workers abandon the jobs they are rendering.
+     */
+    fun cancel() {
+        cancelled.set(true)
+    }
+
+    /**
+     * @return `true` if the output of the [job] was moved into place, `false` if the batch was cancelled.
+     */
+    private fun render(job: RenderJob, renderer: OffscreenRenderer) : Boolean {
+        val definition = loadModel(job)
+        val sequence = AnimationSequence.load(synchronized(cache) { cache.getAnimation(job.animationId) }, cache)
+        val bounds = AnimationBounds.compute(listOf(definition), sequence)
+        val camera = job.camera.createCamera(bounds.union)
+        val model = LitModel(LitModel.recolor(definition, job.entity.findColor, job.entity.replaceColor), textureColors)
+        val evaluator = AnimationEvaluator(definition)
+
+        Files.createDirectories(partialDirectory)
+        val partial = Files.createTempFile(partialDirectory, job.entityKey, ".partial")
+        try {
+            val writer = when (job.format) {
+                RenderFormat.PNG_SEQUENCE -> {
+                    Files.delete(partial)
+                    Files.createDirectory(partial)
+                    PngSequenceWriter(partial)
+                }
+                RenderFormat.GIF -> GifWriter(partial, job.camera.width, job.camera.height)
+            }
+            writer.use {
+                for (frameIndex in 0 until sequence.frameCount) {
+                    if (cancelled.get())
+                        return false
+                    val deformer = evaluator.evaluateFrame(sequence, frameIndex)
+                    val image = renderer.render(model, camera, deformer.positionsX, deformer.positionsY, deformer.positionsZ)
+                    it.write(frameIndex, image, sequence.getFrame(frameIndex).duration * AnimationSequence.TICK_MILLIS)
+                    listener.onFrameRendered(job, frameIndex, sequence.frameCount)
+                }
+            }
+            val output = outputDirectory.resolve(job.id)
+            Files.createDirectories(output.parent)
+            if (Files.isDirectory(output))
+                deleteRecursively(output)
+            Files.move(partial, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+            return true
+        } finally {
+            if (Files.exists(partial))
+                deleteRecursively(partial)
+        }
+    }
+
+    private fun loadModel(job: RenderJob) : ModelDefinition {
+        val definitions = synchronized(cache) {
+            job.entity.modelIds.map { cache.getModelDefinition(it) }
+        }
+        return if (definitions.size == 1)
+            definitions.first()
+        else
+            RS2ModelBuilder(*definitions.toTypedArray()).build()
+    }
+
+    private fun deleteRecursively(path: Path) {
+        Files.walk(path).use { paths ->
+            paths.sorted(Comparator.reverseOrder()).forEach { Files.deleteIfExists(it) }
+        }
+    }
+
+    private interface FrameWriter : AutoCloseable {
+        fun write(frameIndex: Int, image: OffscreenImage, durationMillis: Long)
+    }
+
+    private class PngSequenceWriter(private val directory: Path) : FrameWriter {
+        override fun write(frameIndex: Int, image: OffscreenImage, durationMillis: Long) {
+            image.writePng(directory.resolve("%04d.png".format(frameIndex)).toFile())
+        }
+
+        override fun close() {}
+    }
+
+    /**
+     * Pixels that were not drawn to are black (see [OffscreenImage]), which is used as the transparent color.
+     */
+    private class GifWriter(file: Path, private val width: Int, height: Int) : FrameWriter {
+
+        private val output = Files.newOutputStream(file)
+        private val encoder = GifEncoder(output, width, height, 0)
+
+        override fun write(frameIndex: Int, image: OffscreenImage, durationMillis: Long) {
+            val options = ImageOptions()
+                .setDelay(durationMillis, TimeUnit.MILLISECONDS)
+                .setTransparencyColor(0)
+                .setDisposalMethod(DisposalMethod.RESTORE_TO_BACKGROUND)
+            encoder.addImage(image.pixels, width, options)
+        }
+
+        override fun close() {
+            try {
+                encoder.finishEncoding()
+            } finally {
+                output.close()
+            }
+        }
+    }
+
+    companion object {
+
+        const val MANIFEST_NAME = "manifest.txt"
+        private const val PARTIAL_DIRECTORY_NAME = ".partial"
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 10L
+
+        /**
+         * Renders every animation of the NPCs with the specified ids from the old school cache,
+         * from the front as PNG sequences.
+         *
+         * Usage: `<output directory> <npc id>...`, runs until done or interrupted (e.g. ctrl+c),
+         * running it again resumes from the manifest in the output directory.
+         */
+        @JvmStatic
+        fun main(args: Array<String>) {
+            if (args.size < 2) {
+                System.err.println("Usage: <output directory> <npc id>...")
+                exitProcess(2)
+            }
+            val npcIds = args.drop(1).mapNotNull { it.toIntOrNull() }.toSet()
+            val npcs = OldschoolCacheRuneLite.getNPCs().filter {
+                val id = it.getOptionalId()
+                id.isPresent && id.asInt in npcIds
+            }
+            val jobs = RenderJob.forEntities(npcs, CameraPreset.FRONT, RenderFormat.PNG_SEQUENCE)
+            val renderer = BatchRenderer(OldschoolCacheRuneLite, Paths.get(args[0]), listener = object : BatchRenderListener {
+                override fun onJobCompleted(job: RenderJob, completed: Int, total: Int) =
+                    println("[$completed/$total] rendered $job")
+
+                override fun onJobFailed(job: RenderJob, exception: Exception) {
+                    System.err.println("Failed to render $job")
+                    exception.printStackTrace()
+                }
+            })
+            // when interrupted, let the workers abandon their jobs (and delete their partial output) before exiting
+            val finished = CountDownLatch(1)
+            Runtime.getRuntime().addShutdownHook(thread(start = false) {
+                renderer.cancel()
+                finished.await(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            })
+            val failed = try {
+                renderer.run(jobs)
+            } catch (e: IOException) {
+                e.printStackTrace()
+                -1
+            } finally {
+                finished.countDown()
+            }
+            exitProcess(if (failed == 0) 0 else 1)
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package stan.qodat.scene.runescape.render.batch
+
+import qodat.animation.PoseBounds
+import stan.qodat.scene.runescape.render.OffscreenCamera
+
+/**
+ * The size of the images of a [RenderJob] and the angle its entity is rendered from.
+ *
+ * The camera is framed on the bounds of every frame of the animation,
+ * so the entity stays in view and does not move between frames.
+ *
+ * @see OffscreenCamera for the units of the angles.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+data class CameraPreset(
+    val name: String,
+    val width: Int,
+    val height: Int,
+    val yaw: Int = 0,
+    val pitch: Int = OffscreenCamera.DEFAULT_PITCH,
+    val zoom: Int = OffscreenCamera.DEFAULT_ZOOM
+) {
+
+    /**
+     * Creates a camera with this preset, looking at the centre of the [bounds].
+     */
+    fun createCamera(bounds: PoseBounds) =
+        OffscreenCamera.framing(bounds, width, height, yaw = yaw, pitch = pitch, zoom = zoom)
+
+    companion object {
+        val FRONT = CameraPreset("front", 256, 256)
+        val SIDE = CameraPreset("side", 256, 256, yaw = 512)
+        val BACK = CameraPreset("back", 256, 256, yaw = 1024)
+    }
+}
@@ -0,0 +1,22 @@
+package stan.qodat.scene.runescape.render.batch
+
+/**
+ * The format a [RenderJob] writes the frames of its animation in.
+ *
+ * @param extension the extension of the output, or `null` if the output is a directory.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+enum class RenderFormat(val extension: String?) {
+
+    /**
+     * A directory with a PNG per frame, named by the index of the frame.
+     */
+    PNG_SEQUENCE(null),
+
+    /**
+     * An animated GIF, showing each frame for its duration, pixels that were not drawn to are transparent.
+     */
+    GIF("gif")
+}
@@ -0,0 +1,55 @@
+package stan.qodat.scene.runescape.render.batch
+
+import qodat.cache.definition.AnimatedEntityDefinition
+import qodat.cache.definition.EntityDefinition
+
+/**
+ * A request to render every frame of the animation with [animationId] applied to the [entity],
+ * with the [camera] preset, in the [format].
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class RenderJob(
+    val entity: EntityDefinition,
+    val animationId: String,
+    val camera: CameraPreset,
+    val format: RenderFormat
+) {
+
+    /**
+     * The name of the directory the output of the jobs of the [entity] is written to,
+     * the id of the entity if it has one, otherwise its name.
+     */
+    val entityKey: String = entity.getOptionalId().let {
+        if (it.isPresent) it.asInt.toString() else sanitize(entity.name)
+    }
+
+    /**
+     * Identifies this job in the [BatchManifest], also the path of its output relative to the output directory.
+     */
+    val id: String = "$entityKey/${sanitize(animationId)}-${sanitize(camera.name)}" +
+            (format.extension?.let { ".$it" } ?: "")
+
+    override fun toString() = "${entity.name} ($id)"
+
+    companion object {
+
+        /**
+         * Creates a job for every animation of the [entity].
+         */
+        fun forEntity(entity: AnimatedEntityDefinition, camera: CameraPreset, format: RenderFormat) =
+            entity.animationIds
+                .filter { it != "-1" }
+                .distinct()
+                .map { RenderJob(entity, it, camera, format) }
+
+        /**
+         * Creates a job for every animation of each of the [entities].
+         */
+        fun forEntities(entities: Iterable<AnimatedEntityDefinition>, camera: CameraPreset, format: RenderFormat) =
+            entities.flatMap { forEntity(it, camera, format) }
+
+        private fun sanitize(name: String) = name.replace(Regex("[^A-Za-z0-9_.-]"), "_")
+    }
+}
@@ -5,6 +5,7 @@ import javafx.animation.KeyFrame
 import javafx.animation.KeyValue
 import javafx.animation.Timeline
 import javafx.beans.InvalidationListener
+import javafx.beans.property.ReadOnlyObjectProperty
 import javafx.beans.property.SimpleBooleanProperty
 import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.property.SimpleObjectProperty
@@ -61,6 +62,12 @@ open class TransformationTimer<R : Transformer<*>> {
      */
     val frameIndexProperty = SimpleIntegerProperty()
 
+    /**
+     * Holds the status of the [timeline], [Animation.Status.RUNNING] while playing.
+     */
+    val statusProperty: ReadOnlyObjectProperty<Animation.Status>
+        get() = timeline.statusProperty()
+
     private val onFrameChangeEvent = EventHandler<ActionEvent> {
         frameRateMeasurer.measure(System.nanoTime()).ifPresent { fps ->
             frameRateProperty.set(String.format("FPS: %d", fps))
@@ -17,7 +17,7 @@ import stan.qodat.Qodat
 import stan.qodat.event.SelectedTabChangeEvent
 import stan.qodat.scene.control.SplitSceneDividerDragRegion
 import stan.qodat.scene.paint.ColorMaterial
-import stan.qodat.scene.paint.TextureMaterial
+import stan.qodat.scene.paint.TextureCache
 import stan.qodat.scene.provider.TreeItemProvider
 import stan.qodat.scene.shape.PolygonMeshView
 
@@ -174,13 +174,8 @@ fun ModelDefinition.getMaterial(face: Int, cache: Cache): stan.qodat.scene.paint
     val faceTexture = getFaceTextures()
         ?.getOrNull(face)?.toInt()
         ?.takeIf { textureId -> textureId != -1 }
-        ?.let { cache.getTexture(it) }
-    if (faceTexture != null) {
-        val textureMaterial = TextureMaterial(faceTexture)
-        if (textureMaterial.load())
-            return textureMaterial
-    }
-    return ColorMaterial(faceColor, faceAlpha)
+        ?.let { TextureCache.get(it, cache) }
+    return faceTexture ?: ColorMaterial(faceColor, faceAlpha)
 }
 
 fun Searchable.formatName() = getName().let {
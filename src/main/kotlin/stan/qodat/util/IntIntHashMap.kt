@@ -0,0 +1,111 @@
+package stan.qodat.util
+
+/**
+ * A hash map from non-negative int keys to int values using open addressing (linear probing),
+ * so that neither keys nor values are boxed.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class IntIntHashMap(expectedSize: Int = 16) {
+
+    private var keys: IntArray
+    private var values: IntArray
+    private var mask: Int
+
+    var size = 0
+        private set
+
+    init {
+        val capacity = capacityFor(expectedSize)
+        keys = IntArray(capacity) { EMPTY }
+        values = IntArray(capacity)
+        mask = capacity - 1
+    }
+
+    /**
+     * @return the value of the [key], or [defaultValue] if there is no mapping for the [key].
+     */
+    fun get(key: Int, defaultValue: Int = -1) : Int {
+        var slot = mix(key) and mask
+        while (true) {
+            val existing = keys[slot]
+            if (existing == key)
+                return values[slot]
+            if (existing == EMPTY)
+                return defaultValue
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Maps the [key] to the [value], replacing any previous mapping.
+     */
+    fun put(key: Int, value: Int) {
+        require(key >= 0) { "Keys must be non-negative but was $key" }
+        var slot = mix(key) and mask
+        while (true) {
+            val existing = keys[slot]
+            if (existing == key) {
+                values[slot] = value
+                return
+            }
+            if (existing == EMPTY) {
+                keys[slot] = key
+                values[slot] = value
+                if (++size * 2 > keys.size)
+                    grow()
+                return
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * @return the value of the [key], or maps the [key] to [size] and returns that,
+     *         which assigns consecutive indices to distinct keys.
+     */
+    fun getOrPutIndex(key: Int) : Int {
+        val existing = get(key)
+        if (existing != -1)
+            return existing
+        val index = size
+        put(key, index)
+        return index
+    }
+
+    fun clear() {
+        keys.fill(EMPTY)
+        size = 0
+    }
+
+    private fun grow() {
+        val oldKeys = keys
+        val oldValues = values
+        keys = IntArray(oldKeys.size * 2) { EMPTY }
+        values = IntArray(oldKeys.size * 2)
+        mask = keys.size - 1
+        size = 0
+        for (slot in oldKeys.indices) {
+            if (oldKeys[slot] != EMPTY)
+                put(oldKeys[slot], oldValues[slot])
+        }
+    }
+
+    private companion object {
+
+        const val EMPTY = -1
+
+        fun capacityFor(expectedSize: Int) : Int {
+            var capacity = 16
+            while (capacity < expectedSize * 2)
+                capacity = capacity shl 1
+            return capacity
+        }
+
+        fun mix(key: Int) : Int {
+            val hash = key * -0x61c88647
+            return hash xor (hash ushr 16)
+        }
+    }
+}
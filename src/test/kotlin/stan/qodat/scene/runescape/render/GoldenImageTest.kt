@@ -0,0 +1,202 @@
+package stan.qodat.scene.runescape.render
+
+import qodat.animation.AnimationEvaluator
+import qodat.animation.AnimationKeyFrame
+import qodat.animation.AnimationSequence
+import qodat.animation.PoseBounds
+import qodat.cache.models.RSModelLoader
+import java.awt.image.BufferedImage
+import java.io.File
+import java.util.*
+import javax.imageio.ImageIO
+import kotlin.math.abs
+import kotlin.test.Test
+import kotlin.test.assertNotNull
+import kotlin.test.fail
+
+/**
+ * Renders a fixed corpus of models with the [OffscreenRenderer] and compares each render to a committed golden image,
+ * so that changes to the renderer (e.g. [Rasterizer3D][stan.qodat.scene.runescape.Rasterizer3D]) which alter its output
+ * do not go unnoticed.
+ *
+ * Each fixture is a directory in `golden`, next to this class in the test resources:
+ * - `model.dat`, the model in the binary format of the cache (the committed models are synthetic).
+ * - `fixture.properties`, the `width`, `height`, `yaw`, `pitch` and `zoom` of the render,
+ *   and optionally the `tolerance` of each color channel and the number of `maxMismatches` pixels allowed to exceed it.
+ * - `expected.png`, the golden image.
+ *
+ * A fixture can be rendered in the pose of a synthetic [AnimationKeyFrame], e.g. [SPHERE_POSE].
+ *
+ * The renderer only uses integer arithmetic, so the renders are expected to be identical on every platform,
+ * the [DEFAULT_TOLERANCE] only absorbs rounding changes of the lighting.
+ * For each fixture that fails, the `actual.png` and a `diff.png` (mismatching pixels in red)
+ * are written to `build/golden/<fixture>`, an intended change is accepted by copying the `actual.png` over the golden image.
+ * The median render time of each fixture is written to `build/golden/timings.csv`.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class GoldenImageTest {
+
+    @Test
+    fun sphere() = check("sphere")
+
+    @Test
+    fun flatBox() = check("flat_box")
+
+    @Test
+    fun transparentPlanes() = check("transparent_planes")
+
+    @Test
+    fun terrain() = check("terrain")
+
+    @Test
+    fun posedSphere() = check("posed_sphere", SPHERE_POSE)
+
+    private fun check(fixture: String, pose: AnimationKeyFrame? = null) {
+        val settings = Properties()
+        resource(fixture, SETTINGS_FILE)?.use { settings.load(it) }
+        fun setting(key: String, default: Int) = settings.getProperty(key)?.trim()?.toInt() ?: default
+
+        val width = setting("width", DEFAULT_SIZE)
+        val height = setting("height", DEFAULT_SIZE)
+        val data = assertNotNull(resource(fixture, MODEL_FILE), "Missing $MODEL_FILE of fixture $fixture").use { it.readBytes() }
+        val definition = RSModelLoader().load(fixture, data)
+        val positions = if (pose == null)
+            arrayOf(definition.getVertexPositionsX(), definition.getVertexPositionsY(), definition.getVertexPositionsZ())
+        else
+            AnimationEvaluator(definition).evaluateFrame(AnimationSequence(listOf(pose)), 0)
+                .let { arrayOf(it.positionsX, it.positionsY, it.positionsZ) }
+        val (xs, ys, zs) = positions
+        val bounds = PoseBounds.of(xs, ys, zs, definition.getVertexCount())
+        val camera = OffscreenCamera.framing(
+            bounds,
+            width,
+            height,
+            yaw = setting("yaw", 0),
+            pitch = setting("pitch", OffscreenCamera.DEFAULT_PITCH),
+            zoom = setting("zoom", OffscreenCamera.DEFAULT_ZOOM)
+        )
+        val renderer = OffscreenRenderer(width, height)
+        val model = LitModel(definition)
+        val timings = LongArray(TIMED_RENDERS)
+        lateinit var rendered: OffscreenImage
+        for (index in timings.indices) {
+            val start = System.nanoTime()
+            rendered = renderer.render(model, camera, xs, ys, zs)
+            timings[index] = System.nanoTime() - start
+        }
+        recordTiming(fixture, width, height, timings)
+        val actual = rendered.toArgb()
+
+        val expected = resource(fixture, EXPECTED_FILE)?.use { ImageIO.read(it) }
+        val output = File(OUTPUT_DIRECTORY, fixture)
+        if (expected == null || expected.width != width || expected.height != height) {
+            output.mkdirs()
+            writePng(File(output, "actual.png"), actual, width, height)
+            fail("Fixture $fixture has no $EXPECTED_FILE of ${width}x$height, the render was written to $output")
+        }
+        val diff = IntArray(actual.size)
+        val mismatches = compare(
+            expected.getRGB(0, 0, width, height, null, 0, width),
+            actual,
+            setting("tolerance", DEFAULT_TOLERANCE),
+            diff
+        )
+        val maxMismatches = setting("maxMismatches", 0)
+        if (mismatches > maxMismatches) {
+            output.mkdirs()
+            writePng(File(output, "actual.png"), actual, width, height)
+            writePng(File(output, "diff.png"), diff, width, height)
+            fail("Fixture $fixture differs in $mismatches pixels (at most $maxMismatches allowed), see $output")
+        }
+    }
+
+    /**
+     * Counts the pixels of which the alpha differs, or any color channel differs by more than the [tolerance],
+     * and marks them in the [diff], on top of the [expected] image at a quarter of its brightness.
+     */
+    private fun compare(expected: IntArray, actual: IntArray, tolerance: Int, diff: IntArray) : Int {
+        var mismatches = 0
+        for (index in expected.indices) {
+            val expectedPixel = expected[index]
+            val actualPixel = actual[index]
+            val matches = expectedPixel ushr 24 == actualPixel ushr 24 &&
+                    abs((expectedPixel shr 16 and 0xFF) - (actualPixel shr 16 and 0xFF)) <= tolerance &&
+                    abs((expectedPixel shr 8 and 0xFF) - (actualPixel shr 8 and 0xFF)) <= tolerance &&
+                    abs((expectedPixel and 0xFF) - (actualPixel and 0xFF)) <= tolerance
+            if (matches)
+                diff[index] = (0xFF shl 24) or (expectedPixel shr 2 and 0x3F3F3F)
+            else {
+                diff[index] = DIFF_COLOR
+                mismatches++
+            }
+        }
+        return mismatches
+    }
+
+    /**
+     * Writes the median of the [timings] of the [fixture] to the [TIMINGS_FILE], replacing its previous row.
+     */
+    private fun recordTiming(fixture: String, width: Int, height: Int, timings: LongArray) {
+        timings.sort()
+        val row = "$fixture,$width,$height,${timings.size},${timings[timings.size / 2] / 1_000}"
+        val file = File(OUTPUT_DIRECTORY, TIMINGS_FILE)
+        synchronized(GoldenImageTest) {
+            file.parentFile.mkdirs()
+            val rows = if (file.exists()) file.readLines().drop(1).filter { !it.startsWith("$fixture,") } else emptyList()
+            file.writeText((listOf(TIMINGS_HEADER) + (rows + row).sorted()).joinToString("\n", postfix = "\n"))
+        }
+    }
+
+    private fun resource(fixture: String, file: String) =
+        GoldenImageTest::class.java.getResourceAsStream("$FIXTURE_DIRECTORY/$fixture/$file")
+
+    private fun writePng(file: File, argb: IntArray, width: Int, height: Int) {
+        val image = BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+        image.setRGB(0, 0, width, height, argb, 0, width)
+        ImageIO.write(image, "png", file)
+    }
+
+    private companion object {
+
+        /**
+         * The maximum difference of a color channel of a pixel before it counts as a mismatch.
+         */
+        const val DEFAULT_TOLERANCE = 2
+
+        const val DEFAULT_SIZE = 128
+        const val DIFF_COLOR = 0xFFFF0000.toInt()
+
+        const val FIXTURE_DIRECTORY = "golden"
+        const val OUTPUT_DIRECTORY = "build/golden"
+
+        const val MODEL_FILE = "model.dat"
+        const val SETTINGS_FILE = "fixture.properties"
+        const val EXPECTED_FILE = "expected.png"
+
+        const val TIMINGS_FILE = "timings.csv"
+        const val TIMINGS_HEADER = "fixture,width,height,renders,median_micros"
+
+        /**
+         * The number of times each fixture is rendered, the first renders include the warm-up of the JIT.
+         */
+        const val TIMED_RENDERS = 9
+
+        /**
+         * Poses the `posed_sphere` fixture, which is the `sphere` of which every vertex is in the group
+         * of its octant (bit 0 set for x >= 0, bit 1 for y >= 0 and bit 2 for z >= 0).
+         * The lower half (y >= 0) is rolled around its centre and the right half (x >= 0) is moved to the right.
+         */
+        val SPHERE_POSE = AnimationKeyFrame(
+            duration = 1,
+            skeletonId = 0,
+            transformGroupIndices = intArrayOf(0, 1, 2),
+            transformTypes = intArrayOf(AnimationKeyFrame.SET_OFFSET, AnimationKeyFrame.ROTATE, AnimationKeyFrame.TRANSLATE),
+            targetVertexGroups = arrayOf(intArrayOf(2, 3, 6, 7), intArrayOf(2, 3, 6, 7), intArrayOf(1, 3, 5, 7)),
+            deltaX = intArrayOf(0, 0, 40),
+            deltaY = intArrayOf(0, 0, 0),
+            deltaZ = intArrayOf(0, 32, 0)
+        )
+    }
+}
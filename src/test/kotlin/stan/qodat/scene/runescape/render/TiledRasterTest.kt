@@ -0,0 +1,72 @@
+package stan.qodat.scene.runescape.render
+
+import qodat.animation.PoseBounds
+import qodat.cache.models.RSModelLoader
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+/**
+ * Checks that a [parallel][OffscreenRenderer.parallel] renderer produces the same pixels as a serial renderer,
+ * using the serial render as the golden image.
+ *
+ * Every model of the [GoldenImageTest] fixtures is rendered from [YAWS] different angles,
+ * at a size that spans many tiles of the [TiledRaster] and does not divide into whole tiles.
+ *
+ * @author  Stan van der Bend (https://www.rune-server.ee/members/StanDev/)
+ * @since   18/10/2026
+ */
+class TiledRasterTest {
+
+    @Test
+    fun parallelRenderMatchesSerialRender() {
+        val serial = OffscreenRenderer(WIDTH, HEIGHT)
+        val parallel = OffscreenRenderer(WIDTH, HEIGHT, parallel = true)
+        for (fixture in FIXTURES) {
+            val data = GoldenImageTest::class.java.getResourceAsStream("golden/$fixture/model.dat")
+            val definition = RSModelLoader().load(fixture, assertNotNull(data, "Missing model of fixture $fixture").use { it.readBytes() })
+            val model = LitModel(definition)
+            val bounds = PoseBounds.of(
+                definition.getVertexPositionsX(),
+                definition.getVertexPositionsY(),
+                definition.getVertexPositionsZ(),
+                definition.getVertexCount()
+            )
+            for (yaw in 0 until 2048 step 2048 / YAWS) {
+                val camera = OffscreenCamera.framing(bounds, WIDTH, HEIGHT, yaw = yaw)
+                val expected = serial.render(model, camera)
+                val actual = parallel.render(model, camera)
+                assertTrue(expected.pixels.any { it != 0 }, "Fixture $fixture at yaw $yaw rendered nothing")
+                assertEquals(0, countMismatches(expected, actual), "Fixture $fixture at yaw $yaw differs in pixels")
+            }
+        }
+    }
+
+    /**
+     * Counts the pixels that differ between the [expected] and the [actual] image.
+     */
+    private fun countMismatches(expected: OffscreenImage, actual: OffscreenImage) : Int {
+        assertEquals(expected.width, actual.width)
+        assertEquals(expected.height, actual.height)
+        var mismatches = 0
+        for (index in expected.pixels.indices) {
+            if (expected.pixels[index] != actual.pixels[index])
+                mismatches++
+        }
+        return mismatches
+    }
+
+    private companion object {
+
+        /**
+         * The height is not a multiple of [TiledRaster.DEFAULT_TILE_HEIGHT], so the last tile is partial.
+         */
+        const val WIDTH = 800
+        const val HEIGHT = 601
+
+        const val YAWS = 8
+
+        val FIXTURES = listOf("sphere", "flat_box", "transparent_planes", "terrain")
+    }
+}